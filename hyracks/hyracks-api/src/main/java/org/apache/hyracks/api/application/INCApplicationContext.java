@@ -18,6 +18,8 @@
  */
 package org.apache.hyracks.api.application;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.hyracks.api.context.IHyracksRootContext;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponentManager;
 import org.apache.hyracks.api.resources.memory.IMemoryManager;
@@ -71,6 +73,22 @@ public interface INCApplicationContext extends IApplicationContext {
      */
     public IMemoryManager getMemoryManager();
 
+    /**
+     * Get the bounded fork/join pool of the Node Controller, shared by the operators that split their own work
+     * into parallel tasks.
+     * 
+     * @return Compute Thread Pool
+     */
+    public ForkJoinPool getComputeThreadPool();
+
+    /**
+     * Get the name of the page replacement strategy that the buffer caches of the application should use, as
+     * configured for the Node Controller.
+     * 
+     * @return Page Replacement Strategy Name
+     */
+    public String getBufferCachePageReplacement();
+
     /**
      * Set the handler for state dumps.
      * 
@@ -22,10 +22,12 @@ import java.io.Serializable;
 import java.net.URL;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.hyracks.api.dataset.DatasetDirectoryRecord;
 import org.apache.hyracks.api.dataset.ResultSetId;
 import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.JobFlag;
 import org.apache.hyracks.api.job.JobId;
 
@@ -45,7 +47,10 @@ public class HyracksClientInterfaceFunctions {
         GET_NODE_CONTROLLERS_INFO,
         CLI_DEPLOY_BINARY,
         CLI_UNDEPLOY_BINARY,
-        CLUSTER_SHUTDOWN
+        CLUSTER_SHUTDOWN,
+        DEPLOY_JOB_SPEC,
+        START_DEPLOYED_JOB,
+        UNDEPLOY_JOB_SPEC
     }
 
     public abstract static class Function implements Serializable {
@@ -285,6 +290,81 @@ public class HyracksClientInterfaceFunctions {
         }
     }
 
+    public static class DeployJobSpecFunction extends Function {
+        private static final long serialVersionUID = 1L;
+
+        private final DeploymentId deploymentId;
+        private final byte[] acggfBytes;
+        private final EnumSet<JobFlag> jobFlags;
+
+        public DeployJobSpecFunction(DeploymentId deploymentId, byte[] acggfBytes, EnumSet<JobFlag> jobFlags) {
+            this.deploymentId = deploymentId;
+            this.acggfBytes = acggfBytes;
+            this.jobFlags = jobFlags;
+        }
+
+        @Override
+        public FunctionId getFunctionId() {
+            return FunctionId.DEPLOY_JOB_SPEC;
+        }
+
+        public DeploymentId getDeploymentId() {
+            return deploymentId;
+        }
+
+        public byte[] getACGGFBytes() {
+            return acggfBytes;
+        }
+
+        public EnumSet<JobFlag> getJobFlags() {
+            return jobFlags;
+        }
+    }
+
+    public static class StartDeployedJobFunction extends Function {
+        private static final long serialVersionUID = 1L;
+
+        private final DeployedJobSpecId deployedJobSpecId;
+        private final Map<String, byte[]> jobParameters;
+
+        public StartDeployedJobFunction(DeployedJobSpecId deployedJobSpecId, Map<String, byte[]> jobParameters) {
+            this.deployedJobSpecId = deployedJobSpecId;
+            this.jobParameters = jobParameters;
+        }
+
+        @Override
+        public FunctionId getFunctionId() {
+            return FunctionId.START_DEPLOYED_JOB;
+        }
+
+        public DeployedJobSpecId getDeployedJobSpecId() {
+            return deployedJobSpecId;
+        }
+
+        public Map<String, byte[]> getJobParameters() {
+            return jobParameters;
+        }
+    }
+
+    public static class UndeployJobSpecFunction extends Function {
+        private static final long serialVersionUID = 1L;
+
+        private final DeployedJobSpecId deployedJobSpecId;
+
+        public UndeployJobSpecFunction(DeployedJobSpecId deployedJobSpecId) {
+            this.deployedJobSpecId = deployedJobSpecId;
+        }
+
+        @Override
+        public FunctionId getFunctionId() {
+            return FunctionId.UNDEPLOY_JOB_SPEC;
+        }
+
+        public DeployedJobSpecId getDeployedJobSpecId() {
+            return deployedJobSpecId;
+        }
+    }
+
     public static class ClusterShutdownFunction extends Function {
         private static final long serialVersionUID = 1L;
 
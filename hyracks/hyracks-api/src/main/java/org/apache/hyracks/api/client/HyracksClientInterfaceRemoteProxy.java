@@ -25,6 +25,7 @@ import java.util.Map;
 
 import org.apache.hyracks.api.comm.NetworkAddress;
 import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.JobFlag;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobInfo;
@@ -117,6 +118,28 @@ public class HyracksClientInterfaceRemoteProxy implements IHyracksClientInterfac
         return (JobInfo) rpci.call(ipcHandle, gjsf);
     }
 
+    @Override
+    public DeployedJobSpecId deployJobSpec(DeploymentId deploymentId, byte[] acggfBytes, EnumSet<JobFlag> jobFlags)
+            throws Exception {
+        HyracksClientInterfaceFunctions.DeployJobSpecFunction djsf = new HyracksClientInterfaceFunctions.DeployJobSpecFunction(
+                deploymentId, acggfBytes, jobFlags);
+        return (DeployedJobSpecId) rpci.call(ipcHandle, djsf);
+    }
+
+    @Override
+    public JobId startJob(DeployedJobSpecId deployedJobSpecId, Map<String, byte[]> jobParameters) throws Exception {
+        HyracksClientInterfaceFunctions.StartDeployedJobFunction sdjf = new HyracksClientInterfaceFunctions.StartDeployedJobFunction(
+                deployedJobSpecId, jobParameters);
+        return (JobId) rpci.call(ipcHandle, sdjf);
+    }
+
+    @Override
+    public void undeployJobSpec(DeployedJobSpecId deployedJobSpecId) throws Exception {
+        HyracksClientInterfaceFunctions.UndeployJobSpecFunction ujsf = new HyracksClientInterfaceFunctions.UndeployJobSpecFunction(
+                deployedJobSpecId);
+        rpci.call(ipcHandle, ujsf);
+    }
+
     @Override
     public void stopCluster() throws Exception {
         HyracksClientInterfaceFunctions.ClusterShutdownFunction csdf = new HyracksClientInterfaceFunctions.ClusterShutdownFunction();
@@ -37,6 +37,7 @@ import org.apache.hyracks.api.client.impl.JobSpecificationActivityClusterGraphGe
 import org.apache.hyracks.api.comm.NetworkAddress;
 import org.apache.hyracks.api.deployment.DeploymentId;
 import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.IActivityClusterGraphGeneratorFactory;
 import org.apache.hyracks.api.job.JobFlag;
 import org.apache.hyracks.api.job.JobId;
@@ -186,6 +187,29 @@ public final class HyracksConnection implements IHyracksClientConnection {
     public JobInfo getJobInfo(JobId jobId) throws Exception {
         return hci.getJobInfo(jobId);
     }
+
+    @Override
+    public DeployedJobSpecId deployJobSpec(JobSpecification jobSpec) throws Exception {
+        return deployJobSpec(null, jobSpec, EnumSet.noneOf(JobFlag.class));
+    }
+
+    @Override
+    public DeployedJobSpecId deployJobSpec(DeploymentId deploymentId, JobSpecification jobSpec,
+            EnumSet<JobFlag> jobFlags) throws Exception {
+        JobSpecificationActivityClusterGraphGeneratorFactory jsacggf = new JobSpecificationActivityClusterGraphGeneratorFactory(
+                jobSpec);
+        return hci.deployJobSpec(deploymentId, JavaSerializationUtils.serialize(jsacggf), jobFlags);
+    }
+
+    @Override
+    public JobId startJob(DeployedJobSpecId deployedJobSpecId, Map<String, byte[]> jobParameters) throws Exception {
+        return hci.startJob(deployedJobSpecId, jobParameters);
+    }
+
+    @Override
+    public void undeployJobSpec(DeployedJobSpecId deployedJobSpecId) throws Exception {
+        hci.undeployJobSpec(deployedJobSpecId);
+    }
     @Override
     public void stopCluster() throws Exception{
         hci.stopCluster();
@@ -24,6 +24,7 @@ import java.util.Map;
 
 import org.apache.hyracks.api.comm.NetworkAddress;
 import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.IActivityClusterGraphGeneratorFactory;
 import org.apache.hyracks.api.job.JobFlag;
 import org.apache.hyracks.api.job.JobId;
@@ -183,6 +184,53 @@ public interface IHyracksClientConnection {
     public JobId startJob(DeploymentId deploymentId, IActivityClusterGraphGeneratorFactory acggf,
             EnumSet<JobFlag> jobFlags) throws Exception;
 
+    /**
+     * Deploys the specified Job once, so that it can be started many times without shipping and planning it again.
+     * 
+     * @param jobSpec
+     *            Job Specification
+     * @return the handle to start the Job with
+     * @throws Exception
+     */
+    public DeployedJobSpecId deployJobSpec(JobSpecification jobSpec) throws Exception;
+
+    /**
+     * Deploys the specified Job once, so that it can be started many times without shipping and planning it again.
+     * 
+     * @param deploymentId
+     *            the id of the specific deployment
+     * @param jobSpec
+     *            Job Specification
+     * @param jobFlags
+     *            Flags of every run of the Job
+     * @return the handle to start the Job with
+     * @throws Exception
+     */
+    public DeployedJobSpecId deployJobSpec(DeploymentId deploymentId, JobSpecification jobSpec,
+            EnumSet<JobFlag> jobFlags) throws Exception;
+
+    /**
+     * Starts a run of a deployed Job.
+     * 
+     * @param deployedJobSpecId
+     *            the handle returned by deployJobSpec
+     * @param jobParameters
+     *            the parameters of this run, available to the operators through
+     *            {@link org.apache.hyracks.api.context.IHyracksJobletContext#getJobParameter(String)}, or null
+     * @return the JobId of the run
+     * @throws Exception
+     */
+    public JobId startJob(DeployedJobSpecId deployedJobSpecId, Map<String, byte[]> jobParameters) throws Exception;
+
+    /**
+     * Removes a deployed Job from the Cluster Controller and the Node Controllers. The runs in progress complete.
+     * 
+     * @param deployedJobSpecId
+     *            the handle returned by deployJobSpec
+     * @throws Exception
+     */
+    public void undeployJobSpec(DeployedJobSpecId deployedJobSpecId) throws Exception;
+
     /**
      * Shuts down all NCs and then the CC.
      */
@@ -26,6 +26,7 @@ import org.apache.hyracks.api.application.ICCApplicationContext;
 import org.apache.hyracks.api.constraints.Constraint;
 import org.apache.hyracks.api.constraints.IConstraintAcceptor;
 import org.apache.hyracks.api.dataflow.IConnectorDescriptor;
+import org.apache.hyracks.api.dataflow.IMemoryBoundedOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksException;
 import org.apache.hyracks.api.job.ActivityClusterGraph;
@@ -79,6 +80,15 @@ public class JobSpecificationActivityClusterGraphGeneratorFactory implements IAc
         acg.setConnectorPolicyAssignmentPolicy(spec.getConnectorPolicyAssignmentPolicy());
         acg.setUseConnectorPolicyForScheduling(spec.isUseConnectorPolicyForScheduling());
         acg.setReportTaskDetails(spec.isReportTaskDetails());
+        acg.setRunFileCompressorFactory(spec.getRunFileCompressorFactory());
+        acg.setConnectorCompressorFactories(spec.getConnectorCompressorFactories());
+        acg.setCompactFrameConnectors(spec.getCompactFrameConnectors());
+        acg.setPriority(spec.getPriority());
+        for (IOperatorDescriptor op : spec.getOperatorMap().values()) {
+            if (op instanceof IMemoryBoundedOperatorDescriptor) {
+                acg.setOperatorMemorySize(op.getOperatorId(), ((IMemoryBoundedOperatorDescriptor) op).getMemorySize());
+            }
+        }
         final Set<Constraint> constraints = new HashSet<Constraint>();
         final IConstraintAcceptor acceptor = new IConstraintAcceptor() {
             @Override
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.api.compression;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A block codec for the frames that are spilled to disk or sent over the network. An instance is used by a single
+ * thread.
+ */
+public interface IFrameCompressor {
+    /**
+     * @return the largest number of bytes {@link #compress} may produce for an input of the given length.
+     */
+    public int getMaxCompressedLength(int length);
+
+    /**
+     * Compresses the given range of bytes.
+     *
+     * @return the number of bytes written to the destination, which has at least
+     *         {@link #getMaxCompressedLength(int)} bytes of room.
+     */
+    public int compress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset)
+            throws HyracksDataException;
+
+    /**
+     * Decompresses the given range of bytes, which must decompress to exactly the given number of bytes.
+     */
+    public void decompress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLength)
+            throws HyracksDataException;
+}
@@ -34,6 +34,14 @@ public interface IHyracksFrameMgrContext {
     ByteBuffer reallocateFrame(ByteBuffer tobeDeallocate, int newSizeInBytes, boolean copyOldData)
             throws HyracksDataException;
 
+    /**
+     * The caller should call this method to return a frame that it obtained from {@link #allocateFrame(int)} and
+     * will not touch again, so that the frame can be recycled.
+     *
+     * @param frame
+     */
+    void deallocateFrame(ByteBuffer frame);
+
     /**
      * The caller should call this method to return the pre-allocated frames.
      *
@@ -19,6 +19,7 @@
 package org.apache.hyracks.api.context;
 
 import org.apache.hyracks.api.application.INCApplicationContext;
+import org.apache.hyracks.api.compression.IFrameCompressorFactory;
 import org.apache.hyracks.api.io.IWorkspaceFileFactory;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
@@ -33,6 +34,16 @@ public interface IHyracksJobletContext extends IWorkspaceFileFactory, IDeallocat
 
     public Object getGlobalJobData();
 
+    /**
+     * @return the value of a parameter the job was started with, or null if it was not given.
+     */
+    public byte[] getJobParameter(String name);
+
+    /**
+     * @return the codec of the run files of the job, or null if they are not compressed.
+     */
+    public IFrameCompressorFactory getRunFileCompressorFactory();
+
     public Class<?> loadClass(String className);
 
     public ClassLoader getClassLoader();
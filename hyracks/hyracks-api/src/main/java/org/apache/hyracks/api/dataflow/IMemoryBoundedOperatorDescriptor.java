@@ -0,0 +1,32 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.api.dataflow;
+
+/**
+ * Implemented by operators that hold a bounded number of frames in memory for each of their partitions, such as the
+ * sorts, the external group-by and the hash joins. The scheduler uses it to account the memory of the running tasks.
+ */
+public interface IMemoryBoundedOperatorDescriptor extends IOperatorDescriptor {
+    /**
+     * Returns the number of frames each partition of this operator may hold in memory.
+     * 
+     * @return memory budget in frames
+     */
+    public int getMemorySize();
+}
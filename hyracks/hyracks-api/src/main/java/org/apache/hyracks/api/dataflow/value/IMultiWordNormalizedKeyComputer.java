@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.api.dataflow.value;
+
+/**
+ * A normalized key computer that emits a normalized key of several 32-bit words.
+ * The words are compared one after the other as unsigned integers, and that order has to be consistent with the
+ * order of the comparator of the field.
+ */
+public interface IMultiWordNormalizedKeyComputer extends INormalizedKeyComputer {
+
+    /**
+     * @return the number of 32-bit words of the normalized key.
+     */
+    public int getNormalizedKeyLength();
+
+    /**
+     * Writes {@link #getNormalizedKeyLength()} words into normalizedKeys, starting at keyStart.
+     */
+    public void normalize(byte[] bytes, int start, int length, int[] normalizedKeys, int keyStart);
+
+    /**
+     * @return true if two fields with equal normalized keys are always equal according to the comparator of the
+     *         field, i.e. ties of the normalized keys never need to be resolved by the comparator.
+     */
+    public boolean isDecisive();
+}
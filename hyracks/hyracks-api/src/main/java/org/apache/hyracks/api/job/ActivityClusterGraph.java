@@ -21,16 +21,20 @@ package org.apache.hyracks.api.job;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import org.apache.hyracks.api.compression.IFrameCompressorFactory;
 import org.apache.hyracks.api.dataflow.ActivityId;
 import org.apache.hyracks.api.dataflow.ConnectorDescriptorId;
 import org.apache.hyracks.api.dataflow.IConnectorDescriptor;
+import org.apache.hyracks.api.dataflow.OperatorDescriptorId;
 import org.apache.hyracks.api.dataflow.connectors.IConnectorPolicyAssignmentPolicy;
 
 public class ActivityClusterGraph implements Serializable {
@@ -58,6 +62,16 @@ public class ActivityClusterGraph implements Serializable {
 
     private boolean reportTaskDetails;
 
+    private IFrameCompressorFactory runFileCompressorFactory;
+
+    private Map<ConnectorDescriptorId, IFrameCompressorFactory> connectorCompressorFactories;
+
+    private Set<ConnectorDescriptorId> compactFrameConnectors;
+
+    private final Map<OperatorDescriptorId, Integer> operatorMemorySizes;
+
+    private int priority;
+
     public ActivityClusterGraph() {
         version = 0;
         activityClusterMap = new HashMap<ActivityClusterId, ActivityCluster>();
@@ -65,6 +79,9 @@ public class ActivityClusterGraph implements Serializable {
         connectorMap = new HashMap<ConnectorDescriptorId, ActivityCluster>();
         frameSize = 32768;
         reportTaskDetails = true;
+        connectorCompressorFactories = new HashMap<ConnectorDescriptorId, IFrameCompressorFactory>();
+        compactFrameConnectors = new HashSet<ConnectorDescriptorId>();
+        operatorMemorySizes = new HashMap<OperatorDescriptorId, Integer>();
     }
 
     public Map<ActivityId, ActivityCluster> getActivityMap() {
@@ -152,6 +169,62 @@ public class ActivityClusterGraph implements Serializable {
         this.reportTaskDetails = reportTaskDetails;
     }
 
+    public IFrameCompressorFactory getRunFileCompressorFactory() {
+        return runFileCompressorFactory;
+    }
+
+    public void setRunFileCompressorFactory(IFrameCompressorFactory runFileCompressorFactory) {
+        this.runFileCompressorFactory = runFileCompressorFactory;
+    }
+
+    /**
+     * @return the codec of the frames that the given connector sends over the network, or null.
+     */
+    public IFrameCompressorFactory getConnectorCompressorFactory(ConnectorDescriptorId cdId) {
+        return connectorCompressorFactories.get(cdId);
+    }
+
+    public void setConnectorCompressorFactories(Map<ConnectorDescriptorId, IFrameCompressorFactory> factories) {
+        connectorCompressorFactories = new HashMap<ConnectorDescriptorId, IFrameCompressorFactory>(factories);
+    }
+
+    /**
+     * @return whether the given connector sends its frames over the network in the compact format, which it always
+     *         does if it has a codec.
+     */
+    public boolean isConnectorCompactFrames(ConnectorDescriptorId cdId) {
+        return compactFrameConnectors.contains(cdId) || connectorCompressorFactories.containsKey(cdId);
+    }
+
+    public void setCompactFrameConnectors(Set<ConnectorDescriptorId> cdIds) {
+        compactFrameConnectors = new HashSet<ConnectorDescriptorId>(cdIds);
+    }
+
+    /**
+     * @return the number of frames that each partition of the given operator declared it holds in memory, 0 if the
+     *         operator did not declare any.
+     */
+    public int getOperatorMemorySize(OperatorDescriptorId odId) {
+        Integer memorySize = operatorMemorySizes.get(odId);
+        return memorySize == null ? 0 : memorySize;
+    }
+
+    public void setOperatorMemorySize(OperatorDescriptorId odId, int memorySize) {
+        operatorMemorySizes.put(odId, memorySize);
+    }
+
+    public Map<OperatorDescriptorId, Integer> getOperatorMemorySizes() {
+        return operatorMemorySizes;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
     public List<IConnectorDescriptor> getActivityInputs(ActivityId activityId) {
         ActivityCluster ac = activityMap.get(activityId);
         return ac.getActivityInputMap().get(activityId);
@@ -32,6 +32,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import org.apache.hyracks.api.compression.IFrameCompressorFactory;
 import org.apache.hyracks.api.constraints.Constraint;
 import org.apache.hyracks.api.constraints.expressions.ConstantExpression;
 import org.apache.hyracks.api.constraints.expressions.PartitionCountExpression;
@@ -81,6 +82,14 @@ public class JobSpecification implements Serializable, IOperatorDescriptorRegist
 
     private boolean reportTaskDetails;
 
+    private IFrameCompressorFactory runFileCompressorFactory;
+
+    private final Map<ConnectorDescriptorId, IFrameCompressorFactory> connectorCompressorFactories;
+
+    private final Set<ConnectorDescriptorId> compactFrameConnectors;
+
+    private int priority;
+
     private transient int operatorIdCounter;
 
     private transient int connectorIdCounter;
@@ -101,6 +110,8 @@ public class JobSpecification implements Serializable, IOperatorDescriptorRegist
         connectorOpMap = new HashMap<ConnectorDescriptorId, Pair<Pair<IOperatorDescriptor, Integer>, Pair<IOperatorDescriptor, Integer>>>();
         properties = new HashMap<String, Serializable>();
         userConstraints = new HashSet<Constraint>();
+        connectorCompressorFactories = new HashMap<ConnectorDescriptorId, IFrameCompressorFactory>();
+        compactFrameConnectors = new HashSet<ConnectorDescriptorId>();
         operatorIdCounter = 0;
         connectorIdCounter = 0;
         maxReattempts = 2;
@@ -303,6 +314,63 @@ public class JobSpecification implements Serializable, IOperatorDescriptorRegist
         this.reportTaskDetails = reportTaskDetails;
     }
 
+    public IFrameCompressorFactory getRunFileCompressorFactory() {
+        return runFileCompressorFactory;
+    }
+
+    /**
+     * Sets the codec that compresses the frames the operators of this job spill to run files, or null (the default)
+     * to write them uncompressed.
+     */
+    public void setRunFileCompressorFactory(IFrameCompressorFactory runFileCompressorFactory) {
+        this.runFileCompressorFactory = runFileCompressorFactory;
+    }
+
+    public Map<ConnectorDescriptorId, IFrameCompressorFactory> getConnectorCompressorFactories() {
+        return connectorCompressorFactories;
+    }
+
+    /**
+     * Sets the codec that compresses the frames the given connector sends over the network, or null (the default)
+     * to send them uncompressed. The frames of a connector with a codec are always sent as compact records of the
+     * used parts of each frame, see {@link #setConnectorCompactFrames(IConnectorDescriptor, boolean)}.
+     */
+    public void setConnectorCompressorFactory(IConnectorDescriptor conn, IFrameCompressorFactory compressorFactory) {
+        if (compressorFactory == null) {
+            connectorCompressorFactories.remove(conn.getConnectorId());
+        } else {
+            connectorCompressorFactories.put(conn.getConnectorId(), compressorFactory);
+        }
+    }
+
+    public Set<ConnectorDescriptorId> getCompactFrameConnectors() {
+        return compactFrameConnectors;
+    }
+
+    /**
+     * Sets whether the given connector sends its frames over the network as compact records of the used parts of each
+     * frame, without a codec. It is off by default, the frames are then sent whole unless the connector has a codec.
+     */
+    public void setConnectorCompactFrames(IConnectorDescriptor conn, boolean compactFrames) {
+        if (compactFrames) {
+            compactFrameConnectors.add(conn.getConnectorId());
+        } else {
+            compactFrameConnectors.remove(conn.getConnectorId());
+        }
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of this job in the admission queue of the cluster controller when it queues jobs by priority.
+     * Jobs with a higher priority are admitted first (default: 0).
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
     private <K, V> void insertIntoIndexedMap(Map<K, List<V>> map, K key, int index, V value) {
         List<V> vList = map.get(key);
         if (vList == null) {
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.comm.channels;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.FrameConstants;
+import org.apache.hyracks.api.comm.FrameHelper;
+
+/**
+ * The encoding on the wire of the frames of the partition channels whose connector has a codec, which the receiver
+ * asks for in its partition request. The other channels send whole frames. Only the used parts of a frame are sent: its
+ * head, the tuple data that starts at the frame count byte, and its tail, the offset table and the tuple count at the
+ * end of the frame. The free space between them is not sent, and the receiver rebuilds the frame with the usual
+ * layout.
+ * <p>
+ * A frame is sent as one record per block of the initial frame size, so that the receiver hands over the blocks as
+ * they arrive, as it does for frames sent whole, however large the frame. A record is a header of three ints (the
+ * length of the head and of the tail in the block and the number of bytes that follow) and these bytes, compressed
+ * when the connector has a codec and they shrink. The record is padded to a multiple of {@link #BLOCK_SIZE}, the size
+ * of the receive buffers, so that every record ends a receive buffer and is handed to the consumer as soon as it
+ * arrives.
+ */
+public class CompactFrameFormat {
+    public static final int BLOCK_SIZE = 1024;
+
+    public static final int HEADER_SIZE = 12;
+
+    private CompactFrameFormat() {
+    }
+
+    /**
+     * @return the length of the tail of the frame, or 0 when the frame does not have a valid tuple count, in which
+     *         case the whole frame is its head.
+     */
+    public static int getTailLength(ByteBuffer frame) {
+        int frameSize = frame.capacity();
+        int tupleCount = frame.getInt(FrameHelper.getTupleCountOffset(frameSize));
+        if (tupleCount < 0 || tupleCount > (frameSize - FrameConstants.META_DATA_LEN) / FrameConstants.SIZE_LEN) {
+            return 0;
+        }
+        int tailLength = FrameConstants.SIZE_LEN * (tupleCount + 1);
+        int headLength = getHeadLength(frame, tupleCount, tailLength);
+        return headLength < 0 ? 0 : tailLength;
+    }
+
+    /**
+     * @return the length of the head of the frame, given the tail length returned by {@link #getTailLength}.
+     */
+    public static int getHeadLength(ByteBuffer frame, int tailLength) {
+        if (tailLength == 0) {
+            return frame.capacity();
+        }
+        return getHeadLength(frame, tailLength / FrameConstants.SIZE_LEN - 1, tailLength);
+    }
+
+    private static int getHeadLength(ByteBuffer frame, int tupleCount, int tailLength) {
+        int frameSize = frame.capacity();
+        if (tupleCount == 0) {
+            return FrameConstants.TUPLE_START_OFFSET;
+        }
+        int dataEnd = frame.getInt(frameSize - tailLength);
+        if (dataEnd < FrameConstants.TUPLE_START_OFFSET || dataEnd > frameSize - tailLength) {
+            return -1;
+        }
+        return dataEnd;
+    }
+
+    /**
+     * @return the length of a record of the given number of bytes once padded to the block size.
+     */
+    public static int getPaddedLength(int length) {
+        return (length + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+    }
+}
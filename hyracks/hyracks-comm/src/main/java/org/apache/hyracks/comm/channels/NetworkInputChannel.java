@@ -21,12 +21,16 @@ package org.apache.hyracks.comm.channels;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.Queue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.hyracks.api.channels.IInputChannel;
 import org.apache.hyracks.api.channels.IInputChannelMonitor;
+import org.apache.hyracks.api.comm.FrameHelper;
+import org.apache.hyracks.api.compression.IFrameCompressor;
 import org.apache.hyracks.api.context.IHyracksCommonContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.partitions.PartitionId;
@@ -34,10 +38,16 @@ import org.apache.hyracks.net.buffers.IBufferAcceptor;
 import org.apache.hyracks.net.buffers.ICloseableBufferAcceptor;
 import org.apache.hyracks.net.protocols.muxdemux.ChannelControlBlock;
 
+/**
+ * Reads a partition from another node controller. The frames arrive whole, in receive buffers of the initial frame
+ * size, or in the {@link CompactFrameFormat} if the channel asks for it in its partition request. In the latter case
+ * the channel gathers the receive buffers of each record and rebuilds the block of the frame when the consumer asks
+ * for it, so that the consumer gets the buffers of the initial frame size it would get for a frame sent whole.
+ */
 public class NetworkInputChannel implements IInputChannel {
     private static final Logger LOGGER = Logger.getLogger(NetworkInputChannel.class.getName());
 
-    static final int INITIAL_MESSAGE_SIZE = 20;
+    static final int INITIAL_MESSAGE_SIZE = 24;
 
     private final IChannelConnectionFactory netManager;
 
@@ -49,19 +59,49 @@ public class NetworkInputChannel implements IInputChannel {
 
     private final int nBuffers;
 
+    private final boolean compactFrames;
+
+    private final IFrameCompressor decompressor;
+
+    private final Deque<ByteBuffer> emptyFrameStack;
+
     private ChannelControlBlock ccb;
 
     private IInputChannelMonitor monitor;
 
     private Object attachment;
 
+    private int frameSize;
+
+    private int pendingBlocks;
+
+    private boolean failed;
+
+    private byte[] storedBytes;
+
+    private byte[] rawBytes;
+
     public NetworkInputChannel(IChannelConnectionFactory netManager, SocketAddress remoteAddress,
             PartitionId partitionId, int nBuffers) {
+        this(netManager, remoteAddress, partitionId, nBuffers, false, null);
+    }
+
+    /**
+     * @param compactFrames
+     *            whether the producer is asked to send the frames in the {@link CompactFrameFormat}.
+     * @param decompressor
+     *            the codec of the connector, or null if the frames are sent uncompressed.
+     */
+    public NetworkInputChannel(IChannelConnectionFactory netManager, SocketAddress remoteAddress,
+            PartitionId partitionId, int nBuffers, boolean compactFrames, IFrameCompressor decompressor) {
         this.netManager = netManager;
         this.remoteAddress = remoteAddress;
         this.partitionId = partitionId;
-        fullQueue = new ArrayDeque<ByteBuffer>(nBuffers);
+        fullQueue = new ArrayDeque<ByteBuffer>();
         this.nBuffers = nBuffers;
+        this.compactFrames = compactFrames;
+        this.decompressor = decompressor;
+        emptyFrameStack = new ArrayDeque<ByteBuffer>();
     }
 
     @Override
@@ -79,15 +119,112 @@ public class NetworkInputChannel implements IInputChannel {
         return attachment;
     }
 
+    /**
+     * Only the consumer calls this method and {@link #recycleBuffer(ByteBuffer)}, the rebuilt blocks need no lock.
+     * The receive buffers are given back outside of the channel lock, since the network thread holds the lock of the
+     * channel control block when it hands them over.
+     */
     @Override
-    public synchronized ByteBuffer getNextBuffer() {
-        return fullQueue.poll();
+    public ByteBuffer getNextBuffer() {
+        ByteBuffer block = pollReceiveBuffer();
+        if (block == null || !compactFrames) {
+            return block;
+        }
+        int headLength = block.getInt();
+        int tailLength = block.getInt();
+        int storedLength = block.getInt();
+        if (storedBytes == null || storedBytes.length < storedLength) {
+            storedBytes = new byte[storedLength];
+        }
+        int nReceiveBuffers = getReceiveBufferCount(storedLength);
+        int pos = 0;
+        for (int i = 0; i < nReceiveBuffers; ++i) {
+            if (i > 0) {
+                block = pollReceiveBuffer();
+            }
+            int n = Math.min(storedLength - pos, block.remaining());
+            block.get(storedBytes, pos, n);
+            pos += n;
+            block.clear();
+            ccb.getReadInterface().getEmptyBufferAcceptor().accept(block);
+        }
+
+        ByteBuffer frame = emptyFrameStack.poll();
+        if (frame == null) {
+            frame = ByteBuffer.allocate(frameSize);
+        }
+        frame.clear();
+        int rawLength = headLength + tailLength;
+        byte[] raw = storedBytes;
+        if (storedLength < rawLength) {
+            if (rawBytes == null || rawBytes.length < rawLength) {
+                rawBytes = new byte[rawLength];
+            }
+            try {
+                decompressor.decompress(storedBytes, 0, storedLength, rawBytes, 0, rawLength);
+            } catch (HyracksDataException e) {
+                // The consumer learns of the failure from the monitor, it gets an empty frame in place of the block.
+                LOGGER.log(Level.WARNING, "Could not decompress a frame of " + partitionId, e);
+                fail();
+                Arrays.fill(frame.array(), (byte) 0);
+                FrameHelper.serializeFrameSize(frame, (byte) 1);
+                return frame;
+            }
+            raw = rawBytes;
+        }
+        frame.put(raw, 0, headLength);
+        frame.position(frameSize - tailLength);
+        frame.put(raw, headLength, tailLength);
+        frame.clear();
+        return frame;
     }
 
     @Override
     public void recycleBuffer(ByteBuffer buffer) {
-        buffer.clear();
-        ccb.getReadInterface().getEmptyBufferAcceptor().accept(buffer);
+        if (compactFrames) {
+            emptyFrameStack.push(buffer);
+        } else {
+            buffer.clear();
+            ccb.getReadInterface().getEmptyBufferAcceptor().accept(buffer);
+        }
+    }
+
+    private synchronized ByteBuffer pollReceiveBuffer() {
+        return fullQueue.poll();
+    }
+
+    private static int getReceiveBufferCount(int storedLength) {
+        return CompactFrameFormat.getPaddedLength(CompactFrameFormat.HEADER_SIZE + storedLength)
+                / CompactFrameFormat.BLOCK_SIZE;
+    }
+
+    /**
+     * @return whether the header at the start of the given receive buffer describes a record this channel can read.
+     */
+    private boolean isValidHeader(ByteBuffer buffer) {
+        int headLength = buffer.getInt(0);
+        int tailLength = buffer.getInt(4);
+        int storedLength = buffer.getInt(8);
+        if (headLength < 0 || tailLength < 0 || headLength + tailLength > frameSize) {
+            return false;
+        }
+        if (storedLength < 0 || storedLength > headLength + tailLength) {
+            return false;
+        }
+        return storedLength == headLength + tailLength || decompressor != null;
+    }
+
+    /**
+     * Reports the failure of the channel to the consumer once. The records that arrive afterwards are dropped.
+     */
+    private void fail() {
+        synchronized (this) {
+            if (failed) {
+                return;
+            }
+            failed = true;
+        }
+        monitor.notifyFailure(this);
     }
 
     @Override
@@ -99,12 +236,24 @@ public class NetworkInputChannel implements IInputChannel {
         }
         ccb.getReadInterface().setFullBufferAcceptor(new ReadFullBufferAcceptor());
         ccb.getWriteInterface().setEmptyBufferAcceptor(new WriteEmptyBufferAcceptor());
-        ccb.getReadInterface().setBufferFactory(new ReadBufferFactory(nBuffers, ctx), nBuffers, ctx.getInitialFrameSize());
+        frameSize = ctx.getInitialFrameSize();
+        if (compactFrames) {
+            // The same number of bytes as nBuffers frames, in the blocks the records are padded to, and room for a
+            // record.
+            int nBlocks = Math.max(nBuffers * frameSize,
+                    CompactFrameFormat.getPaddedLength(CompactFrameFormat.HEADER_SIZE + frameSize))
+                    / CompactFrameFormat.BLOCK_SIZE;
+            ccb.getReadInterface().setBufferFactory(new ReadBufferFactory(nBlocks, CompactFrameFormat.BLOCK_SIZE),
+                    nBlocks, CompactFrameFormat.BLOCK_SIZE);
+        } else {
+            ccb.getReadInterface().setBufferFactory(new ReadBufferFactory(nBuffers, ctx), nBuffers, frameSize);
+        }
         ByteBuffer writeBuffer = ByteBuffer.allocate(INITIAL_MESSAGE_SIZE);
         writeBuffer.putLong(partitionId.getJobId().getId());
         writeBuffer.putInt(partitionId.getConnectorDescriptorId().getId());
         writeBuffer.putInt(partitionId.getSenderIndex());
         writeBuffer.putInt(partitionId.getReceiverIndex());
+        writeBuffer.putInt(compactFrames ? 1 : 0);
         writeBuffer.flip();
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.fine("Sending partition request: " + partitionId + " on channel: " + ccb);
@@ -121,8 +270,38 @@ public class NetworkInputChannel implements IInputChannel {
     private class ReadFullBufferAcceptor implements ICloseableBufferAcceptor {
         @Override
         public void accept(ByteBuffer buffer) {
-            fullQueue.add(buffer);
-            monitor.notifyDataAvailability(NetworkInputChannel.this, 1);
+            if (!compactFrames) {
+                synchronized (NetworkInputChannel.this) {
+                    fullQueue.add(buffer);
+                }
+                monitor.notifyDataAvailability(NetworkInputChannel.this, 1);
+                return;
+            }
+            boolean recordComplete;
+            boolean validRecord = true;
+            synchronized (NetworkInputChannel.this) {
+                if (pendingBlocks == 0 && !failed) {
+                    // The first receive buffer of a record starts with its header.
+                    validRecord = isValidHeader(buffer);
+                    if (validRecord) {
+                        pendingBlocks = getReceiveBufferCount(buffer.getInt(8));
+                    }
+                }
+                validRecord = validRecord && !failed;
+                if (validRecord) {
+                    fullQueue.add(buffer);
+                    recordComplete = --pendingBlocks == 0;
+                } else {
+                    recordComplete = false;
+                }
+            }
+            if (!validRecord) {
+                buffer.clear();
+                ccb.getReadInterface().getEmptyBufferAcceptor().accept(buffer);
+                fail();
+            } else if (recordComplete) {
+                monitor.notifyDataAvailability(NetworkInputChannel.this, 1);
+            }
         }
 
         @Override
@@ -142,4 +321,4 @@ public class NetworkInputChannel implements IInputChannel {
             // do nothing
         }
     }
-}
\ No newline at end of file
+}
@@ -23,26 +23,51 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 
 import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.compression.IFrameCompressor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.net.buffers.IBufferAcceptor;
 import org.apache.hyracks.net.protocols.muxdemux.ChannelControlBlock;
 
 public class NetworkOutputChannel implements IFrameWriter {
+    private static final byte[] PADDING = new byte[CompactFrameFormat.BLOCK_SIZE];
+
     private final ChannelControlBlock ccb;
 
     private final int nBuffers;
 
     private final Deque<ByteBuffer> emptyStack;
 
+    private final boolean compactFrames;
+
     private boolean aborted;
 
     private int frameSize = 32768;
 
     private int allocateCounter = 0;
 
+    private IFrameCompressor compressor;
+
+    private ByteBuffer header;
+
+    private byte[] rawBytes;
+
+    private byte[] compressedBytes;
+
+    private ByteBuffer currentBuffer;
+
     public NetworkOutputChannel(ChannelControlBlock ccb, int nBuffers) {
+        this(ccb, nBuffers, false);
+    }
+
+    /**
+     * @param compactFrames
+     *            whether the frames are sent in the {@link CompactFrameFormat}, when the {@link NetworkInputChannel}
+     *            asks for it in its partition request, rather than whole.
+     */
+    public NetworkOutputChannel(ChannelControlBlock ccb, int nBuffers, boolean compactFrames) {
         this.ccb = ccb;
         this.nBuffers = nBuffers;
+        this.compactFrames = compactFrames;
         emptyStack = new ArrayDeque<ByteBuffer>(nBuffers);
         ccb.getWriteInterface().setEmptyBufferAcceptor(new WriteEmptyBufferAcceptor());
     }
@@ -51,35 +76,31 @@ public class NetworkOutputChannel implements IFrameWriter {
         this.frameSize = frameSize;
     }
 
+    public boolean isCompactFrames() {
+        return compactFrames;
+    }
+
+    /**
+     * Sets the codec of the compact frames, or null to send them uncompressed.
+     */
+    public void setFrameCompressor(IFrameCompressor compressor) {
+        this.compressor = compressor;
+    }
+
     @Override
     public void open() throws HyracksDataException {
     }
 
     @Override
     public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        if (compactFrames) {
+            writeCompactFrame(buffer);
+            return;
+        }
         ByteBuffer destBuffer = null;
         int startPos = 0;
         do {
-            synchronized (this) {
-                while (true) {
-                    if (aborted) {
-                        throw new HyracksDataException("Connection has been aborted");
-                    }
-                    destBuffer = emptyStack.poll();
-                    if (destBuffer == null && allocateCounter < nBuffers) {
-                        destBuffer = ByteBuffer.allocateDirect(frameSize);
-                        allocateCounter++;
-                    }
-                    if (destBuffer != null) {
-                        break;
-                    }
-                    try {
-                        wait();
-                    } catch (InterruptedException e) {
-                        throw new HyracksDataException(e);
-                    }
-                }
-            }
+            destBuffer = getEmptyBuffer();
             buffer.position(startPos);
             startPos = Math.min(startPos + destBuffer.capacity(), buffer.capacity());
             buffer.limit(startPos);
@@ -90,6 +111,96 @@ public class NetworkOutputChannel implements IFrameWriter {
         } while (startPos < buffer.capacity());
     }
 
+    private void writeCompactFrame(ByteBuffer buffer) throws HyracksDataException {
+        int size = buffer.capacity();
+        int tailLength = CompactFrameFormat.getTailLength(buffer);
+        int headLength = CompactFrameFormat.getHeadLength(buffer, tailLength);
+        for (int blockStart = 0; blockStart < size; blockStart += frameSize) {
+            int blockEnd = Math.min(blockStart + frameSize, size);
+            int blockHeadLength = Math.max(0, Math.min(headLength, blockEnd) - blockStart);
+            int blockTailLength = Math.max(0, blockEnd - Math.max(size - tailLength, blockStart));
+            writeCompactBlock(buffer.array(), blockStart, blockEnd, blockHeadLength, blockTailLength);
+        }
+        // Every frame is sent right away, a consumer may be waiting for it.
+        sendCurrentBuffer();
+    }
+
+    private void writeCompactBlock(byte[] frameBytes, int blockStart, int blockEnd, int headLength, int tailLength)
+            throws HyracksDataException {
+        int rawLength = headLength + tailLength;
+        int storedLength = rawLength;
+        if (compressor != null && rawLength > 0) {
+            if (rawBytes == null || rawBytes.length < rawLength) {
+                rawBytes = new byte[rawLength];
+                compressedBytes = new byte[compressor.getMaxCompressedLength(rawLength)];
+            }
+            System.arraycopy(frameBytes, blockStart, rawBytes, 0, headLength);
+            System.arraycopy(frameBytes, blockEnd - tailLength, rawBytes, headLength, tailLength);
+            storedLength = Math.min(compressor.compress(rawBytes, 0, rawLength, compressedBytes, 0), rawLength);
+        }
+        if (header == null) {
+            header = ByteBuffer.allocate(CompactFrameFormat.HEADER_SIZE);
+        }
+        header.clear();
+        header.putInt(headLength);
+        header.putInt(tailLength);
+        header.putInt(storedLength);
+        put(header.array(), 0, CompactFrameFormat.HEADER_SIZE);
+        if (storedLength < rawLength) {
+            put(compressedBytes, 0, storedLength);
+        } else {
+            put(frameBytes, blockStart, headLength);
+            put(frameBytes, blockEnd - tailLength, tailLength);
+        }
+        int recordLength = CompactFrameFormat.HEADER_SIZE + storedLength;
+        put(PADDING, 0, CompactFrameFormat.getPaddedLength(recordLength) - recordLength);
+    }
+
+    private void put(byte[] bytes, int offset, int length) throws HyracksDataException {
+        while (length > 0) {
+            if (currentBuffer == null || !currentBuffer.hasRemaining()) {
+                sendCurrentBuffer();
+                currentBuffer = getEmptyBuffer();
+                currentBuffer.clear();
+            }
+            int n = Math.min(length, currentBuffer.remaining());
+            currentBuffer.put(bytes, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    private void sendCurrentBuffer() {
+        if (currentBuffer != null) {
+            currentBuffer.flip();
+            ccb.getWriteInterface().getFullBufferAcceptor().accept(currentBuffer);
+            currentBuffer = null;
+        }
+    }
+
+    private ByteBuffer getEmptyBuffer() throws HyracksDataException {
+        synchronized (this) {
+            while (true) {
+                if (aborted) {
+                    throw new HyracksDataException("Connection has been aborted");
+                }
+                ByteBuffer destBuffer = emptyStack.poll();
+                if (destBuffer == null && allocateCounter < nBuffers) {
+                    destBuffer = ByteBuffer.allocateDirect(frameSize);
+                    allocateCounter++;
+                }
+                if (destBuffer != null) {
+                    return destBuffer;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw new HyracksDataException(e);
+                }
+            }
+        }
+    }
+
     @Override
     public void fail() throws HyracksDataException {
         ccb.getWriteInterface().getFullBufferAcceptor().error(1);
@@ -33,8 +33,12 @@ public class ReadBufferFactory implements IBufferFactory {
     private int counter = 0;
 
     public ReadBufferFactory(int limit, IHyracksCommonContext ctx) {
+        this(limit, ctx.getInitialFrameSize());
+    }
+
+    public ReadBufferFactory(int limit, int frameSize) {
         this.limit = limit;
-        this.frameSize = ctx.getInitialFrameSize();
+        this.frameSize = frameSize;
     }
 
     @Override
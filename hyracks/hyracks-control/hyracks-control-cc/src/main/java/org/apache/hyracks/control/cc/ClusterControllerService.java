@@ -46,6 +46,7 @@ import org.apache.hyracks.api.context.ICCContext;
 import org.apache.hyracks.api.dataset.DatasetDirectoryRecord;
 import org.apache.hyracks.api.dataset.DatasetJobRecord.Status;
 import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobInfo;
 import org.apache.hyracks.api.job.JobStatus;
@@ -54,12 +55,18 @@ import org.apache.hyracks.api.topology.TopologyDefinitionParser;
 import org.apache.hyracks.control.cc.application.CCApplicationContext;
 import org.apache.hyracks.control.cc.dataset.DatasetDirectoryService;
 import org.apache.hyracks.control.cc.dataset.IDatasetDirectoryService;
+import org.apache.hyracks.control.cc.job.DeployedJobSpec;
 import org.apache.hyracks.control.cc.job.JobRun;
+import org.apache.hyracks.control.cc.scheduler.ITaskPlacementPolicy;
+import org.apache.hyracks.control.cc.scheduler.JobAdmissionController;
+import org.apache.hyracks.control.cc.scheduler.JobQueuePolicy;
+import org.apache.hyracks.control.cc.scheduler.LoadBalancingTaskPlacementPolicy;
 import org.apache.hyracks.control.cc.web.WebServer;
 import org.apache.hyracks.control.cc.work.ApplicationMessageWork;
 import org.apache.hyracks.control.cc.work.CliDeployBinaryWork;
 import org.apache.hyracks.control.cc.work.CliUnDeployBinaryWork;
 import org.apache.hyracks.control.cc.work.ClusterShutdownWork;
+import org.apache.hyracks.control.cc.work.DeployJobSpecWork;
 import org.apache.hyracks.control.cc.work.GatherStateDumpsWork.StateDumpRun;
 import org.apache.hyracks.control.cc.work.GetDatasetDirectoryServiceInfoWork;
 import org.apache.hyracks.control.cc.work.GetIpAddressNodeNameMapWork;
@@ -84,6 +91,7 @@ import org.apache.hyracks.control.cc.work.ReportResultPartitionFailureWork;
 import org.apache.hyracks.control.cc.work.ReportResultPartitionWriteCompletionWork;
 import org.apache.hyracks.control.cc.work.TaskCompleteWork;
 import org.apache.hyracks.control.cc.work.TaskFailureWork;
+import org.apache.hyracks.control.cc.work.UndeployJobSpecWork;
 import org.apache.hyracks.control.cc.work.UnregisterNodeWork;
 import org.apache.hyracks.control.cc.work.WaitForJobCompletionWork;
 import org.apache.hyracks.control.common.AbstractRemoteService;
@@ -144,10 +152,18 @@ public class ClusterControllerService extends AbstractRemoteService {
 
     private final DeadNodeSweeper sweeper;
 
+    private final ITaskPlacementPolicy taskPlacementPolicy;
+
+    private final JobAdmissionController jobAdmissionController;
+
     private final IDatasetDirectoryService datasetDirectoryService;
 
     private long jobCounter;
 
+    private final Map<DeployedJobSpecId, DeployedJobSpec> deployedJobSpecMap;
+
+    private long deployedJobSpecCounter;
+
     private final Map<DeploymentId, DeploymentRun> deploymentRunMap;
 
     private final Map<String, StateDumpRun> stateDumpRunMap;
@@ -206,13 +222,25 @@ public class ClusterControllerService extends AbstractRemoteService {
             }
         };
         sweeper = new DeadNodeSweeper();
+        taskPlacementPolicy = createTaskPlacementPolicy(ccConfig);
+        jobAdmissionController = new JobAdmissionController(this, JobQueuePolicy.valueOf(ccConfig.jobQueuePolicy
+                .toUpperCase()), ccConfig.jobMemoryRatio);
         datasetDirectoryService = new DatasetDirectoryService(ccConfig.resultTTL, ccConfig.resultSweepThreshold);
         jobCounter = 0;
+        deployedJobSpecMap = new HashMap<DeployedJobSpecId, DeployedJobSpec>();
+        deployedJobSpecCounter = 0;
 
         deploymentRunMap = new HashMap<DeploymentId, DeploymentRun>();
         stateDumpRunMap = new HashMap<>();
     }
 
+    private static ITaskPlacementPolicy createTaskPlacementPolicy(CCConfig ccConfig) throws Exception {
+        if (ccConfig.taskPlacementPolicyClass == null) {
+            return new LoadBalancingTaskPlacementPolicy();
+        }
+        return (ITaskPlacementPolicy) Class.forName(ccConfig.taskPlacementPolicyClass).newInstance();
+    }
+
     private static ClusterTopology computeClusterTopology(CCConfig ccConfig) throws Exception {
         if (ccConfig.clusterTopologyDefinition == null) {
             return null;
@@ -247,6 +275,7 @@ public class ClusterControllerService extends AbstractRemoteService {
     private void startApplication() throws Exception {
         appCtx = new CCApplicationContext(serverCtx, ccContext);
         appCtx.addJobLifecycleListener(datasetDirectoryService);
+        appCtx.addJobLifecycleListener(jobAdmissionController);
         String className = ccConfig.appCCMainClass;
         if (className != null) {
             Class<?> c = Class.forName(className);
@@ -315,6 +344,14 @@ public class ClusterControllerService extends AbstractRemoteService {
         return ccConfig;
     }
 
+    public ITaskPlacementPolicy getTaskPlacementPolicy() {
+        return taskPlacementPolicy;
+    }
+
+    public JobAdmissionController getJobAdmissionController() {
+        return jobAdmissionController;
+    }
+
     public CCApplicationContext getApplicationContext() {
         return appCtx;
     }
@@ -323,6 +360,14 @@ public class ClusterControllerService extends AbstractRemoteService {
         return new JobId(jobCounter++);
     }
 
+    private DeployedJobSpecId createDeployedJobSpecId() {
+        return new DeployedJobSpecId(deployedJobSpecCounter++);
+    }
+
+    public Map<DeployedJobSpecId, DeployedJobSpec> getDeployedJobSpecMap() {
+        return deployedJobSpecMap;
+    }
+
     public ClusterControllerInfo getClusterControllerInfo() {
         return info;
     }
@@ -442,6 +487,29 @@ public class ClusterControllerService extends AbstractRemoteService {
                             new IPCResponder<DeploymentId>(handle, mid)));
                     return;
                 }
+                case DEPLOY_JOB_SPEC: {
+                    HyracksClientInterfaceFunctions.DeployJobSpecFunction djsf = (HyracksClientInterfaceFunctions.DeployJobSpecFunction) fn;
+                    workQueue.schedule(new DeployJobSpecWork(ClusterControllerService.this, djsf.getDeploymentId(),
+                            djsf.getACGGFBytes(), djsf.getJobFlags(), createDeployedJobSpecId(), createJobId(),
+                            new IPCResponder<DeployedJobSpecId>(handle, mid)));
+                    return;
+                }
+
+                case START_DEPLOYED_JOB: {
+                    HyracksClientInterfaceFunctions.StartDeployedJobFunction sdjf = (HyracksClientInterfaceFunctions.StartDeployedJobFunction) fn;
+                    JobId jobId = createJobId();
+                    workQueue.schedule(new JobStartWork(ClusterControllerService.this, sdjf.getDeployedJobSpecId(),
+                            sdjf.getJobParameters(), jobId, new IPCResponder<JobId>(handle, mid)));
+                    return;
+                }
+
+                case UNDEPLOY_JOB_SPEC: {
+                    HyracksClientInterfaceFunctions.UndeployJobSpecFunction ujsf = (HyracksClientInterfaceFunctions.UndeployJobSpecFunction) fn;
+                    workQueue.schedule(new UndeployJobSpecWork(ClusterControllerService.this, ujsf
+                            .getDeployedJobSpecId(), new IPCResponder<DeployedJobSpecId>(handle, mid)));
+                    return;
+                }
+
                 case CLUSTER_SHUTDOWN: {
                     workQueue.schedule(new ClusterShutdownWork(ClusterControllerService.this,
                             new IPCResponder<Boolean>(handle, mid)));
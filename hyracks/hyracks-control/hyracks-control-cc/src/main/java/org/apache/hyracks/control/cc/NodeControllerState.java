@@ -133,6 +133,14 @@ public class NodeControllerState {
 
     private final long[] diskWrites;
 
+    private final long[] framePoolHits;
+
+    private final long[] framePoolMisses;
+
+    private final long[] framePoolPooledBytes;
+
+    private final long[] framePoolOutstandingBytes;
+
     private int rrdPtr;
 
     private int lastHeartbeatDuration;
@@ -194,6 +202,10 @@ public class NodeControllerState {
 
         diskReads = new long[RRD_SIZE];
         diskWrites = new long[RRD_SIZE];
+        framePoolHits = new long[RRD_SIZE];
+        framePoolMisses = new long[RRD_SIZE];
+        framePoolPooledBytes = new long[RRD_SIZE];
+        framePoolOutstandingBytes = new long[RRD_SIZE];
 
         rrdPtr = 0;
     }
@@ -232,6 +244,10 @@ public class NodeControllerState {
             ipcMessageBytesReceived[rrdPtr] = hbData.ipcMessageBytesReceived;
             diskReads[rrdPtr] = hbData.diskReads;
             diskWrites[rrdPtr] = hbData.diskWrites;
+            framePoolHits[rrdPtr] = hbData.framePoolHits;
+            framePoolMisses[rrdPtr] = hbData.framePoolMisses;
+            framePoolPooledBytes[rrdPtr] = hbData.framePoolPooledBytes;
+            framePoolOutstandingBytes[rrdPtr] = hbData.framePoolOutstandingBytes;
             rrdPtr = (rrdPtr + 1) % RRD_SIZE;
         }
     }
@@ -264,6 +280,31 @@ public class NodeControllerState {
         return datasetPort;
     }
 
+    public int getNumProcessors() {
+        return nProcessors;
+    }
+
+    /**
+     * @return the heap usage in bytes that the node reported with its last heartbeat.
+     */
+    public long getHeapUsedSize() {
+        return heapUsedSize[(rrdPtr + RRD_SIZE - 1) % RRD_SIZE];
+    }
+
+    /**
+     * @return the maximum heap size in bytes that the node reported with its last heartbeat.
+     */
+    public long getHeapMaxSize() {
+        return heapMaxSize[(rrdPtr + RRD_SIZE - 1) % RRD_SIZE];
+    }
+
+    /**
+     * @return the system load average that the node reported with its last heartbeat.
+     */
+    public double getSystemLoadAverage() {
+        return systemLoadAverage[(rrdPtr + RRD_SIZE - 1) % RRD_SIZE];
+    }
+
     public JSONObject toSummaryJSON() throws JSONException {
         JSONObject o = new JSONObject();
         o.put("node-id", ncConfig.nodeId);
@@ -318,6 +359,10 @@ public class NodeControllerState {
         o.put("ipc-message-bytes-received", ipcMessageBytesReceived);
         o.put("disk-reads", diskReads);
         o.put("disk-writes", diskWrites);
+        o.put("frame-pool-hits", framePoolHits);
+        o.put("frame-pool-misses", framePoolMisses);
+        o.put("frame-pool-pooled-bytes", framePoolPooledBytes);
+        o.put("frame-pool-outstanding-bytes", framePoolOutstandingBytes);
 
         return o;
     }
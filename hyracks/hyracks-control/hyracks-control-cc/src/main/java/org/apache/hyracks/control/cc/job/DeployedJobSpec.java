@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.job;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.hyracks.api.constraints.Constraint;
+import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.job.ActivityClusterGraph;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
+import org.apache.hyracks.api.job.IActivityClusterGraphGenerator;
+import org.apache.hyracks.api.job.IActivityClusterGraphGeneratorFactory;
+import org.apache.hyracks.api.job.JobFlag;
+import org.apache.hyracks.api.util.JavaSerializationUtils;
+
+/**
+ * A job that was deployed once to be run many times. The activity cluster graph is built, rewritten and serialized
+ * when the job is deployed, and every run shares it. The serialized graph is sent to a node controller with every run
+ * that has tasks there until a task of the job completed on that node; the node controller caches it under the
+ * {@link DeployedJobSpecId} and the later runs send the id only.
+ */
+public class DeployedJobSpec {
+    private final DeployedJobSpecId deployedJobSpecId;
+
+    private final DeploymentId deploymentId;
+
+    private final IActivityClusterGraphGeneratorFactory acggf;
+
+    private final EnumSet<JobFlag> jobFlags;
+
+    private final ActivityClusterGraph acg;
+
+    private final Set<Constraint> constraints;
+
+    private final byte[] acgBytes;
+
+    private final Set<String> cachedNodeIds;
+
+    private boolean undeployed;
+
+    public DeployedJobSpec(DeployedJobSpecId deployedJobSpecId, DeploymentId deploymentId,
+            IActivityClusterGraphGeneratorFactory acggf, IActivityClusterGraphGenerator acgg,
+            EnumSet<JobFlag> jobFlags) throws Exception {
+        this.deployedJobSpecId = deployedJobSpecId;
+        this.deploymentId = deploymentId;
+        this.acggf = acggf;
+        this.jobFlags = jobFlags;
+        acg = acgg.initialize();
+        constraints = acgg.getConstraints();
+        acgBytes = JavaSerializationUtils.serialize(acg);
+        cachedNodeIds = new HashSet<String>();
+        undeployed = false;
+    }
+
+    public DeployedJobSpecId getDeployedJobSpecId() {
+        return deployedJobSpecId;
+    }
+
+    public DeploymentId getDeploymentId() {
+        return deploymentId;
+    }
+
+    public IActivityClusterGraphGeneratorFactory getActivityClusterGraphGeneratorFactory() {
+        return acggf;
+    }
+
+    public EnumSet<JobFlag> getJobFlags() {
+        return jobFlags;
+    }
+
+    public byte[] getActivityClusterGraphBytes() {
+        return acgBytes;
+    }
+
+    /**
+     * @return the ids of the node controllers that are known to have cached the activity cluster graph, because a
+     *         task of the job completed there.
+     */
+    public Set<String> getCachedNodeIds() {
+        return cachedNodeIds;
+    }
+
+    public boolean isUndeployed() {
+        return undeployed;
+    }
+
+    public void setUndeployed() {
+        undeployed = true;
+    }
+
+    public IActivityClusterGraphGenerator createActivityClusterGraphGenerator() {
+        return new IActivityClusterGraphGenerator() {
+            @Override
+            public ActivityClusterGraph initialize() {
+                return acg;
+            }
+
+            @Override
+            public Set<Constraint> getConstraints() {
+                return constraints;
+            }
+        };
+    }
+}
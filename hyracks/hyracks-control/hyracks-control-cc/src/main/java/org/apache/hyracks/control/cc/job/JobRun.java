@@ -67,6 +67,10 @@ public class JobRun implements IJobStatusConditionVariable {
 
     private final EnumSet<JobFlag> jobFlags;
 
+    private final DeployedJobSpec deployedJobSpec;
+
+    private final Map<String, byte[]> jobParameters;
+
     private final Map<ActivityClusterId, ActivityClusterPlan> activityClusterPlanMap;
 
     private final PartitionMatchMaker pmm;
@@ -97,12 +101,26 @@ public class JobRun implements IJobStatusConditionVariable {
 
     public JobRun(ClusterControllerService ccs, DeploymentId deploymentId, JobId jobId,
             IActivityClusterGraphGenerator acgg, EnumSet<JobFlag> jobFlags) {
+        this(ccs, deploymentId, jobId, acgg, jobFlags, null, null);
+    }
+
+    public JobRun(ClusterControllerService ccs, JobId jobId, DeployedJobSpec deployedJobSpec,
+            Map<String, byte[]> jobParameters) {
+        this(ccs, deployedJobSpec.getDeploymentId(), jobId, deployedJobSpec.createActivityClusterGraphGenerator(),
+                deployedJobSpec.getJobFlags(), deployedJobSpec, jobParameters);
+    }
+
+    private JobRun(ClusterControllerService ccs, DeploymentId deploymentId, JobId jobId,
+            IActivityClusterGraphGenerator acgg, EnumSet<JobFlag> jobFlags, DeployedJobSpec deployedJobSpec,
+            Map<String, byte[]> jobParameters) {
         this.deploymentId = deploymentId;
         this.jobId = jobId;
         this.acgg = acgg;
         this.acg = acgg.initialize();
         this.scheduler = new JobScheduler(ccs, this, acgg.getConstraints());
         this.jobFlags = jobFlags;
+        this.deployedJobSpec = deployedJobSpec;
+        this.jobParameters = jobParameters;
         activityClusterPlanMap = new HashMap<ActivityClusterId, ActivityClusterPlan>();
         pmm = new PartitionMatchMaker();
         participatingNodeIds = new HashSet<String>();
@@ -128,6 +146,17 @@ public class JobRun implements IJobStatusConditionVariable {
         return jobFlags;
     }
 
+    /**
+     * @return the deployed job spec this job runs, or null if the job was submitted with its own plan.
+     */
+    public DeployedJobSpec getDeployedJobSpec() {
+        return deployedJobSpec;
+    }
+
+    public Map<String, byte[]> getJobParameters() {
+        return jobParameters;
+    }
+
     public Map<ActivityClusterId, ActivityClusterPlan> getActivityClusterPlanMap() {
         return activityClusterPlanMap;
     }
@@ -242,7 +271,7 @@ public class JobRun implements IJobStatusConditionVariable {
         result.put("job-id", jobId.toString());
         result.put("status", getStatus());
         result.put("create-time", getCreateTime());
-        result.put("start-time", getCreateTime());
+        result.put("start-time", getStartTime());
         result.put("end-time", getCreateTime());
 
         JSONArray aClusters = new JSONArray();
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.scheduler;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.dataflow.TaskId;
+
+/**
+ * Chooses the node controller of the tasks that have no location constraint. The policy is set with the
+ * -task-placement-policy option of the cluster controller.
+ */
+public interface ITaskPlacementPolicy {
+    /**
+     * Selects the node to run a task on.
+     * 
+     * @param tid
+     *            - the task to place
+     * @param memorySize
+     *            - the memory in bytes that the operator of the task declared, 0 if unknown
+     * @param inputLocations
+     *            - the nodes of the producers the task reads from, once per partition that was already placed
+     * @param nodeLoads
+     *            - the loads of the live nodes, keyed by node id
+     * @return the id of the selected node, which must be one of the keys of nodeLoads
+     */
+    public String selectNode(TaskId tid, long memorySize, List<String> inputLocations, Map<String, NodeLoad> nodeLoads);
+}
@@ -0,0 +1,397 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import org.apache.hyracks.api.constraints.expressions.LValueConstraintExpression;
+import org.apache.hyracks.api.constraints.expressions.PartitionCountExpression;
+import org.apache.hyracks.api.constraints.expressions.PartitionLocationExpression;
+import org.apache.hyracks.api.dataflow.OperatorDescriptorId;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.job.ActivityClusterGraph;
+import org.apache.hyracks.api.job.IActivityClusterGraphGeneratorFactory;
+import org.apache.hyracks.api.job.IJobLifecycleListener;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.job.JobStatus;
+import org.apache.hyracks.control.cc.ClusterControllerService;
+import org.apache.hyracks.control.cc.NodeControllerState;
+import org.apache.hyracks.control.cc.job.JobRun;
+import org.apache.hyracks.control.cc.work.AdmitQueuedJobsWork;
+import org.apache.hyracks.control.cc.work.JobCleanupWork;
+
+/**
+ * Admits the submitted jobs to the cluster according to the memory their operators declare. A job needs the frames
+ * of each of its memory bounded operators on the nodes their partitions run on; it is started when that fits, on
+ * every node, in the share of the heap of the node given to jobs, and waits in a FIFO or a priority queue otherwise.
+ * A job that does not fit even in an idle cluster is started alone. The queue is only used while the memory ratio is
+ * positive. All the methods are called from the work queue of the cluster controller.
+ */
+public class JobAdmissionController implements IJobLifecycleListener {
+    private static final Logger LOGGER = Logger.getLogger(JobAdmissionController.class.getName());
+
+    private final ClusterControllerService ccs;
+
+    private final JobQueuePolicy policy;
+
+    private final double memoryRatio;
+
+    private final PriorityQueue<QueuedJob> queue;
+
+    private final Map<JobId, Map<String, Long>> admittedJobs;
+
+    private final Map<String, Long> reservedMemory;
+
+    private long submitCounter;
+
+    private long admittedCount;
+
+    private long waitedCount;
+
+    private long totalWaitTime;
+
+    private long maxWaitTime;
+
+    public JobAdmissionController(ClusterControllerService ccs, JobQueuePolicy policy, double memoryRatio) {
+        this.ccs = ccs;
+        this.policy = policy;
+        this.memoryRatio = memoryRatio;
+        queue = new PriorityQueue<QueuedJob>(11, createComparator(policy));
+        admittedJobs = new HashMap<JobId, Map<String, Long>>();
+        reservedMemory = new HashMap<String, Long>();
+    }
+
+    private static Comparator<QueuedJob> createComparator(JobQueuePolicy policy) {
+        switch (policy) {
+            case PRIORITY:
+                return new Comparator<QueuedJob>() {
+                    @Override
+                    public int compare(QueuedJob o1, QueuedJob o2) {
+                        if (o1.priority != o2.priority) {
+                            return o1.priority > o2.priority ? -1 : 1;
+                        }
+                        return Long.compare(o1.sequence, o2.sequence);
+                    }
+                };
+            default:
+                return new Comparator<QueuedJob>() {
+                    @Override
+                    public int compare(QueuedJob o1, QueuedJob o2) {
+                        return Long.compare(o1.sequence, o2.sequence);
+                    }
+                };
+        }
+    }
+
+    public boolean isEnabled() {
+        return memoryRatio > 0;
+    }
+
+    /**
+     * Starts the job if it can be admitted now, queues it otherwise.
+     */
+    public void submit(JobRun run) {
+        run.setCreateTime(System.currentTimeMillis());
+        if (!isEnabled()) {
+            startJob(run);
+            return;
+        }
+        ActivityClusterGraph acg = run.getActivityClusterGraph();
+        QueuedJob job = new QueuedJob(run, computeMemoryDemand(run), acg.getPriority(), submitCounter++);
+        queue.add(job);
+        admitQueuedJobs();
+        job.waiting = queue.contains(job);
+        if (job.waiting && LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("Queued job " + run.getJobId() + " requiring " + job.demand + ", " + queue.size()
+                    + " job(s) waiting");
+        }
+    }
+
+    /**
+     * Starts the jobs at the head of the queue as long as they fit.
+     */
+    public void admitQueuedJobs() {
+        QueuedJob head;
+        Map<String, Long> capacities = getNodeCapacities();
+        while ((head = queue.peek()) != null) {
+            Map<String, Long> nodeDemand = head.demand.getNodeDemand(capacities.keySet());
+            if (!fits(nodeDemand, capacities)) {
+                break;
+            }
+            queue.poll();
+            ++admittedCount;
+            if (head.waiting) {
+                long waitTime = System.currentTimeMillis() - head.run.getCreateTime();
+                ++waitedCount;
+                totalWaitTime += waitTime;
+                maxWaitTime = Math.max(maxWaitTime, waitTime);
+            }
+            admittedJobs.put(head.run.getJobId(), nodeDemand);
+            for (Map.Entry<String, Long> e : nodeDemand.entrySet()) {
+                addMemory(reservedMemory, e.getKey(), e.getValue());
+            }
+            startJob(head.run);
+        }
+    }
+
+    private boolean fits(Map<String, Long> nodeDemand, Map<String, Long> capacities) {
+        if (admittedJobs.isEmpty()) {
+            return true;
+        }
+        // a job that did not fit in the idle cluster runs alone
+        for (Map.Entry<String, Long> e : reservedMemory.entrySet()) {
+            Long capacity = capacities.get(e.getKey());
+            if (capacity != null && e.getValue() > capacity) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, Long> e : nodeDemand.entrySet()) {
+            Long capacity = capacities.get(e.getKey());
+            Long reserved = reservedMemory.get(e.getKey());
+            if (capacity == null || (reserved == null ? 0 : reserved) + e.getValue() > capacity) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addMemory(Map<String, Long> memory, String nodeId, long size) {
+        Long current = memory.get(nodeId);
+        long total = (current == null ? 0 : current) + size;
+        if (total == 0) {
+            memory.remove(nodeId);
+        } else {
+            memory.put(nodeId, total);
+        }
+    }
+
+    /**
+     * @return the memory in bytes the admitted jobs may declare on each live node, from the heap sizes of the last
+     *         heartbeats.
+     */
+    protected Map<String, Long> getNodeCapacities() {
+        Map<String, Long> capacities = new HashMap<String, Long>();
+        for (Map.Entry<String, NodeControllerState> e : ccs.getNodeMap().entrySet()) {
+            capacities.put(e.getKey(), (long) (e.getValue().getHeapMaxSize() * memoryRatio));
+        }
+        return capacities;
+    }
+
+    /**
+     * Schedules a new admission round on the work queue once a job released its memory.
+     */
+    protected void scheduleAdmission() {
+        ccs.getWorkQueue().schedule(new AdmitQueuedJobsWork(ccs));
+    }
+
+    protected void startJob(JobRun run) {
+        run.setStartTime(System.currentTimeMillis());
+        run.setStatus(JobStatus.RUNNING, null);
+        try {
+            run.getScheduler().startJob();
+        } catch (Exception e) {
+            ccs.getWorkQueue().schedule(
+                    new JobCleanupWork(ccs, run.getJobId(), JobStatus.FAILURE, Collections.singletonList(e)));
+        }
+    }
+
+    /**
+     * Computes the memory in bytes declared by the memory bounded operators of the job. The partitions with a location
+     * constraint are charged to their node, or to their first choice that is alive; the others are left to the task
+     * placement policy and are charged evenly to the live nodes when the job is admitted.
+     */
+    public MemoryDemand computeMemoryDemand(JobRun run) {
+        ActivityClusterGraph acg = run.getActivityClusterGraph();
+        PartitionConstraintSolver solver = run.getScheduler().getSolver();
+        Collection<String> liveNodes = getNodeCapacities().keySet();
+        MemoryDemand demand = new MemoryDemand();
+        for (Map.Entry<OperatorDescriptorId, Integer> e : acg.getOperatorMemorySizes().entrySet()) {
+            LValueConstraintExpression partitionCount = new PartitionCountExpression(e.getKey());
+            solver.solve(Collections.singleton(partitionCount));
+            Object value = solver.getValue(partitionCount);
+            int nPartitions = value instanceof Number ? ((Number) value).intValue() : 1;
+            long partitionMemory = (long) e.getValue() * acg.getFrameSize();
+            for (int i = 0; i < nPartitions; ++i) {
+                LValueConstraintExpression location = new PartitionLocationExpression(e.getKey(), i);
+                solver.solve(Collections.singleton(location));
+                demand.add(findNode(solver.getValue(location), liveNodes), partitionMemory);
+            }
+        }
+        return demand;
+    }
+
+    private static String findNode(Object location, Collection<String> liveNodes) {
+        if (location instanceof String) {
+            return (String) location;
+        }
+        if (location instanceof String[]) {
+            for (String choice : (String[]) location) {
+                if (liveNodes.contains(choice)) {
+                    return choice;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void notifyJobCreation(JobId jobId, IActivityClusterGraphGeneratorFactory acggf) throws HyracksException {
+    }
+
+    @Override
+    public void notifyJobStart(JobId jobId) throws HyracksException {
+    }
+
+    @Override
+    public void notifyJobFinish(JobId jobId) throws HyracksException {
+        Map<String, Long> nodeDemand = admittedJobs.remove(jobId);
+        if (nodeDemand != null) {
+            for (Map.Entry<String, Long> e : nodeDemand.entrySet()) {
+                addMemory(reservedMemory, e.getKey(), -e.getValue());
+            }
+            if (!queue.isEmpty()) {
+                scheduleAdmission();
+            }
+            return;
+        }
+        for (Iterator<QueuedJob> i = queue.iterator(); i.hasNext();) {
+            if (i.next().run.getJobId().equals(jobId)) {
+                i.remove();
+                break;
+            }
+        }
+    }
+
+    public JSONObject toJSON() throws JSONException {
+        long now = System.currentTimeMillis();
+        JSONObject result = new JSONObject();
+        result.put("enabled", isEnabled());
+        result.put("policy", policy.toString());
+        result.put("memory-ratio", memoryRatio);
+        result.put("capacity", new JSONObject(getNodeCapacities()));
+        result.put("reserved-memory", new JSONObject(reservedMemory));
+        result.put("admitted-jobs", admittedJobs.size());
+        result.put("queue-length", queue.size());
+        result.put("total-admitted", admittedCount);
+        result.put("total-waited", waitedCount);
+        result.put("average-wait-time", waitedCount == 0 ? 0 : totalWaitTime / waitedCount);
+        result.put("max-wait-time", maxWaitTime);
+
+        List<QueuedJob> queuedJobs = new ArrayList<QueuedJob>(queue);
+        Collections.sort(queuedJobs, queue.comparator());
+        JSONArray queueJSON = new JSONArray();
+        for (QueuedJob job : queuedJobs) {
+            JSONObject jo = new JSONObject();
+            jo.put("job-id", job.run.getJobId().toString());
+            jo.put("priority", job.priority);
+            jo.put("required-memory", job.demand.getTotal());
+            jo.put("wait-time", now - job.run.getCreateTime());
+            queueJSON.put(jo);
+        }
+        result.put("queue", queueJSON);
+        return result;
+    }
+
+    /**
+     * The memory a job declares: the memory of the partitions placed by their location constraints on each node, and
+     * the memory of the partitions left to the task placement policy.
+     */
+    public static class MemoryDemand {
+        private final Map<String, Long> placedDemand = new HashMap<String, Long>();
+
+        private long unplacedDemand;
+
+        void add(String nodeId, long size) {
+            if (nodeId == null) {
+                unplacedDemand += size;
+            } else {
+                addMemory(placedDemand, nodeId, size);
+            }
+        }
+
+        public Map<String, Long> getPlacedDemand() {
+            return placedDemand;
+        }
+
+        public long getUnplacedDemand() {
+            return unplacedDemand;
+        }
+
+        public long getTotal() {
+            long total = unplacedDemand;
+            for (Long size : placedDemand.values()) {
+                total += size;
+            }
+            return total;
+        }
+
+        /**
+         * @return the memory in bytes the job needs on each node, with the unplaced memory spread evenly over the
+         *         given nodes.
+         */
+        public Map<String, Long> getNodeDemand(Collection<String> nodeIds) {
+            Map<String, Long> nodeDemand = new HashMap<String, Long>(placedDemand);
+            if (unplacedDemand > 0 && !nodeIds.isEmpty()) {
+                long share = (unplacedDemand + nodeIds.size() - 1) / nodeIds.size();
+                for (String nodeId : nodeIds) {
+                    addMemory(nodeDemand, nodeId, share);
+                }
+            }
+            return nodeDemand;
+        }
+
+        @Override
+        public String toString() {
+            return "placed: " + placedDemand + ", unplaced: " + unplacedDemand;
+        }
+    }
+
+    private static class QueuedJob {
+        final JobRun run;
+
+        final MemoryDemand demand;
+
+        final int priority;
+
+        final long sequence;
+
+        boolean waiting;
+
+        QueuedJob(JobRun run, MemoryDemand demand, int priority, long sequence) {
+            this.run = run;
+            this.demand = demand;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -19,14 +19,15 @@
 package org.apache.hyracks.control.cc.scheduler;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
-import java.util.Random;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -49,6 +50,7 @@ import org.apache.hyracks.api.deployment.DeploymentId;
 import org.apache.hyracks.api.exceptions.HyracksException;
 import org.apache.hyracks.api.job.ActivityCluster;
 import org.apache.hyracks.api.job.ActivityClusterGraph;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobStatus;
 import org.apache.hyracks.api.partitions.PartitionId;
@@ -57,6 +59,7 @@ import org.apache.hyracks.control.cc.ClusterControllerService;
 import org.apache.hyracks.control.cc.NodeControllerState;
 import org.apache.hyracks.control.cc.application.CCApplicationContext;
 import org.apache.hyracks.control.cc.job.ActivityClusterPlan;
+import org.apache.hyracks.control.cc.job.DeployedJobSpec;
 import org.apache.hyracks.control.cc.job.JobRun;
 import org.apache.hyracks.control.cc.job.Task;
 import org.apache.hyracks.control.cc.job.TaskAttempt;
@@ -321,11 +324,14 @@ public class JobScheduler {
         }
         tcAttempt.setTaskAttempts(taskAttempts);
         solver.solve(locationMap.values());
+        Map<String, NodeLoad> nodeLoads = createNodeLoads();
         for (int i = 0; i < tasks.length; ++i) {
             Task ts = tasks[i];
             TaskId tid = ts.getTaskId();
             TaskAttempt taskAttempt = taskAttempts.get(tid);
-            String nodeId = assignLocation(acg, locationMap, tid, taskAttempt);
+            long memorySize = getTaskMemorySize(acg, tid);
+            String nodeId = assignLocation(acg, locationMap, ts, taskAttempts, memorySize, nodeLoads);
+            nodeLoads.get(nodeId).addTask(memorySize);
             taskAttempt.setNodeId(nodeId);
             taskAttempt.setStatus(TaskAttempt.TaskStatus.RUNNING, null);
             taskAttempt.setStartTime(System.currentTimeMillis());
@@ -390,7 +396,10 @@ public class JobScheduler {
     }
 
     private String assignLocation(ActivityClusterGraph acg, Map<TaskId, LValueConstraintExpression> locationMap,
-            TaskId tid, TaskAttempt taskAttempt) throws HyracksException {
+            Task ts, Map<TaskId, TaskAttempt> taskAttempts, long memorySize, Map<String, NodeLoad> nodeLoads)
+            throws HyracksException {
+        TaskId tid = ts.getTaskId();
+        TaskAttempt taskAttempt = taskAttempts.get(tid);
         ActivityId aid = tid.getActivityId();
         ActivityCluster ac = acg.getActivityMap().get(aid);
         Set<ActivityId> blockers = ac.getBlocked2BlockerMap().get(aid);
@@ -408,9 +417,8 @@ public class JobScheduler {
             LValueConstraintExpression pLocationExpr = locationMap.get(tid);
             Object location = solver.getValue(pLocationExpr);
             if (location == null) {
-                // pick any
-                nodeId = liveNodes.toArray(new String[liveNodes.size()])[Math.abs(new Random().nextInt())
-                        % liveNodes.size()];
+                nodeId = ccs.getTaskPlacementPolicy().selectNode(tid, memorySize,
+                        findInputLocations(acg, ts, taskAttempts), nodeLoads);
             } else if (location instanceof String) {
                 nodeId = (String) location;
             } else if (location instanceof String[]) {
@@ -437,6 +445,78 @@ public class JobScheduler {
         return nodeId;
     }
 
+    /**
+     * Finds the nodes of the producer partitions that the task reads from. The producers in the same task cluster are
+     * only found once they are placed.
+     */
+    private List<String> findInputLocations(ActivityClusterGraph acg, Task ts, Map<TaskId, TaskAttempt> taskAttempts) {
+        List<String> locations = new ArrayList<String>();
+        TaskId tid = ts.getTaskId();
+        List<IConnectorDescriptor> inConnectors = acg.getActivityInputs(tid.getActivityId());
+        ActivityPartitionDetails apd = ts.getActivityPlan().getActivityPartitionDetails();
+        int[] inPartitionCounts = apd.getInputPartitionCounts();
+        if (inConnectors == null || inPartitionCounts == null) {
+            return locations;
+        }
+        BitSet sourcePartitions = new BitSet();
+        for (int i = 0; i < inPartitionCounts.length; ++i) {
+            IConnectorDescriptor conn = inConnectors.get(i);
+            ActivityId producerAid = acg.getProducerActivity(conn.getConnectorId());
+            sourcePartitions.clear();
+            conn.indicateSourcePartitions(inPartitionCounts[i], apd.getPartitionCount(), tid.getPartition(),
+                    sourcePartitions);
+            for (int j = sourcePartitions.nextSetBit(0); j >= 0; j = sourcePartitions.nextSetBit(j + 1)) {
+                TaskId producerTaskId = new TaskId(producerAid, j);
+                TaskAttempt producerAttempt = taskAttempts.get(producerTaskId);
+                String nodeId = producerAttempt != null ? producerAttempt.getNodeId()
+                        : findTaskLocation(producerTaskId);
+                if (nodeId != null) {
+                    locations.add(nodeId);
+                }
+            }
+        }
+        return locations;
+    }
+
+    private static long getTaskMemorySize(ActivityClusterGraph acg, TaskId tid) {
+        return (long) acg.getOperatorMemorySize(tid.getActivityId().getOperatorDescriptorId()) * acg.getFrameSize();
+    }
+
+    /**
+     * Takes a snapshot of the load of the live nodes, counting the running tasks of all the active jobs.
+     */
+    private Map<String, NodeLoad> createNodeLoads() {
+        Map<String, NodeLoad> nodeLoads = new LinkedHashMap<String, NodeLoad>();
+        for (Map.Entry<String, NodeControllerState> e : ccs.getNodeMap().entrySet()) {
+            NodeControllerState ncs = e.getValue();
+            nodeLoads.put(e.getKey(), new NodeLoad(e.getKey(), ncs.getNumProcessors(), ncs.getHeapUsedSize(),
+                    ncs.getHeapMaxSize(), ncs.getSystemLoadAverage()));
+        }
+        for (JobRun run : ccs.getActiveRunMap().values()) {
+            JobScheduler scheduler = run.getScheduler();
+            if (scheduler != null) {
+                scheduler.addRunningTasks(nodeLoads);
+            }
+        }
+        return nodeLoads;
+    }
+
+    private void addRunningTasks(Map<String, NodeLoad> nodeLoads) {
+        ActivityClusterGraph acg = jobRun.getActivityClusterGraph();
+        for (TaskCluster tc : inProgressTaskClusters) {
+            TaskClusterAttempt lastAttempt = findLastTaskClusterAttempt(tc);
+            if (lastAttempt == null || lastAttempt.getTaskAttempts() == null) {
+                continue;
+            }
+            for (TaskAttempt ta : lastAttempt.getTaskAttempts().values()) {
+                NodeLoad nodeLoad = nodeLoads.get(ta.getNodeId());
+                if (ta.getStatus() == TaskAttempt.TaskStatus.RUNNING && nodeLoad != null) {
+                    nodeLoad.addTask(getTaskMemorySize(acg, ta.getTaskAttemptId().getTaskId()));
+                }
+            }
+        }
+    }
+
     private String findTaskLocation(TaskId tid) {
         ActivityId aid = tid.getActivityId();
         ActivityCluster ac = jobRun.getActivityClusterGraph().getActivityMap().get(aid);
@@ -464,8 +544,12 @@ public class JobScheduler {
         final ActivityClusterGraph acg = jobRun.getActivityClusterGraph();
         final Map<ConnectorDescriptorId, IConnectorPolicy> connectorPolicies = new HashMap<ConnectorDescriptorId, IConnectorPolicy>(
                 jobRun.getConnectorPolicyMap());
+        final DeployedJobSpec deployedJobSpec = jobRun.getDeployedJobSpec();
+        // The node controllers keep the plan of a deployed job spec until it is undeployed.
+        final DeployedJobSpecId deployedJobSpecId = deployedJobSpec != null && !deployedJobSpec.isUndeployed()
+                ? deployedJobSpec.getDeployedJobSpecId() : null;
         try {
-            byte[] acgBytes = JavaSerializationUtils.serialize(acg);
+            byte[] acgBytes = deployedJobSpec != null ? deployedJobSpec.getActivityClusterGraphBytes() : null;
             for (Map.Entry<String, List<TaskAttemptDescriptor>> entry : taskAttemptMap.entrySet()) {
                 String nodeId = entry.getKey();
                 final List<TaskAttemptDescriptor> taskDescriptors = entry.getValue();
@@ -476,9 +560,17 @@ public class JobScheduler {
                     if (LOGGER.isLoggable(Level.FINE)) {
                         LOGGER.fine("Starting: " + taskDescriptors + " at " + entry.getKey());
                     }
-                    byte[] jagBytes = changed ? acgBytes : null;
+                    byte[] jagBytes = null;
+                    if (changed
+                            && (deployedJobSpecId == null || !deployedJobSpec.getCachedNodeIds().contains(nodeId))) {
+                        if (acgBytes == null) {
+                            acgBytes = JavaSerializationUtils.serialize(acg);
+                        }
+                        jagBytes = acgBytes;
+                    }
+                    Map<String, byte[]> jobParameters = changed ? jobRun.getJobParameters() : null;
                     node.getNodeController().startTasks(deploymentId, jobId, jagBytes, taskDescriptors,
-                            connectorPolicies, jobRun.getFlags());
+                            connectorPolicies, jobRun.getFlags(), deployedJobSpecId, jobParameters);
                 }
             }
         } catch (Exception e) {
@@ -610,6 +702,11 @@ public class JobScheduler {
             if (taStatus == TaskAttempt.TaskStatus.RUNNING) {
                 ta.setStatus(TaskAttempt.TaskStatus.COMPLETED, null);
                 ta.setEndTime(System.currentTimeMillis());
+                DeployedJobSpec deployedJobSpec = jobRun.getDeployedJobSpec();
+                if (deployedJobSpec != null && !deployedJobSpec.isUndeployed()) {
+                    // the node ran a task of the plan, so it has cached the plan
+                    deployedJobSpec.getCachedNodeIds().add(ta.getNodeId());
+                }
                 if (lastAttempt.decrementPendingTasksCounter() == 0) {
                     lastAttempt.setStatus(TaskClusterAttempt.TaskClusterStatus.COMPLETED);
                     lastAttempt.setEndTime(System.currentTimeMillis());
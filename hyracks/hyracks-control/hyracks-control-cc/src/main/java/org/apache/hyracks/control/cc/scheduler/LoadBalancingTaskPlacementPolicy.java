@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.scheduler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.dataflow.TaskId;
+
+/**
+ * The default task placement. Each node is given a cost made of its load per processor and of the share of its heap
+ * that would be in use with the task, and the cheapest node wins. The load of a node is its running tasks, or its
+ * system load average if higher so that work outside of Hyracks counts too. The heap in use is the declared memory of
+ * its tasks, or the used heap of its last heartbeat if higher. The nodes that hold the inputs of the task get a
+ * discount proportional to the share of the input partitions they hold, so a task follows its inputs unless their
+ * node is clearly busier. Nodes whose heap cannot take the declared memory of the task are only used when no node
+ * can; the used heap is left out of that check since it also counts garbage.
+ */
+public class LoadBalancingTaskPlacementPolicy implements ITaskPlacementPolicy {
+    private static final double DEFAULT_LOCALITY_WEIGHT = 1.0;
+
+    private final double localityWeight;
+
+    public LoadBalancingTaskPlacementPolicy() {
+        this(DEFAULT_LOCALITY_WEIGHT);
+    }
+
+    /**
+     * @param localityWeight
+     *            - the discount, in running tasks per processor, of a node that holds all the inputs of a task
+     */
+    public LoadBalancingTaskPlacementPolicy(double localityWeight) {
+        this.localityWeight = localityWeight;
+    }
+
+    @Override
+    public String selectNode(TaskId tid, long memorySize, List<String> inputLocations,
+            Map<String, NodeLoad> nodeLoads) {
+        Map<String, Integer> inputCounts = new HashMap<String, Integer>();
+        for (String location : inputLocations) {
+            Integer count = inputCounts.get(location);
+            inputCounts.put(location, count == null ? 1 : count + 1);
+        }
+        String bestNode = null;
+        double bestCost = Double.MAX_VALUE;
+        boolean bestFits = false;
+        for (NodeLoad load : nodeLoads.values()) {
+            boolean fits = load.getHeapMaxSize() <= 0 || load.getReservedMemory() + memorySize <= load.getHeapMaxSize();
+            if (bestFits && !fits) {
+                continue;
+            }
+            double cost = (Math.max(load.getRunningTasks(), load.getSystemLoadAverage()) + 1)
+                    / Math.max(1, load.getNumProcessors());
+            if (load.getHeapMaxSize() > 0) {
+                cost += (Math.max(load.getReservedMemory(), load.getHeapUsedSize()) + memorySize)
+                        / (double) load.getHeapMaxSize();
+            }
+            Integer inputCount = inputCounts.get(load.getNodeId());
+            if (inputCount != null) {
+                cost -= localityWeight * inputCount / inputLocations.size();
+            }
+            if (bestNode == null || (fits && !bestFits) || cost < bestCost) {
+                bestNode = load.getNodeId();
+                bestCost = cost;
+                bestFits = fits;
+            }
+        }
+        return bestNode;
+    }
+}
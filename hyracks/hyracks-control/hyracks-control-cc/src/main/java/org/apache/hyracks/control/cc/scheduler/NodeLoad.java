@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.scheduler;
+
+/**
+ * The load of a node controller as seen by the scheduler: the resources from its last heartbeat, plus the tasks that
+ * are running on it and the memory that their operators declared.
+ */
+public class NodeLoad {
+    private final String nodeId;
+
+    private final int nProcessors;
+
+    private final long heapUsedSize;
+
+    private final long heapMaxSize;
+
+    private final double systemLoadAverage;
+
+    private int runningTasks;
+
+    private long reservedMemory;
+
+    public NodeLoad(String nodeId, int nProcessors, long heapUsedSize, long heapMaxSize, double systemLoadAverage) {
+        this.nodeId = nodeId;
+        this.nProcessors = nProcessors;
+        this.heapUsedSize = heapUsedSize;
+        this.heapMaxSize = heapMaxSize;
+        this.systemLoadAverage = systemLoadAverage;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getNumProcessors() {
+        return nProcessors;
+    }
+
+    public long getHeapUsedSize() {
+        return heapUsedSize;
+    }
+
+    /**
+     * @return the maximum heap size in bytes, 0 if the node did not report it yet.
+     */
+    public long getHeapMaxSize() {
+        return heapMaxSize;
+    }
+
+    public double getSystemLoadAverage() {
+        return systemLoadAverage;
+    }
+
+    public int getRunningTasks() {
+        return runningTasks;
+    }
+
+    /**
+     * @return the memory in bytes declared by the operators of the running tasks.
+     */
+    public long getReservedMemory() {
+        return reservedMemory;
+    }
+
+    public void addTask(long memorySize) {
+        ++runningTasks;
+        reservedMemory += memorySize;
+    }
+
+    @Override
+    public String toString() {
+        return nodeId + "[tasks: " + runningTasks + ", reserved: " + reservedMemory + ", heap: " + heapUsedSize + "/"
+                + heapMaxSize + ", load: " + systemLoadAverage + "]";
+    }
+}
@@ -24,6 +24,7 @@ import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.control.cc.ClusterControllerService;
 import org.apache.hyracks.control.cc.web.util.IJSONOutputFunction;
 import org.apache.hyracks.control.cc.work.GetActivityClusterGraphJSONWork;
+import org.apache.hyracks.control.cc.work.GetJobQueueJSONWork;
 import org.apache.hyracks.control.cc.work.GetJobRunJSONWork;
 import org.apache.hyracks.control.cc.work.GetJobSummariesJSONWork;
 
@@ -39,6 +40,12 @@ public class JobsRESTAPIFunction implements IJSONOutputFunction {
         JSONObject result = new JSONObject();
         switch (arguments.length) {
             case 1:
+                if ("queue".equalsIgnoreCase(arguments[0])) {
+                    GetJobQueueJSONWork gjqe = new GetJobQueueJSONWork(ccs);
+                    ccs.getWorkQueue().scheduleAndSync(gjqe);
+                    result.put("result", gjqe.getJSON());
+                    break;
+                }
                 if (!"".equals(arguments[0])) {
                     break;
                 }
@@ -49,7 +49,7 @@ public class GetJobSummariesJSONWork extends SynchronizableWork {
             jo.put("type", "job-summary");
             jo.put("job-id", run.getJobId().toString());
             jo.put("create-time", run.getCreateTime());
-            jo.put("start-time", run.getCreateTime());
+            jo.put("start-time", run.getStartTime());
             jo.put("end-time", run.getCreateTime());
             jo.put("status", run.getStatus().toString());
             summaries.put(jo);
@@ -18,10 +18,12 @@
  */
 package org.apache.hyracks.control.cc.work;
 
-import java.util.Collections;
 import java.util.EnumSet;
+import java.util.Map;
 
 import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.IActivityClusterGraphGenerator;
 import org.apache.hyracks.api.job.IActivityClusterGraphGeneratorFactory;
 import org.apache.hyracks.api.job.JobFlag;
@@ -29,6 +31,7 @@ import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobStatus;
 import org.apache.hyracks.control.cc.ClusterControllerService;
 import org.apache.hyracks.control.cc.application.CCApplicationContext;
+import org.apache.hyracks.control.cc.job.DeployedJobSpec;
 import org.apache.hyracks.control.cc.job.JobRun;
 import org.apache.hyracks.control.common.deployment.DeploymentUtils;
 import org.apache.hyracks.control.common.work.IResultCallback;
@@ -39,6 +42,8 @@ public class JobStartWork extends SynchronizableWork {
     private final byte[] acggfBytes;
     private final EnumSet<JobFlag> jobFlags;
     private final DeploymentId deploymentId;
+    private final DeployedJobSpecId deployedJobSpecId;
+    private final Map<String, byte[]> jobParameters;
     private final JobId jobId;
     private final IResultCallback<JobId> callback;
 
@@ -49,6 +54,20 @@ public class JobStartWork extends SynchronizableWork {
         this.ccs = ccs;
         this.acggfBytes = acggfBytes;
         this.jobFlags = jobFlags;
+        this.deployedJobSpecId = null;
+        this.jobParameters = null;
+        this.callback = callback;
+    }
+
+    public JobStartWork(ClusterControllerService ccs, DeployedJobSpecId deployedJobSpecId,
+            Map<String, byte[]> jobParameters, JobId jobId, IResultCallback<JobId> callback) {
+        this.deploymentId = null;
+        this.jobId = jobId;
+        this.ccs = ccs;
+        this.acggfBytes = null;
+        this.jobFlags = null;
+        this.deployedJobSpecId = deployedJobSpecId;
+        this.jobParameters = jobParameters;
         this.callback = callback;
     }
 
@@ -56,23 +75,29 @@ public class JobStartWork extends SynchronizableWork {
     protected void doRun() throws Exception {
         try {
             final CCApplicationContext appCtx = ccs.getApplicationContext();
-            IActivityClusterGraphGeneratorFactory acggf = (IActivityClusterGraphGeneratorFactory) DeploymentUtils
-                    .deserialize(acggfBytes, deploymentId, appCtx);
-            IActivityClusterGraphGenerator acgg = acggf.createActivityClusterGraphGenerator(jobId, appCtx, jobFlags);
-            JobRun run = new JobRun(ccs, deploymentId, jobId, acgg, jobFlags);
+            IActivityClusterGraphGeneratorFactory acggf;
+            JobRun run;
+            if (deployedJobSpecId != null) {
+                DeployedJobSpec deployedJobSpec = ccs.getDeployedJobSpecMap().get(deployedJobSpecId);
+                if (deployedJobSpec == null) {
+                    throw new HyracksException("Unknown deployed job spec: " + deployedJobSpecId);
+                }
+                acggf = deployedJobSpec.getActivityClusterGraphGeneratorFactory();
+                run = new JobRun(ccs, jobId, deployedJobSpec, jobParameters);
+            } else {
+                acggf = (IActivityClusterGraphGeneratorFactory) DeploymentUtils.deserialize(acggfBytes, deploymentId,
+                        appCtx);
+                IActivityClusterGraphGenerator acgg = acggf.createActivityClusterGraphGenerator(jobId, appCtx,
+                        jobFlags);
+                run = new JobRun(ccs, deploymentId, jobId, acgg, jobFlags);
+            }
             run.setStatus(JobStatus.INITIALIZED, null);
             ccs.getActiveRunMap().put(jobId, run);
             appCtx.notifyJobCreation(jobId, acggf);
-            run.setStatus(JobStatus.RUNNING, null);
-            try {
-                run.getScheduler().startJob();
-            } catch (Exception e) {
-                ccs.getWorkQueue().schedule(
-                        new JobCleanupWork(ccs, run.getJobId(), JobStatus.FAILURE, Collections.singletonList(e)));
-            }
+            ccs.getJobAdmissionController().submit(run);
             callback.setValue(jobId);
         } catch (Exception e) {
             callback.setException(e);
         }
     }
-}
\ No newline at end of file
+}
@@ -24,14 +24,16 @@ import org.apache.hyracks.control.cc.ClusterControllerService;
 import org.apache.hyracks.control.common.heartbeat.HeartbeatData;
 
 public class NodeHeartbeatWork extends AbstractHeartbeatWork {
+    private final ClusterControllerService ccs;
 
     public NodeHeartbeatWork(ClusterControllerService ccs, String nodeId, HeartbeatData hbData) {
         super(ccs, nodeId, hbData);
+        this.ccs = ccs;
     }
 
     @Override
     public void runWork() {
-
+        ccs.getJobAdmissionController().admitQueuedJobs();
     }
 
     @Override
@@ -27,6 +27,7 @@ import java.util.logging.Logger;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.control.cc.ClusterControllerService;
 import org.apache.hyracks.control.cc.NodeControllerState;
+import org.apache.hyracks.control.cc.job.DeployedJobSpec;
 import org.apache.hyracks.control.cc.job.JobRun;
 import org.apache.hyracks.control.common.work.AbstractWork;
 
@@ -57,6 +58,9 @@ public class RemoveDeadNodesWork extends AbstractWork {
             // Deal with dead tasks.
             affectedJobIds.addAll(state.getActiveJobIds());
         }
+        for (DeployedJobSpec deployedJobSpec : ccs.getDeployedJobSpecMap().values()) {
+            deployedJobSpec.getCachedNodeIds().removeAll(deadNodes);
+        }
         int size = affectedJobIds.size();
         if (size > 0) {
             if (LOGGER.isLoggable(Level.INFO)) {
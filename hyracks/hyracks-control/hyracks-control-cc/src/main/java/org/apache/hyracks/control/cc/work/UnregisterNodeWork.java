@@ -22,6 +22,7 @@ import java.util.Map;
 
 import org.apache.hyracks.control.cc.ClusterControllerService;
 import org.apache.hyracks.control.cc.NodeControllerState;
+import org.apache.hyracks.control.cc.job.DeployedJobSpec;
 import org.apache.hyracks.control.common.work.SynchronizableWork;
 
 public class UnregisterNodeWork extends SynchronizableWork {
@@ -37,5 +38,8 @@ public class UnregisterNodeWork extends SynchronizableWork {
     protected void doRun() throws Exception {
         Map<String, NodeControllerState> nodeMap = ccs.getNodeMap();
         nodeMap.remove(nodeId);
+        for (DeployedJobSpec deployedJobSpec : ccs.getDeployedJobSpecMap().values()) {
+            deployedJobSpec.getCachedNodeIds().remove(nodeId);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import org.apache.hyracks.api.constraints.Constraint;
+import org.apache.hyracks.api.constraints.expressions.ConstantExpression;
+import org.apache.hyracks.api.constraints.expressions.PartitionCountExpression;
+import org.apache.hyracks.api.constraints.expressions.PartitionLocationExpression;
+import org.apache.hyracks.api.dataflow.OperatorDescriptorId;
+import org.apache.hyracks.api.job.ActivityClusterGraph;
+import org.apache.hyracks.api.job.IActivityClusterGraphGenerator;
+import org.apache.hyracks.api.job.JobFlag;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.control.cc.job.JobRun;
+
+public class JobAdmissionControllerTest {
+    private static final int FRAME_SIZE = 1024;
+
+    private static final long NODE_CAPACITY = 10 * FRAME_SIZE;
+
+    @Test
+    public void fifoOrderTest() throws Exception {
+        TestController controller = new TestController(JobQueuePolicy.FIFO);
+        controller.submit(createJob(1, 0, 8, "nc1"));
+        controller.submit(createJob(2, 0, 8, "nc1"));
+        controller.submit(createJob(3, 5, 8, "nc1"));
+        assertStarted(controller, 1);
+
+        controller.notifyJobFinish(new JobId(1));
+        assertStarted(controller, 1, 2);
+        controller.notifyJobFinish(new JobId(2));
+        assertStarted(controller, 1, 2, 3);
+    }
+
+    @Test
+    public void priorityOrderTest() throws Exception {
+        TestController controller = new TestController(JobQueuePolicy.PRIORITY);
+        controller.submit(createJob(1, 0, 8, "nc1"));
+        controller.submit(createJob(2, 0, 8, "nc1"));
+        controller.submit(createJob(3, 5, 8, "nc1"));
+        controller.submit(createJob(4, 5, 8, "nc1"));
+        assertStarted(controller, 1);
+
+        controller.notifyJobFinish(new JobId(1));
+        assertStarted(controller, 1, 3);
+        controller.notifyJobFinish(new JobId(3));
+        assertStarted(controller, 1, 3, 4);
+        controller.notifyJobFinish(new JobId(4));
+        assertStarted(controller, 1, 3, 4, 2);
+    }
+
+    @Test
+    public void perNodeDemandTest() throws Exception {
+        TestController controller = new TestController(JobQueuePolicy.FIFO);
+        controller.submit(createJob(1, 0, 6, "nc1"));
+        // fits on nc2 while nc1 is busy
+        controller.submit(createJob(2, 0, 6, "nc2"));
+        assertStarted(controller, 1, 2);
+
+        // fits in the memory left on the whole cluster but not on nc1
+        controller.submit(createJob(3, 0, 6, "nc1"));
+        assertStarted(controller, 1, 2);
+
+        controller.notifyJobFinish(new JobId(1));
+        assertStarted(controller, 1, 2, 3);
+    }
+
+    @Test
+    public void unplacedDemandTest() throws Exception {
+        TestController controller = new TestController(JobQueuePolicy.FIFO);
+        controller.submit(createJob(1, 0, 6, "nc1"));
+        // 2 x 6 unplaced frames are charged 6 frames on each node, which nc1 cannot take
+        controller.submit(createJob(2, 0, 6, null, null));
+        assertStarted(controller, 1);
+
+        controller.notifyJobFinish(new JobId(1));
+        assertStarted(controller, 1, 2);
+        JSONObject reserved = controller.toJSON().getJSONObject("reserved-memory");
+        assertEquals(6 * FRAME_SIZE, reserved.getLong("nc1"));
+        assertEquals(6 * FRAME_SIZE, reserved.getLong("nc2"));
+    }
+
+    @Test
+    public void oversizedJobTest() throws Exception {
+        TestController controller = new TestController(JobQueuePolicy.FIFO);
+        controller.submit(createJob(1, 0, 1, "nc2"));
+        controller.submit(createJob(2, 0, 100, "nc1"));
+        controller.submit(createJob(3, 0, 1, "nc2"));
+        assertStarted(controller, 1);
+
+        // the oversized job waits for the cluster to be idle, then runs alone
+        controller.notifyJobFinish(new JobId(1));
+        assertStarted(controller, 1, 2);
+        controller.notifyJobFinish(new JobId(2));
+        assertStarted(controller, 1, 2, 3);
+    }
+
+    @Test
+    public void releaseTest() throws Exception {
+        TestController controller = new TestController(JobQueuePolicy.FIFO);
+        controller.submit(createJob(1, 0, 8, "nc1", "nc2"));
+        controller.submit(createJob(2, 0, 8, "nc1"));
+        controller.submit(createJob(3, 0, 8, "nc2"));
+        assertStarted(controller, 1);
+        assertEquals(2, controller.toJSON().getInt("queue-length"));
+
+        // a queued job that finishes, e.g. when it is cancelled, leaves the queue without admitting anything
+        controller.notifyJobFinish(new JobId(3));
+        assertEquals(0, controller.admissionRounds);
+        assertEquals(1, controller.toJSON().getInt("queue-length"));
+
+        controller.notifyJobFinish(new JobId(1));
+        assertEquals(1, controller.admissionRounds);
+        assertStarted(controller, 1, 2);
+        controller.notifyJobFinish(new JobId(2));
+        assertEquals(1, controller.admissionRounds);
+
+        JSONObject json = controller.toJSON();
+        assertEquals(0, json.getInt("admitted-jobs"));
+        assertEquals(0, json.getInt("queue-length"));
+        assertEquals(0, json.getJSONObject("reserved-memory").length());
+    }
+
+    @Test
+    public void waitTimeTest() throws Exception {
+        TestController controller = new TestController(JobQueuePolicy.FIFO);
+        controller.submit(createJob(1, 0, 8, "nc1"));
+        controller.submit(createJob(2, 0, 8, "nc1"));
+        Thread.sleep(50);
+        JSONObject json = controller.toJSON();
+        assertEquals(1, json.getJSONArray("queue").length());
+        assertTrue(json.getJSONArray("queue").getJSONObject(0).getLong("wait-time") >= 50);
+
+        controller.notifyJobFinish(new JobId(1));
+        json = controller.toJSON();
+        assertEquals(2, json.getLong("total-admitted"));
+        assertEquals(1, json.getLong("total-waited"));
+        assertTrue(json.getLong("average-wait-time") >= 50);
+        assertEquals(json.getLong("average-wait-time"), json.getLong("max-wait-time"));
+    }
+
+    private static void assertStarted(TestController controller, long... jobIds) {
+        List<JobId> expected = new ArrayList<JobId>();
+        for (long jobId : jobIds) {
+            expected.add(new JobId(jobId));
+        }
+        assertEquals(expected, controller.started);
+    }
+
+    /**
+     * Creates a job with one memory bounded operator of the given frames per partition, one partition per location.
+     * A null location leaves the partition to the task placement policy.
+     */
+    private static JobRun createJob(long jobId, int priority, int frames, String... locations) {
+        final ActivityClusterGraph acg = new ActivityClusterGraph();
+        OperatorDescriptorId odId = new OperatorDescriptorId(0);
+        acg.setFrameSize(FRAME_SIZE);
+        acg.setPriority(priority);
+        acg.setOperatorMemorySize(odId, frames);
+        final Set<Constraint> constraints = new HashSet<Constraint>();
+        constraints.add(new Constraint(new PartitionCountExpression(odId), new ConstantExpression(locations.length)));
+        for (int i = 0; i < locations.length; ++i) {
+            if (locations[i] != null) {
+                constraints.add(new Constraint(new PartitionLocationExpression(odId, i), new ConstantExpression(
+                        locations[i])));
+            }
+        }
+        return new JobRun(null, null, new JobId(jobId), new IActivityClusterGraphGenerator() {
+            @Override
+            public Set<Constraint> getConstraints() {
+                return constraints;
+            }
+
+            @Override
+            public ActivityClusterGraph initialize() {
+                return acg;
+            }
+        }, EnumSet.noneOf(JobFlag.class));
+    }
+
+    /**
+     * Admits the jobs on two nodes, records the started jobs and runs the admission rounds right away.
+     */
+    private static class TestController extends JobAdmissionController {
+        final List<JobId> started = new ArrayList<JobId>();
+
+        int admissionRounds;
+
+        TestController(JobQueuePolicy policy) {
+            super(null, policy, 0.5);
+        }
+
+        @Override
+        protected Map<String, Long> getNodeCapacities() {
+            Map<String, Long> capacities = new LinkedHashMap<String, Long>();
+            capacities.put("nc1", NODE_CAPACITY);
+            capacities.put("nc2", NODE_CAPACITY);
+            return capacities;
+        }
+
+        @Override
+        protected void scheduleAdmission() {
+            ++admissionRounds;
+            admitQueuedJobs();
+        }
+
+        @Override
+        protected void startJob(JobRun run) {
+            run.setStartTime(System.currentTimeMillis());
+            started.add(run.getJobId());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.cc.scheduler;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.OperatorDescriptorId;
+import org.apache.hyracks.api.dataflow.TaskId;
+
+public class LoadBalancingTaskPlacementPolicyTest {
+    private static final long MB = 1024 * 1024;
+
+    private static final long HEAP = 1024 * MB;
+
+    private final ITaskPlacementPolicy policy = new LoadBalancingTaskPlacementPolicy();
+
+    @Test
+    public void tieSpreadingTest() {
+        Map<String, NodeLoad> loads = createLoads(new NodeLoad("nc1", 4, 0, HEAP, 0), new NodeLoad("nc2", 4, 0, HEAP,
+                0), new NodeLoad("nc3", 4, 0, HEAP, 0));
+        Map<String, Integer> counts = new LinkedHashMap<String, Integer>();
+        for (int i = 0; i < 12; ++i) {
+            String node = policy.selectNode(createTaskId(i), MB, Collections.<String> emptyList(), loads);
+            loads.get(node).addTask(MB);
+            Integer count = counts.get(node);
+            counts.put(node, count == null ? 1 : count + 1);
+        }
+        assertEquals(3, counts.size());
+        for (Integer count : counts.values()) {
+            assertEquals(4, count.intValue());
+        }
+    }
+
+    @Test
+    public void localityTest() {
+        Map<String, NodeLoad> loads = createLoads(new NodeLoad("nc1", 4, 0, HEAP, 0), new NodeLoad("nc2", 4, 0, HEAP,
+                0));
+        assertEquals("nc2", policy.selectNode(createTaskId(0), MB, Arrays.asList("nc2", "nc2"), loads));
+        // the node holding most of the partitions wins
+        assertEquals("nc1", policy.selectNode(createTaskId(0), MB, Arrays.asList("nc2", "nc1", "nc1"), loads));
+
+        // a slightly busier node still keeps the task
+        loads.get("nc2").addTask(0);
+        loads.get("nc2").addTask(0);
+        assertEquals("nc2", policy.selectNode(createTaskId(0), MB, Arrays.asList("nc2"), loads));
+
+        // a clearly busier one does not
+        for (int i = 0; i < 6; ++i) {
+            loads.get("nc2").addTask(0);
+        }
+        assertEquals("nc1", policy.selectNode(createTaskId(0), MB, Arrays.asList("nc2"), loads));
+    }
+
+    @Test
+    public void systemLoadTest() {
+        Map<String, NodeLoad> loads = createLoads(new NodeLoad("nc1", 4, 0, HEAP, 8.0), new NodeLoad("nc2", 4, 0,
+                HEAP, 0.5));
+        loads.get("nc2").addTask(0);
+        loads.get("nc2").addTask(0);
+        assertEquals("nc2", policy.selectNode(createTaskId(0), MB, Collections.<String> emptyList(), loads));
+    }
+
+    @Test
+    public void heapUsedTest() {
+        Map<String, NodeLoad> loads = createLoads(new NodeLoad("nc1", 4, 900 * MB, HEAP, 0), new NodeLoad("nc2", 4,
+                100 * MB, HEAP, 0));
+        assertEquals("nc2", policy.selectNode(createTaskId(0), MB, Collections.<String> emptyList(), loads));
+    }
+
+    @Test
+    public void fitTest() {
+        Map<String, NodeLoad> loads = createLoads(new NodeLoad("nc1", 4, 0, HEAP, 0), new NodeLoad("nc2", 4, 0,
+                4 * HEAP, 0));
+        loads.get("nc1").addTask(900 * MB);
+        for (int i = 0; i < 8; ++i) {
+            loads.get("nc2").addTask(0);
+        }
+        // nc1 is idler and holds the input, but only nc2 can take the memory of the task
+        assertEquals("nc2", policy.selectNode(createTaskId(0), 200 * MB, Arrays.asList("nc1"), loads));
+    }
+
+    @Test
+    public void noFitFallbackTest() {
+        Map<String, NodeLoad> loads = createLoads(new NodeLoad("nc1", 4, 0, HEAP, 0), new NodeLoad("nc2", 4, 0, HEAP,
+                0));
+        loads.get("nc2").addTask(0);
+        assertEquals("nc1", policy.selectNode(createTaskId(0), 2 * HEAP, Collections.<String> emptyList(), loads));
+        assertEquals("nc2", policy.selectNode(createTaskId(0), 2 * HEAP, Arrays.asList("nc2"), loads));
+    }
+
+    @Test
+    public void unknownHeapTest() {
+        Map<String, NodeLoad> loads = createLoads(new NodeLoad("nc1", 4, 0, 0, -1), new NodeLoad("nc2", 4, 0, HEAP,
+                -1));
+        loads.get("nc2").addTask(0);
+        // a node that did not report its heap yet is assumed to fit
+        assertEquals("nc1", policy.selectNode(createTaskId(0), 2 * HEAP, Collections.<String> emptyList(), loads));
+    }
+
+    private static Map<String, NodeLoad> createLoads(NodeLoad... loads) {
+        Map<String, NodeLoad> nodeLoads = new LinkedHashMap<String, NodeLoad>();
+        for (NodeLoad load : loads) {
+            nodeLoads.put(load.getNodeId(), load);
+        }
+        return nodeLoads;
+    }
+
+    private static TaskId createTaskId(int partition) {
+        return new TaskId(new ActivityId(new OperatorDescriptorId(0), 0), partition);
+    }
+}
@@ -71,6 +71,15 @@ public class CCConfig {
     @Option(name = "-app-cc-main-class", required = false, usage = "Application CC Main Class")
     public String appCCMainClass = null;
 
+    @Option(name = "-task-placement-policy", required = false, usage = "Sets the class that places the tasks without a location constraint on the node controllers. (default: balances the running tasks and their declared memory)")
+    public String taskPlacementPolicyClass = null;
+
+    @Option(name = "-job-memory-ratio", usage = "Sets the fraction of the heap of the node controllers that the operators of the running jobs may declare. The other jobs wait in a queue. 0 to disable. (default: 0)")
+    public double jobMemoryRatio = 0;
+
+    @Option(name = "-job-queue-policy", usage = "Sets the order in which the waiting jobs are admitted, FIFO or PRIORITY. (default: FIFO)")
+    public String jobQueuePolicy = "FIFO";
+
     @Argument
     @Option(name = "--", handler = StopOptionHandler.class)
     public List<String> appArgs;
@@ -102,6 +111,10 @@ public class CCConfig {
         cList.add(String.valueOf(resultSweepThreshold));
         cList.add("-cc-root");
         cList.add(ccRoot);
+        cList.add("-job-memory-ratio");
+        cList.add(String.valueOf(jobMemoryRatio));
+        cList.add("-job-queue-policy");
+        cList.add(jobQueuePolicy);
         if (clusterTopologyDefinition != null) {
             cList.add("-cluster-topology");
             cList.add(clusterTopologyDefinition.getAbsolutePath());
@@ -110,6 +123,10 @@ public class CCConfig {
             cList.add("-app-cc-main-class");
             cList.add(appCCMainClass);
         }
+        if (taskPlacementPolicyClass != null) {
+            cList.add("-task-placement-policy");
+            cList.add(taskPlacementPolicyClass);
+        }
         if (appArgs != null && !appArgs.isEmpty()) {
             cList.add("--");
             for (String appArg : appArgs) {
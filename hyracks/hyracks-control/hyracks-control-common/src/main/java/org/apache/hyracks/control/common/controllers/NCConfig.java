@@ -83,9 +83,21 @@ public class NCConfig implements Serializable {
     @Option(name = "-net-buffer-count", usage = "Number of network buffers per input/output channel (default:1)", required = false)
     public int nNetBuffers = 1;
 
+    @Option(name = "-compute-thread-count", usage = "Number of threads of the pool that operators use to run parallel"
+            + " parts of their work, like the ranges of a parallel sort (default: -1 one per processor)")
+    public int nComputeThreads = -1;
+
     @Option(name = "-max-memory", usage = "Maximum memory usable at this Node Controller in bytes (default: -1 auto)")
     public int maxMemory = -1;
 
+    @Option(name = "-frame-pool-memory", usage = "Memory retained at this Node Controller to recycle released frames"
+            + " in bytes, 0 to disable frame recycling (default: -1 auto)")
+    public long framePoolMemory = -1;
+
+    @Option(name = "-buffer-cache-page-replacement", usage = "Page replacement strategy of the buffer caches that"
+            + " applications create at this Node Controller: clock or hot-cold-clock (default: clock)")
+    public String bufferCachePageReplacement = "clock";
+
     @Option(name = "-result-time-to-live", usage = "Limits the amount of time results for asynchronous jobs should be retained by the system in milliseconds. (default: 24 hours)")
     public long resultTTL = 86400000;
 
@@ -139,8 +151,14 @@ public class NCConfig implements Serializable {
         cList.add(String.valueOf(nNetThreads));
         cList.add("-net-buffer-count");
         cList.add(String.valueOf(nNetBuffers));
+        cList.add("-compute-thread-count");
+        cList.add(String.valueOf(nComputeThreads));
         cList.add("-max-memory");
         cList.add(String.valueOf(maxMemory));
+        cList.add("-frame-pool-memory");
+        cList.add(String.valueOf(framePoolMemory));
+        cList.add("-buffer-cache-page-replacement");
+        cList.add(bufferCachePageReplacement);
         cList.add("-result-time-to-live");
         cList.add(String.valueOf(resultTTL));
         cList.add("-result-sweep-threshold");
@@ -179,7 +197,10 @@ public class NCConfig implements Serializable {
         configuration.put("iodevices", ioDevices);
         configuration.put("net-thread-count", String.valueOf(nNetThreads));
         configuration.put("net-buffer-count", String.valueOf(nNetBuffers));
+        configuration.put("compute-thread-count", String.valueOf(nComputeThreads));
         configuration.put("max-memory", String.valueOf(maxMemory));
+        configuration.put("frame-pool-memory", String.valueOf(framePoolMemory));
+        configuration.put("buffer-cache-page-replacement", bufferCachePageReplacement);
         configuration.put("result-time-to-live", String.valueOf(resultTTL));
         configuration.put("result-sweep-threshold", String.valueOf(resultSweepThreshold));
         configuration.put("result-manager-memory", String.valueOf(resultManagerMemory));
@@ -52,6 +52,10 @@ public class HeartbeatData {
     public long ipcMessageBytesReceived;
     public long diskReads;
     public long diskWrites;
+    public long framePoolHits;
+    public long framePoolMisses;
+    public long framePoolPooledBytes;
+    public long framePoolOutstandingBytes;
 
     public void readFields(DataInput dis) throws IOException {
         heapInitSize = dis.readLong();
@@ -80,6 +84,10 @@ public class HeartbeatData {
         ipcMessageBytesReceived = dis.readLong();
         diskReads = dis.readLong();
         diskWrites = dis.readLong();
+        framePoolHits = dis.readLong();
+        framePoolMisses = dis.readLong();
+        framePoolPooledBytes = dis.readLong();
+        framePoolOutstandingBytes = dis.readLong();
 
         int gcCounts = dis.readInt();
         gcCollectionCounts = new long[gcCounts];
@@ -120,6 +128,10 @@ public class HeartbeatData {
         dos.writeLong(ipcMessageBytesReceived);
         dos.writeLong(diskReads);
         dos.writeLong(diskWrites);
+        dos.writeLong(framePoolHits);
+        dos.writeLong(framePoolMisses);
+        dos.writeLong(framePoolPooledBytes);
+        dos.writeLong(framePoolOutstandingBytes);
 
         dos.writeInt(gcCollectionCounts.length);
         for (int i = 0; i < gcCollectionCounts.length; i++) {
@@ -47,6 +47,7 @@ import org.apache.hyracks.api.dataflow.connectors.ConnectorPolicyFactory;
 import org.apache.hyracks.api.dataflow.connectors.IConnectorPolicy;
 import org.apache.hyracks.api.dataset.ResultSetId;
 import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.JobFlag;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobStatus;
@@ -101,6 +102,8 @@ public class CCNCFunctions {
         STATE_DUMP_REQUEST,
         STATE_DUMP_RESPONSE,
 
+        UNDEPLOY_JOB_SPEC,
+
         OTHER
     }
 
@@ -674,16 +677,21 @@ public class CCNCFunctions {
         private final List<TaskAttemptDescriptor> taskDescriptors;
         private final Map<ConnectorDescriptorId, IConnectorPolicy> connectorPolicies;
         private final EnumSet<JobFlag> flags;
+        private final DeployedJobSpecId deployedJobSpecId;
+        private final Map<String, byte[]> jobParameters;
 
         public StartTasksFunction(DeploymentId deploymentId, JobId jobId, byte[] planBytes,
                 List<TaskAttemptDescriptor> taskDescriptors,
-                Map<ConnectorDescriptorId, IConnectorPolicy> connectorPolicies, EnumSet<JobFlag> flags) {
+                Map<ConnectorDescriptorId, IConnectorPolicy> connectorPolicies, EnumSet<JobFlag> flags,
+                DeployedJobSpecId deployedJobSpecId, Map<String, byte[]> jobParameters) {
             this.deploymentId = deploymentId;
             this.jobId = jobId;
             this.planBytes = planBytes;
             this.taskDescriptors = taskDescriptors;
             this.connectorPolicies = connectorPolicies;
             this.flags = flags;
+            this.deployedJobSpecId = deployedJobSpecId;
+            this.jobParameters = jobParameters;
         }
 
         @Override
@@ -715,6 +723,14 @@ public class CCNCFunctions {
             return flags;
         }
 
+        public DeployedJobSpecId getDeployedJobSpecId() {
+            return deployedJobSpecId;
+        }
+
+        public Map<String, byte[]> getJobParameters() {
+            return jobParameters;
+        }
+
         public static Object deserialize(ByteBuffer buffer, int length) throws Exception {
             ByteArrayInputStream bais = new ByteArrayInputStream(buffer.array(), buffer.position(), length);
             DataInputStream dis = new DataInputStream(bais);
@@ -759,7 +775,27 @@ public class CCNCFunctions {
                 flags.add(JobFlag.values()[(dis.readInt())]);
             }
 
-            return new StartTasksFunction(deploymentId, jobId, planBytes, taskDescriptors, connectorPolicies, flags);
+            // read deployed job spec id
+            DeployedJobSpecId deployedJobSpecId = null;
+            if (dis.readBoolean()) {
+                deployedJobSpecId = DeployedJobSpecId.create(dis);
+            }
+
+            // read job parameters
+            int paramSize = dis.readInt();
+            Map<String, byte[]> jobParameters = null;
+            if (paramSize >= 0) {
+                jobParameters = new HashMap<String, byte[]>();
+                for (int i = 0; i < paramSize; i++) {
+                    String name = dis.readUTF();
+                    byte[] value = new byte[dis.readInt()];
+                    dis.readFully(value);
+                    jobParameters.put(name, value);
+                }
+            }
+
+            return new StartTasksFunction(deploymentId, jobId, planBytes, taskDescriptors, connectorPolicies, flags,
+                    deployedJobSpecId, jobParameters);
         }
 
         public static void serialize(OutputStream out, Object object) throws Exception {
@@ -797,6 +833,22 @@ public class CCNCFunctions {
             for (JobFlag flag : fn.flags) {
                 dos.writeInt(flag.ordinal());
             }
+
+            //write deployed job spec id
+            dos.writeBoolean(fn.deployedJobSpecId != null);
+            if (fn.deployedJobSpecId != null) {
+                fn.deployedJobSpecId.writeFields(dos);
+            }
+
+            //write job parameters
+            dos.writeInt(fn.jobParameters == null ? -1 : fn.jobParameters.size());
+            if (fn.jobParameters != null) {
+                for (Entry<String, byte[]> entry : fn.jobParameters.entrySet()) {
+                    dos.writeUTF(entry.getKey());
+                    dos.writeInt(entry.getValue().length);
+                    dos.write(entry.getValue());
+                }
+            }
         }
     }
 
@@ -989,6 +1041,25 @@ public class CCNCFunctions {
         }
     }
 
+    public static class UndeployJobSpecFunction extends Function {
+        private static final long serialVersionUID = 1L;
+
+        private final DeployedJobSpecId deployedJobSpecId;
+
+        public UndeployJobSpecFunction(DeployedJobSpecId deployedJobSpecId) {
+            this.deployedJobSpecId = deployedJobSpecId;
+        }
+
+        @Override
+        public FunctionId getFunctionId() {
+            return FunctionId.UNDEPLOY_JOB_SPEC;
+        }
+
+        public DeployedJobSpecId getDeployedJobSpecId() {
+            return deployedJobSpecId;
+        }
+    }
+
     public static class RequestShutdownFunction extends Function {
         private static final long serialVersionUID = 1L;
 
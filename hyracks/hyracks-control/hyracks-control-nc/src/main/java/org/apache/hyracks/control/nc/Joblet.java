@@ -24,12 +24,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import org.apache.hyracks.api.application.INCApplicationContext;
 import org.apache.hyracks.api.comm.IPartitionCollector;
 import org.apache.hyracks.api.comm.PartitionChannel;
+import org.apache.hyracks.api.compression.IFrameCompressorFactory;
 import org.apache.hyracks.api.context.IHyracksJobletContext;
 import org.apache.hyracks.api.dataflow.TaskAttemptId;
 import org.apache.hyracks.api.dataflow.state.IStateObject;
@@ -61,6 +61,8 @@ import org.apache.hyracks.control.nc.io.IOManager;
 import org.apache.hyracks.control.nc.io.WorkspaceFileFactory;
 import org.apache.hyracks.control.nc.resources.DefaultDeallocatableRegistry;
 import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.control.nc.resources.memory.FramePool;
+import org.apache.hyracks.control.nc.resources.memory.MemoryAccountedFrameManager;
 
 public class Joblet implements IHyracksJobletContext, ICounterContext {
     private static final Logger LOGGER = Logger.getLogger(Joblet.class.getName());
@@ -75,6 +77,8 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
 
     private final ActivityClusterGraph acg;
 
+    private final Map<String, byte[]> jobParameters;
+
     private final Map<PartitionId, IPartitionCollector> partitionRequestMap;
 
     private final IOperatorEnvironment env;
@@ -93,23 +97,23 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
 
     private final IJobletEventListener jobletEventListener;
 
-    private final FrameManager frameManager;
-
-    private final AtomicLong memoryAllocation;
+    private final MemoryAccountedFrameManager frameManager;
 
     private JobStatus cleanupStatus;
 
     private boolean cleanupPending;
 
     public Joblet(NodeControllerService nodeController, DeploymentId deploymentId, JobId jobId,
-            INCApplicationContext appCtx, ActivityClusterGraph acg) {
+            INCApplicationContext appCtx, ActivityClusterGraph acg, Map<String, byte[]> jobParameters) {
         this.nodeController = nodeController;
         this.appCtx = appCtx;
         this.deploymentId = deploymentId;
         this.jobId = jobId;
-        this.frameManager = new FrameManager(acg.getFrameSize());
-        memoryAllocation = new AtomicLong();
+        FramePool framePool = nodeController.getFramePool();
+        this.frameManager = new MemoryAccountedFrameManager(appCtx.getMemoryManager(), new FrameManager(
+                acg.getFrameSize(), framePool), framePool);
         this.acg = acg;
+        this.jobParameters = jobParameters == null ? Collections.<String, byte[]> emptyMap() : jobParameters;
         partitionRequestMap = new HashMap<PartitionId, IPartitionCollector>();
         env = new OperatorEnvironmentImpl(nodeController.getId());
         stateObjectMap = new HashMap<Object, IStateObject>();
@@ -213,10 +217,9 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
     }
 
     public void close() {
-        long stillAllocated = memoryAllocation.get();
+        long stillAllocated = frameManager.close();
         if (stillAllocated > 0) {
             LOGGER.warning("Freeing leaked " + stillAllocated + " bytes");
-            appCtx.getMemoryManager().deallocate(stillAllocated);
         }
         nodeController.getExecutor().execute(new Runnable() {
             @Override
@@ -231,11 +234,7 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
     }
 
     ByteBuffer allocateFrame(int bytes) throws HyracksDataException {
-        if (appCtx.getMemoryManager().allocate(bytes)) {
-            memoryAllocation.addAndGet(bytes);
-            return frameManager.allocateFrame(bytes);
-       }
-        throw new HyracksDataException("Unable to allocate frame: Not enough memory");
+        return frameManager.allocateFrame(bytes);
     }
 
     ByteBuffer reallocateFrame(ByteBuffer usedBuffer, int newFrameSizeInBytes, boolean copyOldData)
@@ -243,9 +242,11 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
         return frameManager.reallocateFrame(usedBuffer, newFrameSizeInBytes, copyOldData);
     }
 
+    void deallocateFrame(ByteBuffer frame) {
+        frameManager.deallocateFrame(frame);
+    }
+
     void deallocateFrames(int bytes) {
-        memoryAllocation.addAndGet(bytes);
-        appCtx.getMemoryManager().deallocate(bytes);
         frameManager.deallocateFrames(bytes);
     }
 
@@ -277,6 +278,16 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
         return counter;
     }
 
+    @Override
+    public IFrameCompressorFactory getRunFileCompressorFactory() {
+        return acg.getRunFileCompressorFactory();
+    }
+
+    @Override
+    public byte[] getJobParameter(String name) {
+        return jobParameters.get(name);
+    }
+
     @Override
     public Object getGlobalJobData() {
         return globalJobData;
@@ -37,6 +37,7 @@ import java.util.TimerTask;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -50,6 +51,7 @@ import org.apache.hyracks.api.context.IHyracksRootContext;
 import org.apache.hyracks.api.dataset.IDatasetPartitionManager;
 import org.apache.hyracks.api.deployment.DeploymentId;
 import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.lifecycle.ILifeCycleComponentManager;
 import org.apache.hyracks.api.lifecycle.LifeCycleComponentManager;
@@ -75,6 +77,7 @@ import org.apache.hyracks.control.nc.io.profiling.IOCounterFactory;
 import org.apache.hyracks.control.nc.net.DatasetNetworkManager;
 import org.apache.hyracks.control.nc.net.NetworkManager;
 import org.apache.hyracks.control.nc.partitions.PartitionManager;
+import org.apache.hyracks.control.nc.resources.memory.FramePool;
 import org.apache.hyracks.control.nc.resources.memory.MemoryManager;
 import org.apache.hyracks.control.nc.runtime.RootHyracksContext;
 import org.apache.hyracks.control.nc.work.AbortTasksWork;
@@ -87,6 +90,7 @@ import org.apache.hyracks.control.nc.work.ShutdownWork;
 import org.apache.hyracks.control.nc.work.StartTasksWork;
 import org.apache.hyracks.control.nc.work.StateDumpWork;
 import org.apache.hyracks.control.nc.work.UnDeployBinaryWork;
+import org.apache.hyracks.control.nc.work.UndeployJobSpecWork;
 import org.apache.hyracks.ipc.api.IIPCHandle;
 import org.apache.hyracks.ipc.api.IIPCI;
 import org.apache.hyracks.ipc.api.IPCPerformanceCounters;
@@ -98,6 +102,8 @@ public class NodeControllerService extends AbstractRemoteService {
 
     private static final double MEMORY_FUDGE_FACTOR = 0.8;
 
+    private static final int FRAME_POOL_MEMORY_FRACTION = 16;
+
     private NCConfig ncConfig;
 
     private final String id;
@@ -126,6 +132,8 @@ public class NodeControllerService extends AbstractRemoteService {
 
     private final Map<JobId, Joblet> jobletMap;
 
+    private final Map<DeployedJobSpecId, byte[]> deployedJobSpecMap;
+
     private ExecutorService executor;
 
     private NodeParameters nodeParameters;
@@ -154,6 +162,10 @@ public class NodeControllerService extends AbstractRemoteService {
 
     private final MemoryManager memoryManager;
 
+    private final ForkJoinPool computeThreadPool;
+
+    private final FramePool framePool;
+
     private boolean shuttedDown = false;
 
     private IIOCounter ioCounter;
@@ -176,6 +188,7 @@ public class NodeControllerService extends AbstractRemoteService {
         lccm = new LifeCycleComponentManager();
         queue = new WorkQueue();
         jobletMap = new Hashtable<JobId, Joblet>();
+        deployedJobSpecMap = new Hashtable<DeployedJobSpecId, byte[]>();
         timer = new Timer(true);
         serverCtx = new ServerContext(ServerContext.ServerType.NODE_CONTROLLER, new File(new File(
                 NodeControllerService.class.getName()), id));
@@ -187,9 +200,18 @@ public class NodeControllerService extends AbstractRemoteService {
         registrationPending = true;
         getNodeControllerInfosAcceptor = new MutableObject<FutureValue<Map<String, NodeControllerInfo>>>();
         memoryManager = new MemoryManager((long) (memoryMXBean.getHeapMemoryUsage().getMax() * MEMORY_FUDGE_FACTOR));
+        computeThreadPool = new ForkJoinPool(ncConfig.nComputeThreads > 0 ? ncConfig.nComputeThreads : Runtime
+                .getRuntime().availableProcessors());
+        framePool = createFramePool(ncConfig, memoryManager);
         ioCounter = new IOCounterFactory().getIOCounter();
     }
 
+    private static FramePool createFramePool(NCConfig ncConfig, MemoryManager memoryManager) {
+        long framePoolMemory = ncConfig.framePoolMemory >= 0 ? ncConfig.framePoolMemory : memoryManager
+                .getMaximumMemory() / FRAME_POOL_MEMORY_FRACTION;
+        return framePoolMemory > 0 ? new FramePool(memoryManager, framePoolMemory) : null;
+    }
+
     public IHyracksRootContext getRootContext() {
         return ctx;
     }
@@ -312,7 +334,8 @@ public class NodeControllerService extends AbstractRemoteService {
     }
 
     private void startApplication() throws Exception {
-        appCtx = new NCApplicationContext(serverCtx, ctx, id, memoryManager, lccm);
+        appCtx = new NCApplicationContext(serverCtx, ctx, id, memoryManager, computeThreadPool,
+                ncConfig.bufferCachePageReplacement, lccm);
         String className = ncConfig.appNCMainClass;
         if (className != null) {
             Class<?> c = Class.forName(className);
@@ -329,6 +352,10 @@ public class NodeControllerService extends AbstractRemoteService {
         if (!shuttedDown) {
             LOGGER.log(Level.INFO, "Stopping NodeControllerService");
             executor.shutdownNow();
+            computeThreadPool.shutdownNow();
+            if (framePool != null) {
+                framePool.clear();
+            }
             partitionManager.close();
             datasetPartitionManager.close();
             heartbeatTask.cancel();
@@ -354,6 +381,13 @@ public class NodeControllerService extends AbstractRemoteService {
         return jobletMap;
     }
 
+    /**
+     * @return the serialized activity cluster graphs of the deployed job specs, each run deserializes its own copy.
+     */
+    public Map<DeployedJobSpecId, byte[]> getDeployedJobSpecMap() {
+        return deployedJobSpecMap;
+    }
+
     public NetworkManager getNetworkManager() {
         return netManager;
     }
@@ -374,6 +408,13 @@ public class NodeControllerService extends AbstractRemoteService {
         return nodeParameters;
     }
 
+    /**
+     * @return the node-wide pool that joblets recycle their frames through, or null if frame recycling is disabled
+     */
+    public FramePool getFramePool() {
+        return framePool;
+    }
+
     public Executor getExecutor() {
         return executor;
     }
@@ -442,6 +483,13 @@ public class NodeControllerService extends AbstractRemoteService {
             hbData.diskReads = ioCounter.getReads();
             hbData.diskWrites = ioCounter.getWrites();
 
+            if (framePool != null) {
+                hbData.framePoolHits = framePool.getHitCount();
+                hbData.framePoolMisses = framePool.getMissCount();
+                hbData.framePoolPooledBytes = framePool.getPooledBytes();
+                hbData.framePoolOutstandingBytes = framePool.getOutstandingBytes();
+            }
+
             try {
                 cc.nodeHeartbeat(id, hbData);
             } catch (Exception e) {
@@ -489,7 +537,7 @@ public class NodeControllerService extends AbstractRemoteService {
                     CCNCFunctions.StartTasksFunction stf = (CCNCFunctions.StartTasksFunction) fn;
                     queue.schedule(new StartTasksWork(NodeControllerService.this, stf.getDeploymentId(),
                             stf.getJobId(), stf.getPlanBytes(), stf.getTaskDescriptors(), stf.getConnectorPolicies(),
-                            stf.getFlags()));
+                            stf.getFlags(), stf.getDeployedJobSpecId(), stf.getJobParameters()));
                     return;
                 }
 
@@ -537,6 +585,12 @@ public class NodeControllerService extends AbstractRemoteService {
                     return;
                 }
 
+                case UNDEPLOY_JOB_SPEC: {
+                    CCNCFunctions.UndeployJobSpecFunction ujsf = (CCNCFunctions.UndeployJobSpecFunction) fn;
+                    queue.schedule(new UndeployJobSpecWork(NodeControllerService.this, ujsf.getDeployedJobSpecId()));
+                    return;
+                }
+
                 case STATE_DUMP_REQUEST: {
                     final CCNCFunctions.StateDumpRequestFunction dsrf = (StateDumpRequestFunction) fn;
                     queue.schedule(new StateDumpWork(NodeControllerService.this, dsrf.getStateDumpId()));
@@ -135,6 +135,11 @@ public class Task implements IHyracksTaskContext, ICounterContext, Runnable {
         return joblet.reallocateFrame(usedBuffer, newSizeInBytes, copyOldData);
     }
 
+    @Override
+    public void deallocateFrame(ByteBuffer frame) {
+        joblet.deallocateFrame(frame);
+    }
+
     @Override
     public void deallocateFrames(int bytes) {
         joblet.deallocateFrames(bytes);
@@ -21,6 +21,7 @@ package org.apache.hyracks.control.nc.application;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.hyracks.api.application.INCApplicationContext;
 import org.apache.hyracks.api.application.IStateDumpHandler;
@@ -36,16 +37,21 @@ public class NCApplicationContext extends ApplicationContext implements INCAppli
     private final String nodeId;
     private final IHyracksRootContext rootCtx;
     private final MemoryManager memoryManager;
+    private final ForkJoinPool computeThreadPool;
+    private final String bufferCachePageReplacement;
     private Object appObject;
     private IStateDumpHandler sdh;
 
     public NCApplicationContext(ServerContext serverCtx, IHyracksRootContext rootCtx, String nodeId,
-            MemoryManager memoryManager, ILifeCycleComponentManager lifeCyclecomponentManager) throws IOException {
+            MemoryManager memoryManager, ForkJoinPool computeThreadPool, String bufferCachePageReplacement,
+            ILifeCycleComponentManager lifeCyclecomponentManager) throws IOException {
         super(serverCtx);
         this.lccm = lifeCyclecomponentManager;
         this.nodeId = nodeId;
         this.rootCtx = rootCtx;
         this.memoryManager = memoryManager;
+        this.computeThreadPool = computeThreadPool;
+        this.bufferCachePageReplacement = bufferCachePageReplacement;
         sdh = new IStateDumpHandler() {
 
             @Override
@@ -97,4 +103,14 @@ public class NCApplicationContext extends ApplicationContext implements INCAppli
     public IMemoryManager getMemoryManager() {
         return memoryManager;
     }
+
+    @Override
+    public ForkJoinPool getComputeThreadPool() {
+        return computeThreadPool;
+    }
+
+    @Override
+    public String getBufferCachePageReplacement() {
+        return bufferCachePageReplacement;
+    }
 }
\ No newline at end of file
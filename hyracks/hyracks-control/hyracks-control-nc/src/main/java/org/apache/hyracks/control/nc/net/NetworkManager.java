@@ -46,7 +46,7 @@ public class NetworkManager implements IChannelConnectionFactory {
 
     private static final int MAX_CONNECTION_ATTEMPTS = 5;
 
-    static final int INITIAL_MESSAGE_SIZE = 20;
+    static final int INITIAL_MESSAGE_SIZE = 24;
 
     private final PartitionManager partitionManager;
 
@@ -125,10 +125,12 @@ public class NetworkManager implements IChannelConnectionFactory {
         @Override
         public void accept(ByteBuffer buffer) {
             PartitionId pid = readInitialMessage(buffer);
+            // The consumer asks for the compact format when the connector has a codec.
+            boolean compactFrames = buffer.getInt() != 0;
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine("Received initial partition request: " + pid + " on channel: " + ccb);
             }
-            noc = new NetworkOutputChannel(ccb, nBuffers);
+            noc = new NetworkOutputChannel(ccb, nBuffers, compactFrames);
             try {
                 partitionManager.registerPartitionRequest(pid, noc);
             } catch (HyracksException e) {
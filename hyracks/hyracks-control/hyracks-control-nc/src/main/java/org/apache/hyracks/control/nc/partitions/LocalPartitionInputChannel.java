@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.partitions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+
+import org.apache.hyracks.api.channels.IInputChannel;
+import org.apache.hyracks.api.channels.IInputChannelMonitor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksCommonContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.partitions.PartitionId;
+
+/**
+ * Reads a partition that is produced by a task of the same node controller. The frames are handed over through a
+ * bounded set of buffers instead of a loopback connection: the producer copies each frame into free buffers, split
+ * like {@link org.apache.hyracks.comm.channels.NetworkOutputChannel} does, and waits when all of them are queued for
+ * the consumer, in the same way it waits for the credits of a network channel. The buffers are allocated through the
+ * context of the consumer, so they are charged to its joblet.
+ */
+public class LocalPartitionInputChannel implements IInputChannel {
+    private final int nBuffers;
+
+    private final Deque<ByteBuffer> emptyStack;
+
+    private final Queue<ByteBuffer> fullQueue;
+
+    private final PartitionId pid;
+
+    private final PartitionManager manager;
+
+    private final FrameWriter writer;
+
+    private IInputChannelMonitor monitor;
+
+    private Object attachment;
+
+    private IHyracksCommonContext ctx;
+
+    private int allocateCounter;
+
+    private boolean aborted;
+
+    public LocalPartitionInputChannel(int nBuffers, PartitionId pid, PartitionManager manager) {
+        this.nBuffers = nBuffers;
+        this.emptyStack = new ArrayDeque<ByteBuffer>(nBuffers);
+        this.fullQueue = new ArrayDeque<ByteBuffer>(nBuffers);
+        this.pid = pid;
+        this.manager = manager;
+        writer = new FrameWriter();
+    }
+
+    @Override
+    public void registerMonitor(IInputChannelMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void setAttachment(Object attachment) {
+        this.attachment = attachment;
+    }
+
+    @Override
+    public Object getAttachment() {
+        return attachment;
+    }
+
+    @Override
+    public synchronized ByteBuffer getNextBuffer() {
+        return fullQueue.poll();
+    }
+
+    @Override
+    public void recycleBuffer(ByteBuffer buffer) {
+        buffer.clear();
+        synchronized (this) {
+            emptyStack.push(buffer);
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void open(IHyracksCommonContext ctx) throws HyracksDataException {
+        this.ctx = ctx;
+        try {
+            registerPartitionRequest(writer);
+        } catch (HyracksDataException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new HyracksDataException(e);
+        }
+    }
+
+    /**
+     * Hands the writer of this channel to the producer of the partition.
+     */
+    protected void registerPartitionRequest(IFrameWriter writer) throws Exception {
+        manager.registerPartitionRequest(pid, writer);
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        // A producer that is still writing must not wait for buffers that the consumer will never recycle.
+        synchronized (this) {
+            aborted = true;
+            notifyAll();
+        }
+    }
+
+    private class FrameWriter implements IFrameWriter {
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            ByteBuffer destBuffer = null;
+            int startPos = 0;
+            do {
+                synchronized (LocalPartitionInputChannel.this) {
+                    while (true) {
+                        if (aborted) {
+                            throw new HyracksDataException("Channel has been closed by the consumer");
+                        }
+                        destBuffer = emptyStack.poll();
+                        if (destBuffer == null && allocateCounter < nBuffers) {
+                            destBuffer = ctx.allocateFrame();
+                            allocateCounter++;
+                        }
+                        if (destBuffer != null) {
+                            break;
+                        }
+                        try {
+                            LocalPartitionInputChannel.this.wait();
+                        } catch (InterruptedException e) {
+                            throw new HyracksDataException(e);
+                        }
+                    }
+                }
+                buffer.position(startPos);
+                startPos = Math.min(startPos + destBuffer.capacity(), buffer.capacity());
+                buffer.limit(startPos);
+                destBuffer.clear();
+                destBuffer.put(buffer);
+                destBuffer.flip();
+                synchronized (LocalPartitionInputChannel.this) {
+                    fullQueue.add(destBuffer);
+                }
+                // The monitor is notified outside of the channel lock, the consumer holds its own lock when it reads.
+                monitor.notifyDataAvailability(LocalPartitionInputChannel.this, 1);
+            } while (startPos < buffer.capacity());
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+            monitor.notifyFailure(LocalPartitionInputChannel.this);
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+            monitor.notifyEndOfStream(LocalPartitionInputChannel.this);
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOFuture;
 import org.apache.hyracks.api.io.IIOManager;
 import org.apache.hyracks.api.partitions.IPartition;
 import org.apache.hyracks.control.nc.io.IOManager;
@@ -72,20 +73,28 @@ public class MaterializedPartition implements IPartition {
                     }
                     IFileHandle fh = ioManager.open(partitionFile, IIOManager.FileReadWriteMode.READ_ONLY,
                             IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+                    IIOFuture nextRead = null;
                     try {
                         writer.open();
                         try {
+                            // double-buffered: the next frame is read while the current one is sent
                             long offset = 0;
                             ByteBuffer buffer = ctx.allocateFrame();
+                            ByteBuffer nextBuffer = ctx.allocateFrame();
+                            nextRead = ioManager.asyncRead(fh, offset, nextBuffer);
                             while (true) {
-                                buffer.clear();
-                                long size = ioManager.syncRead(fh, offset, buffer);
+                                long size = nextRead.synchronize();
                                 if (size < 0) {
                                     break;
-                                } else if (size < buffer.capacity()) {
+                                } else if (size < nextBuffer.capacity()) {
                                     throw new HyracksDataException("Premature end of file");
                                 }
                                 offset += size;
+                                ByteBuffer tmp = buffer;
+                                buffer = nextBuffer;
+                                nextBuffer = tmp;
+                                nextBuffer.clear();
+                                nextRead = ioManager.asyncRead(fh, offset, nextBuffer);
                                 buffer.flip();
                                 writer.nextFrame(buffer);
                             }
@@ -93,15 +102,40 @@ public class MaterializedPartition implements IPartition {
                             writer.close();
                         }
                     } finally {
+                        if (nextRead != null) {
+                            // the handle must not be closed under a read in flight
+                            awaitRead(nextRead);
+                        }
                         ioManager.close(fh);
                     }
                 } catch (HyracksDataException e) {
                     throw new RuntimeException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
                 }
             }
         });
     }
 
+    private static void awaitRead(IIOFuture read) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                read.synchronize();
+                break;
+            } catch (HyracksDataException e) {
+                // the file is being closed anyway
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Override
     public boolean isReusable() {
         return true;
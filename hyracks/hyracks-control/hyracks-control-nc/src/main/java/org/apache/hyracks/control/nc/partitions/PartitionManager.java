@@ -18,6 +18,9 @@
  */
 package org.apache.hyracks.control.nc.partitions;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -25,6 +28,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.hyracks.api.channels.IInputChannel;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.NetworkAddress;
+import org.apache.hyracks.api.compression.IFrameCompressorFactory;
 import org.apache.hyracks.api.dataflow.TaskAttemptId;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.exceptions.HyracksException;
@@ -32,9 +39,11 @@ import org.apache.hyracks.api.io.IWorkspaceFileFactory;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.partitions.IPartition;
 import org.apache.hyracks.api.partitions.PartitionId;
+import org.apache.hyracks.comm.channels.NetworkInputChannel;
 import org.apache.hyracks.comm.channels.NetworkOutputChannel;
 import org.apache.hyracks.control.common.job.PartitionDescriptor;
 import org.apache.hyracks.control.common.job.PartitionState;
+import org.apache.hyracks.control.nc.Joblet;
 import org.apache.hyracks.control.nc.NodeControllerService;
 import org.apache.hyracks.control.nc.io.IOManager;
 import org.apache.hyracks.control.nc.io.WorkspaceFileFactory;
@@ -50,7 +59,7 @@ public class PartitionManager {
 
     private final IWorkspaceFileFactory fileFactory;
 
-    private final Map<PartitionId, NetworkOutputChannel> partitionRequests = new HashMap<PartitionId, NetworkOutputChannel>();
+    private final Map<PartitionId, IFrameWriter> partitionRequests = new HashMap<PartitionId, IFrameWriter>();
 
     public PartitionManager(NodeControllerService ncs) {
         this.ncs = ncs;
@@ -66,10 +75,9 @@ public class PartitionManager {
             /**
              * process pending requests
              */
-            NetworkOutputChannel writer = partitionRequests.remove(pid);
+            IFrameWriter writer = partitionRequests.remove(pid);
             if (writer != null) {
-                writer.setFrameSize(partition.getTaskContext().getInitialFrameSize());
-                partition.writeTo(writer);
+                writeTo(pid, partition, writer);
                 if (!partition.isReusable()) {
                     return;
                 }
@@ -114,14 +122,13 @@ public class PartitionManager {
         }
     }
 
-    public synchronized void registerPartitionRequest(PartitionId partitionId, NetworkOutputChannel writer)
+    public synchronized void registerPartitionRequest(PartitionId partitionId, IFrameWriter writer)
             throws HyracksException {
         try {
             List<IPartition> pList = availablePartitionMap.get(partitionId);
             if (pList != null && !pList.isEmpty()) {
                 IPartition partition = pList.get(0);
-                writer.setFrameSize(partition.getTaskContext().getInitialFrameSize());
-                partition.writeTo(writer);
+                writeTo(partitionId, partition, writer);
                 if (!partition.isReusable()) {
                     availablePartitionMap.remove(partitionId);
                 }
@@ -134,6 +141,49 @@ public class PartitionManager {
         }
     }
 
+    private void writeTo(PartitionId pid, IPartition partition, IFrameWriter writer) {
+        if (writer instanceof NetworkOutputChannel) {
+            NetworkOutputChannel noc = (NetworkOutputChannel) writer;
+            noc.setFrameSize(partition.getTaskContext().getInitialFrameSize());
+            IFrameCompressorFactory compressorFactory = getConnectorCompressorFactory(pid);
+            if (noc.isCompactFrames() && compressorFactory != null) {
+                noc.setFrameCompressor(compressorFactory.createFrameCompressor());
+            }
+        }
+        partition.writeTo(writer);
+    }
+
+    private IFrameCompressorFactory getConnectorCompressorFactory(PartitionId pid) {
+        Joblet joblet = ncs.getJobletMap().get(pid.getJobId());
+        if (joblet == null) {
+            return null;
+        }
+        return joblet.getActivityClusterGraph().getConnectorCompressorFactory(pid.getConnectorDescriptorId());
+    }
+
+    /**
+     * Creates the channel that reads a partition produced at the given address. The partitions of this node
+     * controller are read in memory through a {@link LocalPartitionInputChannel}, the others over the network. The
+     * connectors that opted for compact frames or have a codec send their frames in the compact format, compressed
+     * with the codec if there is one, and the others send them whole.
+     */
+    public IInputChannel createInputChannel(PartitionId pid, NetworkAddress networkAddress, int nBuffers)
+            throws UnknownHostException {
+        if (networkAddress.equals(ncs.getNetworkManager().getPublicNetworkAddress())) {
+            return new LocalPartitionInputChannel(nBuffers, pid, this);
+        }
+        InetSocketAddress remoteAddress = new InetSocketAddress(InetAddress.getByAddress(networkAddress
+                .lookupIpAddress()), networkAddress.getPort());
+        Joblet joblet = ncs.getJobletMap().get(pid.getJobId());
+        if (joblet == null
+                || !joblet.getActivityClusterGraph().isConnectorCompactFrames(pid.getConnectorDescriptorId())) {
+            return new NetworkInputChannel(ncs.getNetworkManager(), remoteAddress, pid, nBuffers);
+        }
+        IFrameCompressorFactory compressorFactory = getConnectorCompressorFactory(pid);
+        return new NetworkInputChannel(ncs.getNetworkManager(), remoteAddress, pid, nBuffers, true,
+                compressorFactory == null ? null : compressorFactory.createFrameCompressor());
+    }
+
     public IWorkspaceFileFactory getFileFactory() {
         return fileFactory;
     }
@@ -20,6 +20,7 @@
 package org.apache.hyracks.control.nc.resources.memory;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.hyracks.api.comm.FrameConstants;
 import org.apache.hyracks.api.comm.FrameHelper;
@@ -30,8 +31,22 @@ public class FrameManager implements IHyracksFrameMgrContext {
 
     private final int minFrameSize;
 
+    private final FramePool framePool;
+
+    private final AtomicLong outstandingBytes;
+
     public FrameManager(int minFrameSize) {
+        this(minFrameSize, null);
+    }
+
+    /**
+     * @param framePool
+     *            the pool to recycle frames through, or null to allocate every frame from the heap
+     */
+    public FrameManager(int minFrameSize, FramePool framePool) {
         this.minFrameSize = minFrameSize;
+        this.framePool = framePool;
+        this.outstandingBytes = new AtomicLong();
     }
 
     @Override
@@ -49,11 +64,12 @@ public class FrameManager implements IHyracksFrameMgrContext {
         if (bytes % minFrameSize != 0) {
             throw new HyracksDataException("The size should be an integral multiple of the default frame size");
         }
-        ByteBuffer buffer = ByteBuffer.allocate(bytes);
         if (bytes / minFrameSize > FrameConstants.MAX_NUM_MINFRAME) {
             throw new HyracksDataException(
                     "Unable to allocate frame larger than:" + FrameConstants.MAX_NUM_MINFRAME + " bytes");
         }
+        ByteBuffer buffer = framePool == null ? ByteBuffer.allocate(bytes) : framePool.acquire(bytes);
+        outstandingBytes.addAndGet(bytes);
         FrameHelper.serializeFrameSize(buffer, (byte) (bytes / minFrameSize));
         return (ByteBuffer) buffer.clear();
     }
@@ -62,8 +78,9 @@ public class FrameManager implements IHyracksFrameMgrContext {
     public ByteBuffer reallocateFrame(ByteBuffer tobeDeallocate, int newSizeInBytes, boolean copyOldData)
             throws HyracksDataException {
         if (!copyOldData) {
-            deallocateFrames(tobeDeallocate.capacity());
-            return allocateFrame(newSizeInBytes);
+            ByteBuffer buffer = allocateFrame(newSizeInBytes);
+            deallocateFrame(tobeDeallocate);
+            return buffer;
         } else {
             ByteBuffer buffer = allocateFrame(newSizeInBytes);
             int limit = Math.min(newSizeInBytes, tobeDeallocate.capacity());
@@ -78,12 +95,41 @@ public class FrameManager implements IHyracksFrameMgrContext {
                         + FrameConstants.MAX_NUM_MINFRAME);
             }
             FrameHelper.serializeFrameSize(buffer, (byte) (newSizeInBytes / minFrameSize));
+            deallocateFrame(tobeDeallocate);
             return buffer;
         }
     }
 
+    @Override
+    public void deallocateFrame(ByteBuffer frame) {
+        outstandingBytes.addAndGet(-frame.capacity());
+        if (framePool != null) {
+            framePool.release(frame);
+        }
+    }
+
     @Override
     public void deallocateFrames(int bytes) {
-        //TODO make a global memory manager to allocate and deallocate the frames.
+        outstandingBytes.addAndGet(-bytes);
+        if (framePool != null) {
+            framePool.forget(bytes);
+        }
+    }
+
+    /**
+     * @return the bytes of the frames allocated through this manager that have not been deallocated yet
+     */
+    public long getOutstandingBytes() {
+        return outstandingBytes.get();
+    }
+
+    /**
+     * Gives up on the frames that were never deallocated, so that they stop counting as outstanding in the pool.
+     */
+    public void close() {
+        long leaked = outstandingBytes.getAndSet(0);
+        if (framePool != null && leaked != 0) {
+            framePool.forget(leaked);
+        }
     }
 }
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.resources.memory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hyracks.api.resources.memory.IMemoryManager;
+
+/**
+ * A node-wide pool of released frames, shared by the {@link FrameManager}s of all joblets on a node controller.
+ * Released frames are kept in one free list per frame capacity, so that the next request for a frame of that
+ * size class does not need to allocate a new buffer. The bytes retained by the pool are bounded by
+ * {@code maxPooledBytes} and are reserved from the {@link IMemoryManager}, so frames cached here still count
+ * against the budget of the node.
+ */
+public class FramePool {
+    private final IMemoryManager memoryManager;
+
+    private final long maxPooledBytes;
+
+    private final Map<Integer, ArrayDeque<ByteBuffer>> freeFrames;
+
+    private long pooledBytes;
+
+    private final AtomicLong hits;
+
+    private final AtomicLong misses;
+
+    private final AtomicLong outstandingBytes;
+
+    public FramePool(IMemoryManager memoryManager, long maxPooledBytes) {
+        this.memoryManager = memoryManager;
+        this.maxPooledBytes = maxPooledBytes;
+        freeFrames = new HashMap<Integer, ArrayDeque<ByteBuffer>>();
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+        outstandingBytes = new AtomicLong();
+    }
+
+    /**
+     * Returns a cleared, zero-filled frame of exactly {@code bytes} capacity, recycling a released one if possible.
+     */
+    public ByteBuffer acquire(int bytes) {
+        ByteBuffer buffer = poll(bytes);
+        if (buffer == null) {
+            misses.incrementAndGet();
+            buffer = ByteBuffer.allocate(bytes);
+        } else {
+            hits.incrementAndGet();
+            memoryManager.deallocate(bytes);
+            Arrays.fill(buffer.array(), (byte) 0);
+            buffer.clear();
+        }
+        outstandingBytes.addAndGet(bytes);
+        return buffer;
+    }
+
+    /**
+     * Hands a frame obtained from {@link #acquire(int)} back to the pool. The frame is dropped if the pool is full
+     * or the memory manager cannot cover it.
+     *
+     * @return true if the frame was kept for reuse
+     */
+    public boolean release(ByteBuffer buffer) {
+        int bytes = buffer.capacity();
+        outstandingBytes.addAndGet(-bytes);
+        if (!buffer.hasArray() || buffer.isReadOnly()) {
+            return false;
+        }
+        synchronized (this) {
+            if (pooledBytes + bytes > maxPooledBytes || !memoryManager.allocate(bytes)) {
+                return false;
+            }
+            ArrayDeque<ByteBuffer> frames = freeFrames.get(bytes);
+            if (frames == null) {
+                frames = new ArrayDeque<ByteBuffer>();
+                freeFrames.put(bytes, frames);
+            }
+            frames.push(buffer);
+            pooledBytes += bytes;
+        }
+        return true;
+    }
+
+    /**
+     * Records that {@code bytes} of acquired frames were given up without being handed back to the pool.
+     */
+    public void forget(long bytes) {
+        outstandingBytes.addAndGet(-bytes);
+    }
+
+    /**
+     * Drops all the pooled frames and returns their reservation to the memory manager.
+     */
+    public synchronized void clear() {
+        freeFrames.clear();
+        memoryManager.deallocate(pooledBytes);
+        pooledBytes = 0;
+    }
+
+    private synchronized ByteBuffer poll(int bytes) {
+        ArrayDeque<ByteBuffer> frames = freeFrames.get(bytes);
+        if (frames == null || frames.isEmpty()) {
+            return null;
+        }
+        pooledBytes -= bytes;
+        return frames.pop();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getOutstandingBytes() {
+        return outstandingBytes.get();
+    }
+
+    public synchronized long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    public long getMaxPooledBytes() {
+        return maxPooledBytes;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.resources.memory;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.resources.memory.IMemoryManager;
+
+/**
+ * Charges the frames of a joblet against the {@link IMemoryManager} of the node. Every allocation reserves its
+ * bytes before the frame is handed out and every deallocation returns them, so a reallocation releases the old
+ * capacity and reserves the new one. If the memory manager refuses a reservation, the frames retained by the
+ * {@link FramePool} are given back and the reservation is retried once.
+ */
+public class MemoryAccountedFrameManager implements IHyracksFrameMgrContext {
+    private final IMemoryManager memoryManager;
+
+    private final FrameManager frameManager;
+
+    private final FramePool framePool;
+
+    private final AtomicLong memoryAllocation;
+
+    /**
+     * @param framePool
+     *            the pool that frameManager recycles its frames through, or null if there is none
+     */
+    public MemoryAccountedFrameManager(IMemoryManager memoryManager, FrameManager frameManager, FramePool framePool) {
+        this.memoryManager = memoryManager;
+        this.frameManager = frameManager;
+        this.framePool = framePool;
+        this.memoryAllocation = new AtomicLong();
+    }
+
+    @Override
+    public int getInitialFrameSize() {
+        return frameManager.getInitialFrameSize();
+    }
+
+    @Override
+    public ByteBuffer allocateFrame() throws HyracksDataException {
+        return allocateFrame(frameManager.getInitialFrameSize());
+    }
+
+    @Override
+    public ByteBuffer allocateFrame(int bytes) throws HyracksDataException {
+        reserve(bytes);
+        try {
+            return frameManager.allocateFrame(bytes);
+        } catch (HyracksDataException e) {
+            unreserve(bytes);
+            throw e;
+        }
+    }
+
+    @Override
+    public ByteBuffer reallocateFrame(ByteBuffer tobeDeallocate, int newSizeInBytes, boolean copyOldData)
+            throws HyracksDataException {
+        int oldSizeInBytes = tobeDeallocate.capacity();
+        reserve(newSizeInBytes);
+        ByteBuffer buffer;
+        try {
+            buffer = frameManager.reallocateFrame(tobeDeallocate, newSizeInBytes, copyOldData);
+        } catch (HyracksDataException e) {
+            unreserve(newSizeInBytes);
+            throw e;
+        }
+        unreserve(oldSizeInBytes);
+        return buffer;
+    }
+
+    @Override
+    public void deallocateFrame(ByteBuffer frame) {
+        unreserve(frame.capacity());
+        frameManager.deallocateFrame(frame);
+    }
+
+    @Override
+    public void deallocateFrames(int bytes) {
+        unreserve(bytes);
+        frameManager.deallocateFrames(bytes);
+    }
+
+    /**
+     * @return the bytes currently charged to the memory manager for the frames of this joblet
+     */
+    public long getAllocatedBytes() {
+        return memoryAllocation.get();
+    }
+
+    /**
+     * Returns the bytes of the frames that were never deallocated to the memory manager.
+     *
+     * @return the bytes that were still allocated
+     */
+    public long close() {
+        long stillAllocated = memoryAllocation.getAndSet(0);
+        if (stillAllocated > 0) {
+            memoryManager.deallocate(stillAllocated);
+        }
+        frameManager.close();
+        return stillAllocated;
+    }
+
+    private void reserve(int bytes) throws HyracksDataException {
+        if (!memoryManager.allocate(bytes) && !reclaimPooledFrames(bytes)) {
+            throw new HyracksDataException("Unable to allocate frame: Not enough memory");
+        }
+        memoryAllocation.addAndGet(bytes);
+    }
+
+    private void unreserve(int bytes) {
+        memoryAllocation.addAndGet(-bytes);
+        memoryManager.deallocate(bytes);
+    }
+
+    private boolean reclaimPooledFrames(int bytes) {
+        if (framePool == null || framePool.getPooledBytes() == 0) {
+            return false;
+        }
+        framePool.clear();
+        return memoryManager.allocate(bytes);
+    }
+}
@@ -44,11 +44,10 @@ public class MemoryManager implements IMemoryManager {
 
     @Override
     public boolean allocate(long memory) {
-        // commented as now the deallocation is not implemented yet.
-        //        if (this.memory.addAndGet(-memory) < 0) {
-        //            this.memory.addAndGet(memory);
-        //            return false;
-        //        }
+        if (this.memory.addAndGet(-memory) < 0) {
+            this.memory.addAndGet(memory);
+            return false;
+        }
         return true;
     }
 
@@ -18,8 +18,6 @@
  */
 package org.apache.hyracks.control.nc.work;
 
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.EnumSet;
@@ -47,12 +45,13 @@ import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.deployment.DeploymentId;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.HyracksException;
 import org.apache.hyracks.api.job.ActivityCluster;
 import org.apache.hyracks.api.job.ActivityClusterGraph;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.JobFlag;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.partitions.PartitionId;
-import org.apache.hyracks.comm.channels.NetworkInputChannel;
 import org.apache.hyracks.control.common.deployment.DeploymentUtils;
 import org.apache.hyracks.control.common.job.TaskAttemptDescriptor;
 import org.apache.hyracks.control.common.work.AbstractWork;
@@ -83,9 +82,14 @@ public class StartTasksWork extends AbstractWork {
 
     private final EnumSet<JobFlag> flags;
 
+    private final DeployedJobSpecId deployedJobSpecId;
+
+    private final Map<String, byte[]> jobParameters;
+
     public StartTasksWork(NodeControllerService ncs, DeploymentId deploymentId, JobId jobId, byte[] acgBytes,
             List<TaskAttemptDescriptor> taskDescriptors,
-            Map<ConnectorDescriptorId, IConnectorPolicy> connectorPoliciesMap, EnumSet<JobFlag> flags) {
+            Map<ConnectorDescriptorId, IConnectorPolicy> connectorPoliciesMap, EnumSet<JobFlag> flags,
+            DeployedJobSpecId deployedJobSpecId, Map<String, byte[]> jobParameters) {
         this.ncs = ncs;
         this.deploymentId = deploymentId;
         this.jobId = jobId;
@@ -93,6 +97,8 @@ public class StartTasksWork extends AbstractWork {
         this.taskDescriptors = taskDescriptors;
         this.connectorPoliciesMap = connectorPoliciesMap;
         this.flags = flags;
+        this.deployedJobSpecId = deployedJobSpecId;
+        this.jobParameters = jobParameters;
     }
 
     @Override
@@ -183,17 +189,36 @@ public class StartTasksWork extends AbstractWork {
         Map<JobId, Joblet> jobletMap = ncs.getJobletMap();
         Joblet ji = jobletMap.get(jobId);
         if (ji == null) {
-            if (acgBytes == null) {
-                throw new NullPointerException("JobActivityGraph was null");
-            }
-            ActivityClusterGraph acg = (ActivityClusterGraph) DeploymentUtils.deserialize(acgBytes, deploymentId,
-                    appCtx);
-            ji = new Joblet(ncs, deploymentId, jobId, appCtx, acg);
+            ActivityClusterGraph acg = getActivityClusterGraph(appCtx, acgBytes);
+            ji = new Joblet(ncs, deploymentId, jobId, appCtx, acg, jobParameters);
             jobletMap.put(jobId, ji);
         }
         return ji;
     }
 
+    /**
+     * The plan of a deployed job spec is sent until this node ran one of its tasks, the later runs use the cached one.
+     * The serialized plan is cached and each run deserializes its own copy, so the runs do not share the state of the
+     * operator descriptors.
+     */
+    private ActivityClusterGraph getActivityClusterGraph(INCApplicationContext appCtx, byte[] acgBytes)
+            throws Exception {
+        Map<DeployedJobSpecId, byte[]> deployedJobSpecMap = ncs.getDeployedJobSpecMap();
+        if (acgBytes == null) {
+            if (deployedJobSpecId == null) {
+                throw new NullPointerException("JobActivityGraph was null");
+            }
+            acgBytes = deployedJobSpecMap.get(deployedJobSpecId);
+            if (acgBytes == null) {
+                throw new HyracksException("Deployed job spec " + deployedJobSpecId + " is not cached on node "
+                        + ncs.getId());
+            }
+        } else if (deployedJobSpecId != null) {
+            deployedJobSpecMap.put(deployedJobSpecId, acgBytes);
+        }
+        return (ActivityClusterGraph) DeploymentUtils.deserialize(acgBytes, deploymentId, appCtx);
+    }
+
     private IPartitionCollector createPartitionCollector(TaskAttemptDescriptor td, final int partition, Task task,
             int i, IConnectorDescriptor conn, RecordDescriptor recordDesc, IConnectorPolicy cPolicy)
             throws HyracksDataException {
@@ -266,9 +291,8 @@ public class StartTasksWork extends AbstractWork {
                         NetworkAddress networkAddress = inputAddresses[i][j];
                         PartitionId pid = new PartitionId(jobId, inputs.get(i).getConnectorId(), j, td
                                 .getTaskAttemptId().getTaskId().getPartition());
-                        PartitionChannel channel = new PartitionChannel(pid, new NetworkInputChannel(
-                                ncs.getNetworkManager(), new InetSocketAddress(InetAddress.getByAddress(networkAddress
-                                        .lookupIpAddress()), networkAddress.getPort()), pid, 5));
+                        PartitionChannel channel = new PartitionChannel(pid, ncs.getPartitionManager()
+                                .createInputChannel(pid, networkAddress, 5));
                         channels.add(channel);
                     }
                 }
@@ -0,0 +1,512 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.net;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import org.apache.hyracks.api.channels.IInputChannel;
+import org.apache.hyracks.api.channels.IInputChannelMonitor;
+import org.apache.hyracks.api.comm.FrameConstants;
+import org.apache.hyracks.api.comm.FrameHelper;
+import org.apache.hyracks.api.compression.IFrameCompressor;
+import org.apache.hyracks.api.context.IHyracksCommonContext;
+import org.apache.hyracks.api.dataflow.ConnectorDescriptorId;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.partitions.PartitionId;
+import org.apache.hyracks.comm.channels.CompactFrameFormat;
+import org.apache.hyracks.comm.channels.IChannelConnectionFactory;
+import org.apache.hyracks.comm.channels.NetworkInputChannel;
+import org.apache.hyracks.comm.channels.NetworkOutputChannel;
+import org.apache.hyracks.net.buffers.IBufferAcceptor;
+import org.apache.hyracks.net.buffers.ICloseableBufferAcceptor;
+import org.apache.hyracks.net.exceptions.NetException;
+import org.apache.hyracks.net.protocols.muxdemux.ChannelControlBlock;
+import org.apache.hyracks.net.protocols.muxdemux.IChannelOpenListener;
+import org.apache.hyracks.net.protocols.muxdemux.MuxDemux;
+
+/**
+ * Sends frames from a {@link NetworkOutputChannel} to a {@link NetworkInputChannel} over two MuxDemux instances on
+ * loopback, whole, in the compact format, and in the compact format with a codec. The producer side reads the
+ * partition request as the {@link NetworkManager} does.
+ */
+@RunWith(Parameterized.class)
+public class NetworkInputChannelTest {
+    private static final int FRAME_SIZE = 4096;
+    private static final int N_BUFFERS = 2;
+    private static final int INITIAL_MESSAGE_SIZE = 24;
+    private static final long TIMEOUT_MS = 30000;
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] { { false, false }, { true, false }, { true, true } });
+    }
+
+    private final boolean compactFrames;
+    private final boolean compressed;
+    private final Random rnd = new Random(17);
+
+    public NetworkInputChannelTest(boolean compactFrames, boolean compressed) {
+        this.compactFrames = compactFrames;
+        this.compressed = compressed;
+    }
+
+    @Test
+    public void partialFramesTest() throws Exception {
+        List<ByteBuffer> frames = new ArrayList<ByteBuffer>();
+        frames.add(createFrame(1, 0));
+        for (int i = 0; i < 20; i++) {
+            frames.add(createFrame(1, rnd.nextInt(60) + 1));
+        }
+        frames.add(createFullFrame(1));
+        checkRoundTrip(frames);
+    }
+
+    @Test
+    public void multiBlockFramesTest() throws Exception {
+        List<ByteBuffer> frames = new ArrayList<ByteBuffer>();
+        for (int nBlocks = 2; nBlocks <= 5; nBlocks++) {
+            frames.add(createFrame(nBlocks, 10));
+            frames.add(createFullFrame(nBlocks));
+            frames.add(createFrame(1, 10));
+        }
+        checkRoundTrip(frames);
+    }
+
+    @Test
+    public void invalidTupleCountTest() throws Exception {
+        // The frames without a valid layout are sent whole.
+        List<ByteBuffer> frames = new ArrayList<ByteBuffer>();
+        ByteBuffer frame = createRandomFrame(1);
+        frame.putInt(FrameHelper.getTupleCountOffset(FRAME_SIZE), -3);
+        frames.add(frame);
+        frame = createRandomFrame(2);
+        frame.putInt(FrameHelper.getTupleCountOffset(2 * FRAME_SIZE), 2 * FRAME_SIZE);
+        frames.add(frame);
+        frame = createFrame(1, 10);
+        // The end of the tuple data points into the offset table.
+        frame.putInt(FRAME_SIZE - 2 * FrameConstants.SIZE_LEN, FRAME_SIZE - 2);
+        frames.add(frame);
+        frames.add(createFrame(1, 10));
+        checkRoundTrip(frames);
+    }
+
+    @Test
+    public void invalidRecordTest() throws Exception {
+        Assume.assumeTrue(compactFrames);
+        // The head and the tail are larger than a frame.
+        ByteBuffer record = ByteBuffer.allocate(CompactFrameFormat.BLOCK_SIZE);
+        record.putInt(FRAME_SIZE).putInt(8).putInt(0);
+        record.clear();
+        List<byte[]> frames = checkFailure(Arrays.asList(createRecord(createFrame(1, 5)), record));
+        // The record is dropped when it arrives.
+        assertEquals(1, frames.size());
+    }
+
+    @Test
+    public void undecodableRecordTest() throws Exception {
+        Assume.assumeTrue(compactFrames);
+        // A record that claims to be compressed, with bytes that do not decompress.
+        ByteBuffer record = ByteBuffer.allocate(CompactFrameFormat.BLOCK_SIZE);
+        record.putInt(500).putInt(8).putInt(100);
+        for (int i = 0; i < 100; i++) {
+            record.put((byte) rnd.nextInt());
+        }
+        record.clear();
+        List<byte[]> frames = checkFailure(Arrays.asList(createRecord(createFrame(1, 5)), record));
+        if (compressed) {
+            // The record fails to decompress when the consumer reads it, and the consumer gets an empty frame.
+            assertEquals(2, frames.size());
+            assertEquals(0, ByteBuffer.wrap(frames.get(1)).getInt(FrameHelper.getTupleCountOffset(FRAME_SIZE)));
+        } else {
+            // Without a codec, the channel drops the record when it arrives.
+            assertEquals(1, frames.size());
+        }
+    }
+
+    private void checkRoundTrip(final List<ByteBuffer> frames) throws Exception {
+        List<byte[]> expected = new ArrayList<byte[]>();
+        List<int[]> usedLengths = new ArrayList<int[]>();
+        for (ByteBuffer frame : frames) {
+            expected.add(Arrays.copyOf(frame.array(), frame.capacity()));
+            int tailLength = CompactFrameFormat.getTailLength(frame);
+            usedLengths.add(new int[] { CompactFrameFormat.getHeadLength(frame, tailLength), tailLength });
+        }
+        FrameReader reader = receive(new Producer() {
+            @Override
+            public void produce(ChannelControlBlock ccb, boolean compactFrames) throws Exception {
+                NetworkOutputChannel noc = new NetworkOutputChannel(ccb, N_BUFFERS, compactFrames);
+                noc.setFrameSize(FRAME_SIZE);
+                if (compressed) {
+                    noc.setFrameCompressor(new DeflateFrameCompressor());
+                }
+                noc.open();
+                for (ByteBuffer frame : frames) {
+                    frame.clear();
+                    noc.nextFrame(frame);
+                }
+                noc.close();
+            }
+        });
+        List<byte[]> received = reader.readAll();
+        assertEquals(expected.size(), received.size());
+        for (int i = 0; i < expected.size(); i++) {
+            byte[] expectedFrame = expected.get(i);
+            byte[] receivedFrame = received.get(i);
+            assertEquals(expectedFrame.length, receivedFrame.length);
+            if (compactFrames) {
+                // The free space between the head and the tail of a frame is not sent.
+                int headLength = usedLengths.get(i)[0];
+                int tailStart = expectedFrame.length - usedLengths.get(i)[1];
+                Arrays.fill(expectedFrame, headLength, tailStart, (byte) 0);
+                Arrays.fill(receivedFrame, headLength, tailStart, (byte) 0);
+            }
+            assertArrayEquals("frame " + i, expectedFrame, receivedFrame);
+        }
+    }
+
+    /**
+     * @return the frames the consumer read before the channel reported the failure.
+     */
+    private List<byte[]> checkFailure(final List<ByteBuffer> records) throws Exception {
+        final CountDownLatch firstFrameRead = new CountDownLatch(1);
+        FrameReader reader = receive(new Producer() {
+            @Override
+            public void produce(ChannelControlBlock ccb, boolean compactFrames) throws Exception {
+                assertTrue(compactFrames);
+                ccb.getWriteInterface().setEmptyBufferAcceptor(new IBufferAcceptor() {
+                    @Override
+                    public void accept(ByteBuffer buffer) {
+                    }
+                });
+                ICloseableBufferAcceptor fba = ccb.getWriteInterface().getFullBufferAcceptor();
+                fba.accept(records.get(0));
+                // The invalid record follows once the consumer read the first one, which it would not read if the
+                // failure came first.
+                firstFrameRead.await();
+                fba.accept(records.get(1));
+                fba.close();
+            }
+        });
+        try {
+            assertTrue(reader.readFrame());
+            firstFrameRead.countDown();
+            reader.readAll();
+            fail("the channel did not report the invalid record");
+        } catch (HyracksDataException e) {
+            // expected
+        }
+        assertTrue(reader.failed);
+        return reader.frames;
+    }
+
+    /**
+     * @return a record of the compact format for a frame of one block, padded to the receive buffers.
+     */
+    private ByteBuffer createRecord(ByteBuffer frame) {
+        int tailLength = CompactFrameFormat.getTailLength(frame);
+        int headLength = CompactFrameFormat.getHeadLength(frame, tailLength);
+        int rawLength = headLength + tailLength;
+        ByteBuffer record = ByteBuffer.allocate(CompactFrameFormat.getPaddedLength(CompactFrameFormat.HEADER_SIZE
+                + rawLength));
+        record.putInt(headLength).putInt(tailLength).putInt(rawLength);
+        record.put(frame.array(), 0, headLength);
+        record.put(frame.array(), frame.capacity() - tailLength, tailLength);
+        record.clear();
+        return record;
+    }
+
+    private FrameReader receive(final Producer producer) throws Exception {
+        MuxDemux producerMd = new MuxDemux(new InetSocketAddress("127.0.0.1", 0), new IChannelOpenListener() {
+            @Override
+            public void channelOpened(final ChannelControlBlock ccb) {
+                ccb.getReadInterface().setFullBufferAcceptor(new ICloseableBufferAcceptor() {
+                    @Override
+                    public void accept(ByteBuffer buffer) {
+                        buffer.position(INITIAL_MESSAGE_SIZE - 4);
+                        final boolean compactFrames = buffer.getInt() != 0;
+                        new Thread() {
+                            @Override
+                            public void run() {
+                                try {
+                                    producer.produce(ccb, compactFrames);
+                                } catch (Exception e) {
+                                    e.printStackTrace();
+                                }
+                            }
+                        }.start();
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+
+                    @Override
+                    public void error(int ecode) {
+                    }
+                });
+                ccb.getReadInterface().getEmptyBufferAcceptor().accept(ByteBuffer.allocate(INITIAL_MESSAGE_SIZE));
+            }
+        }, 1, 5);
+        producerMd.start();
+        final MuxDemux consumerMd = new MuxDemux(new InetSocketAddress("127.0.0.1", 0), new IChannelOpenListener() {
+            @Override
+            public void channelOpened(ChannelControlBlock ccb) {
+            }
+        }, 1, 5);
+        consumerMd.start();
+
+        IChannelConnectionFactory connectionFactory = new IChannelConnectionFactory() {
+            @Override
+            public ChannelControlBlock connect(SocketAddress remoteAddress) throws InterruptedException, NetException {
+                return consumerMd.connect((InetSocketAddress) remoteAddress).openChannel();
+            }
+        };
+        PartitionId pid = new PartitionId(new JobId(0), new ConnectorDescriptorId(0), 0, 0);
+        NetworkInputChannel channel = compactFrames ? new NetworkInputChannel(connectionFactory,
+                producerMd.getLocalAddress(), pid, N_BUFFERS, true, compressed ? new DeflateFrameCompressor() : null)
+                : new NetworkInputChannel(connectionFactory, producerMd.getLocalAddress(), pid, N_BUFFERS);
+        FrameReader reader = new FrameReader(channel);
+        channel.registerMonitor(reader);
+        channel.open(new TestContext());
+        return reader;
+    }
+
+    private ByteBuffer createFrame(int nBlocks, int nTuples) {
+        int frameSize = nBlocks * FRAME_SIZE;
+        ByteBuffer frame = ByteBuffer.allocate(frameSize);
+        FrameHelper.serializeFrameSize(frame, (byte) nBlocks);
+        int dataEnd = FrameConstants.TUPLE_START_OFFSET;
+        for (int i = 0; i < nTuples; i++) {
+            int length = rnd.nextInt(40) + 1;
+            for (int j = 0; j < length; j++) {
+                // A small alphabet, so that the codec has something to compress.
+                frame.put(dataEnd + j, (byte) ('a' + rnd.nextInt(4)));
+            }
+            dataEnd += length;
+            frame.putInt(FrameHelper.getTupleCountOffset(frameSize) - FrameConstants.SIZE_LEN * (i + 1), dataEnd);
+        }
+        frame.putInt(FrameHelper.getTupleCountOffset(frameSize), nTuples);
+        return frame;
+    }
+
+    private ByteBuffer createFullFrame(int nBlocks) {
+        int frameSize = nBlocks * FRAME_SIZE;
+        ByteBuffer frame = ByteBuffer.allocate(frameSize);
+        FrameHelper.serializeFrameSize(frame, (byte) nBlocks);
+        // Tuples of 16 bytes, each with an offset of 4 bytes.
+        int nTuples = (frameSize - FrameConstants.META_DATA_LEN) / 20;
+        for (int i = 0; i < nTuples; i++) {
+            int tupleEnd = FrameConstants.TUPLE_START_OFFSET + 16 * (i + 1);
+            for (int j = tupleEnd - 16; j < tupleEnd; j++) {
+                frame.put(j, (byte) rnd.nextInt());
+            }
+            frame.putInt(FrameHelper.getTupleCountOffset(frameSize) - FrameConstants.SIZE_LEN * (i + 1), tupleEnd);
+        }
+        frame.putInt(FrameHelper.getTupleCountOffset(frameSize), nTuples);
+        return frame;
+    }
+
+    private ByteBuffer createRandomFrame(int nBlocks) {
+        ByteBuffer frame = ByteBuffer.allocate(nBlocks * FRAME_SIZE);
+        rnd.nextBytes(frame.array());
+        FrameHelper.serializeFrameSize(frame, (byte) nBlocks);
+        return frame;
+    }
+
+    private interface Producer {
+        public void produce(ChannelControlBlock ccb, boolean compactFrames) throws Exception;
+    }
+
+    /**
+     * Reads the frames of a channel the way the InputChannelFrameReader of the collectors does.
+     */
+    private static class FrameReader implements IInputChannelMonitor {
+        private final IInputChannel channel;
+        private final List<byte[]> frames = new ArrayList<byte[]>();
+        private int availableBuffers;
+        private boolean eos;
+        private boolean failed;
+
+        FrameReader(IInputChannel channel) {
+            this.channel = channel;
+        }
+
+        List<byte[]> readAll() throws Exception {
+            while (readFrame()) {
+            }
+            return frames;
+        }
+
+        boolean readFrame() throws Exception {
+            if (!waitForBuffer()) {
+                return false;
+            }
+            ByteBuffer block = channel.getNextBuffer();
+            int nBlocks = FrameHelper.deserializeNumOfMinFrame(block);
+            assertEquals(FRAME_SIZE, block.remaining());
+            byte[] frame = new byte[nBlocks * FRAME_SIZE];
+            block.get(frame, 0, FRAME_SIZE);
+            channel.recycleBuffer(block);
+            for (int i = 1; i < nBlocks; i++) {
+                assertTrue(waitForBuffer());
+                block = channel.getNextBuffer();
+                assertEquals(FRAME_SIZE, block.remaining());
+                block.get(frame, i * FRAME_SIZE, FRAME_SIZE);
+                channel.recycleBuffer(block);
+            }
+            frames.add(frame);
+            return true;
+        }
+
+        private synchronized boolean waitForBuffer() throws Exception {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+            while (!failed && !eos && availableBuffers <= 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                assertTrue("timed out waiting for the producer", remaining > 0);
+                wait(remaining);
+            }
+            if (failed) {
+                throw new HyracksDataException("Failure occurred on input");
+            }
+            if (availableBuffers <= 0) {
+                return false;
+            }
+            --availableBuffers;
+            return true;
+        }
+
+        @Override
+        public synchronized void notifyFailure(IInputChannel channel) {
+            failed = true;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void notifyDataAvailability(IInputChannel channel, int nFrames) {
+            availableBuffers += nFrames;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void notifyEndOfStream(IInputChannel channel) {
+            eos = true;
+            notifyAll();
+        }
+    }
+
+    private static class DeflateFrameCompressor implements IFrameCompressor {
+        @Override
+        public int getMaxCompressedLength(int length) {
+            return length + length / 100 + 64;
+        }
+
+        @Override
+        public int compress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset) {
+            Deflater deflater = new Deflater();
+            try {
+                deflater.setInput(src, srcOffset, srcLength);
+                deflater.finish();
+                return deflater.deflate(dest, destOffset, getMaxCompressedLength(srcLength));
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public void decompress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLength)
+                throws HyracksDataException {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(src, srcOffset, srcLength);
+                if (inflater.inflate(dest, destOffset, destLength) != destLength || !inflater.finished()) {
+                    throw new HyracksDataException("Corrupt compressed block");
+                }
+            } catch (DataFormatException e) {
+                throw new HyracksDataException(e);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    private static class TestContext implements IHyracksCommonContext {
+        @Override
+        public int getInitialFrameSize() {
+            return FRAME_SIZE;
+        }
+
+        @Override
+        public ByteBuffer allocateFrame() {
+            return ByteBuffer.allocate(FRAME_SIZE);
+        }
+
+        @Override
+        public ByteBuffer allocateFrame(int bytes) {
+            return ByteBuffer.allocate(bytes);
+        }
+
+        @Override
+        public ByteBuffer reallocateFrame(ByteBuffer tobeDeallocate, int newSizeInBytes, boolean copyOldData) {
+            ByteBuffer frame = ByteBuffer.allocate(newSizeInBytes);
+            if (copyOldData) {
+                tobeDeallocate.clear();
+                frame.put(tobeDeallocate);
+                frame.clear();
+            }
+            return frame;
+        }
+
+        @Override
+        public void deallocateFrame(ByteBuffer frame) {
+        }
+
+        @Override
+        public void deallocateFrames(int bytes) {
+        }
+
+        @Override
+        public IIOManager getIOManager() {
+            return null;
+        }
+    }
+}
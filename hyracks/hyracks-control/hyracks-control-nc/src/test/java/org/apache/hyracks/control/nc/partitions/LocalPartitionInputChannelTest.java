@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.partitions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.apache.hyracks.api.channels.IInputChannel;
+import org.apache.hyracks.api.channels.IInputChannelMonitor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksCommonContext;
+import org.apache.hyracks.api.dataflow.ConnectorDescriptorId;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.partitions.PartitionId;
+
+public class LocalPartitionInputChannelTest {
+
+    static final int FRAME_SIZE = 64;
+    static final long TIMEOUT_MS = 10000;
+
+    @Test
+    public void testProducerWaitsForRecycledBuffers() throws Exception {
+        TestChannel channel = openChannel(2);
+        Producer producer = new Producer(channel.writer, 5, FRAME_SIZE);
+        producer.start();
+
+        waitUntilBlocked(producer);
+        assertEquals(2, channel.monitor.nAvailable.get());
+        assertEquals(0, channel.monitor.nEndOfStream.get());
+
+        Set<ByteBuffer> buffers = Collections.newSetFromMap(new IdentityHashMap<ByteBuffer, Boolean>());
+        for (int i = 0; i < 5; i++) {
+            ByteBuffer buffer = takeBuffer(channel);
+            buffers.add(buffer);
+            assertEquals(FRAME_SIZE, buffer.remaining());
+            assertEquals(i, buffer.get(0));
+            assertEquals(i, buffer.get(FRAME_SIZE - 1));
+            channel.recycleBuffer(buffer);
+        }
+        producer.join(TIMEOUT_MS);
+        assertFalse(producer.isAlive());
+        assertNull(producer.error);
+        assertEquals(5, channel.monitor.nAvailable.get());
+        assertEquals(1, channel.monitor.nEndOfStream.get());
+        assertNull(channel.getNextBuffer());
+        // The producer never holds more buffers than the channel was opened with, all from the consumer's context.
+        assertTrue(buffers.size() <= 2);
+        assertEquals(buffers.size(), channel.ctx.nAllocated.get());
+    }
+
+    @Test
+    public void testLargeFrameIsSplitIntoBuffers() throws Exception {
+        TestChannel channel = openChannel(4);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE * 2 + FRAME_SIZE / 2);
+        for (int i = 0; i < frame.capacity(); i++) {
+            frame.put(i, (byte) i);
+        }
+        channel.writer.nextFrame(frame);
+        channel.writer.close();
+
+        int[] expectedSizes = new int[] { FRAME_SIZE, FRAME_SIZE, FRAME_SIZE / 2 };
+        int offset = 0;
+        for (int expectedSize : expectedSizes) {
+            ByteBuffer buffer = channel.getNextBuffer();
+            assertNotNull(buffer);
+            assertEquals(expectedSize, buffer.remaining());
+            for (int i = 0; i < expectedSize; i++) {
+                assertEquals((byte) (offset + i), buffer.get(i));
+            }
+            offset += expectedSize;
+            channel.recycleBuffer(buffer);
+        }
+        assertNull(channel.getNextBuffer());
+        assertEquals(3, channel.monitor.nAvailable.get());
+        assertEquals(1, channel.monitor.nEndOfStream.get());
+    }
+
+    @Test
+    public void testCloseReleasesBlockedProducer() throws Exception {
+        TestChannel channel = openChannel(1);
+        Producer producer = new Producer(channel.writer, 3, FRAME_SIZE);
+        producer.start();
+
+        waitUntilBlocked(producer);
+        assertEquals(1, channel.monitor.nAvailable.get());
+        channel.close();
+        producer.join(TIMEOUT_MS);
+        assertFalse(producer.isAlive());
+        assertTrue(producer.error instanceof HyracksDataException);
+        assertEquals(1, channel.monitor.nAvailable.get());
+        assertEquals(0, channel.monitor.nEndOfStream.get());
+    }
+
+    private static TestChannel openChannel(int nBuffers) throws HyracksDataException {
+        TestChannel channel = new TestChannel(nBuffers);
+        channel.registerMonitor(channel.monitor);
+        channel.open(channel.ctx);
+        assertNotNull(channel.writer);
+        return channel;
+    }
+
+    private static ByteBuffer takeBuffer(IInputChannel channel) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        ByteBuffer buffer;
+        while ((buffer = channel.getNextBuffer()) == null) {
+            assertTrue("no buffer from the producer", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+        return buffer;
+    }
+
+    private static void waitUntilBlocked(Thread producer) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (producer.getState() != Thread.State.WAITING) {
+            assertTrue("producer did not block", producer.isAlive() && System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static class TestChannel extends LocalPartitionInputChannel {
+        final CountingMonitor monitor = new CountingMonitor();
+        final TestContext ctx = new TestContext();
+        IFrameWriter writer;
+
+        TestChannel(int nBuffers) {
+            super(nBuffers, new PartitionId(new JobId(0), new ConnectorDescriptorId(0), 0, 0), null);
+        }
+
+        @Override
+        protected void registerPartitionRequest(IFrameWriter writer) {
+            this.writer = writer;
+        }
+    }
+
+    private static class Producer extends Thread {
+        private final IFrameWriter writer;
+        private final int nFrames;
+        private final int frameSize;
+        volatile Exception error;
+
+        Producer(IFrameWriter writer, int nFrames, int frameSize) {
+            this.writer = writer;
+            this.nFrames = nFrames;
+            this.frameSize = frameSize;
+        }
+
+        @Override
+        public void run() {
+            try {
+                writer.open();
+                ByteBuffer frame = ByteBuffer.allocate(frameSize);
+                for (int i = 0; i < nFrames; i++) {
+                    // The frame is reused, as the channel copies it before nextFrame returns.
+                    for (int j = 0; j < frameSize; j++) {
+                        frame.put(j, (byte) i);
+                    }
+                    frame.clear();
+                    writer.nextFrame(frame);
+                }
+                writer.close();
+            } catch (Exception e) {
+                error = e;
+            }
+        }
+    }
+
+    private static class CountingMonitor implements IInputChannelMonitor {
+        final AtomicInteger nAvailable = new AtomicInteger();
+        final AtomicInteger nEndOfStream = new AtomicInteger();
+        final AtomicInteger nFailures = new AtomicInteger();
+
+        @Override
+        public void notifyFailure(IInputChannel channel) {
+            nFailures.incrementAndGet();
+        }
+
+        @Override
+        public void notifyDataAvailability(IInputChannel channel, int nFrames) {
+            nAvailable.addAndGet(nFrames);
+        }
+
+        @Override
+        public void notifyEndOfStream(IInputChannel channel) {
+            nEndOfStream.incrementAndGet();
+        }
+    }
+
+    private static class TestContext implements IHyracksCommonContext {
+        final AtomicInteger nAllocated = new AtomicInteger();
+
+        @Override
+        public int getInitialFrameSize() {
+            return FRAME_SIZE;
+        }
+
+        @Override
+        public ByteBuffer allocateFrame() {
+            nAllocated.incrementAndGet();
+            return ByteBuffer.allocate(FRAME_SIZE);
+        }
+
+        @Override
+        public ByteBuffer allocateFrame(int bytes) {
+            return ByteBuffer.allocate(bytes);
+        }
+
+        @Override
+        public ByteBuffer reallocateFrame(ByteBuffer tobeDeallocate, int newSizeInBytes, boolean copyOldData) {
+            ByteBuffer frame = ByteBuffer.allocate(newSizeInBytes);
+            if (copyOldData) {
+                tobeDeallocate.clear();
+                frame.put(tobeDeallocate);
+                frame.clear();
+            }
+            return frame;
+        }
+
+        @Override
+        public void deallocateFrame(ByteBuffer frame) {
+        }
+
+        @Override
+        public void deallocateFrames(int bytes) {
+        }
+
+        @Override
+        public IIOManager getIOManager() {
+            return null;
+        }
+    }
+}
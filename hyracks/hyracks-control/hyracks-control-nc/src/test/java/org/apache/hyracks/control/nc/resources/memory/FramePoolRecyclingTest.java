@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.resources.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+public class FramePoolRecyclingTest {
+
+    static final int MIN_FRAME_SIZE = 256;
+    static final int BUDGET = 15 * MIN_FRAME_SIZE;
+
+    FramePool framePool;
+    FrameManager frameManager;
+
+    @Before
+    public void setUp() throws Exception {
+        framePool = new FramePool(new MemoryManager(BUDGET * 4), BUDGET);
+        frameManager = new FrameManager(MIN_FRAME_SIZE, framePool);
+    }
+
+    @Test
+    public void testDeallocatedFrameIsReusedZeroed() throws HyracksDataException {
+        ByteBuffer frame = frameManager.allocateFrame(MIN_FRAME_SIZE * 2);
+        frame.putInt(MIN_FRAME_SIZE, 42);
+        frameManager.deallocateFrame(frame);
+        assertEquals(MIN_FRAME_SIZE * 2, framePool.getPooledBytes());
+
+        ByteBuffer recycled = frameManager.allocateFrame(MIN_FRAME_SIZE * 2);
+        assertSame(frame, recycled);
+        assertEquals(0, recycled.getInt(MIN_FRAME_SIZE));
+        assertEquals(0, recycled.position());
+        assertEquals(recycled.capacity(), recycled.limit());
+        assertEquals(1, framePool.getHitCount());
+        assertEquals(1, framePool.getMissCount());
+        assertEquals(0, framePool.getPooledBytes());
+    }
+
+    @Test
+    public void testFramesAreRecycledPerSizeClass() throws HyracksDataException {
+        ByteBuffer frame = frameManager.allocateFrame(MIN_FRAME_SIZE);
+        frameManager.deallocateFrame(frame);
+        assertNotSame(frame, frameManager.allocateFrame(MIN_FRAME_SIZE * 3));
+        assertSame(frame, frameManager.allocateFrame(MIN_FRAME_SIZE));
+        assertEquals(1, framePool.getHitCount());
+        assertEquals(2, framePool.getMissCount());
+    }
+
+    @Test
+    public void testPoolIsBounded() throws HyracksDataException {
+        ByteBuffer[] frames = new ByteBuffer[BUDGET / MIN_FRAME_SIZE + 1];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = frameManager.allocateFrame(MIN_FRAME_SIZE);
+        }
+        for (ByteBuffer frame : frames) {
+            frameManager.deallocateFrame(frame);
+        }
+        assertEquals(BUDGET, framePool.getPooledBytes());
+
+        framePool.clear();
+        assertEquals(0, framePool.getPooledBytes());
+        assertNotSame(frames[0], frameManager.allocateFrame(MIN_FRAME_SIZE));
+    }
+
+    @Test
+    public void testOutstandingBytes() throws HyracksDataException {
+        ByteBuffer frame = frameManager.allocateFrame(MIN_FRAME_SIZE);
+        frameManager.allocateFrame(MIN_FRAME_SIZE * 2);
+        assertEquals(MIN_FRAME_SIZE * 3, framePool.getOutstandingBytes());
+
+        ByteBuffer bigger = frameManager.reallocateFrame(frame, MIN_FRAME_SIZE * 4, true);
+        assertEquals(MIN_FRAME_SIZE * 6, framePool.getOutstandingBytes());
+        assertEquals(MIN_FRAME_SIZE, framePool.getPooledBytes());
+
+        frameManager.deallocateFrames(bigger.capacity());
+        assertEquals(MIN_FRAME_SIZE * 2, frameManager.getOutstandingBytes());
+        frameManager.close();
+        assertEquals(0, framePool.getOutstandingBytes());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.resources.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+public class MemoryAccountedFrameManagerTest {
+
+    static final int MIN_FRAME_SIZE = 256;
+    static final int BUDGET = 64 * MIN_FRAME_SIZE;
+    static final int POOL_BUDGET = 8 * MIN_FRAME_SIZE;
+
+    MemoryManager memoryManager;
+    FramePool framePool;
+    MemoryAccountedFrameManager frameManager;
+
+    @Before
+    public void setUp() throws Exception {
+        memoryManager = new MemoryManager(BUDGET);
+        framePool = new FramePool(memoryManager, POOL_BUDGET);
+        frameManager = new MemoryAccountedFrameManager(memoryManager, new FrameManager(MIN_FRAME_SIZE, framePool),
+                framePool);
+    }
+
+    @Test
+    public void testEnsureFrameSizeChargesOnlyTheCurrentCapacity() throws HyracksDataException {
+        VSizeFrame frame = new VSizeFrame(frameManager);
+        assertCharged(MIN_FRAME_SIZE);
+        for (int i = 2; i <= 16; i++) {
+            frame.ensureFrameSize(i * MIN_FRAME_SIZE);
+            assertCharged(i * MIN_FRAME_SIZE);
+        }
+        frame.ensureFrameSize(4 * MIN_FRAME_SIZE);
+        assertCharged(16 * MIN_FRAME_SIZE);
+
+        frame.reset();
+        assertCharged(MIN_FRAME_SIZE);
+
+        frameManager.deallocateFrame(frame.getBuffer());
+        assertEquals(0, frameManager.getAllocatedBytes());
+        assertEquals(BUDGET - framePool.getPooledBytes(), memoryManager.getAvailableMemory());
+        framePool.clear();
+        assertEquals(BUDGET, memoryManager.getAvailableMemory());
+    }
+
+    @Test
+    public void testRefusedReallocationKeepsTheOldFrame() throws HyracksDataException {
+        VSizeFrame frame = new VSizeFrame(frameManager, 32 * MIN_FRAME_SIZE);
+        try {
+            frame.ensureFrameSize(33 * MIN_FRAME_SIZE);
+            fail("the reallocation should exceed the memory budget");
+        } catch (HyracksDataException e) {
+            // expected
+        }
+        assertEquals(32 * MIN_FRAME_SIZE, frame.getFrameSize());
+        assertCharged(32 * MIN_FRAME_SIZE);
+    }
+
+    @Test
+    public void testPooledFramesAreReclaimedWhenTheBudgetIsExhausted() throws HyracksDataException {
+        VSizeFrame small = new VSizeFrame(frameManager, 4 * MIN_FRAME_SIZE);
+        frameManager.deallocateFrame(small.getBuffer());
+        assertEquals(4 * MIN_FRAME_SIZE, framePool.getPooledBytes());
+
+        new VSizeFrame(frameManager, 62 * MIN_FRAME_SIZE);
+        assertEquals(0, framePool.getPooledBytes());
+        assertCharged(62 * MIN_FRAME_SIZE);
+    }
+
+    @Test
+    public void testCloseReturnsLeakedFrames() throws HyracksDataException {
+        VSizeFrame frame = new VSizeFrame(frameManager);
+        frame.ensureFrameSize(3 * MIN_FRAME_SIZE);
+        assertEquals(3 * MIN_FRAME_SIZE, frameManager.close());
+        assertEquals(BUDGET - framePool.getPooledBytes(), memoryManager.getAvailableMemory());
+        assertEquals(0, framePool.getOutstandingBytes());
+    }
+
+    private void assertCharged(int bytes) {
+        assertEquals(bytes, frameManager.getAllocatedBytes());
+        assertEquals(BUDGET - bytes - framePool.getPooledBytes(), memoryManager.getAvailableMemory());
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.hyracks.dataflow.common.data.normalizers;
 
+import org.apache.hyracks.api.dataflow.value.IMultiWordNormalizedKeyComputer;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.data.std.primitive.LongPointable;
@@ -29,7 +30,7 @@ public class Integer64NormalizedKeyComputerFactory implements INormalizedKeyComp
 
     @Override
     public INormalizedKeyComputer createNormalizedKeyComputer() {
-        return new INormalizedKeyComputer() {
+        return new IMultiWordNormalizedKeyComputer() {
             private static final int POSTIVE_LONG_MASK = (3 << 30);
             private static final int NON_NEGATIVE_INT_MASK = (2 << 30);
             private static final int NEGATIVE_LONG_MASK = (0 << 30);
@@ -69,6 +70,27 @@ public class Integer64NormalizedKeyComputerFactory implements INormalizedKeyComp
                 return value ^ Integer.MIN_VALUE;
             }
 
+            @Override
+            public int getNormalizedKeyLength() {
+                return 2;
+            }
+
+            /**
+             * The two words are the sign-flipped high word and the low word of the value, which is an exact
+             * unsigned encoding of the signed long.
+             */
+            @Override
+            public void normalize(byte[] bytes, int start, int length, int[] normalizedKeys, int keyStart) {
+                long value = LongPointable.getLong(bytes, start);
+                normalizedKeys[keyStart] = getKey((int) (value >> 32));
+                normalizedKeys[keyStart + 1] = (int) value;
+            }
+
+            @Override
+            public boolean isDecisive() {
+                return true;
+            }
+
         };
     }
 }
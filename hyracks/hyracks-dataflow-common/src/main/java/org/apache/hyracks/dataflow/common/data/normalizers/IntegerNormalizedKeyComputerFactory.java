@@ -18,6 +18,7 @@
  */
 package org.apache.hyracks.dataflow.common.data.normalizers;
 
+import org.apache.hyracks.api.dataflow.value.IMultiWordNormalizedKeyComputer;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.data.std.primitive.IntegerPointable;
@@ -28,12 +29,27 @@ public class IntegerNormalizedKeyComputerFactory implements INormalizedKeyComput
 
     @Override
     public INormalizedKeyComputer createNormalizedKeyComputer() {
-        return new INormalizedKeyComputer() {
+        return new IMultiWordNormalizedKeyComputer() {
             @Override
             public int normalize(byte[] bytes, int start, int length) {
                 int value = IntegerPointable.getInteger(bytes, start);
                 return value ^Integer.MIN_VALUE;
             }
+
+            @Override
+            public int getNormalizedKeyLength() {
+                return 1;
+            }
+
+            @Override
+            public void normalize(byte[] bytes, int start, int length, int[] normalizedKeys, int keyStart) {
+                normalizedKeys[keyStart] = normalize(bytes, start, length);
+            }
+
+            @Override
+            public boolean isDecisive() {
+                return true;
+            }
         };
     }
 }
\ No newline at end of file
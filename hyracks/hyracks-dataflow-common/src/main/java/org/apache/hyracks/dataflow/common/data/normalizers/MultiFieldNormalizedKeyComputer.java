@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.data.normalizers;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.dataflow.value.IMultiWordNormalizedKeyComputer;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+
+/**
+ * Concatenates the normalized keys of several key fields into one normalized key of up to a given number of words.
+ * The normalized key of a field is only followed by the one of the next field if it is decisive and has not been
+ * truncated; otherwise the order of the concatenation would not be consistent with the order of the fields.
+ */
+public class MultiFieldNormalizedKeyComputer implements INormalizedKeyComputer {
+
+    private final INormalizedKeyComputer[] fieldComputers;
+    private final int[] fieldKeyLengths;
+    private final int fieldCount;
+    private final int normalizedKeyLength;
+    private final int decisiveFieldCount;
+    private final int[] fieldKeys;
+
+    public MultiFieldNormalizedKeyComputer(INormalizedKeyComputer[] fieldComputers, int maxNormalizedKeyLength) {
+        this.fieldComputers = fieldComputers;
+        this.fieldKeyLengths = new int[fieldComputers.length];
+        int remaining = maxNormalizedKeyLength;
+        int nFields = 0;
+        int nDecisiveFields = 0;
+        int maxFieldKeyLength = 1;
+        for (int i = 0; i < fieldComputers.length && remaining > 0; ++i) {
+            int keyLength = getNormalizedKeyLength(fieldComputers[i]);
+            fieldKeyLengths[i] = Math.min(keyLength, remaining);
+            maxFieldKeyLength = Math.max(maxFieldKeyLength, keyLength);
+            remaining -= fieldKeyLengths[i];
+            nFields++;
+            if (fieldKeyLengths[i] < keyLength || !isDecisive(fieldComputers[i])) {
+                break;
+            }
+            nDecisiveFields++;
+        }
+        this.fieldCount = nFields;
+        this.normalizedKeyLength = maxNormalizedKeyLength - remaining;
+        this.decisiveFieldCount = nDecisiveFields;
+        this.fieldKeys = new int[maxFieldKeyLength];
+    }
+
+    /**
+     * @return the normalized key of the first key field, for callers that only deal with a single word.
+     */
+    @Override
+    public int normalize(byte[] bytes, int start, int length) {
+        return fieldComputers[0].normalize(bytes, start, length);
+    }
+
+    /**
+     * Writes {@link #getNormalizedKeyLength()} words for the given tuple into normalizedKeys, starting at keyStart.
+     */
+    public void normalize(IFrameTupleAccessor accessor, int tIndex, int[] keyFields, int[] normalizedKeys,
+            int keyStart) {
+        byte[] array = accessor.getBuffer().array();
+        int tStart = accessor.getTupleStartOffset(tIndex) + accessor.getFieldSlotsLength();
+        int keyPos = keyStart;
+        for (int i = 0; i < fieldCount; ++i) {
+            int fStart = accessor.getFieldStartOffset(tIndex, keyFields[i]);
+            int fLength = accessor.getFieldEndOffset(tIndex, keyFields[i]) - fStart;
+            INormalizedKeyComputer computer = fieldComputers[i];
+            if (computer instanceof IMultiWordNormalizedKeyComputer) {
+                IMultiWordNormalizedKeyComputer multiWordComputer = (IMultiWordNormalizedKeyComputer) computer;
+                if (fieldKeyLengths[i] == multiWordComputer.getNormalizedKeyLength()) {
+                    multiWordComputer.normalize(array, tStart + fStart, fLength, normalizedKeys, keyPos);
+                } else {
+                    multiWordComputer.normalize(array, tStart + fStart, fLength, fieldKeys, 0);
+                    System.arraycopy(fieldKeys, 0, normalizedKeys, keyPos, fieldKeyLengths[i]);
+                }
+            } else {
+                normalizedKeys[keyPos] = computer.normalize(array, tStart + fStart, fLength);
+            }
+            keyPos += fieldKeyLengths[i];
+        }
+    }
+
+    /**
+     * @return the number of words written by {@link #normalize(IFrameTupleAccessor, int, int[], int[], int)}.
+     */
+    public int getNormalizedKeyLength() {
+        return normalizedKeyLength;
+    }
+
+    /**
+     * @return the number of leading key fields whose order is completely decided by the normalized key.
+     */
+    public int getDecisiveFieldCount() {
+        return decisiveFieldCount;
+    }
+
+    public static int getNormalizedKeyLength(INormalizedKeyComputer computer) {
+        return computer instanceof IMultiWordNormalizedKeyComputer ? ((IMultiWordNormalizedKeyComputer) computer)
+                .getNormalizedKeyLength() : 1;
+    }
+
+    private static boolean isDecisive(INormalizedKeyComputer computer) {
+        return computer instanceof IMultiWordNormalizedKeyComputer
+                && ((IMultiWordNormalizedKeyComputer) computer).isDecisive();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.data.normalizers;
+
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+
+/**
+ * A normalized key computer factory for the leading key fields of a sort. It can be passed wherever a first key
+ * normalizer factory is expected: frame sorters pick up all the words of the key, while everything else only
+ * uses the normalized key of the first field.
+ */
+public class MultiFieldNormalizedKeyComputerFactory implements INormalizedKeyComputerFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final INormalizedKeyComputerFactory[] fieldNormalizerFactories;
+    private final int maxNormalizedKeyLength;
+
+    /**
+     * @param fieldNormalizerFactories
+     *            the normalized key computer factories of the leading key fields, in key order
+     * @param maxNormalizedKeyLength
+     *            the maximum number of 32-bit words of the normalized key
+     */
+    public MultiFieldNormalizedKeyComputerFactory(INormalizedKeyComputerFactory[] fieldNormalizerFactories,
+            int maxNormalizedKeyLength) {
+        if (fieldNormalizerFactories.length == 0 || maxNormalizedKeyLength < 1) {
+            throw new IllegalArgumentException("At least one key field and one normalized key word are required.");
+        }
+        this.fieldNormalizerFactories = fieldNormalizerFactories;
+        this.maxNormalizedKeyLength = maxNormalizedKeyLength;
+    }
+
+    @Override
+    public MultiFieldNormalizedKeyComputer createNormalizedKeyComputer() {
+        INormalizedKeyComputer[] fieldComputers = new INormalizedKeyComputer[fieldNormalizerFactories.length];
+        for (int i = 0; i < fieldComputers.length; ++i) {
+            fieldComputers[i] = fieldNormalizerFactories[i].createNormalizedKeyComputer();
+        }
+        return new MultiFieldNormalizedKeyComputer(fieldComputers, maxNormalizedKeyLength);
+    }
+}
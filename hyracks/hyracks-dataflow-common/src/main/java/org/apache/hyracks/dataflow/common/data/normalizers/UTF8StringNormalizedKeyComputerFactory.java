@@ -18,6 +18,7 @@
  */
 package org.apache.hyracks.dataflow.common.data.normalizers;
 
+import org.apache.hyracks.api.dataflow.value.IMultiWordNormalizedKeyComputer;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
@@ -25,9 +26,23 @@ import org.apache.hyracks.data.std.primitive.UTF8StringPointable;
 public class UTF8StringNormalizedKeyComputerFactory implements INormalizedKeyComputerFactory {
     private static final long serialVersionUID = 1L;
 
+    private final int normalizedKeyLength;
+
+    public UTF8StringNormalizedKeyComputerFactory() {
+        this(1);
+    }
+
+    /**
+     * @param normalizedKeyLength
+     *            the number of 32-bit words of the normalized key. Every word holds the next two characters.
+     */
+    public UTF8StringNormalizedKeyComputerFactory(int normalizedKeyLength) {
+        this.normalizedKeyLength = normalizedKeyLength;
+    }
+
     @Override
     public INormalizedKeyComputer createNormalizedKeyComputer() {
-        return new INormalizedKeyComputer() {
+        return new IMultiWordNormalizedKeyComputer() {
             @Override
             public int normalize(byte[] bytes, int start, int length) {
                 int len = UTF8StringPointable.getUTFLength(bytes, start);
@@ -42,6 +57,33 @@ public class UTF8StringNormalizedKeyComputerFactory implements INormalizedKeyCom
                 }
                 return nk;
             }
+
+            @Override
+            public int getNormalizedKeyLength() {
+                return normalizedKeyLength;
+            }
+
+            @Override
+            public void normalize(byte[] bytes, int start, int length, int[] normalizedKeys, int keyStart) {
+                int end = start + 2 + UTF8StringPointable.getUTFLength(bytes, start);
+                int offset = start + 2;
+                for (int i = 0; i < normalizedKeyLength; ++i) {
+                    int nk = 0;
+                    for (int j = 0; j < 2; ++j) {
+                        nk <<= 16;
+                        if (offset < end) {
+                            nk += ((int) UTF8StringPointable.charAt(bytes, offset)) & 0xffff;
+                            offset += UTF8StringPointable.charSize(bytes, offset);
+                        }
+                    }
+                    normalizedKeys[keyStart + i] = nk;
+                }
+            }
+
+            @Override
+            public boolean isDecisive() {
+                return false;
+            }
         };
     }
 }
\ No newline at end of file
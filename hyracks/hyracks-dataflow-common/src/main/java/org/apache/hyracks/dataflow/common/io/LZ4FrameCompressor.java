@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.io;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.compression.IFrameCompressor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A pure Java implementation of the LZ4 block format: a sequence of (literals, match) pairs, found with a single
+ * hash table of 4-byte prefixes. It favors speed over ratio, which suits spilled frames whose records share field
+ * layouts and values.
+ */
+public class LZ4FrameCompressor implements IFrameCompressor {
+    private static final int MIN_MATCH = 4;
+    private static final int HASH_LOG = 12;
+    private static final int MAX_DISTANCE = 65535;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int RUN_MASK = 15;
+    private static final int SKIP_TRIGGER = 6;
+
+    private final int[] hashTable = new int[1 << HASH_LOG];
+
+    @Override
+    public int getMaxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset) {
+        int srcEnd = srcOffset + srcLength;
+        int matchLimit = srcEnd - LAST_LITERALS;
+        int mfLimit = srcEnd - MF_LIMIT;
+        int anchor = srcOffset;
+        int sp = srcOffset;
+        int dp = destOffset;
+        Arrays.fill(hashTable, -1);
+        while (sp < mfLimit) {
+            int sequence = readInt(src, sp);
+            int h = hash(sequence);
+            int ref = hashTable[h];
+            hashTable[h] = sp;
+            if (ref < 0 || sp - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                // skip faster through incompressible data
+                sp += 1 + ((sp - anchor) >>> SKIP_TRIGGER);
+                continue;
+            }
+            while (sp > anchor && ref > srcOffset && src[sp - 1] == src[ref - 1]) {
+                --sp;
+                --ref;
+            }
+            int matchLength = MIN_MATCH;
+            while (sp + matchLength < matchLimit && src[sp + matchLength] == src[ref + matchLength]) {
+                ++matchLength;
+            }
+            dp = writeSequence(src, anchor, sp - anchor, sp - ref, matchLength, dest, dp);
+            sp += matchLength;
+            anchor = sp;
+        }
+        dp = writeLiterals(src, anchor, srcEnd - anchor, dest, dp, 0);
+        return dp - destOffset;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLength)
+            throws HyracksDataException {
+        int srcEnd = srcOffset + srcLength;
+        int destEnd = destOffset + destLength;
+        int sp = srcOffset;
+        int dp = destOffset;
+        try {
+            while (true) {
+                int token = src[sp++] & 0xff;
+                int literalLength = token >>> 4;
+                if (literalLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sp++] & 0xff;
+                        literalLength += b;
+                    } while (b == 255);
+                }
+                if (sp + literalLength > srcEnd || dp + literalLength > destEnd) {
+                    throw new HyracksDataException("Corrupted compressed frame: literals out of bounds");
+                }
+                System.arraycopy(src, sp, dest, dp, literalLength);
+                sp += literalLength;
+                dp += literalLength;
+                if (sp == srcEnd) {
+                    break;
+                }
+                int offset = (src[sp] & 0xff) | ((src[sp + 1] & 0xff) << 8);
+                sp += 2;
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sp++] & 0xff;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+                if (offset == 0 || dp - offset < destOffset || dp + matchLength > destEnd) {
+                    throw new HyracksDataException("Corrupted compressed frame: match out of bounds");
+                }
+                if (offset >= matchLength) {
+                    System.arraycopy(dest, dp - offset, dest, dp, matchLength);
+                    dp += matchLength;
+                } else {
+                    // overlapping match, repeats the last offset bytes
+                    for (int i = 0; i < matchLength; ++i, ++dp) {
+                        dest[dp] = dest[dp - offset];
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new HyracksDataException("Corrupted compressed frame: truncated input");
+        }
+        if (dp != destEnd) {
+            throw new HyracksDataException("Corrupted compressed frame: expected " + destLength + " bytes, got "
+                    + (dp - destOffset));
+        }
+    }
+
+    private static int writeSequence(byte[] src, int literalStart, int literalLength, int offset, int matchLength,
+            byte[] dest, int dp) {
+        int ml = matchLength - MIN_MATCH;
+        dp = writeLiterals(src, literalStart, literalLength, dest, dp, Math.min(ml, RUN_MASK));
+        dest[dp++] = (byte) offset;
+        dest[dp++] = (byte) (offset >>> 8);
+        if (ml >= RUN_MASK) {
+            dp = writeLength(ml - RUN_MASK, dest, dp);
+        }
+        return dp;
+    }
+
+    /**
+     * Writes the token, with the given low bits, followed by the literals.
+     */
+    private static int writeLiterals(byte[] src, int literalStart, int literalLength, byte[] dest, int dp,
+            int tokenLowBits) {
+        dest[dp++] = (byte) ((Math.min(literalLength, RUN_MASK) << 4) | tokenLowBits);
+        if (literalLength >= RUN_MASK) {
+            dp = writeLength(literalLength - RUN_MASK, dest, dp);
+        }
+        System.arraycopy(src, literalStart, dest, dp, literalLength);
+        return dp + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] dest, int dp) {
+        while (length >= 255) {
+            dest[dp++] = (byte) 255;
+            length -= 255;
+        }
+        dest[dp++] = (byte) length;
+        return dp;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16)
+                | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
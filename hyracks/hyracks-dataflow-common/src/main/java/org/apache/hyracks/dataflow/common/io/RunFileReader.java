@@ -18,32 +18,107 @@
  */
 package org.apache.hyracks.dataflow.common.io;
 
+import java.nio.ByteBuffer;
+
 import org.apache.hyracks.api.comm.FrameHelper;
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameReader;
+import org.apache.hyracks.api.compression.IFrameCompressor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOFuture;
 import org.apache.hyracks.api.io.IIOManager;
 
+/**
+ * Reads back the frames of a run file. By default every frame is read synchronously. With
+ * {@link #setReadAhead(int, int)}, the file is instead read as a stream of fixed-size chunks, a number of which are
+ * kept in flight with {@link IIOManager#asyncRead}, so that the disk works while the caller consumes the frames.
+ * The frames of a compressed run file (see {@link RunFileWriter}) are decompressed one record at a time.
+ */
 public class RunFileReader implements IFrameReader {
     private final FileReference file;
     private final IIOManager ioManager;
     private final long size;
+    private final long physicalSize;
+    private final IFrameCompressor compressor;
 
     private IFileHandle handle;
     private long readPtr;
+    private long filePtr;
+
+    private final ByteBuffer recordHeader = ByteBuffer.allocate(RunFileWriter.RECORD_HEADER_SIZE);
+    private ByteBuffer rawFrame;
+    private byte[] storedFrame;
+
+    private ByteBuffer[] chunks;
+    private IIOFuture[] pendingReads;
+    private int currentChunk;
+    private long requestPtr;
 
     public RunFileReader(FileReference file, IIOManager ioManager, long size) {
+        this(file, ioManager, size, size, null);
+    }
+
+    /**
+     * @param size
+     *            the number of bytes of the frames of the file, before compression
+     * @param physicalSize
+     *            the number of bytes of the file
+     * @param compressor
+     *            the codec the frames were compressed with, or null if they were not
+     */
+    public RunFileReader(FileReference file, IIOManager ioManager, long size, long physicalSize,
+            IFrameCompressor compressor) {
         this.file = file;
         this.ioManager = ioManager;
         this.size = size;
+        this.physicalSize = physicalSize;
+        this.compressor = compressor;
+    }
+
+    /**
+     * Keeps the given number of chunks of the given size in flight while the file is read. The chunks are
+     * allocated here and count against the memory budget of the caller. Must be called before {@link #open()}.
+     *
+     * @param chunkCount
+     *            the number of chunks to read ahead, 0 to read synchronously
+     * @param chunkSize
+     *            the size of a chunk in bytes, usually the frame size
+     */
+    public void setReadAhead(int chunkCount, int chunkSize) {
+        if (chunkCount <= 0) {
+            chunks = null;
+            pendingReads = null;
+            return;
+        }
+        chunks = new ByteBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; ++i) {
+            chunks[i] = ByteBuffer.allocate(chunkSize);
+        }
+        pendingReads = new IIOFuture[chunkCount];
+    }
+
+    public int getReadAheadChunkCount() {
+        return chunks == null ? 0 : chunks.length;
     }
 
     @Override
     public void open() throws HyracksDataException {
         handle = ioManager.open(file, IIOManager.FileReadWriteMode.READ_ONLY, null);
         readPtr = 0;
+        filePtr = 0;
+        if (rawFrame != null) {
+            rawFrame.limit(0);
+        }
+        if (chunks != null) {
+            requestPtr = 0;
+            for (int i = 0; i < chunks.length; ++i) {
+                requestChunk(i);
+            }
+            currentChunk = 0;
+            awaitChunk(currentChunk);
+        }
     }
 
     @Override
@@ -52,7 +127,7 @@ public class RunFileReader implements IFrameReader {
             return false;
         }
         frame.reset();
-        int readLength = ioManager.syncRead(handle, readPtr, frame.getBuffer());
+        int readLength = read(frame.getBuffer());
         if (readLength <= 0) {
             throw new HyracksDataException("Premature end of file");
         }
@@ -60,7 +135,7 @@ public class RunFileReader implements IFrameReader {
         frame.ensureFrameSize(frame.getMinSize() * FrameHelper.deserializeNumOfMinFrame(frame.getBuffer()));
         if (frame.getBuffer().hasRemaining()) {
             if (readPtr < size) {
-                readLength = ioManager.syncRead(handle, readPtr, frame.getBuffer());
+                readLength = read(frame.getBuffer());
                 if (readLength < 0) {
                     throw new HyracksDataException("Premature end of file");
                 }
@@ -74,8 +149,157 @@ public class RunFileReader implements IFrameReader {
         return true;
     }
 
+    /**
+     * Fills the remaining space of the given buffer with the (decompressed) frames, with the same contract as
+     * {@link IIOManager#syncRead}.
+     */
+    private int read(ByteBuffer buffer) throws HyracksDataException {
+        if (compressor == null) {
+            return readFile(buffer);
+        }
+        int n = 0;
+        while (buffer.hasRemaining()) {
+            if ((rawFrame == null || !rawFrame.hasRemaining()) && !readRecord()) {
+                break;
+            }
+            int length = Math.min(rawFrame.remaining(), buffer.remaining());
+            buffer.put(rawFrame.array(), rawFrame.position(), length);
+            rawFrame.position(rawFrame.position() + length);
+            n += length;
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    /**
+     * Reads the next record of a compressed file into rawFrame.
+     *
+     * @return false at the end of the file
+     */
+    private boolean readRecord() throws HyracksDataException {
+        recordHeader.clear();
+        if (readFile(recordHeader) < 0) {
+            return false;
+        }
+        if (recordHeader.hasRemaining()) {
+            throw new HyracksDataException("Premature end of file");
+        }
+        int rawLength = recordHeader.getInt(0);
+        int storedLength = recordHeader.getInt(4);
+        if (rawFrame == null || rawFrame.capacity() < rawLength) {
+            rawFrame = ByteBuffer.allocate(rawLength);
+        }
+        rawFrame.clear();
+        rawFrame.limit(rawLength);
+        if (storedLength == rawLength) {
+            readFully(rawFrame);
+        } else {
+            if (storedFrame == null || storedFrame.length < storedLength) {
+                storedFrame = new byte[storedLength];
+            }
+            readFully(ByteBuffer.wrap(storedFrame, 0, storedLength));
+            compressor.decompress(storedFrame, 0, storedLength, rawFrame.array(), 0, rawLength);
+        }
+        rawFrame.position(0);
+        return true;
+    }
+
+    private void readFully(ByteBuffer buffer) throws HyracksDataException {
+        readFile(buffer);
+        if (buffer.hasRemaining()) {
+            throw new HyracksDataException("Premature end of file");
+        }
+    }
+
+    /**
+     * Fills the remaining space of the given buffer with the bytes of the file, with the same contract as
+     * {@link IIOManager#syncRead}.
+     */
+    private int readFile(ByteBuffer buffer) throws HyracksDataException {
+        if (chunks == null) {
+            int n = ioManager.syncRead(handle, filePtr, buffer);
+            if (n > 0) {
+                filePtr += n;
+            }
+            return n;
+        }
+        int n = 0;
+        while (buffer.hasRemaining()) {
+            ByteBuffer chunk = chunks[currentChunk];
+            if (!chunk.hasRemaining()) {
+                requestChunk(currentChunk);
+                currentChunk = (currentChunk + 1) % chunks.length;
+                if (pendingReads[currentChunk] == null) {
+                    break;
+                }
+                awaitChunk(currentChunk);
+                continue;
+            }
+            int length = Math.min(chunk.remaining(), buffer.remaining());
+            int limit = chunk.limit();
+            chunk.limit(chunk.position() + length);
+            buffer.put(chunk);
+            chunk.limit(limit);
+            n += length;
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    /**
+     * Issues the read of the next chunk of the file into the given (consumed) chunk buffer, if there is any left.
+     */
+    private void requestChunk(int index) {
+        ByteBuffer chunk = chunks[index];
+        chunk.clear();
+        if (requestPtr >= physicalSize) {
+            chunk.limit(0);
+            pendingReads[index] = null;
+            return;
+        }
+        int length = (int) Math.min(chunk.capacity(), physicalSize - requestPtr);
+        chunk.limit(length);
+        pendingReads[index] = ioManager.asyncRead(handle, requestPtr, chunk);
+        requestPtr += length;
+    }
+
+    private void awaitChunk(int index) throws HyracksDataException {
+        IIOFuture future = pendingReads[index];
+        if (future == null) {
+            return;
+        }
+        ByteBuffer chunk = chunks[index];
+        int expected = chunk.limit();
+        int readLength;
+        try {
+            readLength = future.synchronize();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HyracksDataException(e);
+        } finally {
+            pendingReads[index] = null;
+        }
+        if (readLength < expected) {
+            throw new HyracksDataException("Premature end of file");
+        }
+        chunk.flip();
+    }
+
     @Override
     public void close() throws HyracksDataException {
+        if (chunks != null) {
+            // the handle must not be closed under a read in flight
+            for (int i = 0; i < pendingReads.length; ++i) {
+                if (pendingReads[i] != null) {
+                    try {
+                        pendingReads[i].synchronize();
+                    } catch (HyracksDataException e) {
+                        // the file is being closed anyway
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    pendingReads[i] = null;
+                }
+            }
+        }
         ioManager.close(handle);
     }
 
@@ -21,22 +21,88 @@ package org.apache.hyracks.dataflow.common.io;
 import java.nio.ByteBuffer;
 
 import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.compression.IFrameCompressor;
+import org.apache.hyracks.api.compression.IFrameCompressorFactory;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOFuture;
 import org.apache.hyracks.api.io.IIOManager;
+import org.apache.hyracks.api.job.profiling.counters.ICounter;
 
+/**
+ * Writes frames to a run file. By default every frame is written synchronously. With write-behind buffers, a frame is
+ * copied into the next free buffer and written with {@link IIOManager#asyncWrite}, so that the caller only waits for
+ * the disk when all the buffers are in flight.
+ * With a compressor, every frame is stored as a record: raw length, stored length, followed by the stored bytes,
+ * which are the frame itself when compressing it would not make it shorter.
+ */
 public class RunFileWriter implements IFrameWriter {
+    /**
+     * Name of the task counter that accumulates the bytes saved by compressing run files.
+     */
+    public static final String COMPRESSION_SAVED_BYTES_COUNTER = "runfile.compression.saved-bytes";
+
+    static final int RECORD_HEADER_SIZE = 8;
+
     private final FileReference file;
     private final IIOManager ioManager;
+    private final IFrameCompressor compressor;
+    private final IFrameCompressorFactory compressorFactory;
+    private final ICounter savedBytesCounter;
+    private final ByteBuffer[] writeBehindBuffers;
+    private final IIOFuture[] pendingWrites;
+    private ByteBuffer recordBuffer;
     private boolean failed;
 
     private IFileHandle handle;
     private long size;
+    private long physicalSize;
+    private int nextBuffer;
 
     public RunFileWriter(FileReference file, IIOManager ioManager) {
+        this(file, ioManager, 0);
+    }
+
+    /**
+     * @param writeBehindFrames
+     *            the number of frame buffers to write from in the background, 0 to write synchronously. The buffers
+     *            grow to the largest frame written and count against the memory budget of the caller; two of them
+     *            are enough to overlap the writes with the production of the next frame.
+     */
+    public RunFileWriter(FileReference file, IIOManager ioManager, int writeBehindFrames) {
+        this(file, ioManager, writeBehindFrames, null, null);
+    }
+
+    /**
+     * Creates a writer that compresses the frames with the run file codec of the job of the given task, if any, and
+     * reports the bytes it saves to the counters of the task.
+     */
+    public RunFileWriter(FileReference file, IHyracksTaskContext ctx) {
+        this(file, ctx, 0);
+    }
+
+    public RunFileWriter(FileReference file, IHyracksTaskContext ctx, int writeBehindFrames) {
+        this(file, ctx.getIOManager(), writeBehindFrames, ctx.getJobletContext().getRunFileCompressorFactory(),
+                ctx.getJobletContext().getRunFileCompressorFactory() == null ? null : ctx.getCounterContext()
+                        .getCounter(COMPRESSION_SAVED_BYTES_COUNTER, true));
+    }
+
+    public RunFileWriter(FileReference file, IIOManager ioManager, int writeBehindFrames,
+            IFrameCompressorFactory compressorFactory, ICounter savedBytesCounter) {
         this.file = file;
         this.ioManager = ioManager;
+        this.compressorFactory = compressorFactory;
+        this.compressor = compressorFactory == null ? null : compressorFactory.createFrameCompressor();
+        this.savedBytesCounter = savedBytesCounter;
+        if (writeBehindFrames > 0) {
+            writeBehindBuffers = new ByteBuffer[writeBehindFrames];
+            pendingWrites = new IIOFuture[writeBehindFrames];
+        } else {
+            writeBehindBuffers = null;
+            pendingWrites = null;
+        }
     }
 
     @Override
@@ -44,24 +110,144 @@ public class RunFileWriter implements IFrameWriter {
         handle = ioManager.open(file, IIOManager.FileReadWriteMode.READ_WRITE,
                 IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
         size = 0;
+        physicalSize = 0;
         failed = false;
+        nextBuffer = 0;
     }
 
     @Override
     public void fail() throws HyracksDataException {
-        ioManager.close(handle);
-        failed = true;
+        try {
+            awaitAllWrites();
+        } catch (HyracksDataException e) {
+            // the run is discarded anyway
+        } finally {
+            ioManager.close(handle);
+            failed = true;
+        }
     }
 
     @Override
     public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
-        size += ioManager.syncWrite(handle, size, buffer);
+        int length = buffer.remaining();
+        if (compressor != null) {
+            ByteBuffer record = getOutputBuffer(RECORD_HEADER_SIZE
+                    + Math.max(length, compressor.getMaxCompressedLength(length)));
+            compress(buffer, record);
+            write(record);
+        } else if (writeBehindBuffers != null) {
+            ByteBuffer copy = getOutputBuffer(length);
+            copy.put(buffer);
+            copy.flip();
+            write(copy);
+        } else {
+            physicalSize += ioManager.syncWrite(handle, physicalSize, buffer);
+        }
+        size += length;
+    }
+
+    /**
+     * Stores the frame into the given record buffer, compressed if that makes it shorter.
+     */
+    private void compress(ByteBuffer frame, ByteBuffer record) throws HyracksDataException {
+        int length = frame.remaining();
+        byte[] src;
+        int srcOffset;
+        if (frame.hasArray()) {
+            src = frame.array();
+            srcOffset = frame.arrayOffset() + frame.position();
+        } else {
+            src = new byte[length];
+            frame.duplicate().get(src);
+            srcOffset = 0;
+        }
+        byte[] dest = record.array();
+        int destOffset = record.arrayOffset() + RECORD_HEADER_SIZE;
+        int storedLength = compressor.compress(src, srcOffset, length, dest, destOffset);
+        if (storedLength >= length) {
+            System.arraycopy(src, srcOffset, dest, destOffset, length);
+            storedLength = length;
+        }
+        frame.position(frame.limit());
+        record.putInt(0, length);
+        record.putInt(4, storedLength);
+        record.position(0);
+        record.limit(RECORD_HEADER_SIZE + storedLength);
+    }
+
+    /**
+     * @return a cleared buffer of at least the given capacity, which is the next write-behind buffer (once it is not
+     *         in flight anymore) if there are some.
+     */
+    private ByteBuffer getOutputBuffer(int capacity) throws HyracksDataException {
+        ByteBuffer output;
+        if (writeBehindBuffers != null) {
+            awaitWrite(nextBuffer);
+            output = writeBehindBuffers[nextBuffer];
+            if (output == null || output.capacity() < capacity) {
+                output = ByteBuffer.allocate(capacity);
+                writeBehindBuffers[nextBuffer] = output;
+            }
+        } else {
+            output = recordBuffer;
+            if (output == null || output.capacity() < capacity) {
+                output = ByteBuffer.allocate(capacity);
+                recordBuffer = output;
+            }
+        }
+        output.clear();
+        return output;
+    }
+
+    private void write(ByteBuffer output) throws HyracksDataException {
+        int length = output.remaining();
+        if (writeBehindBuffers != null) {
+            pendingWrites[nextBuffer] = ioManager.asyncWrite(handle, physicalSize, output);
+            nextBuffer = (nextBuffer + 1) % writeBehindBuffers.length;
+            physicalSize += length;
+        } else {
+            physicalSize += ioManager.syncWrite(handle, physicalSize, output);
+        }
     }
 
     @Override
     public void close() throws HyracksDataException {
         if (!failed) {
-            ioManager.close(handle);
+            try {
+                awaitAllWrites();
+            } finally {
+                ioManager.close(handle);
+            }
+            if (savedBytesCounter != null) {
+                savedBytesCounter.update(size - physicalSize);
+            }
+        }
+    }
+
+    private void awaitAllWrites() throws HyracksDataException {
+        if (pendingWrites != null) {
+            for (int i = 0; i < pendingWrites.length; ++i) {
+                awaitWrite(i);
+            }
+        }
+    }
+
+    private void awaitWrite(int index) throws HyracksDataException {
+        IIOFuture future = pendingWrites[index];
+        if (future == null) {
+            return;
+        }
+        pendingWrites[index] = null;
+        int expected = writeBehindBuffers[index].limit();
+        int written;
+        try {
+            written = future.synchronize();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HyracksDataException(e);
+        }
+        if (written < expected) {
+            throw new HyracksDataException("Error writing to file: " + file);
         }
     }
 
@@ -69,14 +255,26 @@ public class RunFileWriter implements IFrameWriter {
         return file;
     }
 
+    /**
+     * @return the number of bytes of the frames written so far, before compression.
+     */
     public long getFileSize() {
         return size;
     }
 
+    /**
+     * @return the number of bytes written to the file so far, which is less than {@link #getFileSize()} if the
+     *         frames are compressed.
+     */
+    public long getPhysicalFileSize() {
+        return physicalSize;
+    }
+
     public RunFileReader createReader() throws HyracksDataException {
         if (failed) {
             throw new HyracksDataException("createReader() called on a failed RunFileWriter");
         }
-        return new RunFileReader(file, ioManager, size);
+        return new RunFileReader(file, ioManager, size, physicalSize,
+                compressorFactory == null ? null : compressorFactory.createFrameCompressor());
     }
-}
\ No newline at end of file
+}
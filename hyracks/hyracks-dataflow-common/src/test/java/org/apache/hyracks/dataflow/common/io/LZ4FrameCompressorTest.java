@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.common.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+public class LZ4FrameCompressorTest {
+    private final Random random = new Random(17);
+    private final LZ4FrameCompressor compressor = new LZ4FrameCompressor();
+
+    @Test
+    public void testRandomBytes() throws HyracksDataException {
+        for (int length : new int[] { 0, 1, 5, 12, 13, 100, 32768 }) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            roundTrip(bytes, 0, length);
+        }
+    }
+
+    @Test
+    public void testRepetitiveBytes() throws HyracksDataException {
+        byte[] bytes = new byte[32768];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = (byte) ("record-" + (i / 64) % 10).charAt(i % 8);
+        }
+        int compressedLength = roundTrip(bytes, 0, bytes.length);
+        assertTrue(compressedLength < bytes.length / 10);
+
+        Arrays.fill(bytes, (byte) 7);
+        compressedLength = roundTrip(bytes, 0, bytes.length);
+        assertTrue(compressedLength < 200);
+    }
+
+    @Test
+    public void testMixedBytesWithOffsets() throws HyracksDataException {
+        byte[] bytes = new byte[65536 + 1000];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = (byte) (random.nextInt(4) == 0 ? random.nextInt() : i % 300);
+        }
+        roundTrip(bytes, 123, 65536);
+    }
+
+    @Test(expected = HyracksDataException.class)
+    public void testCorruptedInput() throws HyracksDataException {
+        byte[] bytes = new byte[1000];
+        byte[] compressed = new byte[compressor.getMaxCompressedLength(bytes.length)];
+        int compressedLength = compressor.compress(bytes, 0, bytes.length, compressed, 0);
+        compressor.decompress(compressed, 0, compressedLength - 1, new byte[bytes.length], 0, bytes.length);
+    }
+
+    private int roundTrip(byte[] bytes, int offset, int length) throws HyracksDataException {
+        byte[] compressed = new byte[3 + compressor.getMaxCompressedLength(length)];
+        int compressedLength = compressor.compress(bytes, offset, length, compressed, 3);
+        assertTrue(compressedLength <= compressor.getMaxCompressedLength(length));
+        byte[] decompressed = new byte[length + 5];
+        compressor.decompress(compressed, 3, compressedLength, decompressed, 5, length);
+        assertArrayEquals(Arrays.copyOfRange(bytes, offset, offset + length),
+                Arrays.copyOfRange(decompressed, 5, 5 + length));
+        return compressedLength;
+    }
+}
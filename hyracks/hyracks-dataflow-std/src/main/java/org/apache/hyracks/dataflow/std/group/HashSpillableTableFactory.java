@@ -38,8 +38,8 @@ import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTuplePairComparator;
-import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
-import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.dataflow.std.structures.ISerializableFingerprintTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableFingerprintHashTable;
 import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 
 public class HashSpillableTableFactory implements ISpillableTableFactory {
@@ -125,7 +125,7 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             private FrameTupleAppender stateAppender = new FrameTupleAppender();
 
-            private final ISerializableTable table = new SerializableHashTable(tableSize, ctx);
+            private final ISerializableFingerprintTable table = new SerializableFingerprintHashTable(tableSize, ctx);
             private final TuplePointer storedTuplePointer = new TuplePointer();
             private final List<IFrame> frames = new ArrayList<>();
 
@@ -186,20 +186,20 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
             public boolean insert(FrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
                 if (lastBufIndex < 0)
                     nextAvailableFrame();
-                int entry = tpc.partition(accessor, tIndex, tableSize);
+                int hashCode = SerializableFingerprintHashTable.computeHashCode(tpc, accessor, tIndex, tableSize);
+                int entry = SerializableFingerprintHashTable.getEntry(hashCode, tableSize);
+                int fingerprint = SerializableFingerprintHashTable.getFingerprint(hashCode, tableSize);
                 boolean foundGroup = false;
-                int offset = 0;
-                do {
-                    table.getTuplePointer(entry, offset++, storedTuplePointer);
-                    if (storedTuplePointer.frameIndex < 0)
-                        break;
+                int offset = table.findNext(entry, fingerprint, 0, storedTuplePointer);
+                while (offset >= 0) {
                     storedKeysAccessor1.reset(frames.get(storedTuplePointer.frameIndex).getBuffer());
                     int c = ftpcPartial.compare(accessor, tIndex, storedKeysAccessor1, storedTuplePointer.tupleIndex);
                     if (c == 0) {
                         foundGroup = true;
                         break;
                     }
-                } while (true);
+                    offset = table.findNext(entry, fingerprint, offset + 1, storedTuplePointer);
+                }
 
                 if (!foundGroup) {
 
@@ -223,7 +223,7 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
                     storedTuplePointer.frameIndex = lastBufIndex;
                     storedTuplePointer.tupleIndex = stateAppender.getTupleCount() - 1;
-                    table.insert(entry, storedTuplePointer);
+                    table.insert(entry, fingerprint, storedTuplePointer);
                 } else {
 
                     aggregator.aggregate(accessor, tIndex, storedKeysAccessor1, storedTuplePointer.tupleIndex,
@@ -346,7 +346,14 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                 lastBufIndex = -1;
                 tPointers = null;
                 table.close();
+                for (IFrame frame : frames) {
+                    ctx.deallocateFrame(frame.getBuffer());
+                }
                 frames.clear();
+                if (outputFrame != null) {
+                    ctx.deallocateFrame(outputFrame.getBuffer());
+                    outputFrame = null;
+                }
                 aggregateState.close();
             }
 
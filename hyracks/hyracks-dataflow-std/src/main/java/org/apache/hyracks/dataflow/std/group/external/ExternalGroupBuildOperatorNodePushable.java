@@ -125,7 +125,7 @@ class ExternalGroupBuildOperatorNodePushable extends AbstractUnaryInputSinkOpera
         } catch (IOException e) {
             throw new HyracksDataException(e);
         }
-        RunFileWriter writer = new RunFileWriter(runFile, ctx.getIOManager());
+        RunFileWriter writer = new RunFileWriter(runFile, ctx);
         writer.open();
         ISpillableTable gTable = state.getSpillableTable();
         try {
@@ -129,6 +129,7 @@ class ExternalGroupMergeOperatorNodePushable extends AbstractUnaryOutputSourceOp
                     if (isOutputSorted)
                         gTable.sortFrames();
                     gTable.flushFrames(writer, false);
+                    gTable.close();
                 }
                 gTable = null;
                 aggState = null;
@@ -145,7 +146,14 @@ class ExternalGroupMergeOperatorNodePushable extends AbstractUnaryOutputSourceOp
                         throw new HyracksDataException(e);
                     }
                 }
+                for (IFrame frame : inFrames) {
+                    ctx.deallocateFrame(frame.getBuffer());
+                }
                 inFrames.clear();
+                ctx.deallocateFrame(outFrame.getBuffer());
+                if (writerFrame != null) {
+                    ctx.deallocateFrame(writerFrame.getBuffer());
+                }
             }
         } catch (Exception e) {
             writer.fail();
@@ -173,7 +181,7 @@ class ExternalGroupMergeOperatorNodePushable extends AbstractUnaryOutputSourceOp
             runNumber = framesLimit - 2;
             newRun = ctx.getJobletContext().createManagedWorkspaceFile(
                     ExternalGroupOperatorDescriptor.class.getSimpleName());
-            writer = new RunFileWriter(newRun, ctx.getIOManager());
+            writer = new RunFileWriter(newRun, ctx);
             writer.open();
         }
         try {
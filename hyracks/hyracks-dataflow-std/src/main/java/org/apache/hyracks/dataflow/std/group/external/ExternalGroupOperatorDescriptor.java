@@ -21,6 +21,7 @@ package org.apache.hyracks.dataflow.std.group.external;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.ActivityId;
 import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IMemoryBoundedOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
 import org.apache.hyracks.api.dataflow.TaskId;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
@@ -37,7 +38,8 @@ import org.apache.hyracks.dataflow.std.group.ISpillableTableFactory;
 /**
  *
  */
-public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor {
+public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
+        implements IMemoryBoundedOperatorDescriptor {
 
     private static final int AGGREGATE_ACTIVITY_ID = 0;
 
@@ -104,6 +106,11 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
         builder.addBlockingEdge(aggregateAct, mergeAct);
     }
 
+    @Override
+    public int getMemorySize() {
+        return framesLimit;
+    }
+
     private class AggregateActivity extends AbstractActivityNode {
         private static final long serialVersionUID = 1L;
 
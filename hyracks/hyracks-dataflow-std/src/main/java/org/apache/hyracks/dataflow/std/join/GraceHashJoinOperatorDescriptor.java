@@ -21,6 +21,7 @@ package org.apache.hyracks.dataflow.std.join;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.ActivityId;
 import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IMemoryBoundedOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
 import org.apache.hyracks.api.dataflow.TaskId;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
@@ -34,7 +35,8 @@ import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
 import org.apache.hyracks.dataflow.std.base.AbstractActivityNode;
 import org.apache.hyracks.dataflow.std.base.AbstractOperatorDescriptor;
 
-public class GraceHashJoinOperatorDescriptor extends AbstractOperatorDescriptor {
+public class GraceHashJoinOperatorDescriptor extends AbstractOperatorDescriptor
+        implements IMemoryBoundedOperatorDescriptor {
     private static final int RPARTITION_ACTIVITY_ID = 0;
     private static final int SPARTITION_ACTIVITY_ID = 1;
     private static final int JOIN_ACTIVITY_ID = 2;
@@ -111,6 +113,7 @@ public class GraceHashJoinOperatorDescriptor extends AbstractOperatorDescriptor
         builder.addTargetEdge(0, join, 0);
     }
 
+    @Override
     public int getMemorySize() {
         return memsize;
     }
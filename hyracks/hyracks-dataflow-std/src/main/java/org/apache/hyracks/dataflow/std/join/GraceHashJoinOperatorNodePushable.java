@@ -148,6 +148,7 @@ class GraceHashJoinOperatorNodePushable extends AbstractUnaryOutputSourceOperato
                 probeReader.close();
                 joiner.closeJoin(writer);
             }
+            table.close();
         } catch (Exception e) {
             writer.fail();
             throw new HyracksDataException(e);
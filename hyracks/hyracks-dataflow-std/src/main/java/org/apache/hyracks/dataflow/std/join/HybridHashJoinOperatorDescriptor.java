@@ -28,6 +28,7 @@ import org.apache.hyracks.api.comm.VSizeFrame;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.ActivityId;
 import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IMemoryBoundedOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
 import org.apache.hyracks.api.dataflow.TaskId;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
@@ -61,7 +62,8 @@ import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperato
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
 import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
 
-public class HybridHashJoinOperatorDescriptor extends AbstractOperatorDescriptor {
+public class HybridHashJoinOperatorDescriptor extends AbstractOperatorDescriptor
+        implements IMemoryBoundedOperatorDescriptor {
     private static final int BUILD_AND_PARTITION_ACTIVITY_ID = 0;
     private static final int PARTITION_AND_JOIN_ACTIVITY_ID = 1;
 
@@ -130,6 +132,11 @@ public class HybridHashJoinOperatorDescriptor extends AbstractOperatorDescriptor
         recordDescriptors[0] = recordDescriptor;
     }
 
+    @Override
+    public int getMemorySize() {
+        return memsize;
+    }
+
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
         ActivityId p1Aid = new ActivityId(odId, BUILD_AND_PARTITION_ACTIVITY_ID);
@@ -353,7 +360,7 @@ public class HybridHashJoinOperatorDescriptor extends AbstractOperatorDescriptor
                     if (writer == null) {
                         FileReference file = ctx.getJobletContext().createManagedWorkspaceFile(
                                 BuildAndPartitionActivityNode.class.getSimpleName());
-                        writer = new RunFileWriter(file, ctx.getIOManager());
+                        writer = new RunFileWriter(file, ctx);
                         writer.open();
                         state.fWriters[i] = writer;
                     }
@@ -484,6 +491,7 @@ public class HybridHashJoinOperatorDescriptor extends AbstractOperatorDescriptor
                 public void close() throws HyracksDataException {
                     state.joiner.join(inBuffer.getBuffer(), writer);
                     state.joiner.closeJoin(writer);
+                    state.joiner.closeTable();
                     ITuplePartitionComputer hpcRep0 = new RepartitionComputerFactory(state.nPartitions, hpcf0)
                             .createPartitioner();
                     ITuplePartitionComputer hpcRep1 = new RepartitionComputerFactory(state.nPartitions, hpcf1)
@@ -540,6 +548,7 @@ public class HybridHashJoinOperatorDescriptor extends AbstractOperatorDescriptor
                             probeReader.close();
                             joiner.closeJoin(writer);
                         }
+                        table.close();
                     }
                     writer.close();
                 }
@@ -556,7 +565,7 @@ public class HybridHashJoinOperatorDescriptor extends AbstractOperatorDescriptor
                     if (writer == null) {
                         FileReference file = ctx.createManagedWorkspaceFile(PartitionAndJoinActivityNode.class
                                 .getSimpleName());
-                        writer = new RunFileWriter(file, ctx.getIOManager());
+                        writer = new RunFileWriter(file, ctx);
                         writer.open();
                         probeWriters[i] = writer;
                     }
@@ -36,7 +36,9 @@ import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTuplePairComparator;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.std.structures.ISerializableFingerprintTable;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableFingerprintHashTable;
 import org.apache.hyracks.dataflow.std.structures.TuplePointer;
 
 public class InMemoryHashJoin {
@@ -52,6 +54,7 @@ public class InMemoryHashJoin {
     private final boolean isLeftOuter;
     private final ArrayTupleBuilder nullTupleBuild;
     private final ISerializableTable table;
+    private final ISerializableFingerprintTable fingerprintTable; // null if the table does not keep fingerprints
     private final int tableSize;
     private final TuplePointer storedTuplePointer;
     private final boolean reverseOutputOrder; //Should we reverse the order of tuples, we are writing in output
@@ -74,6 +77,8 @@ public class InMemoryHashJoin {
         this.ctx = ctx;
         this.tableSize = tableSize;
         this.table = table;
+        this.fingerprintTable = table instanceof ISerializableFingerprintTable ? (ISerializableFingerprintTable) table
+                : null;
         storedTuplePointer = new TuplePointer();
         buffers = new ArrayList<ByteBuffer>();
         this.accessorBuild = accessor1;
@@ -106,10 +111,16 @@ public class InMemoryHashJoin {
         accessorBuild.reset(buffer);
         int tCount = accessorBuild.getTupleCount();
         for (int i = 0; i < tCount; ++i) {
-            int entry = tpcBuild.partition(accessorBuild, i, tableSize);
             storedTuplePointer.frameIndex = bIndex;
             storedTuplePointer.tupleIndex = i;
-            table.insert(entry, storedTuplePointer);
+            if (fingerprintTable != null) {
+                int hashCode = SerializableFingerprintHashTable.computeHashCode(tpcBuild, accessorBuild, i, tableSize);
+                fingerprintTable.insert(SerializableFingerprintHashTable.getEntry(hashCode, tableSize),
+                        SerializableFingerprintHashTable.getFingerprint(hashCode, tableSize), storedTuplePointer);
+            } else {
+                int entry = tpcBuild.partition(accessorBuild, i, tableSize);
+                table.insert(entry, storedTuplePointer);
+            }
         }
     }
 
@@ -119,24 +130,18 @@ public class InMemoryHashJoin {
         for (int i = 0; i < tupleCount0; ++i) {
             boolean matchFound = false;
             if (tableSize != 0) {
-                int entry = tpcProbe.partition(accessorProbe, i, tableSize);
-                int offset = 0;
-                do {
-                    table.getTuplePointer(entry, offset++, storedTuplePointer);
-                    if (storedTuplePointer.frameIndex < 0)
-                        break;
-                    int bIndex = storedTuplePointer.frameIndex;
-                    int tIndex = storedTuplePointer.tupleIndex;
-                    accessorBuild.reset(buffers.get(bIndex));
-                    int c = tpComparator.compare(accessorProbe, i, accessorBuild, tIndex);
-                    if (c == 0) {
-                        boolean predEval = evaluatePredicate(i, tIndex);
-                        if (predEval) {
-                            matchFound = true;
-                            appendToResult(i, tIndex, writer);
-                        }
-                    }
-                } while (true);
+                if (fingerprintTable != null) {
+                    matchFound = probeFingerprintTable(i, writer);
+                } else {
+                    int entry = tpcProbe.partition(accessorProbe, i, tableSize);
+                    int offset = 0;
+                    do {
+                        table.getTuplePointer(entry, offset++, storedTuplePointer);
+                        if (storedTuplePointer.frameIndex < 0)
+                            break;
+                        matchFound |= compareAndAppend(i, writer);
+                    } while (true);
+                }
             }
             if (!matchFound && isLeftOuter) {
                 FrameUtils.appendConcatToWriter(writer, appender, accessorProbe, i,
@@ -146,15 +151,58 @@ public class InMemoryHashJoin {
         }
     }
 
+    /**
+     * Only the build tuples whose fingerprint is equal to the fingerprint of the probe tuple are compared.
+     */
+    private boolean probeFingerprintTable(int probeTupleIndex, IFrameWriter writer) throws HyracksDataException {
+        boolean matchFound = false;
+        int hashCode = SerializableFingerprintHashTable.computeHashCode(tpcProbe, accessorProbe, probeTupleIndex,
+                tableSize);
+        int entry = SerializableFingerprintHashTable.getEntry(hashCode, tableSize);
+        int fingerprint = SerializableFingerprintHashTable.getFingerprint(hashCode, tableSize);
+        int offset = fingerprintTable.findNext(entry, fingerprint, 0, storedTuplePointer);
+        while (offset >= 0) {
+            matchFound |= compareAndAppend(probeTupleIndex, writer);
+            offset = fingerprintTable.findNext(entry, fingerprint, offset + 1, storedTuplePointer);
+        }
+        return matchFound;
+    }
+
+    private boolean compareAndAppend(int probeTupleIndex, IFrameWriter writer) throws HyracksDataException {
+        int bIndex = storedTuplePointer.frameIndex;
+        int tIndex = storedTuplePointer.tupleIndex;
+        accessorBuild.reset(buffers.get(bIndex));
+        int c = tpComparator.compare(accessorProbe, probeTupleIndex, accessorBuild, tIndex);
+        if (c == 0 && evaluatePredicate(probeTupleIndex, tIndex)) {
+            appendToResult(probeTupleIndex, tIndex, writer);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Flushes the joined tuples and gives back the frames that were handed to {@link #build(ByteBuffer)}, as well as
+     * the output frame. The table is left open, as several joiners may reset and reuse it, see {@link #closeTable()}.
+     */
     public void closeJoin(IFrameWriter writer) throws HyracksDataException {
         appender.flush(writer, true);
+        ctx.deallocateFrame(appender.getBuffer());
         int nFrames = buffers.size();
+        for (ByteBuffer buffer : buffers) {
+            ctx.deallocateFrame(buffer);
+        }
         buffers.clear();
-        ctx.deallocateFrames(nFrames);
         LOGGER.fine("InMemoryHashJoin has finished using " + nFrames + " frames for Thread ID "
                 + Thread.currentThread().getId() + ".");
     }
 
+    /**
+     * Gives back the frames of the table, once no joiner uses it anymore.
+     */
+    public void closeTable() {
+        table.close();
+    }
+
     private void flushFrame(ByteBuffer buffer, IFrameWriter writer) throws HyracksDataException {
         buffer.position(0);
         buffer.limit(buffer.capacity());
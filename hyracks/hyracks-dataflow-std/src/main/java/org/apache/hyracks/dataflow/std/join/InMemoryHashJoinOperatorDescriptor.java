@@ -244,6 +244,7 @@ public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescript
                 @Override
                 public void close() throws HyracksDataException {
                     state.joiner.closeJoin(writer);
+                    state.joiner.closeTable();
                     writer.close();
                 }
 
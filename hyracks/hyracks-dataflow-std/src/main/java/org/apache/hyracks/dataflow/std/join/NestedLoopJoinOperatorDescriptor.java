@@ -27,6 +27,7 @@ import java.nio.ByteBuffer;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.ActivityId;
 import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IMemoryBoundedOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
 import org.apache.hyracks.api.dataflow.TaskId;
 import org.apache.hyracks.api.dataflow.value.INullWriter;
@@ -48,7 +49,8 @@ import org.apache.hyracks.dataflow.std.base.AbstractStateObject;
 import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputSinkOperatorNodePushable;
 import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputUnaryOutputOperatorNodePushable;
 
-public class NestedLoopJoinOperatorDescriptor extends AbstractOperatorDescriptor {
+public class NestedLoopJoinOperatorDescriptor extends AbstractOperatorDescriptor
+        implements IMemoryBoundedOperatorDescriptor {
     private static final int JOIN_CACHE_ACTIVITY_ID = 0;
     private static final int NL_JOIN_ACTIVITY_ID = 1;
 
@@ -78,6 +80,11 @@ public class NestedLoopJoinOperatorDescriptor extends AbstractOperatorDescriptor
         this.nullWriterFactories1 = nullWriterFactories1;
     }
 
+    @Override
+    public int getMemorySize() {
+        return memSize;
+    }
+
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
         ActivityId jcaId = new ActivityId(getOperatorId(), JOIN_CACHE_ACTIVITY_ID);
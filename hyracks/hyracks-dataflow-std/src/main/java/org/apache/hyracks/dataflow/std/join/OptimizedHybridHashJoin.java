@@ -42,7 +42,7 @@ import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 import org.apache.hyracks.dataflow.common.io.RunFileReader;
 import org.apache.hyracks.dataflow.common.io.RunFileWriter;
 import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
-import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableFingerprintHashTable;
 
 /**
  * @author pouria
@@ -336,7 +336,7 @@ public class OptimizedHybridHashJoin {
             FileReference file = ctx.getJobletContext().createManagedWorkspaceFile(rel0Name);
             LOGGER.fine("OptimizedHybridHashJoin is creating a run file (" + file.getFile().getAbsolutePath()
                     + ") for partition:" + pid + " for Thread ID " + Thread.currentThread().getId() + ".");
-            writer = new RunFileWriter(file, ctx.getIOManager());
+            writer = new RunFileWriter(file, ctx);
             writer.open();
             buildRFWriters[pid] = writer;
         }
@@ -467,7 +467,7 @@ public class OptimizedHybridHashJoin {
     }
 
     private void createInMemoryJoiner(int inMemTupCount) throws HyracksDataException {
-        ISerializableTable table = new SerializableHashTable(inMemTupCount, ctx);
+        ISerializableTable table = new SerializableFingerprintHashTable(inMemTupCount, ctx);
         this.inMemJoiner = new InMemoryHashJoin(ctx, inMemTupCount, new FrameTupleAccessor(probeRd), probeHpc,
                 new FrameTupleAccessor(buildRd), buildHpc,
                 new FrameTuplePairComparator(probeKeys, buildKeys, comparators), isLeftOuter, nullWriters1, table,
@@ -481,6 +481,7 @@ public class OptimizedHybridHashJoin {
                 int nextBuffIx = curPBuff[pid];
                 while (nextBuffIx > -1) { //It is not Invalid or End_Of_Partition
                     inMemJoiner.build(memBuffs[nextBuffIx].getBuffer());
+                    memBuffs[nextBuffIx] = null; //The joiner gives the frame back when it closes
                     nextBuffIx = nextBuff[nextBuffIx];
                 }
             }
@@ -563,6 +564,7 @@ public class OptimizedHybridHashJoin {
             HyracksDataException { //We do NOT join the spilled partitions here, that decision is made at the descriptor level (which join technique to use)
         inMemJoiner.join(probeResBuff.getBuffer(), writer);
         inMemJoiner.closeJoin(writer);
+        inMemJoiner.closeTable();
 
         for (int pid = pStatus.nextSetBit(0); pid >= 0; pid = pStatus.nextSetBit(pid + 1)) {
             ByteBuffer buff = sPartBuffs[curPBuff[pid]].getBuffer();
@@ -572,13 +574,37 @@ public class OptimizedHybridHashJoin {
             }
             closeProbeWriter(pid);
         }
+        releaseFrames();
+    }
+
+    /**
+     * Gives back the frames that are left once the probe is over. The frames of the resident partitions are not among
+     * them, they were handed to the in-memory joiner.
+     */
+    private void releaseFrames() {
+        for (int i = 0; i < memBuffs.length; i++) {
+            if (memBuffs[i] != null) {
+                ctx.deallocateFrame(memBuffs[i].getBuffer());
+                memBuffs[i] = null;
+            }
+        }
+        for (int i = 0; i < sPartBuffs.length; i++) {
+            ctx.deallocateFrame(sPartBuffs[i].getBuffer());
+        }
+        sPartBuffs = null;
+        ctx.deallocateFrame(probeResBuff.getBuffer());
+        probeResBuff = null;
+        if (reloadBuffer != null) {
+            ctx.deallocateFrame(reloadBuffer.getBuffer());
+            reloadBuffer = null;
+        }
     }
 
     private void probeWrite(int pid, ByteBuffer buff) throws HyracksDataException {
         RunFileWriter pWriter = probeRFWriters[pid];
         if (pWriter == null) {
             FileReference file = ctx.getJobletContext().createManagedWorkspaceFile(rel1Name);
-            pWriter = new RunFileWriter(file, ctx.getIOManager());
+            pWriter = new RunFileWriter(file, ctx);
             pWriter.open();
             probeRFWriters[pid] = pWriter;
         }
@@ -20,6 +20,12 @@
 package org.apache.hyracks.dataflow.std.sort;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -37,29 +43,59 @@ import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.data.normalizers.MultiFieldNormalizedKeyComputer;
+import org.apache.hyracks.dataflow.common.util.IntSerDeUtils;
 import org.apache.hyracks.dataflow.std.sort.buffermanager.IFrameBufferManager;
 
 public abstract class AbstractFrameSorter implements IFrameSorter {
 
     protected Logger LOGGER = Logger.getLogger(AbstractFrameSorter.class.getName());
-    static final int PTR_SIZE = 4;
     static final int ID_FRAMEID = 0;
     static final int ID_TUPLE_START = 1;
     static final int ID_TUPLE_END = 2;
     static final int ID_NORMAL_KEY = 3;
+    /**
+     * The smallest number of tuples that is worth sorting as a separate range in the parallel mode.
+     */
+    static final int MIN_TUPLES_PER_RANGE = 4096;
 
     protected final int[] sortFields;
+    protected final IBinaryComparatorFactory[] comparatorFactories;
     protected final IBinaryComparator[] comparators;
-    protected final INormalizedKeyComputer nkc;
+    protected final MultiFieldNormalizedKeyComputer nkc;
+    /**
+     * A tuple pointer is: frame index, tuple start, tuple end, followed by nkLength words of normalized key.
+     */
+    protected final int nkLength;
+    protected final int ptrSize;
+    /**
+     * Whether equal normalized keys imply equal sort keys, so that the comparators never need to be called.
+     */
+    protected final boolean nkDecisive;
     protected final IFrameBufferManager bufferManager;
     protected final FrameTupleAccessor inputTupleAccessor;
     protected final IFrameTupleAppender outputAppender;
     protected final IFrame outputFrame;
     protected final int outputLimit;
+    private final int fieldSlotsLength;
 
     protected int[] tPointers;
     protected int tupleCount;
 
+    private int parallelism = 1;
+    private ForkJoinPool pool;
+    private IBinaryComparator[][] rangeComparators;
+    private int[] rangeScratch;
+    /**
+     * The sorted ranges of tPointers that still have to be merged by flush(): range r is [rangeStarts[r],
+     * rangeStarts[r + 1]).
+     */
+    private int rangeCount = 1;
+    private int[] rangeStarts;
+    private int[] rangeHeap;
+    private int rangeHeapSize;
+    private int[] rangePositions;
+
     public AbstractFrameSorter(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int[] sortFields,
             INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
             RecordDescriptor recordDescriptor) throws HyracksDataException {
@@ -73,20 +109,51 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
             throws HyracksDataException {
         this.bufferManager = bufferManager;
         this.sortFields = sortFields;
-        this.nkc = firstKeyNormalizerFactory == null ? null : firstKeyNormalizerFactory.createNormalizedKeyComputer();
+        this.comparatorFactories = comparatorFactories;
+        this.nkc = createNormalizedKeyComputer(firstKeyNormalizerFactory);
         this.comparators = new IBinaryComparator[comparatorFactories.length];
         for (int i = 0; i < comparatorFactories.length; ++i) {
             comparators[i] = comparatorFactories[i].createBinaryComparator();
         }
+        this.nkLength = nkc == null ? 0 : nkc.getNormalizedKeyLength();
+        this.ptrSize = ID_NORMAL_KEY + nkLength;
+        this.nkDecisive = nkc != null && nkc.getDecisiveFieldCount() >= comparators.length;
+        this.fieldSlotsLength = recordDescriptor.getFieldCount() * 4;
         this.inputTupleAccessor = new FrameTupleAccessor(recordDescriptor);
         this.outputAppender = new FrameTupleAppender();
         this.outputFrame = new VSizeFrame(ctx);
         this.outputLimit = outputLimit;
     }
 
+    @Override
+    public void setParallelism(int parallelism, ForkJoinPool pool) {
+        if (parallelism > 1 && pool == null) {
+            throw new IllegalArgumentException("A fork/join pool is required to sort with parallelism "
+                    + parallelism);
+        }
+        this.parallelism = Math.max(parallelism, 1);
+        this.pool = pool;
+        if (this.parallelism > 1) {
+            rangeComparators = new IBinaryComparator[this.parallelism][];
+            for (int r = 0; r < this.parallelism; ++r) {
+                rangeComparators[r] = new IBinaryComparator[comparatorFactories.length];
+                for (int i = 0; i < comparatorFactories.length; ++i) {
+                    rangeComparators[r][i] = comparatorFactories[i].createBinaryComparator();
+                }
+            }
+            rangeStarts = new int[this.parallelism + 1];
+            rangeHeap = new int[this.parallelism];
+            rangePositions = new int[this.parallelism];
+        } else {
+            rangeComparators = null;
+            rangeScratch = null;
+        }
+    }
+
     @Override
     public void reset() throws HyracksDataException {
         this.tupleCount = 0;
+        this.rangeCount = 1;
         this.bufferManager.reset();
     }
 
@@ -111,38 +178,185 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
                             bufferManager.getFrameSize(i));
             tupleCount += inputTupleAccessor.getTupleCount();
         }
-        if (tPointers == null || tPointers.length < tupleCount * PTR_SIZE) {
-            tPointers = new int[tupleCount * PTR_SIZE];
+        if (tPointers == null || tPointers.length < tupleCount * ptrSize) {
+            tPointers = new int[tupleCount * ptrSize];
         }
         int ptr = 0;
-        int sfIdx = sortFields[0];
         for (int i = 0; i < bufferManager.getNumFrames(); ++i) {
             inputTupleAccessor
                     .reset(bufferManager.getFrame(i), bufferManager.getFrameStartOffset(i),
                             bufferManager.getFrameSize(i));
             int tCount = inputTupleAccessor.getTupleCount();
-            byte[] array = inputTupleAccessor.getBuffer().array();
             for (int j = 0; j < tCount; ++j) {
                 int tStart = inputTupleAccessor.getTupleStartOffset(j);
                 int tEnd = inputTupleAccessor.getTupleEndOffset(j);
-                tPointers[ptr * PTR_SIZE + ID_FRAMEID] = i;
-                tPointers[ptr * PTR_SIZE + ID_TUPLE_START] = tStart;
-                tPointers[ptr * PTR_SIZE + ID_TUPLE_END] = tEnd;
-                int f0StartRel = inputTupleAccessor.getFieldStartOffset(j, sfIdx);
-                int f0EndRel = inputTupleAccessor.getFieldEndOffset(j, sfIdx);
-                int f0Start = f0StartRel + tStart + inputTupleAccessor.getFieldSlotsLength();
-                tPointers[ptr * PTR_SIZE + ID_NORMAL_KEY] =
-                        nkc == null ? 0 : nkc.normalize(array, f0Start, f0EndRel - f0StartRel);
+                tPointers[ptr * ptrSize + ID_FRAMEID] = i;
+                tPointers[ptr * ptrSize + ID_TUPLE_START] = tStart;
+                tPointers[ptr * ptrSize + ID_TUPLE_END] = tEnd;
+                if (nkc != null) {
+                    nkc.normalize(inputTupleAccessor, j, sortFields, tPointers, ptr * ptrSize + ID_NORMAL_KEY);
+                }
                 ++ptr;
             }
         }
-        if (tupleCount > 0) {
+        rangeCount = Math.max(Math.min(parallelism, tupleCount / MIN_TUPLES_PER_RANGE), 1);
+        if (rangeCount > 1) {
+            sortRanges();
+        } else if (tupleCount > 0) {
             sortTupleReferences();
         }
     }
 
     abstract void sortTupleReferences() throws HyracksDataException;
 
+    /**
+     * Splits the tuple pointers into rangeCount ranges of about the same size and merge-sorts them concurrently on the
+     * fork/join pool. Every range has its own comparators and its own part of the scratch array, the ranges are
+     * merged by flush().
+     */
+    private void sortRanges() throws HyracksDataException {
+        if (rangeScratch == null || rangeScratch.length < tPointers.length) {
+            rangeScratch = new int[tPointers.length];
+        }
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(rangeCount);
+        for (int r = 0; r <= rangeCount; ++r) {
+            rangeStarts[r] = (int) ((long) tupleCount * r / rangeCount);
+        }
+        for (int r = 0; r < rangeCount; ++r) {
+            final IBinaryComparator[] cmps = rangeComparators[r];
+            final int start = rangeStarts[r];
+            final int end = rangeStarts[r + 1];
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws HyracksDataException {
+                    mergeSort(cmps, rangeScratch, start, end);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HyracksDataException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof HyracksDataException) {
+                throw (HyracksDataException) cause;
+            }
+            throw new HyracksDataException(cause);
+        }
+    }
+
+    /**
+     * Merge-sorts the tuple pointers in [start, end) by the given comparators, using the same positions of the given
+     * scratch array. Ranges that do not overlap can be sorted concurrently, as long as they use different comparators.
+     */
+    protected final void mergeSort(IBinaryComparator[] cmps, int[] scratch, int start, int end)
+            throws HyracksDataException {
+        if (end - start < 2) {
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        mergeSort(cmps, scratch, start, mid);
+        mergeSort(cmps, scratch, mid, end);
+        if (compare(cmps, tPointers, mid - 1, tPointers, mid) <= 0) {
+            return;
+        }
+        System.arraycopy(tPointers, start * ptrSize, scratch, start * ptrSize, (end - start) * ptrSize);
+        int pos1 = start;
+        int pos2 = mid;
+        int target = start;
+        while (pos1 < mid && pos2 < end) {
+            if (compare(cmps, scratch, pos1, scratch, pos2) <= 0) {
+                System.arraycopy(scratch, pos1++ * ptrSize, tPointers, target++ * ptrSize, ptrSize);
+            } else {
+                System.arraycopy(scratch, pos2++ * ptrSize, tPointers, target++ * ptrSize, ptrSize);
+            }
+        }
+        if (pos1 < mid) {
+            System.arraycopy(scratch, pos1 * ptrSize, tPointers, target * ptrSize, (mid - pos1) * ptrSize);
+        }
+        if (pos2 < end) {
+            System.arraycopy(scratch, pos2 * ptrSize, tPointers, target * ptrSize, (end - pos2) * ptrSize);
+        }
+    }
+
+    private static MultiFieldNormalizedKeyComputer createNormalizedKeyComputer(
+            INormalizedKeyComputerFactory firstKeyNormalizerFactory) {
+        if (firstKeyNormalizerFactory == null) {
+            return null;
+        }
+        INormalizedKeyComputer computer = firstKeyNormalizerFactory.createNormalizedKeyComputer();
+        if (computer instanceof MultiFieldNormalizedKeyComputer) {
+            return (MultiFieldNormalizedKeyComputer) computer;
+        }
+        return new MultiFieldNormalizedKeyComputer(new INormalizedKeyComputer[] { computer },
+                MultiFieldNormalizedKeyComputer.getNormalizedKeyLength(computer));
+    }
+
+    /**
+     * Compares the normalized keys of two tuple pointers, word by word as unsigned integers.
+     */
+    protected final int compareNormalizedKeys(int[] tPointers1, int tp1, int[] tPointers2, int tp2) {
+        int p1 = tp1 * ptrSize + ID_NORMAL_KEY;
+        int p2 = tp2 * ptrSize + ID_NORMAL_KEY;
+        for (int k = 0; k < nkLength; ++k) {
+            int v1 = tPointers1[p1 + k];
+            int v2 = tPointers2[p2 + k];
+            if (v1 != v2) {
+                return ((((long) v1) & 0xffffffffL) < (((long) v2) & 0xffffffffL)) ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares two tuple pointers, which may live in different arrays, by their normalized keys and, unless the
+     * normalized keys are decisive, by the comparators of the sort fields.
+     */
+    protected final int compare(int[] tPointers1, int tp1, int[] tPointers2, int tp2) throws HyracksDataException {
+        return compare(comparators, tPointers1, tp1, tPointers2, tp2);
+    }
+
+    /**
+     * Same as {@link #compare(int[], int, int[], int)}, with the given comparators. It does not touch any state of
+     * the sorter, so it is safe to call concurrently with different comparators.
+     */
+    protected final int compare(IBinaryComparator[] cmps, int[] tPointers1, int tp1, int[] tPointers2, int tp2)
+            throws HyracksDataException {
+        int cmp = compareNormalizedKeys(tPointers1, tp1, tPointers2, tp2);
+        if (cmp != 0 || nkDecisive) {
+            return cmp;
+        }
+        int i1 = tPointers1[tp1 * ptrSize + ID_FRAMEID];
+        int j1 = tPointers1[tp1 * ptrSize + ID_TUPLE_START];
+        int i2 = tPointers2[tp2 * ptrSize + ID_FRAMEID];
+        int j2 = tPointers2[tp2 * ptrSize + ID_TUPLE_START];
+        ByteBuffer buf1 = bufferManager.getFrame(i1);
+        ByteBuffer buf2 = bufferManager.getFrame(i2);
+        byte[] b1 = buf1.array();
+        byte[] b2 = buf2.array();
+        for (int f = 0; f < cmps.length; ++f) {
+            int fIdx = sortFields[f];
+            int f1Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b1, j1 + (fIdx - 1) * 4);
+            int f1End = IntSerDeUtils.getInt(b1, j1 + fIdx * 4);
+            int s1 = j1 + fieldSlotsLength + f1Start;
+            int l1 = f1End - f1Start;
+            int f2Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b2, j2 + (fIdx - 1) * 4);
+            int f2End = IntSerDeUtils.getInt(b2, j2 + fIdx * 4);
+            int s2 = j2 + fieldSlotsLength + f2Start;
+            int l2 = f2End - f2Start;
+            int c = cmps[f].compare(b1, s1, l1, b2, s2, l2);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
     @Override
     public int getFrameCount() {
         return bufferManager.getNumFrames();
@@ -159,10 +373,15 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
         int maxFrameSize = outputFrame.getFrameSize();
         int limit = Math.min(tupleCount, outputLimit);
         int io = 0;
-        for (int ptr = 0; ptr < limit; ++ptr) {
-            int i = tPointers[ptr * PTR_SIZE + ID_FRAMEID];
-            int tStart = tPointers[ptr * PTR_SIZE + ID_TUPLE_START];
-            int tEnd = tPointers[ptr * PTR_SIZE + ID_TUPLE_END];
+        boolean mergeRanges = rangeCount > 1;
+        if (mergeRanges) {
+            initRangeHeap();
+        }
+        for (int n = 0; n < limit; ++n) {
+            int ptr = mergeRanges ? nextFromRanges() : n;
+            int i = tPointers[ptr * ptrSize + ID_FRAMEID];
+            int tStart = tPointers[ptr * ptrSize + ID_TUPLE_START];
+            int tEnd = tPointers[ptr * ptrSize + ID_TUPLE_END];
             ByteBuffer buffer = bufferManager.getFrame(i);
             inputTupleAccessor.reset(buffer, bufferManager.getFrameStartOffset(i), bufferManager.getFrameSize(i));
 
@@ -181,10 +400,62 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
         return maxFrameSize;
     }
 
+    private void initRangeHeap() throws HyracksDataException {
+        for (int r = 0; r < rangeCount; ++r) {
+            rangePositions[r] = rangeStarts[r];
+            rangeHeap[r] = r;
+        }
+        rangeHeapSize = rangeCount;
+        for (int i = rangeHeapSize / 2 - 1; i >= 0; --i) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Pops the smallest head of the sorted ranges from the heap of ranges.
+     */
+    private int nextFromRanges() throws HyracksDataException {
+        int r = rangeHeap[0];
+        int ptr = rangePositions[r]++;
+        if (rangePositions[r] == rangeStarts[r + 1]) {
+            rangeHeap[0] = rangeHeap[--rangeHeapSize];
+        }
+        siftDown(0);
+        return ptr;
+    }
+
+    private void siftDown(int i) throws HyracksDataException {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < rangeHeapSize && compareRangeHeads(rangeHeap[left], rangeHeap[smallest]) < 0) {
+                smallest = left;
+            }
+            if (right < rangeHeapSize && compareRangeHeads(rangeHeap[right], rangeHeap[smallest]) < 0) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            int tmp = rangeHeap[i];
+            rangeHeap[i] = rangeHeap[smallest];
+            rangeHeap[smallest] = tmp;
+            i = smallest;
+        }
+    }
+
+    private int compareRangeHeads(int r1, int r2) throws HyracksDataException {
+        int cmp = compare(tPointers, rangePositions[r1], tPointers, rangePositions[r2]);
+        return cmp != 0 ? cmp : r1 - r2;
+    }
+
     @Override
     public void close() {
         tupleCount = 0;
+        rangeCount = 1;
         bufferManager.close();
         tPointers = null;
+        rangeScratch = null;
     }
 }
@@ -21,6 +21,7 @@ package org.apache.hyracks.dataflow.std.sort;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
@@ -35,6 +36,13 @@ public abstract class AbstractSortRunGenerator implements IRunGenerator {
 
     abstract public ISorter getSorter() throws HyracksDataException;
 
+    /**
+     * Lets the sorter split its in-memory sort into the given number of concurrently sorted ranges.
+     * Run generators whose sorter cannot sort in parallel ignore it.
+     */
+    public void setSortParallelism(int parallelism, ForkJoinPool pool) throws HyracksDataException {
+    }
+
     @Override
     public void open() throws HyracksDataException {
         runAndMaxSizes.clear();
@@ -31,6 +31,7 @@ import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.ActivityId;
 import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
+import org.apache.hyracks.api.dataflow.IMemoryBoundedOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
 import org.apache.hyracks.api.dataflow.TaskId;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
@@ -48,7 +49,8 @@ import org.apache.hyracks.dataflow.std.base.AbstractStateObject;
 import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputSinkOperatorNodePushable;
 import org.apache.hyracks.dataflow.std.base.AbstractUnaryOutputSourceOperatorNodePushable;
 
-public abstract class AbstractSorterOperatorDescriptor extends AbstractOperatorDescriptor {
+public abstract class AbstractSorterOperatorDescriptor extends AbstractOperatorDescriptor
+        implements IMemoryBoundedOperatorDescriptor {
 
     private static final Logger LOGGER = Logger.getLogger(AbstractSorterOperatorDescriptor.class.getName());
 
@@ -61,6 +63,7 @@ public abstract class AbstractSorterOperatorDescriptor extends AbstractOperatorD
     protected final INormalizedKeyComputerFactory firstKeyNormalizerFactory;
     protected final IBinaryComparatorFactory[] comparatorFactories;
     protected final int framesLimit;
+    protected int sortParallelism = 1;
 
     public AbstractSorterOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int[] sortFields,
             INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
@@ -73,10 +76,27 @@ public abstract class AbstractSorterOperatorDescriptor extends AbstractOperatorD
         recordDescriptors[0] = recordDescriptor;
     }
 
+    /**
+     * Sets the number of ranges that each in-memory sort is split into and sorted concurrently on the compute thread
+     * pool of the node controller. The default of 1 sorts in the task thread.
+     */
+    public void setSortParallelism(int sortParallelism) {
+        this.sortParallelism = sortParallelism;
+    }
+
+    public int getSortParallelism() {
+        return sortParallelism;
+    }
+
     public abstract SortActivity getSortActivity(ActivityId id);
 
     public abstract MergeActivity getMergeActivity(ActivityId id);
 
+    @Override
+    public int getMemorySize() {
+        return framesLimit;
+    }
+
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
         SortActivity sa = getSortActivity(new ActivityId(odId, SORT_ACTIVITY_ID));
@@ -129,6 +149,10 @@ public abstract class AbstractSorterOperatorDescriptor extends AbstractOperatorD
                 @Override
                 public void open() throws HyracksDataException {
                     runGen = getRunGenerator(ctx, recordDescProvider);
+                    if (sortParallelism > 1) {
+                        runGen.setSortParallelism(sortParallelism,
+                                ctx.getJobletContext().getApplicationContext().getComputeThreadPool());
+                    }
                     runGen.open();
                 }
 
@@ -21,5 +21,9 @@ package org.apache.hyracks.dataflow.std.sort;
 
 public enum Algorithm {
     QUICK_SORT,
-    MERGE_SORT
+    MERGE_SORT,
+    /**
+     * Radix sort over the normalized keys, which only needs the comparators to break ties of non-decisive keys.
+     */
+    RADIX_SORT
 }
@@ -19,6 +19,7 @@
 package org.apache.hyracks.dataflow.std.sort;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
@@ -82,6 +83,9 @@ public class ExternalSortRunGenerator extends AbstractSortRunGenerator {
         if (alg == Algorithm.MERGE_SORT) {
             frameSorter = new FrameSorterMergeSort(ctx, bufferManager, sortFields, firstKeyNormalizerFactory,
                     comparatorFactories, recordDesc, outputLimit);
+        } else if (alg == Algorithm.RADIX_SORT) {
+            frameSorter = new FrameSorterRadixSort(ctx, bufferManager, sortFields, firstKeyNormalizerFactory,
+                    comparatorFactories, recordDesc, outputLimit);
         } else {
             frameSorter = new FrameSorterQuickSort(ctx, bufferManager, sortFields, firstKeyNormalizerFactory,
                     comparatorFactories, recordDesc, outputLimit);
@@ -101,13 +105,18 @@ public class ExternalSortRunGenerator extends AbstractSortRunGenerator {
     protected RunFileWriter getRunFileWriter() throws HyracksDataException {
         FileReference file = ctx.getJobletContext().createManagedWorkspaceFile(
                 ExternalSortRunGenerator.class.getSimpleName());
-        return new RunFileWriter(file, ctx.getIOManager());
+        return new RunFileWriter(file, ctx);
     }
 
     protected IFrameWriter getFlushableFrameWriter(RunFileWriter writer) throws HyracksDataException {
         return writer;
     }
 
+    @Override
+    public void setSortParallelism(int parallelism, ForkJoinPool pool) {
+        frameSorter.setParallelism(parallelism, pool);
+    }
+
     @Override
     public ISorter getSorter() {
         return frameSorter;
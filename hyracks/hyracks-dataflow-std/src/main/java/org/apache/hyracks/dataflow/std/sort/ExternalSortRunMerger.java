@@ -36,11 +36,17 @@ import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
 import org.apache.hyracks.dataflow.common.io.RunFileWriter;
 import org.apache.hyracks.dataflow.std.sort.util.GroupVSizeFrame;
 
 public class ExternalSortRunMerger {
 
+    /**
+     * Number of frames an intermediate merge run is written behind with, when the budget leaves room for them.
+     */
+    private static final int WRITE_BEHIND_FRAMES = 2;
+
     protected final IHyracksTaskContext ctx;
     protected final IFrameWriter writer;
 
@@ -57,6 +63,7 @@ public class ExternalSortRunMerger {
     private List<GroupVSizeFrame> inFrames;
     private VSizeFrame outputFrame;
     private ISorter sorter;
+    private int writeBehindFrames;
 
     private static final Logger LOGGER = Logger.getLogger(ExternalSortRunMerger.class.getName());
 
@@ -199,7 +206,20 @@ public class ExternalSortRunMerger {
     private void prepareFrames(int extraFreeMem, List<GroupVSizeFrame> inFrames,
             List<RunAndMaxFrameSizePair> patialRuns)
             throws HyracksDataException {
-        if (extraFreeMem > 0 && patialRuns.size() > 1) {
+        writeBehindFrames = 0;
+        if (extraFreeMem > 0 && patialRuns.size() > 1 && areRunFiles(patialRuns)) {
+            // the spare frames are spent on asynchronous I/O: writing the merged run behind, and reading the runs
+            // ahead so that the disk works while the merge compares
+            int extraFrames = extraFreeMem / ctx.getInitialFrameSize();
+            if (extraFrames >= WRITE_BEHIND_FRAMES + patialRuns.size()) {
+                writeBehindFrames = WRITE_BEHIND_FRAMES;
+                extraFrames -= WRITE_BEHIND_FRAMES;
+            }
+            int readAheadFrames = extraFrames / patialRuns.size();
+            for (int i = 0; i < patialRuns.size(); i++) {
+                ((RunFileReader) patialRuns.get(i).run).setReadAhead(readAheadFrames, ctx.getInitialFrameSize());
+            }
+        } else if (extraFreeMem > 0 && patialRuns.size() > 1) {
             int extraFrames = extraFreeMem / ctx.getInitialFrameSize();
             int avg = (extraFrames / patialRuns.size()) * ctx.getInitialFrameSize();
             int residue = (extraFrames % patialRuns.size());
@@ -224,13 +244,29 @@ public class ExternalSortRunMerger {
         }
     }
 
+    private static boolean areRunFiles(List<RunAndMaxFrameSizePair> partialRuns) {
+        for (RunAndMaxFrameSizePair run : partialRuns) {
+            if (!(run.run instanceof RunFileReader)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of write-behind frames the budget of the current intermediate merge leaves for its run file.
+     */
+    protected int getWriteBehindFrames() {
+        return writeBehindFrames;
+    }
+
     protected IFrameWriter prepareSkipMergingFinalResultWriter(IFrameWriter nextWriter) throws HyracksDataException {
         return nextWriter;
     }
 
     protected RunFileWriter prepareIntermediateMergeRunFile() throws HyracksDataException {
         FileReference newRun = ctx.createManagedWorkspaceFile(ExternalSortRunMerger.class.getSimpleName());
-        return new RunFileWriter(newRun, ctx.getIOManager());
+        return new RunFileWriter(newRun, ctx, getWriteBehindFrames());
     }
 
     protected IFrameWriter prepareIntermediateMergeResultWriter(RunFileWriter mergeFileWriter)
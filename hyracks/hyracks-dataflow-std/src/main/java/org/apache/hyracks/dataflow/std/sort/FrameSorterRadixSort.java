@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.sort;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.sort.buffermanager.IFrameBufferManager;
+
+/**
+ * Sorts the tuple pointers by a least-significant-digit radix sort over the words of their normalized keys, without
+ * touching the frames. If the normalized keys are not decisive, every run of tuples with equal normalized keys is
+ * then sorted by the comparators.
+ */
+public class FrameSorterRadixSort extends AbstractFrameSorter {
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+
+    private final int[] counts = new int[RADIX];
+    private int[] tPointersTemp;
+
+    public FrameSorterRadixSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int[] sortFields,
+            INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor) throws HyracksDataException {
+        this(ctx, bufferManager, sortFields, firstKeyNormalizerFactory, comparatorFactories, recordDescriptor,
+                Integer.MAX_VALUE);
+    }
+
+    public FrameSorterRadixSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int[] sortFields,
+            INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
+            RecordDescriptor recordDescriptor, int outputLimit) throws HyracksDataException {
+        super(ctx, bufferManager, sortFields, firstKeyNormalizerFactory, comparatorFactories, recordDescriptor,
+                outputLimit);
+    }
+
+    @Override
+    void sortTupleReferences() throws HyracksDataException {
+        if (tPointersTemp == null || tPointersTemp.length < tPointers.length) {
+            tPointersTemp = new int[tPointers.length];
+        }
+        for (int word = nkLength - 1; word >= 0; --word) {
+            for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+                radixPass(ID_NORMAL_KEY + word, shift);
+            }
+        }
+        if (!nkDecisive) {
+            sortTies();
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        tPointersTemp = null;
+    }
+
+    /**
+     * A stable counting sort of the tuple pointers on one digit of one normalized key word.
+     * The pass is skipped if all the tuple pointers share the same digit.
+     */
+    private void radixPass(int wordIndex, int shift) {
+        for (int i = 0; i < RADIX; ++i) {
+            counts[i] = 0;
+        }
+        for (int i = 0; i < tupleCount; ++i) {
+            counts[(tPointers[i * ptrSize + wordIndex] >>> shift) & RADIX_MASK]++;
+        }
+        if (counts[(tPointers[wordIndex] >>> shift) & RADIX_MASK] == tupleCount) {
+            return;
+        }
+        int pos = 0;
+        for (int i = 0; i < RADIX; ++i) {
+            int count = counts[i];
+            counts[i] = pos;
+            pos += count;
+        }
+        for (int i = 0; i < tupleCount; ++i) {
+            int digit = (tPointers[i * ptrSize + wordIndex] >>> shift) & RADIX_MASK;
+            System.arraycopy(tPointers, i * ptrSize, tPointersTemp, counts[digit]++ * ptrSize, ptrSize);
+        }
+        int[] tmp = tPointersTemp;
+        tPointersTemp = tPointers;
+        tPointers = tmp;
+    }
+
+    private void sortTies() throws HyracksDataException {
+        int runStart = 0;
+        for (int i = 1; i <= tupleCount; ++i) {
+            if (i == tupleCount || compareNormalizedKeys(tPointers, runStart, tPointers, i) != 0) {
+                if (i - runStart > 1) {
+                    mergeSort(comparators, tPointersTemp, runStart, i);
+                }
+                runStart = i;
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package org.apache.hyracks.dataflow.std.sort;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 
@@ -29,4 +30,10 @@ public interface IFrameSorter extends ISorter {
 
     boolean insertFrame(ByteBuffer inputBuffer) throws HyracksDataException;
 
+    /**
+     * Sets the number of ranges the tuples are split into, to be sorted concurrently on the given pool and merged
+     * while they are flushed. A parallelism of 1 (the default) sorts in the calling thread.
+     */
+    void setParallelism(int parallelism, ForkJoinPool pool);
+
 }
@@ -54,6 +54,7 @@ public class InMemorySortOperatorDescriptor extends AbstractOperatorDescriptor {
     private final int[] sortFields;
     private INormalizedKeyComputerFactory firstKeyNormalizerFactory;
     private IBinaryComparatorFactory[] comparatorFactories;
+    private int sortParallelism = 1;
 
     public InMemorySortOperatorDescriptor(IOperatorDescriptorRegistry spec, int[] sortFields,
             IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor) {
@@ -70,6 +71,18 @@ public class InMemorySortOperatorDescriptor extends AbstractOperatorDescriptor {
         recordDescriptors[0] = recordDescriptor;
     }
 
+    /**
+     * Sets the number of ranges that the in-memory sort is split into and sorted concurrently on the compute thread
+     * pool of the node controller. The default of 1 sorts in the task thread.
+     */
+    public void setSortParallelism(int sortParallelism) {
+        this.sortParallelism = sortParallelism;
+    }
+
+    public int getSortParallelism() {
+        return sortParallelism;
+    }
+
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
         SortActivity sa = new SortActivity(new ActivityId(odId, SORT_ACTIVITY_ID));
@@ -126,6 +139,10 @@ public class InMemorySortOperatorDescriptor extends AbstractOperatorDescriptor {
 
                     state.frameSorter = new FrameSorterMergeSort(ctx, frameBufferManager, sortFields,
                             firstKeyNormalizerFactory, comparatorFactories, recordDescriptors[0]);
+                    if (sortParallelism > 1) {
+                        state.frameSorter.setParallelism(sortParallelism, ctx.getJobletContext()
+                                .getApplicationContext().getComputeThreadPool());
+                    }
                     state.frameSorter.reset();
                 }
 
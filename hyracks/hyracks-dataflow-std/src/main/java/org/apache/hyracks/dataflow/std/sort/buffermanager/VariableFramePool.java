@@ -161,7 +161,7 @@ public class VariableFramePool implements IFramePool {
 
     private int deAllocateFrame(int id) {
         ByteBuffer frame = buffers.get(id);
-        ctx.deallocateFrames(frame.capacity());
+        ctx.deallocateFrame(frame);
         buffers.set(id, null);
         used.set(id);
         allocateMem -= frame.capacity();
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A serializable table that keeps a hash fingerprint next to every tuple pointer, so that
+ * a probe only has to look at the stored tuples whose fingerprint matches the probing one.
+ */
+public interface ISerializableFingerprintTable extends ISerializableTable {
+
+    public void insert(int entry, int fingerprint, TuplePointer tuplePointer) throws HyracksDataException;
+
+    /**
+     * Finds the first tuple pointer of the given entry, starting at the given offset, whose
+     * fingerprint is equal to the given one.
+     *
+     * @return the offset of the matching tuple pointer inside the entry, or -1 if there is none.
+     */
+    public int findNext(int entry, int fingerprint, int offset, TuplePointer tuplePointer);
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A hash table whose entries are chains of contiguous blocks. Each block never crosses a frame boundary and is laid
+ * out as: capacity, #used slots, next block frame, next block offset; fingerprint, fIndex, tIndex; fingerprint,
+ * fIndex, tIndex; ....
+ * A new block is only allocated when the head block of an entry is full. It becomes the new head of the chain with
+ * twice the capacity of the previous head, so existing slots never have to be copied and a probe mostly scans
+ * the fingerprints of a single, contiguous block.
+ */
+public class SerializableFingerprintHashTable implements ISerializableFingerprintTable {
+
+    /**
+     * Upper bound of the number of distinct fingerprints. Large tables use fewer, so that the hash code of
+     * {@link #computeHashCode} still fits in an int.
+     */
+    public static final int FINGERPRINT_RANGE = 65521;
+
+    private static final int INIT_BLOCK_CAPACITY = 2;
+    private static final int BLOCK_HEADER_SIZE = 4;
+    private static final int SLOT_SIZE = 3;
+
+    private final IHyracksFrameMgrContext ctx;
+    private final IntSerDeBuffer[] headers;
+    private final List<IntSerDeBuffer> contents = new ArrayList<IntSerDeBuffer>();
+    private final int frameCapacity;
+    private final int maxBlockCapacity;
+    private int currentFrameIndex = 0;
+    private int currentFrameOffset = 0;
+    private int tupleCount = 0;
+    private int headerFrameCount = 0;
+
+    public SerializableFingerprintHashTable(int tableSize, final IHyracksFrameMgrContext ctx)
+            throws HyracksDataException {
+        this.ctx = ctx;
+        IntSerDeBuffer frame = new IntSerDeBuffer(ctx.allocateFrame().array());
+        contents.add(frame);
+        frameCapacity = frame.capacity();
+        maxBlockCapacity = (frameCapacity - BLOCK_HEADER_SIZE) / SLOT_SIZE;
+        if (maxBlockCapacity < 1) {
+            throw new HyracksDataException("Frame size is too small for a hash table block.");
+        }
+
+        int residual = tableSize * 2 % frameCapacity == 0 ? 0 : 1;
+        int headerSize = tableSize * 2 / frameCapacity + residual;
+        headers = new IntSerDeBuffer[headerSize];
+    }
+
+    /**
+     * Hashes a tuple once into a code that carries both its entry and its fingerprint. The code is the partition of
+     * the tuple among tableSize * fingerprint range parts, so for the usual modulo hash partitioners its remainder by
+     * the table size is the partition among tableSize parts, and the quotient is taken from the remaining bits.
+     * The build and the probe side of a join must use partition computers that are based on the same hash functions,
+     * as they already must for the entry index.
+     */
+    public static int computeHashCode(ITuplePartitionComputer tpc, IFrameTupleAccessor accessor, int tIndex,
+            int tableSize) throws HyracksDataException {
+        return tpc.partition(accessor, tIndex, tableSize * Math.min(FINGERPRINT_RANGE, Integer.MAX_VALUE / tableSize));
+    }
+
+    public static int getEntry(int hashCode, int tableSize) {
+        return hashCode % tableSize;
+    }
+
+    public static int getFingerprint(int hashCode, int tableSize) {
+        return hashCode / tableSize;
+    }
+
+    @Override
+    public void insert(int entry, TuplePointer tuplePointer) throws HyracksDataException {
+        insert(entry, 0, tuplePointer);
+    }
+
+    @Override
+    public void insert(int entry, int fingerprint, TuplePointer tuplePointer) throws HyracksDataException {
+        int hFrameIndex = getHeaderFrameIndex(entry);
+        int headerOffset = getHeaderFrameOffset(entry);
+        IntSerDeBuffer header = headers[hFrameIndex];
+        if (header == null) {
+            header = new IntSerDeBuffer(ctx.allocateFrame().array());
+            headers[hFrameIndex] = header;
+            resetFrame(header);
+            headerFrameCount++;
+        }
+        int blockFrameIndex = header.getInt(headerOffset);
+        int blockOffset = header.getInt(headerOffset + 1);
+        int newCapacity = INIT_BLOCK_CAPACITY;
+        if (blockFrameIndex >= 0) {
+            IntSerDeBuffer block = contents.get(blockFrameIndex);
+            int capacity = block.getInt(blockOffset);
+            int used = block.getInt(blockOffset + 1);
+            if (used < capacity) {
+                writeSlot(block, blockOffset, used, fingerprint, tuplePointer);
+                block.writeInt(blockOffset + 1, used + 1);
+                tupleCount++;
+                return;
+            }
+            newCapacity = Math.min(capacity * 2, maxBlockCapacity);
+        }
+        allocateBlock(newCapacity);
+        IntSerDeBuffer newBlock = contents.get(currentFrameIndex);
+        int newBlockOffset = currentFrameOffset;
+        newBlock.writeInt(newBlockOffset, newCapacity);
+        newBlock.writeInt(newBlockOffset + 1, 1);
+        newBlock.writeInt(newBlockOffset + 2, blockFrameIndex);
+        newBlock.writeInt(newBlockOffset + 3, blockOffset);
+        writeSlot(newBlock, newBlockOffset, 0, fingerprint, tuplePointer);
+        currentFrameOffset += BLOCK_HEADER_SIZE + newCapacity * SLOT_SIZE;
+
+        header.writeInt(headerOffset, currentFrameIndex);
+        header.writeInt(headerOffset + 1, newBlockOffset);
+        tupleCount++;
+    }
+
+    @Override
+    public void getTuplePointer(int entry, int offset, TuplePointer tuplePointer) {
+        IntSerDeBuffer header = headers[getHeaderFrameIndex(entry)];
+        if (header != null) {
+            int headerOffset = getHeaderFrameOffset(entry);
+            int blockFrameIndex = header.getInt(headerOffset);
+            int blockOffset = header.getInt(headerOffset + 1);
+            while (blockFrameIndex >= 0) {
+                IntSerDeBuffer block = contents.get(blockFrameIndex);
+                int used = block.getInt(blockOffset + 1);
+                if (offset < used) {
+                    int slotStart = blockOffset + BLOCK_HEADER_SIZE + offset * SLOT_SIZE;
+                    tuplePointer.frameIndex = block.getInt(slotStart + 1);
+                    tuplePointer.tupleIndex = block.getInt(slotStart + 2);
+                    return;
+                }
+                offset -= used;
+                blockFrameIndex = block.getInt(blockOffset + 2);
+                blockOffset = block.getInt(blockOffset + 3);
+            }
+        }
+        tuplePointer.frameIndex = -1;
+        tuplePointer.tupleIndex = -1;
+    }
+
+    @Override
+    public int findNext(int entry, int fingerprint, int offset, TuplePointer tuplePointer) {
+        IntSerDeBuffer header = headers[getHeaderFrameIndex(entry)];
+        if (header != null) {
+            int headerOffset = getHeaderFrameOffset(entry);
+            int blockFrameIndex = header.getInt(headerOffset);
+            int blockOffset = header.getInt(headerOffset + 1);
+            int blockStart = 0;
+            while (blockFrameIndex >= 0) {
+                IntSerDeBuffer block = contents.get(blockFrameIndex);
+                int used = block.getInt(blockOffset + 1);
+                for (int i = Math.max(offset - blockStart, 0); i < used; i++) {
+                    int slotStart = blockOffset + BLOCK_HEADER_SIZE + i * SLOT_SIZE;
+                    if (block.getInt(slotStart) == fingerprint) {
+                        tuplePointer.frameIndex = block.getInt(slotStart + 1);
+                        tuplePointer.tupleIndex = block.getInt(slotStart + 2);
+                        return blockStart + i;
+                    }
+                }
+                blockStart += used;
+                blockFrameIndex = block.getInt(blockOffset + 2);
+                blockOffset = block.getInt(blockOffset + 3);
+            }
+        }
+        tuplePointer.frameIndex = -1;
+        tuplePointer.tupleIndex = -1;
+        return -1;
+    }
+
+    @Override
+    public int getFrameCount() {
+        return headerFrameCount + contents.size();
+    }
+
+    @Override
+    public int getTupleCount() {
+        return tupleCount;
+    }
+
+    @Override
+    public void reset() {
+        for (IntSerDeBuffer frame : headers) {
+            if (frame != null) {
+                resetFrame(frame);
+            }
+        }
+        currentFrameIndex = 0;
+        currentFrameOffset = 0;
+        tupleCount = 0;
+    }
+
+    @Override
+    public void close() {
+        int nFrames = headerFrameCount + contents.size();
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = null;
+        }
+        contents.clear();
+        currentFrameIndex = 0;
+        currentFrameOffset = 0;
+        tupleCount = 0;
+        headerFrameCount = 0;
+        // Only the arrays of the frames are kept, all of them of the initial frame size.
+        ctx.deallocateFrames(nFrames * ctx.getInitialFrameSize());
+    }
+
+    /**
+     * Makes sure that a block of the given capacity fits at the current position, moving to the next (possibly
+     * recycled) content frame if it does not.
+     */
+    private void allocateBlock(int capacity) throws HyracksDataException {
+        if (currentFrameOffset + BLOCK_HEADER_SIZE + capacity * SLOT_SIZE <= frameCapacity) {
+            return;
+        }
+        currentFrameIndex++;
+        currentFrameOffset = 0;
+        if (currentFrameIndex >= contents.size()) {
+            contents.add(new IntSerDeBuffer(ctx.allocateFrame().array()));
+        }
+    }
+
+    private void writeSlot(IntSerDeBuffer block, int blockOffset, int slot, int fingerprint, TuplePointer pointer) {
+        int slotStart = blockOffset + BLOCK_HEADER_SIZE + slot * SLOT_SIZE;
+        block.writeInt(slotStart, fingerprint);
+        block.writeInt(slotStart + 1, pointer.frameIndex);
+        block.writeInt(slotStart + 2, pointer.tupleIndex);
+    }
+
+    private void resetFrame(IntSerDeBuffer frame) {
+        for (int i = 0; i < frameCapacity; i++) {
+            frame.writeInt(i, -1);
+        }
+    }
+
+    private int getHeaderFrameIndex(int entry) {
+        return entry * 2 / frameCapacity;
+    }
+
+    private int getHeaderFrameOffset(int entry) {
+        return entry * 2 % frameCapacity;
+    }
+}
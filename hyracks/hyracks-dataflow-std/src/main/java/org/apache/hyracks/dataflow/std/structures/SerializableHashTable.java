@@ -140,14 +140,16 @@ public class SerializableHashTable implements ISerializableTable {
 
     @Override
     public void close() {
-        int nFrames = contents.size();
-    	for (int i = 0; i < headers.length; i++)
+        int nFrames = headerFrameCount + contents.size();
+        for (int i = 0; i < headers.length; i++)
             headers[i] = null;
         contents.clear();
         frameCurrentIndex.clear();
         tupleCount = 0;
         currentLargestFrameIndex = 0;
-        ctx.deallocateFrames(nFrames);
+        headerFrameCount = 0;
+        // Only the arrays of the frames are kept, all of them of the initial frame size.
+        ctx.deallocateFrames(nFrames * ctx.getInitialFrameSize());
     }
 
     private void insertNewEntry(IntSerDeBuffer header, int headerOffset, int entryCapacity, TuplePointer pointer)
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+
+public class SerializableFingerprintHashTableTest {
+
+    private static final int FRAME_SIZE = 256;
+    private static final int TABLE_SIZE = 100;
+
+    private SerializableFingerprintHashTable table;
+    private final TuplePointer pointer = new TuplePointer();
+
+    @Before
+    public void setUp() throws HyracksDataException {
+        table = new SerializableFingerprintHashTable(TABLE_SIZE, new FrameManager(FRAME_SIZE));
+    }
+
+    @Test
+    public void testInsertAndGetTuplePointer() throws HyracksDataException {
+        int count = 5000;
+        insertTuples(count);
+        assertEquals(count, table.getTupleCount());
+        assertAllTuplesPresent(count);
+    }
+
+    @Test
+    public void testFindNextOnlyReturnsMatchingFingerprints() throws HyracksDataException {
+        int count = 2000;
+        insertTuples(count);
+        for (int entry = 0; entry < TABLE_SIZE; entry++) {
+            for (int fingerprint = 0; fingerprint < 4; fingerprint++) {
+                int found = 0;
+                int offset = table.findNext(entry, fingerprint, 0, pointer);
+                while (offset >= 0) {
+                    assertEquals(entry, pointer.frameIndex % TABLE_SIZE);
+                    assertEquals(fingerprint, pointer.tupleIndex % 4);
+                    found++;
+                    offset = table.findNext(entry, fingerprint, offset + 1, pointer);
+                }
+                assertEquals(count / TABLE_SIZE / 4, found);
+            }
+        }
+    }
+
+    @Test
+    public void testReset() throws HyracksDataException {
+        insertTuples(3000);
+        int frameCount = table.getFrameCount();
+        table.reset();
+        assertEquals(0, table.getTupleCount());
+        for (int entry = 0; entry < TABLE_SIZE; entry++) {
+            table.getTuplePointer(entry, 0, pointer);
+            assertEquals(TuplePointer.INVALID_ID, pointer.frameIndex);
+        }
+        insertTuples(3000);
+        assertAllTuplesPresent(3000);
+        assertEquals(frameCount, table.getFrameCount());
+    }
+
+    /**
+     * Tuple i goes to entry i % TABLE_SIZE, with fingerprint (i / TABLE_SIZE) % 4 and pointer (i, i / TABLE_SIZE).
+     */
+    private void insertTuples(int count) throws HyracksDataException {
+        for (int i = 0; i < count; i++) {
+            pointer.reset(i, i / TABLE_SIZE);
+            table.insert(i % TABLE_SIZE, (i / TABLE_SIZE) % 4, pointer);
+        }
+    }
+
+    private void assertAllTuplesPresent(int count) {
+        Set<Integer> seen = new HashSet<Integer>();
+        for (int entry = 0; entry < TABLE_SIZE; entry++) {
+            int offset = 0;
+            while (true) {
+                table.getTuplePointer(entry, offset++, pointer);
+                if (pointer.frameIndex < 0) {
+                    break;
+                }
+                assertEquals(entry, pointer.frameIndex % TABLE_SIZE);
+                assertTrue(seen.add(pointer.frameIndex));
+            }
+        }
+        assertEquals(count, seen.size());
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.integration;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.constraints.PartitionConstraintHelper;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.IConnectorDescriptor;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.dataset.ResultSetId;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.std.base.AbstractSingleActivityOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryOutputSourceOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.connectors.OneToOneConnectorDescriptor;
+import org.apache.hyracks.dataflow.std.result.ResultWriterOperatorDescriptor;
+import org.apache.hyracks.tests.util.ResultSerializerFactoryProvider;
+
+public class DeployedJobSpecTest extends AbstractIntegrationTest {
+    private static final String PARAMETER_NAME = "value";
+
+    @Test
+    public void deployStartUndeployTest() throws Exception {
+        JobSpecification spec = new JobSpecification();
+        ResultSetId rsId = createParameterPrintJob(spec);
+        DeployedJobSpecId deployedJobSpecId = hcc.deployJobSpec(spec);
+
+        // the first runs ship the plan to the nodes, the later ones use their cache
+        for (int i = 0; i < 5; ++i) {
+            String value = "run" + i;
+            JobId jobId = hcc.startJob(deployedJobSpecId, createParameters(value));
+            Assert.assertEquals(expectedResults(value), sortedResults(spec, jobId, rsId));
+            hcc.waitForCompletion(jobId);
+        }
+
+        // concurrent runs each see their own parameters and their own copy of the operators
+        List<JobId> jobIds = new ArrayList<JobId>();
+        for (int i = 0; i < 3; ++i) {
+            jobIds.add(hcc.startJob(deployedJobSpecId, createParameters("concurrent" + i)));
+        }
+        for (int i = 0; i < jobIds.size(); ++i) {
+            Assert.assertEquals(expectedResults("concurrent" + i), sortedResults(spec, jobIds.get(i), rsId));
+        }
+        for (JobId jobId : jobIds) {
+            hcc.waitForCompletion(jobId);
+        }
+
+        JobId jobId = hcc.startJob(deployedJobSpecId, null);
+        Assert.assertEquals(expectedResults(null), sortedResults(spec, jobId, rsId));
+        hcc.waitForCompletion(jobId);
+
+        hcc.undeployJobSpec(deployedJobSpecId);
+        try {
+            hcc.startJob(deployedJobSpecId, createParameters("undeployed"));
+            Assert.fail("Started an undeployed job spec");
+        } catch (Exception e) {
+            // expected
+        }
+    }
+
+    /**
+     * Prints the job parameter once per partition, on both nodes.
+     */
+    private static ResultSetId createParameterPrintJob(JobSpecification spec) throws Exception {
+        ParameterSourceOperatorDescriptor source = new ParameterSourceOperatorDescriptor(spec, PARAMETER_NAME);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, source, NC1_ID, NC2_ID);
+
+        ResultSetId rsId = new ResultSetId(1);
+        IOperatorDescriptor printer = new ResultWriterOperatorDescriptor(spec, rsId, true, false,
+                ResultSerializerFactoryProvider.INSTANCE.getResultSerializerFactoryProvider());
+        spec.addResultSetId(rsId);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, printer, NC1_ID, NC2_ID);
+
+        IConnectorDescriptor conn = new OneToOneConnectorDescriptor(spec);
+        spec.connect(conn, source, 0, printer, 0);
+        spec.addRoot(printer);
+        return rsId;
+    }
+
+    private static Map<String, byte[]> createParameters(String value) throws UnsupportedEncodingException {
+        Map<String, byte[]> jobParameters = new HashMap<String, byte[]>();
+        jobParameters.put(PARAMETER_NAME, value.getBytes("UTF-8"));
+        return jobParameters;
+    }
+
+    private static List<String> expectedResults(String value) {
+        // every run creates the runtime of a fresh operator descriptor, once per partition
+        return Arrays.asList(value + ", 0, 1", value + ", 1, 1");
+    }
+
+    private List<String> sortedResults(JobSpecification spec, JobId jobId, ResultSetId rsId) throws Exception {
+        List<String> results = new ArrayList<String>();
+        for (String result : readResults(spec, jobId, rsId)) {
+            results.add(result.trim());
+        }
+        Collections.sort(results);
+        return results;
+    }
+
+    /**
+     * Emits one tuple with the value of a job parameter, the partition and the number of runtimes the descriptor
+     * created so far.
+     */
+    private static class ParameterSourceOperatorDescriptor extends AbstractSingleActivityOperatorDescriptor {
+        private static final long serialVersionUID = 1L;
+
+        private final String parameterName;
+
+        private int runtimeCount;
+
+        public ParameterSourceOperatorDescriptor(IOperatorDescriptorRegistry spec, String parameterName) {
+            super(spec, 0, 1);
+            this.parameterName = parameterName;
+            recordDescriptors[0] = new RecordDescriptor(new ISerializerDeserializer[] {
+                    UTF8StringSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE,
+                    IntegerSerializerDeserializer.INSTANCE });
+        }
+
+        @Override
+        public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
+                IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions)
+                throws HyracksDataException {
+            final int runtimeNumber;
+            synchronized (this) {
+                runtimeNumber = ++runtimeCount;
+            }
+            return new AbstractUnaryOutputSourceOperatorNodePushable() {
+                @Override
+                public void initialize() throws HyracksDataException {
+                    byte[] value = ctx.getJobletContext().getJobParameter(parameterName);
+                    ArrayTupleBuilder tb = new ArrayTupleBuilder(3);
+                    try {
+                        tb.addField(UTF8StringSerializerDeserializer.INSTANCE, value == null ? "null" : new String(
+                                value, "UTF-8"));
+                    } catch (UnsupportedEncodingException e) {
+                        throw new HyracksDataException(e);
+                    }
+                    tb.addField(IntegerSerializerDeserializer.INSTANCE, partition);
+                    tb.addField(IntegerSerializerDeserializer.INSTANCE, runtimeNumber);
+                    FrameTupleAppender appender = new FrameTupleAppender(new VSizeFrame(ctx));
+                    appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+                    writer.open();
+                    try {
+                        appender.flush(writer, true);
+                    } catch (Exception e) {
+                        writer.fail();
+                        throw new HyracksDataException(e);
+                    } finally {
+                        writer.close();
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksRootContext;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.OperatorDescriptorId;
+import org.apache.hyracks.api.dataflow.TaskAttemptId;
+import org.apache.hyracks.api.dataflow.TaskId;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITuplePartitionComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.control.nc.resources.memory.MemoryManager;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.accessors.PointableBinaryHashFunctionFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTuplePairComparator;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFactory;
+import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.IFieldAggregateDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.ISpillableTable;
+import org.apache.hyracks.dataflow.std.group.aggregators.CountFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.MultiFieldsAggregatorFactory;
+import org.apache.hyracks.dataflow.std.join.InMemoryHashJoin;
+import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableFingerprintHashTable;
+import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
+import org.apache.hyracks.test.support.TestJobletContext;
+import org.apache.hyracks.test.support.TestNCApplicationContext;
+import org.apache.hyracks.test.support.TestRootContext;
+import org.apache.hyracks.test.support.TestTaskContext;
+
+/**
+ * Runs many hash joins and hash group-bys, one after the other, as tasks of a joblet whose frames are charged to a
+ * small memory budget. Every task gives back all of its frames, so the budget is never exhausted.
+ */
+public class HashJoinAndGroupMemoryTest {
+    private static final int FRAME_SIZE = 256;
+    private static final int BUDGET = 128 * FRAME_SIZE;
+    private static final int N_TASKS = 200;
+    private static final int N_TUPLES = 200;
+    private static final int N_KEYS = 20;
+    private static final int TABLE_SIZE = 64;
+
+    private static final RecordDescriptor RECORD_DESCRIPTOR = new RecordDescriptor(
+            new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE,
+                    IntegerSerializerDeserializer.INSTANCE });
+    private static final ITuplePartitionComputerFactory TPC_FACTORY = new FieldHashPartitionComputerFactory(
+            new int[] { 0 }, new IBinaryHashFunctionFactory[] { PointableBinaryHashFunctionFactory
+                    .of(IntegerPointable.FACTORY) });
+    private static final IBinaryComparatorFactory[] COMPARATOR_FACTORIES = new IBinaryComparatorFactory[] {
+            PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+
+    private MemoryManager memoryManager;
+    private TestJobletContext jobletCtx;
+    private int taskCounter;
+
+    @Before
+    public void setUp() throws Exception {
+        memoryManager = new MemoryManager(BUDGET);
+        IHyracksRootContext rootCtx = new TestRootContext();
+        jobletCtx = new TestJobletContext(FRAME_SIZE, new TestNCApplicationContext(rootCtx, null), new JobId(0),
+                memoryManager);
+    }
+
+    @Test
+    public void testRepeatedHashJoins() throws Exception {
+        for (int i = 0; i < N_TASKS; i++) {
+            IHyracksTaskContext ctx = createTask();
+            assertEquals(N_TUPLES * N_TUPLES / N_KEYS, join(ctx, new SerializableHashTable(TABLE_SIZE, ctx)));
+            assertEquals(BUDGET, memoryManager.getAvailableMemory());
+        }
+    }
+
+    @Test
+    public void testRepeatedFingerprintHashJoins() throws Exception {
+        for (int i = 0; i < N_TASKS; i++) {
+            IHyracksTaskContext ctx = createTask();
+            assertEquals(N_TUPLES * N_TUPLES / N_KEYS, join(ctx, new SerializableFingerprintHashTable(TABLE_SIZE,
+                    ctx)));
+            assertEquals(BUDGET, memoryManager.getAvailableMemory());
+        }
+    }
+
+    @Test
+    public void testRepeatedHashGroupBys() throws Exception {
+        for (int i = 0; i < N_TASKS; i++) {
+            assertEquals(N_KEYS, groupBy(createTask()));
+            assertEquals(BUDGET, memoryManager.getAvailableMemory());
+        }
+    }
+
+    private IHyracksTaskContext createTask() throws Exception {
+        TaskAttemptId tid = new TaskAttemptId(new TaskId(new ActivityId(new OperatorDescriptorId(0), 0),
+                taskCounter++), 0);
+        return new TestTaskContext(jobletCtx, tid);
+    }
+
+    private int join(IHyracksTaskContext ctx, ISerializableTable table) throws HyracksDataException {
+        IBinaryComparator[] comparators = new IBinaryComparator[] { COMPARATOR_FACTORIES[0].createBinaryComparator() };
+        InMemoryHashJoin joiner = new InMemoryHashJoin(ctx, TABLE_SIZE, new FrameTupleAccessor(RECORD_DESCRIPTOR),
+                TPC_FACTORY.createPartitioner(), new FrameTupleAccessor(RECORD_DESCRIPTOR),
+                TPC_FACTORY.createPartitioner(), new FrameTuplePairComparator(new int[] { 0 }, new int[] { 0 },
+                        comparators), false, null, table, null);
+        // The joiner keeps the build frames and gives them back when it closes.
+        for (ByteBuffer buffer : createFrames(ctx)) {
+            joiner.build(buffer);
+        }
+        CountingWriter writer = new CountingWriter();
+        List<ByteBuffer> probeFrames = createFrames(ctx);
+        for (ByteBuffer buffer : probeFrames) {
+            joiner.join(buffer, writer);
+        }
+        joiner.closeJoin(writer);
+        joiner.closeTable();
+        for (ByteBuffer buffer : probeFrames) {
+            ctx.deallocateFrame(buffer);
+        }
+        return writer.tupleCount;
+    }
+
+    private int groupBy(IHyracksTaskContext ctx) throws HyracksDataException {
+        ISpillableTable table = new HashSpillableTableFactory(TPC_FACTORY, TABLE_SIZE).buildSpillableTable(ctx,
+                new int[] { 0 }, COMPARATOR_FACTORIES, null, new MultiFieldsAggregatorFactory(
+                        new IFieldAggregateDescriptorFactory[] { new CountFieldAggregatorFactory(false) }),
+                RECORD_DESCRIPTOR, RECORD_DESCRIPTOR, 16);
+        table.reset();
+        FrameTupleAccessor accessor = new FrameTupleAccessor(RECORD_DESCRIPTOR);
+        List<ByteBuffer> frames = createFrames(ctx);
+        for (ByteBuffer buffer : frames) {
+            accessor.reset(buffer);
+            for (int i = 0; i < accessor.getTupleCount(); i++) {
+                assertTrue(table.insert(accessor, i));
+            }
+        }
+        CountingWriter writer = new CountingWriter();
+        table.flushFrames(writer, false);
+        table.close();
+        for (ByteBuffer buffer : frames) {
+            ctx.deallocateFrame(buffer);
+        }
+        return writer.tupleCount;
+    }
+
+    /**
+     * Creates the frames of N_TUPLES tuples (key, i) that cycle through N_KEYS keys.
+     */
+    private List<ByteBuffer> createFrames(IHyracksTaskContext ctx) throws HyracksDataException {
+        List<ByteBuffer> frames = new ArrayList<>();
+        VSizeFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(2);
+        for (int i = 0; i < N_TUPLES; i++) {
+            tb.reset();
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, i % N_KEYS);
+            tb.addField(IntegerSerializerDeserializer.INSTANCE, i);
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                frames.add(frame.getBuffer());
+                frame = new VSizeFrame(ctx);
+                appender.reset(frame, true);
+                assertTrue(appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize()));
+            }
+        }
+        frames.add(frame.getBuffer());
+        return frames;
+    }
+
+    private static class CountingWriter implements IFrameWriter {
+        private final FrameTupleAccessor accessor = new FrameTupleAccessor(RECORD_DESCRIPTOR);
+        int tupleCount;
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            accessor.reset(buffer);
+            tupleCount += accessor.getTupleCount();
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.sort.AbstractSortRunGenerator;
+import org.apache.hyracks.dataflow.std.sort.Algorithm;
+import org.apache.hyracks.dataflow.std.sort.ExternalSortRunGenerator;
+import org.apache.hyracks.dataflow.std.sort.RunAndMaxFrameSizePair;
+
+public class ParallelSortRunGeneratorTest extends AbstractRunGeneratorTest {
+
+    private static final int PARALLELISM = 4;
+    private static final AtomicInteger MAX_RANGES = new AtomicInteger();
+    private static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM) {
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) {
+            int ranges = tasks.size();
+            int max;
+            while ((max = MAX_RANGES.get()) < ranges && !MAX_RANGES.compareAndSet(max, ranges)) {
+            }
+            return super.invokeAll(tasks);
+        }
+    };
+
+    @AfterClass
+    public static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    @Override
+    AbstractSortRunGenerator getSortRunGenerator(IHyracksTaskContext ctx, int frameLimit, int numOfInputRecord)
+            throws HyracksDataException {
+        ExternalSortRunGenerator runGenerator = new ExternalSortRunGenerator(ctx, SortFields, null,
+                ComparatorFactories, RecordDesc, Algorithm.MERGE_SORT, frameLimit);
+        runGenerator.setSortParallelism(PARALLELISM, POOL);
+        return runGenerator;
+    }
+
+    @Test
+    public void testRunsAreSortedInParallelRanges() throws HyracksDataException {
+        MAX_RANGES.set(0);
+        int pageSize = 32768;
+        int frameLimit = 32;
+        int numRuns = 3;
+        int minRecordSize = 8;
+        int maxRecordSize = 24;
+        List<RunAndMaxFrameSizePair> size = testSortRecords(pageSize, frameLimit, numRuns, minRecordSize,
+                maxRecordSize, null);
+        assertMaxFrameSizesAreAllEqualsTo(size, pageSize);
+        assertEquals(PARALLELISM, MAX_RANGES.get());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.test.support.TestUtils;
+
+public class RunFileAsyncIOTest {
+    static TestUtils testUtils = new TestUtils();
+
+    private static final int PAGE_SIZE = 256;
+
+    @Test
+    public void testSyncWriteSyncRead() throws HyracksDataException {
+        testWriteAndRead(0, 0);
+    }
+
+    @Test
+    public void testWriteBehindSyncRead() throws HyracksDataException {
+        testWriteAndRead(2, 0);
+    }
+
+    @Test
+    public void testSyncWriteReadAhead() throws HyracksDataException {
+        testWriteAndRead(0, 3);
+    }
+
+    @Test
+    public void testWriteBehindReadAhead() throws HyracksDataException {
+        testWriteAndRead(2, 1);
+        testWriteAndRead(3, 4);
+    }
+
+    private void testWriteAndRead(int writeBehindFrames, int readAheadFrames) throws HyracksDataException {
+        IHyracksTaskContext ctx = testUtils.create(PAGE_SIZE);
+        List<IFrame> frames = new ArrayList<>();
+        Map<Integer, String> keyValuePair = new HashMap<>();
+        // records up to twice the page size make frames of several sizes
+        AbstractRunGeneratorTest.prepareData(ctx, frames, PAGE_SIZE * 64, 10, PAGE_SIZE * 2, null, keyValuePair);
+
+        RunFileWriter writer = new RunFileWriter(
+                ctx.getJobletContext().createManagedWorkspaceFile(RunFileAsyncIOTest.class.getSimpleName()),
+                ctx.getIOManager(), writeBehindFrames);
+        writer.open();
+        long size = 0;
+        for (IFrame frame : frames) {
+            size += frame.getFrameSize();
+            writer.nextFrame(frame.getBuffer().duplicate());
+        }
+        writer.close();
+        assertEquals(size, writer.getFileSize());
+
+        RunFileReader reader = writer.createReader();
+        reader.setReadAhead(readAheadFrames, PAGE_SIZE);
+        // read twice, to check that the reader can be reopened
+        assertSameFrames(ctx, frames, reader);
+        assertSameFrames(ctx, frames, reader);
+    }
+
+    private void assertSameFrames(IHyracksTaskContext ctx, List<IFrame> frames, RunFileReader reader)
+            throws HyracksDataException {
+        IFrame frame = new VSizeFrame(ctx);
+        reader.open();
+        try {
+            for (IFrame expected : frames) {
+                assertTrue(reader.nextFrame(frame));
+                assertEquals(expected.getFrameSize(), frame.getFrameSize());
+                ByteBuffer expectedBuffer = expected.getBuffer().duplicate();
+                expectedBuffer.clear();
+                assertEquals(expectedBuffer, frame.getBuffer());
+            }
+            assertFalse(reader.nextFrame(frame));
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -35,6 +35,12 @@ public class BloomCalculations {
 
     private static final int minBuckets = 2;
     private static final int minK = 1;
+    private static final int MAX_BLOCKED_EXTRA_BUCKETS = 4;
+
+    /**
+     * The size of the blocks of a blocked bloom filter: one cache line.
+     */
+    public static final int BLOCK_SIZE_IN_BITS = 512;
 
     /**
      * In the following table, the row 'i' shows false positive rates if i buckets
@@ -151,6 +157,49 @@ public class BloomCalculations {
         return new BloomFilterSpecification(K, bucketsPerElement);
     }
 
+    /**
+     * The false positive rate of a classic bloom filter, (1 - e^(-k/c))^k.
+     */
+    public static double falsePositiveRate(int bucketsPerElement, int k) {
+        return Math.pow(1 - Math.exp(-(double) k / bucketsPerElement), k);
+    }
+
+    /**
+     * The false positive rate of a blocked bloom filter, in which every element sets its k bits in one block of
+     * BLOCK_SIZE_IN_BITS bits. The number of elements that land in a block is Poisson distributed, so the rate is the
+     * rate of a block with i elements weighted by the probability of i.
+     * See Putze, Sanders, Singler, "Cache-, Hash- and Space-Efficient Bloom Filters".
+     */
+    public static double blockedFalsePositiveRate(int bucketsPerElement, int k) {
+        double lambda = (double) BLOCK_SIZE_IN_BITS / bucketsPerElement;
+        int maxElementsPerBlock = (int) (lambda + 10 * Math.sqrt(lambda)) + 10;
+        double p = Math.exp(-lambda);
+        double fp = 0;
+        for (int i = 0; i <= maxElementsPerBlock; ++i) {
+            if (i > 0) {
+                p *= lambda / i;
+            }
+            fp += p * Math.pow(1 - Math.pow(1 - 1.0 / BLOCK_SIZE_IN_BITS, (double) k * i), k);
+        }
+        return fp;
+    }
+
+    /**
+     * Blocks fill up unevenly, so a blocked filter needs a few more buckets per element to reach the false positive
+     * rate of a classic filter. Returns the smallest number of buckets, at most MAX_BLOCKED_EXTRA_BUCKETS more than
+     * the given one, for which the blocked filter with k hashes is as good as the classic one.
+     */
+    public static int blockedBucketsPerElement(int bucketsPerElement, int k) {
+        bucketsPerElement = Math.max(1, bucketsPerElement);
+        double target = falsePositiveRate(bucketsPerElement, k);
+        int blockedBucketsPerElement = bucketsPerElement;
+        while (blockedBucketsPerElement < bucketsPerElement + MAX_BLOCKED_EXTRA_BUCKETS
+                && blockedFalsePositiveRate(blockedBucketsPerElement, k) > target) {
+            ++blockedBucketsPerElement;
+        }
+        return blockedBucketsPerElement;
+    }
+
     /**
      * Calculates the maximum number of buckets per element that this implementation
      * can support. Crucially, it will lower the bucket count if necessary to meet
@@ -31,6 +31,13 @@ import org.apache.hyracks.storage.common.buffercache.ICachedPage;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 import org.apache.hyracks.storage.common.file.IFileMapProvider;
 
+/**
+ * A bloom filter stored in the pages of a file, after a metadata page. Two layouts are supported. The classic layout
+ * spreads the bits of an element over the whole filter, so a lookup may pin a different page for every hash. The
+ * blocked layout sets all the bits of an element in one cache-line sized block, so a lookup pins one page and touches
+ * one block. The layout of a filter is recorded in its metadata page; filters written before the blocked layout
+ * existed are read as classic filters.
+ */
 public class BloomFilter {
 
     private final static int METADATA_PAGE_ID = 0;
@@ -38,11 +45,19 @@ public class BloomFilter {
     private final static int NUM_HASHES_USED_OFFSET = NUM_PAGES_OFFSET + 4; // 4
     private final static int NUM_ELEMENTS_OFFSET = NUM_HASHES_USED_OFFSET + 4; // 8
     private final static int NUM_BITS_OFFSET = NUM_ELEMENTS_OFFSET + 8; // 12
+    private final static int LAYOUT_OFFSET = NUM_BITS_OFFSET + 8; // 20
+
+    private final static int CLASSIC_LAYOUT = 0;
+    // Older metadata pages have arbitrary bytes at LAYOUT_OFFSET, so the blocked layout is marked with a magic number.
+    private final static int BLOCKED_LAYOUT = 0x426c6b64;
+    private final static int BLOCK_SIZE = BloomCalculations.BLOCK_SIZE_IN_BITS / Byte.SIZE;
+    private final static int BLOCK_BIT_MASK = BloomCalculations.BLOCK_SIZE_IN_BITS - 1;
 
     private final IBufferCache bufferCache;
     private final IFileMapProvider fileMapProvider;
     private final FileReference file;
     private final int[] keyFields;
+    private final boolean createBlocked;
     private int fileId = -1;
     private boolean isActivated = false;
 
@@ -50,17 +65,31 @@ public class BloomFilter {
     private int numHashes;
     private long numElements;
     private long numBits;
+    private boolean blocked;
     private final int numBitsPerPage;
+    private final int numBlocksPerPage;
     private final static byte[] ZERO_BUFFER = new byte[131072]; // 128kb
     private final static long SEED = 0L;
 
     public BloomFilter(IBufferCache bufferCache, IFileMapProvider fileMapProvider, FileReference file, int[] keyFields)
             throws HyracksDataException {
+        this(bufferCache, fileMapProvider, file, keyFields, false);
+    }
+
+    /**
+     * @param createBlocked
+     *            whether the builders of this filter write the blocked layout. Existing filters are read with the
+     *            layout they were written with.
+     */
+    public BloomFilter(IBufferCache bufferCache, IFileMapProvider fileMapProvider, FileReference file,
+            int[] keyFields, boolean createBlocked) throws HyracksDataException {
         this.bufferCache = bufferCache;
         this.fileMapProvider = fileMapProvider;
         this.file = file;
         this.keyFields = keyFields;
+        this.createBlocked = createBlocked;
         this.numBitsPerPage = bufferCache.getPageSize() * Byte.SIZE;
+        this.numBlocksPerPage = bufferCache.getPageSize() / BLOCK_SIZE;
     }
 
     public int getFileId() {
@@ -85,11 +114,39 @@ public class BloomFilter {
         return numElements;
     }
 
+    public boolean isBlocked() throws HyracksDataException {
+        if (!isActivated) {
+            throw new HyracksDataException("The bloom filter is not activated.");
+        }
+        return blocked;
+    }
+
     public boolean contains(ITupleReference tuple, long[] hashes) throws HyracksDataException {
         if (numPages == 0) {
             return false;
         }
+        hash(tuple, hashes);
+        return contains(hashes);
+    }
+
+    /**
+     * Computes the hashes of a key, so that a key probed against the filters of several indexes with the same key
+     * fields is only hashed once.
+     */
+    public void hash(ITupleReference tuple, long[] hashes) {
         MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
+    }
+
+    /**
+     * Checks a key by the hashes that {@link #hash(ITupleReference, long[])} computed for it.
+     */
+    public boolean contains(long[] hashes) throws HyracksDataException {
+        if (numPages == 0) {
+            return false;
+        }
+        if (blocked) {
+            return blockContains(hashes);
+        }
         for (int i = 0; i < numHashes; ++i) {
             long hash = Math.abs((hashes[0] + i * hashes[1]) % numBits);
 
@@ -115,6 +172,50 @@ public class BloomFilter {
         return true;
     }
 
+    private boolean blockContains(long[] hashes) throws HyracksDataException {
+        long block = getBlock(hashes, numBits / BloomCalculations.BLOCK_SIZE_IN_BITS);
+        ICachedPage page = bufferCache.pin(getBlockPageId(block), false);
+        page.acquireReadLatch();
+        try {
+            ByteBuffer buffer = page.getBuffer();
+            int blockOffset = getBlockOffset(block);
+            int bitIndex = (int) hashes[1];
+            int step = getBlockHashStep(hashes);
+            for (int i = 0; i < numHashes; ++i) {
+                int bit = bitIndex & BLOCK_BIT_MASK;
+                if ((buffer.get(blockOffset + (bit >> 3)) & (1 << (bit & 0x07))) == 0) {
+                    return false;
+                }
+                bitIndex += step;
+            }
+            return true;
+        } finally {
+            page.releaseReadLatch();
+            bufferCache.unpin(page);
+        }
+    }
+
+    private static long getBlock(long[] hashes, long numBlocks) {
+        return (hashes[0] & Long.MAX_VALUE) % numBlocks;
+    }
+
+    private long getBlockPageId(long block) {
+        // we increment the page id by one, since the metadata page id of the filter is 0.
+        return BufferedFileHandle.getDiskPageId(fileId, (int) (block / numBlocksPerPage) + 1);
+    }
+
+    private int getBlockOffset(long block) {
+        return (int) (block % numBlocksPerPage) * BLOCK_SIZE;
+    }
+
+    /**
+     * The bits of an element within its block are chosen by double hashing on the two halves of the second hash. The
+     * step is odd, so the positions only repeat after a full cycle through the block.
+     */
+    private static int getBlockHashStep(long[] hashes) {
+        return (int) (hashes[1] >>> 32) | 1;
+    }
+
     private void prepareFile() throws HyracksDataException {
         boolean fileIsMapped = false;
         synchronized (fileMapProvider) {
@@ -148,6 +249,7 @@ public class BloomFilter {
             metaPage.getBuffer().putInt(NUM_HASHES_USED_OFFSET, 0);
             metaPage.getBuffer().putLong(NUM_ELEMENTS_OFFSET, 0L);
             metaPage.getBuffer().putLong(NUM_BITS_OFFSET, 0L);
+            metaPage.getBuffer().putInt(LAYOUT_OFFSET, CLASSIC_LAYOUT);
         } finally {
             metaPage.releaseWriteLatch(true);
             bufferCache.unpin(metaPage);
@@ -173,6 +275,7 @@ public class BloomFilter {
             numHashes = metaPage.getBuffer().getInt(NUM_HASHES_USED_OFFSET);
             numElements = metaPage.getBuffer().getLong(NUM_ELEMENTS_OFFSET);
             numBits = metaPage.getBuffer().getLong(NUM_BITS_OFFSET);
+            blocked = metaPage.getBuffer().getInt(LAYOUT_OFFSET) == BLOCKED_LAYOUT;
         } finally {
             metaPage.releaseReadLatch();
             bufferCache.unpin(metaPage);
@@ -200,13 +303,94 @@ public class BloomFilter {
         fileId = -1;
     }
 
-    public IIndexBulkLoader createBuilder(long numElements, int numHashes, int numBitsPerElement)
+    public AbstractBloomFilterBuilder createBuilder(long numElements, int numHashes, int numBitsPerElement)
             throws HyracksDataException {
+        if (createBlocked) {
+            return new BlockedBloomFilterBuilder(numElements, numHashes, numBitsPerElement);
+        }
         return new BloomFilterBuilder(numElements, numHashes, numBitsPerElement);
     }
 
-    public class BloomFilterBuilder implements IIndexBulkLoader {
+    private void persistBloomFilterMetaData(int numPages, int numHashes, long numElements, long numBits, int layout)
+            throws HyracksDataException {
+        ICachedPage metaPage = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, METADATA_PAGE_ID), false);
+        metaPage.acquireWriteLatch();
+        try {
+            metaPage.getBuffer().putInt(NUM_PAGES_OFFSET, numPages);
+            metaPage.getBuffer().putInt(NUM_HASHES_USED_OFFSET, numHashes);
+            metaPage.getBuffer().putLong(NUM_ELEMENTS_OFFSET, numElements);
+            metaPage.getBuffer().putLong(NUM_BITS_OFFSET, numBits);
+            metaPage.getBuffer().putInt(LAYOUT_OFFSET, layout);
+        } finally {
+            metaPage.releaseWriteLatch(true);
+            bufferCache.unpin(metaPage);
+        }
+    }
+
+    private void initPages(int numPages) throws HyracksDataException {
+        int currentPageId = 1;
+        while (currentPageId <= numPages) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, currentPageId), true);
+            page.acquireWriteLatch();
+            try {
+                initPage(page.getBuffer().array());
+            } finally {
+                page.releaseWriteLatch(true);
+                bufferCache.unpin(page);
+            }
+            ++currentPageId;
+        }
+    }
+
+    private static void initPage(byte[] array) {
+        int numRounds = array.length / ZERO_BUFFER.length;
+        int leftOver = array.length % ZERO_BUFFER.length;
+        int destPos = 0;
+        for (int i = 0; i < numRounds; i++) {
+            System.arraycopy(ZERO_BUFFER, 0, array, destPos, ZERO_BUFFER.length);
+            destPos = (i + 1) * ZERO_BUFFER.length;
+        }
+        if (leftOver > 0) {
+            System.arraycopy(ZERO_BUFFER, 0, array, destPos, leftOver);
+        }
+    }
+
+    /**
+     * The base of the builders. A builder hashes the added keys into one array it reuses. The threads that fill a
+     * filter at the same time, like the ranges of a parallel merge, each add through their own
+     * {@link #createConcurrentLoader()}.
+     */
+    public abstract class AbstractBloomFilterBuilder implements IIndexBulkLoader {
         private final long[] hashes = new long[2];
+
+        @Override
+        public void add(ITupleReference tuple) throws IndexException, HyracksDataException {
+            add(tuple, hashes);
+        }
+
+        protected abstract void add(ITupleReference tuple, long[] hashes) throws HyracksDataException;
+
+        /**
+         * @return a loader that adds to this filter with its own array for the hashes. Its end does nothing, the
+         *         filter is ended by this builder.
+         */
+        public IIndexBulkLoader createConcurrentLoader() {
+            return new IIndexBulkLoader() {
+                private final long[] loaderHashes = new long[2];
+
+                @Override
+                public void add(ITupleReference tuple) throws IndexException, HyracksDataException {
+                    AbstractBloomFilterBuilder.this.add(tuple, loaderHashes);
+                }
+
+                @Override
+                public void end() throws HyracksDataException, IndexException {
+                }
+            };
+        }
+    }
+
+    public class BloomFilterBuilder extends AbstractBloomFilterBuilder {
         private final long numElements;
         private final int numHashes;
         private final long numBits;
@@ -225,55 +409,18 @@ public class BloomFilter {
                 throw new HyracksDataException("Cannot create a bloom filter with his huge number of pages.");
             }
             numPages = (int) tmp;
-            persistBloomFilterMetaData();
+            persistBloomFilterMetaData(numPages, numHashes, numElements, numBits, CLASSIC_LAYOUT);
             readBloomFilterMetaData();
-            int currentPageId = 1;
-            while (currentPageId <= numPages) {
-                ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, currentPageId), true);
-                page.acquireWriteLatch();
-                try {
-                    initPage(page.getBuffer().array());
-                } finally {
-                    page.releaseWriteLatch(true);
-                    bufferCache.unpin(page);
-                }
-                ++currentPageId;
-            }
-        }
-
-        private void initPage(byte[] array) {
-            int numRounds = array.length / ZERO_BUFFER.length;
-            int leftOver = array.length % ZERO_BUFFER.length;
-            int destPos = 0;
-            for (int i = 0; i < numRounds; i++) {
-                System.arraycopy(ZERO_BUFFER, 0, array, destPos, ZERO_BUFFER.length);
-                destPos = (i + 1) * ZERO_BUFFER.length;
-            }
-            if (leftOver > 0) {
-                System.arraycopy(ZERO_BUFFER, 0, array, destPos, leftOver);
-            }
-        }
-
-        private void persistBloomFilterMetaData() throws HyracksDataException {
-            ICachedPage metaPage = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, METADATA_PAGE_ID), false);
-            metaPage.acquireWriteLatch();
-            try {
-                metaPage.getBuffer().putInt(NUM_PAGES_OFFSET, numPages);
-                metaPage.getBuffer().putInt(NUM_HASHES_USED_OFFSET, numHashes);
-                metaPage.getBuffer().putLong(NUM_ELEMENTS_OFFSET, numElements);
-                metaPage.getBuffer().putLong(NUM_BITS_OFFSET, numBits);
-            } finally {
-                metaPage.releaseWriteLatch(true);
-                bufferCache.unpin(metaPage);
-            }
+            initPages(numPages);
         }
 
         @Override
-        public void add(ITupleReference tuple) throws IndexException, HyracksDataException {
+        protected void add(ITupleReference tuple, long[] hashes) throws HyracksDataException {
             if (numPages == 0) {
                 throw new HyracksDataException(
                         "Cannot add elements to this filter since it is supposed to be empty (number of elements hint passed to the filter during construction was 0).");
             }
+            // The pages are latched, so the concurrent loaders of a parallel merge can fill the filter together.
             MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
             for (int i = 0; i < numHashes; ++i) {
                 long hash = Math.abs((hashes[0] + i * hashes[1]) % numBits);
@@ -301,4 +448,70 @@ public class BloomFilter {
         }
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds a filter with the blocked layout. The number of bits per element is raised to make up for the blocks
+     * that fill up more than others, see {@link BloomCalculations#blockedBucketsPerElement(int, int)}.
+     */
+    public class BlockedBloomFilterBuilder extends AbstractBloomFilterBuilder {
+        private final long numElements;
+        private final int numHashes;
+        private final long numBlocks;
+        private final int numPages;
+
+        public BlockedBloomFilterBuilder(long numElements, int numHashes, int numBitsPerElement)
+                throws HyracksDataException {
+            if (!isActivated) {
+                throw new HyracksDataException("Failed to create the bloom filter builder since it is not activated.");
+            }
+            if (numBlocksPerPage == 0) {
+                throw new HyracksDataException("Cannot create a blocked bloom filter with pages smaller than "
+                        + BLOCK_SIZE + " bytes.");
+            }
+
+            this.numElements = numElements;
+            this.numHashes = numHashes;
+            long numBits = this.numElements * BloomCalculations.blockedBucketsPerElement(numBitsPerElement, numHashes);
+            numBlocks = (long) Math.ceil(numBits / (double) BloomCalculations.BLOCK_SIZE_IN_BITS);
+            long tmp = (long) Math.ceil(numBlocks / (double) numBlocksPerPage);
+            if (tmp > Integer.MAX_VALUE) {
+                throw new HyracksDataException("Cannot create a bloom filter with his huge number of pages.");
+            }
+            numPages = (int) tmp;
+            persistBloomFilterMetaData(numPages, numHashes, numElements,
+                    numBlocks * BloomCalculations.BLOCK_SIZE_IN_BITS, BLOCKED_LAYOUT);
+            readBloomFilterMetaData();
+            initPages(numPages);
+        }
+
+        @Override
+        protected void add(ITupleReference tuple, long[] hashes) throws HyracksDataException {
+            if (numPages == 0) {
+                throw new HyracksDataException(
+                        "Cannot add elements to this filter since it is supposed to be empty (number of elements hint passed to the filter during construction was 0).");
+            }
+            MurmurHash128Bit.hash3_x64_128(tuple, keyFields, SEED, hashes);
+            long block = getBlock(hashes, numBlocks);
+            ICachedPage page = bufferCache.pin(getBlockPageId(block), false);
+            page.acquireWriteLatch();
+            try {
+                byte[] array = page.getBuffer().array();
+                int blockOffset = getBlockOffset(block);
+                int bitIndex = (int) hashes[1];
+                int step = getBlockHashStep(hashes);
+                for (int i = 0; i < numHashes; ++i) {
+                    int bit = bitIndex & BLOCK_BIT_MASK;
+                    array[blockOffset + (bit >> 3)] |= 1 << (bit & 0x07);
+                    bitIndex += step;
+                }
+            } finally {
+                page.releaseWriteLatch(true);
+                bufferCache.unpin(page);
+            }
+        }
+
+        @Override
+        public void end() throws HyracksDataException, IndexException {
+        }
+    }
+}
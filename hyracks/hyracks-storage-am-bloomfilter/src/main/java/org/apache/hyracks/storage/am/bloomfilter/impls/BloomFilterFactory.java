@@ -28,18 +28,33 @@ public class BloomFilterFactory {
     private final IBufferCache bufferCache;
     private final IFileMapProvider fileMapProvider;
     private final int[] bloomFilterKeyFields;
+    private final boolean blocked;
 
     public BloomFilterFactory(IBufferCache bufferCache, IFileMapProvider fileMapProvider, int[] bloomFilterKeyFields) {
+        this(bufferCache, fileMapProvider, bloomFilterKeyFields, false);
+    }
+
+    /**
+     * @param blocked
+     *            whether new filters are written with the blocked layout, which needs one page pin per lookup.
+     */
+    public BloomFilterFactory(IBufferCache bufferCache, IFileMapProvider fileMapProvider, int[] bloomFilterKeyFields,
+            boolean blocked) {
         this.bufferCache = bufferCache;
         this.fileMapProvider = fileMapProvider;
         this.bloomFilterKeyFields = bloomFilterKeyFields;
+        this.blocked = blocked;
     }
 
     public BloomFilter createBloomFiltertInstance(FileReference file) throws HyracksDataException {
-        return new BloomFilter(bufferCache, fileMapProvider, file, bloomFilterKeyFields);
+        return new BloomFilter(bufferCache, fileMapProvider, file, bloomFilterKeyFields, blocked);
     }
 
     public int[] getBloomFilterKeyFields() {
         return bloomFilterKeyFields;
     }
+
+    public boolean isBlocked() {
+        return blocked;
+    }
 }
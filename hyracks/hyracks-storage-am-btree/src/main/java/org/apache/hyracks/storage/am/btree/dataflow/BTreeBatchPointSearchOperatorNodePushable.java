@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree.dataflow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.util.TupleUtils;
+import org.apache.hyracks.storage.am.btree.api.IBatchPointSearchAccessor;
+import org.apache.hyracks.storage.am.btree.api.IBatchPointSearchCursor;
+import org.apache.hyracks.storage.am.btree.impls.BatchPointPredicate;
+import org.apache.hyracks.storage.am.common.api.ITreeIndex;
+import org.apache.hyracks.storage.am.common.dataflow.AbstractTreeIndexOperatorDescriptor;
+import org.apache.hyracks.storage.am.common.tuples.PermutingFrameTupleReference;
+
+/**
+ * Searches the point keys of its input in batches. The input frames are copied until the batch holds lookupBatchSize
+ * keys, and the keys are then sorted and searched in one pass over the index. The results follow the order of the
+ * input, or the order of the keys if the consumer does not need the input order.
+ * The indexes whose accessors do not search batches, and the range or filtered searches, fall back to one search per
+ * input tuple.
+ */
+public class BTreeBatchPointSearchOperatorNodePushable extends BTreeSearchOperatorNodePushable {
+    private final int[] keyFields;
+    private final int lookupBatchSize;
+    private final boolean resultsInKeyOrder;
+
+    private boolean batched;
+    private BatchPointPredicate batchPred;
+    private IBatchPointSearchCursor batchCursor;
+
+    private final List<IFrame> batchFrames = new ArrayList<IFrame>();
+    private final List<FrameTupleAccessor> batchAccessors = new ArrayList<FrameTupleAccessor>();
+    private int numBatchFrames;
+    private int numBatchTuples;
+    private int[] batchFrameIndexes = new int[0];
+    private int[] batchTupleIndexes = new int[0];
+    private PermutingFrameTupleReference[] batchKeys = new PermutingFrameTupleReference[0];
+    private int[] sortedTuples = new int[0];
+    private int[] sortBuffer = new int[0];
+
+    // The results of the batch by input tuple, when they are written in the input order.
+    private ArrayTupleBuilder[] batchResults = new ArrayTupleBuilder[0];
+    private boolean[] batchMatches = new boolean[0];
+    private final ArrayTupleReference batchResult = new ArrayTupleReference();
+
+    public BTreeBatchPointSearchOperatorNodePushable(AbstractTreeIndexOperatorDescriptor opDesc,
+            IHyracksTaskContext ctx, int partition, IRecordDescriptorProvider recordDescProvider, int[] lowKeyFields,
+            int[] highKeyFields, boolean lowKeyInclusive, boolean highKeyInclusive, int[] minFilterFieldIndexes,
+            int[] maxFilterFieldIndexes, int lookupBatchSize, boolean resultsInKeyOrder) {
+        super(opDesc, ctx, partition, recordDescProvider, lowKeyFields, highKeyFields, lowKeyInclusive,
+                highKeyInclusive, minFilterFieldIndexes, maxFilterFieldIndexes);
+        this.keyFields = lowKeyFields;
+        this.lookupBatchSize = lookupBatchSize;
+        this.resultsInKeyOrder = resultsInKeyOrder;
+        batched = Arrays.equals(lowKeyFields, highKeyFields) && lowKey != null && lowKeyInclusive
+                && highKeyInclusive && minFilterKey == null && maxFilterKey == null;
+    }
+
+    @Override
+    public void open() throws HyracksDataException {
+        super.open();
+        batched = batched && indexAccessor instanceof IBatchPointSearchAccessor
+                && keyFields.length == ((ITreeIndex) index).getComparatorFactories().length;
+        if (batched) {
+            batchPred = new BatchPointPredicate(lowKeySearchCmp);
+            batchCursor = ((IBatchPointSearchAccessor) indexAccessor).createBatchPointSearchCursor();
+        }
+    }
+
+    @Override
+    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        if (!batched) {
+            super.nextFrame(buffer);
+            return;
+        }
+        if (numBatchFrames == batchFrames.size()) {
+            batchFrames.add(new VSizeFrame(ctx));
+            batchAccessors.add(new FrameTupleAccessor(inputRecDesc));
+        }
+        IFrame frame = batchFrames.get(numBatchFrames);
+        frame.ensureFrameSize(buffer.capacity());
+        FrameUtils.copyAndFlip(buffer, frame.getBuffer());
+        FrameTupleAccessor frameAccessor = batchAccessors.get(numBatchFrames);
+        frameAccessor.reset(frame.getBuffer());
+        int tupleCount = frameAccessor.getTupleCount();
+        ensureBatchCapacity(numBatchTuples + tupleCount);
+        for (int i = 0; i < tupleCount; i++) {
+            batchFrameIndexes[numBatchTuples] = numBatchFrames;
+            batchTupleIndexes[numBatchTuples] = i;
+            batchKeys[numBatchTuples].reset(frameAccessor, i);
+            numBatchTuples++;
+        }
+        numBatchFrames++;
+        if (numBatchTuples >= lookupBatchSize) {
+            searchBatch();
+        }
+    }
+
+    private void ensureBatchCapacity(int capacity) {
+        if (capacity <= batchKeys.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, batchKeys.length * 2);
+        batchFrameIndexes = Arrays.copyOf(batchFrameIndexes, newCapacity);
+        batchTupleIndexes = Arrays.copyOf(batchTupleIndexes, newCapacity);
+        sortedTuples = new int[newCapacity];
+        sortBuffer = new int[newCapacity];
+        batchMatches = new boolean[newCapacity];
+        int oldCapacity = batchKeys.length;
+        batchKeys = Arrays.copyOf(batchKeys, newCapacity);
+        batchResults = Arrays.copyOf(batchResults, newCapacity);
+        for (int i = oldCapacity; i < newCapacity; i++) {
+            batchKeys[i] = new PermutingFrameTupleReference();
+            batchKeys[i].setFieldPermutation(keyFields);
+        }
+    }
+
+    private void searchBatch() throws HyracksDataException {
+        try {
+            for (int i = 0; i < numBatchTuples; i++) {
+                sortedTuples[i] = i;
+            }
+            sortBatch(0, numBatchTuples);
+            batchPred.reset();
+            for (int i = 0; i < numBatchTuples; i++) {
+                batchPred.addKey(batchKeys[sortedTuples[i]]);
+            }
+            indexAccessor.search(batchCursor, batchPred);
+            try {
+                if (resultsInKeyOrder) {
+                    writeResultsInKeyOrder();
+                } else {
+                    writeResultsInInputOrder();
+                }
+            } finally {
+                batchCursor.close();
+            }
+        } catch (Exception e) {
+            throw new HyracksDataException(e);
+        } finally {
+            batchPred.reset();
+            numBatchTuples = 0;
+            numBatchFrames = 0;
+        }
+    }
+
+    private void writeResultsInKeyOrder() throws Exception {
+        int nextKey = 0;
+        while (batchCursor.hasNext()) {
+            batchCursor.next();
+            int keyIndex = batchCursor.getKeyIndex();
+            for (; nextKey < keyIndex; nextKey++) {
+                writeNoMatch(sortedTuples[nextKey]);
+            }
+            writeMatch(sortedTuples[keyIndex], batchCursor.getTuple());
+            nextKey = keyIndex + 1;
+        }
+        for (; nextKey < numBatchTuples; nextKey++) {
+            writeNoMatch(sortedTuples[nextKey]);
+        }
+    }
+
+    private void writeResultsInInputOrder() throws Exception {
+        Arrays.fill(batchMatches, 0, numBatchTuples, false);
+        while (batchCursor.hasNext()) {
+            batchCursor.next();
+            int batchTuple = sortedTuples[batchCursor.getKeyIndex()];
+            ITupleReference tuple = batchCursor.getTuple();
+            if (batchResults[batchTuple] == null) {
+                batchResults[batchTuple] = new ArrayTupleBuilder(tuple.getFieldCount());
+            }
+            TupleUtils.copyTuple(batchResults[batchTuple], tuple, tuple.getFieldCount());
+            batchMatches[batchTuple] = true;
+        }
+        for (int i = 0; i < numBatchTuples; i++) {
+            if (batchMatches[i]) {
+                batchResult.reset(batchResults[i].getFieldEndOffsets(), batchResults[i].getByteArray());
+                writeMatch(i, batchResult);
+            } else {
+                writeNoMatch(i);
+            }
+        }
+    }
+
+    private void writeMatch(int batchTuple, ITupleReference tuple) throws IOException {
+        tb.reset();
+        if (retainInput) {
+            frameTuple.reset(batchAccessors.get(batchFrameIndexes[batchTuple]), batchTupleIndexes[batchTuple]);
+            for (int i = 0; i < frameTuple.getFieldCount(); i++) {
+                dos.write(frameTuple.getFieldData(i), frameTuple.getFieldStart(i), frameTuple.getFieldLength(i));
+                tb.addFieldEndOffset();
+            }
+        }
+        for (int i = 0; i < tuple.getFieldCount(); i++) {
+            dos.write(tuple.getFieldData(i), tuple.getFieldStart(i), tuple.getFieldLength(i));
+            tb.addFieldEndOffset();
+        }
+        FrameUtils.appendToWriter(writer, appender, tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+    }
+
+    private void writeNoMatch(int batchTuple) throws HyracksDataException {
+        if (retainInput && retainNull) {
+            IFrameTupleAccessor frameAccessor = batchAccessors.get(batchFrameIndexes[batchTuple]);
+            FrameUtils.appendConcatToWriter(writer, appender, frameAccessor, batchTupleIndexes[batchTuple],
+                    nullTupleBuild.getFieldEndOffsets(), nullTupleBuild.getByteArray(), 0, nullTupleBuild.getSize());
+        }
+    }
+
+    /**
+     * Sorts the batch tuples in [from, to) by their keys. The sort is stable, so equal keys keep the input order.
+     */
+    private void sortBatch(int from, int to) throws HyracksDataException {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortBatch(from, mid);
+        sortBatch(mid, to);
+        if (compareKeys(sortedTuples[mid - 1], sortedTuples[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(sortedTuples, from, sortBuffer, from, to - from);
+        int i = from;
+        int j = mid;
+        int k = from;
+        while (i < mid && j < to) {
+            sortedTuples[k++] = compareKeys(sortBuffer[j], sortBuffer[i]) < 0 ? sortBuffer[j++] : sortBuffer[i++];
+        }
+        while (i < mid) {
+            sortedTuples[k++] = sortBuffer[i++];
+        }
+        while (j < to) {
+            sortedTuples[k++] = sortBuffer[j++];
+        }
+    }
+
+    private int compareKeys(int batchTupleA, int batchTupleB) throws HyracksDataException {
+        return lowKeySearchCmp.compare(batchKeys[batchTupleA], batchKeys[batchTupleB]);
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        try {
+            if (batched && numBatchTuples > 0) {
+                searchBatch();
+            }
+        } finally {
+            super.close();
+        }
+    }
+}
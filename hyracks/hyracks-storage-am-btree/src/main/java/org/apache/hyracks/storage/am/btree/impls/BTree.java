@@ -19,6 +19,7 @@
 
 package org.apache.hyracks.storage.am.btree.impls;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -30,6 +31,8 @@ import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
 import org.apache.hyracks.dataflow.common.util.TupleUtils;
@@ -53,7 +56,9 @@ import org.apache.hyracks.storage.am.common.api.ITreeIndexAccessor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrame;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexMetaDataFrame;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleWriter;
 import org.apache.hyracks.storage.am.common.api.IndexException;
 import org.apache.hyracks.storage.am.common.api.TreeIndexException;
 import org.apache.hyracks.storage.am.common.api.UnsortedInputException;
@@ -210,6 +215,9 @@ public class BTree extends AbstractTreeIndex {
         }
         cursor.setBufferCache(bufferCache);
         cursor.setFileId(fileId);
+        if (cursor instanceof BTreeRangeSearchCursor) {
+            ((BTreeRangeSearchCursor) cursor).setFreePageManager(freePageManager);
+        }
     }
 
     private void unsetSmPages(BTreeOpContext ctx) throws HyracksDataException {
@@ -1084,6 +1092,287 @@ public class BTree extends AbstractTreeIndex {
 
     }
 
+    /**
+     * Creates a bulk loader whose key ranges are loaded by several threads at once, see
+     * {@link BTreeParallelBulkLoader}.
+     */
+    public BTreeParallelBulkLoader createParallelBulkLoader(float fillFactor) throws TreeIndexException {
+        try {
+            return new BTreeParallelBulkLoader(fillFactor);
+        } catch (HyracksDataException e) {
+            throw new TreeIndexException(e);
+        }
+    }
+
+    /**
+     * Loads disjoint key ranges of an empty tree in parallel. Each range is loaded by one thread into its own run of
+     * leaves, and only the separator keys between its leaves are kept. {@link #end()} links the runs in the order in
+     * which they were created and builds the interior levels once, so the result is the same tree as a sequential
+     * bulk load. A run takes its leaves from extents of consecutive pages that it reserves up front, so a scan over
+     * the leaves only jumps between extents rather than between the leaves of the concurrent runs.
+     */
+    public class BTreeParallelBulkLoader extends BTreeBulkLoader {
+        private static final int LEAF_EXTENT_PAGES = 64;
+
+        private final List<LeafRun> runs = new ArrayList<LeafRun>();
+
+        public BTreeParallelBulkLoader(float fillFactor) throws TreeIndexException, HyracksDataException {
+            super(fillFactor, false);
+        }
+
+        /**
+         * Creates the loader of the next key range. The keys of a range must all be greater than the keys of the
+         * ranges created before it.
+         */
+        public synchronized IIndexBulkLoader createRun() {
+            LeafRun run = new LeafRun(leafMaxBytes, slotSize);
+            runs.add(run);
+            return run;
+        }
+
+        @Override
+        public void add(ITupleReference tuple) throws HyracksDataException {
+            throw new HyracksDataException("The tuples of a parallel bulk load are added to its runs.");
+        }
+
+        @Override
+        public void end() throws HyracksDataException {
+            NodeFrontier leafFrontier = nodeFrontiers.get(0);
+            LeafRun prevRun = null;
+            for (LeafRun run : runs) {
+                if (run.leaves.isEmpty()) {
+                    continue;
+                }
+                if (prevRun == null) {
+                    // The runs have their own leaves, the first leaf of the loader is not needed.
+                    leafFrontier.page.releaseWriteLatch(true);
+                    bufferCache.unpin(leafFrontier.page);
+                    freePageManager.addFreePage(metaFrame, leafFrontier.pageId);
+                } else {
+                    int firstLeaf = run.leaves.get(0);
+                    linkLeaf(prevRun.getLastLeaf(), firstLeaf);
+                    propagateSplitKey(prevRun.lastKey, prevRun.getLastLeaf(), firstLeaf);
+                }
+                for (int i = 0; i < run.splitKeys.size(); ++i) {
+                    propagateSplitKey(run.splitKeys.get(i), run.leaves.get(i), run.leaves.get(i + 1));
+                }
+                prevRun = run;
+            }
+            if (prevRun != null) {
+                // The last leaf becomes the frontier, it is the root if there is a single leaf.
+                leafFrontier.pageId = prevRun.getLastLeaf();
+                leafFrontier.page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, leafFrontier.pageId),
+                        false);
+                leafFrontier.page.acquireWriteLatch();
+            }
+            super.end();
+        }
+
+        private void linkLeaf(int pageId, int nextLeaf) throws HyracksDataException {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId), false);
+            page.acquireWriteLatch();
+            try {
+                leafFrame.setPage(page);
+                ((IBTreeLeafFrame) leafFrame).setNextLeaf(nextLeaf);
+            } finally {
+                page.releaseWriteLatch(true);
+                bufferCache.unpin(page);
+            }
+        }
+
+        private void propagateSplitKey(byte[] key, int leftPage, int rightPage) throws HyracksDataException {
+            splitKey.initData(key.length);
+            System.arraycopy(key, 0, splitKey.getBuffer().array(), 0, key.length);
+            splitKey.getTuple().resetByTupleOffset(splitKey.getBuffer(), 0);
+            splitKey.setLeftPage(leftPage);
+            splitKey.setRightPage(rightPage);
+            propagateBulk(1);
+        }
+
+        /**
+         * Fills the leaves of one key range like {@link BTreeBulkLoader#add(ITupleReference)} does, and keeps the
+         * separator keys in memory instead of propagating them.
+         */
+        private class LeafRun implements IIndexBulkLoader {
+            private final ITreeIndexFrame runLeafFrame = leafFrameFactory.createFrame();
+            private final ITreeIndexFrame runInteriorFrame = interiorFrameFactory.createFrame();
+            private final ITreeIndexMetaDataFrame runMetaFrame = freePageManager.getMetaDataFrameFactory()
+                    .createFrame();
+            private final ITreeIndexTupleReference lastTuple;
+            private final int leafMaxBytes;
+            private final int slotSize;
+            private final List<Integer> leaves = new ArrayList<Integer>();
+            private final List<byte[]> splitKeys = new ArrayList<byte[]>();
+            private final ArrayDeque<Integer> extent = new ArrayDeque<Integer>();
+            private ICachedPage page;
+            private byte[] lastKey;
+
+            private LeafRun(int leafMaxBytes, int slotSize) {
+                this.leafMaxBytes = leafMaxBytes;
+                this.slotSize = slotSize;
+                runLeafFrame.setMultiComparator(MultiComparator.create(cmpFactories));
+                lastTuple = runLeafFrame.createTupleReference();
+            }
+
+            @Override
+            public void add(ITupleReference tuple) throws IndexException, HyracksDataException {
+                try {
+                    int tupleSize = Math.max(runLeafFrame.getBytesRequriedToWriteTuple(tuple),
+                            runInteriorFrame.getBytesRequriedToWriteTuple(tuple));
+                    if (tupleSize > maxTupleSize) {
+                        throw new TreeIndexException("Space required for record (" + tupleSize
+                                + ") larger than maximum acceptable size (" + maxTupleSize + ")");
+                    }
+                    if (page == null) {
+                        pinLeaf(nextLeafPage());
+                    } else {
+                        int spaceNeeded = runLeafFrame.getTupleWriter().bytesRequired(tuple) + slotSize;
+                        int spaceUsed = runLeafFrame.getBuffer().capacity() - runLeafFrame.getTotalFreeSpace();
+                        if (spaceUsed + spaceNeeded > leafMaxBytes) {
+                            runLeafFrame.compress();
+                            spaceUsed = runLeafFrame.getBuffer().capacity() - runLeafFrame.getTotalFreeSpace();
+                        }
+                        if (spaceUsed + spaceNeeded > leafMaxBytes) {
+                            splitKeys.add(copyLastKey());
+                            int nextLeaf = nextLeafPage();
+                            ((IBTreeLeafFrame) runLeafFrame).setNextLeaf(nextLeaf);
+                            releaseLeaf();
+                            pinLeaf(nextLeaf);
+                        }
+                    }
+                    ((IBTreeLeafFrame) runLeafFrame).insertSorted(tuple);
+                } catch (IndexException e) {
+                    releaseLeaf();
+                    throw e;
+                } catch (HyracksDataException e) {
+                    releaseLeaf();
+                    throw e;
+                } catch (RuntimeException e) {
+                    releaseLeaf();
+                    throw e;
+                }
+            }
+
+            /**
+             * Takes the next page of the run's extent. The pages of an extent are reserved while no other run can
+             * take free pages, so they are consecutive in a new tree.
+             */
+            private int nextLeafPage() throws HyracksDataException {
+                if (extent.isEmpty()) {
+                    synchronized (BTreeParallelBulkLoader.this) {
+                        for (int i = 0; i < LEAF_EXTENT_PAGES; ++i) {
+                            extent.add(freePageManager.getFreePage(runMetaFrame));
+                        }
+                    }
+                }
+                return extent.poll();
+            }
+
+            private void releaseExtent() throws HyracksDataException {
+                synchronized (BTreeParallelBulkLoader.this) {
+                    while (!extent.isEmpty()) {
+                        freePageManager.addFreePage(runMetaFrame, extent.poll());
+                    }
+                }
+            }
+
+            private void pinLeaf(int pageId) throws HyracksDataException {
+                page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId), true);
+                page.acquireWriteLatch();
+                leaves.add(pageId);
+                runLeafFrame.setPage(page);
+                runLeafFrame.initBuffer((byte) 0);
+            }
+
+            private void releaseLeaf() throws HyracksDataException {
+                if (page != null) {
+                    page.releaseWriteLatch(true);
+                    bufferCache.unpin(page);
+                    page = null;
+                }
+            }
+
+            private byte[] copyLastKey() {
+                lastTuple.resetByTupleIndex(runLeafFrame, runLeafFrame.getTupleCount() - 1);
+                ITreeIndexTupleWriter tupleWriter = runLeafFrame.getTupleWriter();
+                byte[] key = new byte[tupleWriter.bytesRequired(lastTuple, 0, cmpFactories.length)];
+                tupleWriter.writeTupleFields(lastTuple, 0, cmpFactories.length, key, 0);
+                return key;
+            }
+
+            private int getLastLeaf() {
+                return leaves.get(leaves.size() - 1);
+            }
+
+            /**
+             * Releases the last leaf of the run and gives back the pages of its extent that it did not use. The right
+             * sibling of the last leaf is set when the runs are linked.
+             */
+            @Override
+            public void end() throws HyracksDataException {
+                if (page != null) {
+                    lastKey = copyLastKey();
+                    releaseLeaf();
+                }
+                releaseExtent();
+            }
+        }
+    }
+
+    /**
+     * Collects the separator keys of the interior levels, from the root down, until a level has at least the given
+     * number of keys or the level right above the leaves is reached. The keys can split the key space of the tree
+     * into ranges of similar sizes.
+     *
+     * @return the key fields of the separators of one level, in key order
+     */
+    public List<ITupleReference> getSeparatorKeys(int minNumKeys) throws HyracksDataException {
+        List<ITupleReference> keys = new ArrayList<ITupleReference>();
+        IBTreeInteriorFrame frame = (IBTreeInteriorFrame) interiorFrameFactory.createFrame();
+        frame.setMultiComparator(MultiComparator.create(cmpFactories));
+        ITreeIndexTupleReference tuple = frame.createTupleReference();
+        int keyFieldCount = cmpFactories.length;
+        List<Integer> levelPages = new ArrayList<Integer>();
+        levelPages.add(rootPage);
+        while (true) {
+            keys.clear();
+            List<Integer> childPages = new ArrayList<Integer>();
+            boolean aboveLeaves = true;
+            for (int pageId : levelPages) {
+                ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, pageId), false);
+                page.acquireReadLatch();
+                try {
+                    frame.setPage(page);
+                    if (frame.isLeaf()) {
+                        return keys;
+                    }
+                    aboveLeaves = frame.getLevel() == 1;
+                    for (int i = 0; i < frame.getTupleCount(); ++i) {
+                        tuple.resetByTupleIndex(frame, i);
+                        ArrayTupleBuilder tb = new ArrayTupleBuilder(keyFieldCount);
+                        for (int j = 0; j < keyFieldCount; ++j) {
+                            tb.addField(tuple.getFieldData(j), tuple.getFieldStart(j), tuple.getFieldLength(j));
+                        }
+                        ArrayTupleReference key = new ArrayTupleReference();
+                        key.reset(tb.getFieldEndOffsets(), tb.getByteArray());
+                        keys.add(key);
+                        int lastField = tuple.getFieldCount() - 1;
+                        childPages.add(IntegerPointable.getInteger(tuple.getFieldData(lastField),
+                                tuple.getFieldStart(lastField) + tuple.getFieldLength(lastField)));
+                    }
+                    childPages.add(frame.getRightmostChildPageId());
+                } finally {
+                    page.releaseReadLatch();
+                    bufferCache.unpin(page);
+                }
+            }
+            if (keys.size() >= minNumKeys || aboveLeaves) {
+                return keys;
+            }
+            levelPages = childPages;
+        }
+    }
+
     @SuppressWarnings("rawtypes")
     public static String printLeafFrameTuples(IBTreeLeafFrame leafFrame, ISerializerDeserializer[] fieldSerdes)
             throws HyracksDataException {
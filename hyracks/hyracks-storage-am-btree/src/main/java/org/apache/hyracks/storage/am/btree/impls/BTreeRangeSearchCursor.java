@@ -26,9 +26,11 @@ import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.dataflow.common.util.TupleUtils;
 import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
 import org.apache.hyracks.storage.am.common.api.ICursorInitialState;
+import org.apache.hyracks.storage.am.common.api.IFreePageManager;
 import org.apache.hyracks.storage.am.common.api.IIndexAccessor;
 import org.apache.hyracks.storage.am.common.api.ISearchOperationCallback;
 import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexMetaDataFrame;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
 import org.apache.hyracks.storage.am.common.api.IndexException;
@@ -40,17 +42,26 @@ import org.apache.hyracks.storage.common.buffercache.ICachedPage;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 
 public class BTreeRangeSearchCursor implements ITreeIndexCursor {
+    // Leaves are prefetched once this many consecutive leaves were found at consecutive page ids.
+    private static final int SEQUENTIAL_LEAVES_BEFORE_PREFETCH = 4;
+    private static final int PREFETCH_PAGES = 32;
 
     private final IBTreeLeafFrame frame;
     private final ITreeIndexTupleReference frameTuple;
     private final boolean exclusiveLatchNodes;
     private boolean isPageDirty;
+    private boolean pinLeavesOnce;
 
     private IBufferCache bufferCache = null;
     private int fileId = -1;
+    private IFreePageManager freePageManager = null;
+    private ITreeIndexMetaDataFrame metaFrame = null;
 
     private ICachedPage page = null;
     private int pageId = -1; // This is used by the LSMRTree flush operation
+    private int sequentialLeaves = 0;
+    private int prefetchedPageId = -1;
+    private int maxPageId = -1;
 
     private int tupleIndex = 0;
     private int stopTupleIndex;
@@ -81,6 +92,14 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
         this.reconciliationTuple = new ArrayTupleReference();
     }
 
+    /**
+     * Makes the cursor pin the leaves it moves to with a once hint, for scans whose pages should not stay in the
+     * buffer cache, such as the scans of a merge.
+     */
+    public void setPinLeavesOnce(boolean pinLeavesOnce) {
+        this.pinLeavesOnce = pinLeavesOnce;
+    }
+
     @Override
     public void close() throws HyracksDataException {
         if (page != null) {
@@ -117,7 +136,9 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
 
     private void fetchNextLeafPage(int nextLeafPage) throws HyracksDataException {
         do {
-            ICachedPage nextLeaf = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, nextLeafPage), false);
+            prefetchIfSequential(nextLeafPage);
+            long dpid = BufferedFileHandle.getDiskPageId(fileId, nextLeafPage);
+            ICachedPage nextLeaf = pinLeavesOnce ? bufferCache.pinOnce(dpid) : bufferCache.pin(dpid, false);
             if (exclusiveLatchNodes) {
                 nextLeaf.acquireWriteLatch();
                 page.releaseWriteLatch(isPageDirty);
@@ -135,6 +156,45 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
         } while (frame.getTupleCount() == 0 && nextLeafPage > 0);
     }
 
+    /**
+     * Bulk-loaded trees store their leaves at consecutive page ids, so once the leaf chain looks sequential the
+     * following pages are read ahead. The prefetch is issued half a window before the cursor reaches its end.
+     */
+    private void prefetchIfSequential(int nextLeafPage) throws HyracksDataException {
+        if (nextLeafPage != pageId + 1) {
+            sequentialLeaves = 0;
+            return;
+        }
+        if (++sequentialLeaves < SEQUENTIAL_LEAVES_BEFORE_PREFETCH) {
+            return;
+        }
+        if (nextLeafPage + PREFETCH_PAGES / 2 > prefetchedPageId) {
+            int startPageId = Math.max(nextLeafPage + 1, prefetchedPageId + 1);
+            int numPages = Math.min(PREFETCH_PAGES, getMaxPageId(startPageId) - startPageId + 1);
+            if (numPages > 0) {
+                bufferCache.prefetch(fileId, startPageId, numPages);
+            }
+            prefetchedPageId = startPageId + PREFETCH_PAGES - 1;
+        }
+    }
+
+    /**
+     * Returns the last page of the file, which is looked up once per scan and again only if the tree has grown past
+     * it, since the metadata page is only read for scans that turned out to be sequential.
+     */
+    private int getMaxPageId(int pageId) throws HyracksDataException {
+        if (freePageManager == null) {
+            return pageId + PREFETCH_PAGES - 1;
+        }
+        if (maxPageId < pageId) {
+            if (metaFrame == null) {
+                metaFrame = freePageManager.getMetaDataFrameFactory().createFrame();
+            }
+            maxPageId = freePageManager.getMaxPage(metaFrame);
+        }
+        return maxPageId;
+    }
+
     @Override
     public boolean hasNext() throws HyracksDataException {
         int nextLeafPage;
@@ -258,11 +318,41 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
         searchCb = initialState.getSearchOperationCallback();
         originalKeyCmp = initialState.getOriginalKeyComparator();
         pageId = ((BTreeCursorInitialState) initialState).getPageId();
+        sequentialLeaves = 0;
+        prefetchedPageId = -1;
+        maxPageId = -1;
         page = initialState.getPage();
         isPageDirty = false;
         frame.setPage(page);
+        setPredicate((RangePredicate) searchPred);
+    }
+
+    /**
+     * Moves the cursor to the tuples of another point search if its key lies between the first and the last key of
+     * the leaf the cursor is on. The leaf stays latched between the searches, so this is only meant for the trees
+     * that do not change, such as the disk components of an LSM index.
+     *
+     * @return false if the key is not on the current leaf, and the tree has to be searched again
+     */
+    public boolean searchCurrentLeaf(RangePredicate searchPred) throws HyracksDataException {
+        if (page == null || frame.getTupleCount() == 0) {
+            return false;
+        }
+        MultiComparator cmp = searchPred.getLowKeyComparator();
+        frameTuple.resetByTupleIndex(frame, 0);
+        if (cmp.compare(searchPred.getLowKey(), frameTuple) < 0) {
+            return false;
+        }
+        frameTuple.resetByTupleIndex(frame, frame.getTupleCount() - 1);
+        if (cmp.compare(searchPred.getLowKey(), frameTuple) > 0) {
+            return false;
+        }
+        setPredicate(searchPred);
+        return true;
+    }
 
-        pred = (RangePredicate) searchPred;
+    private void setPredicate(RangePredicate searchPred) throws HyracksDataException {
+        pred = searchPred;
         lowKeyCmp = pred.getLowKeyComparator();
         highKeyCmp = pred.getHighKeyComparator();
         lowKey = pred.getLowKey();
@@ -305,6 +395,16 @@ public class BTreeRangeSearchCursor implements ITreeIndexCursor {
         this.fileId = fileId;
     }
 
+    /**
+     * Sets the free page manager of the tree, which bounds the read ahead by the last page of the file.
+     */
+    public void setFreePageManager(IFreePageManager freePageManager) {
+        if (this.freePageManager != freePageManager) {
+            this.freePageManager = freePageManager;
+            metaFrame = null;
+        }
+    }
+
     @Override
     public boolean exclusiveLatchNodes() {
         return exclusiveLatchNodes;
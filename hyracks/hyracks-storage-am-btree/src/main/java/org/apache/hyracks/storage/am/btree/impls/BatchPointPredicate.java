@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree.impls;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.impls.AbstractSearchPredicate;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+
+/**
+ * A batch of point searches on full keys. The keys can come in any order, but a batch in ascending key order lets the
+ * cursor find the consecutive keys on the leaves it is already on.
+ */
+public class BatchPointPredicate extends AbstractSearchPredicate {
+
+    private static final long serialVersionUID = 1L;
+
+    protected MultiComparator keyCmp;
+    protected ITupleReference[] keys = new ITupleReference[0];
+    protected int numKeys = 0;
+
+    public BatchPointPredicate(MultiComparator keyCmp) {
+        this.keyCmp = keyCmp;
+    }
+
+    public void reset() {
+        Arrays.fill(keys, 0, numKeys, null);
+        numKeys = 0;
+    }
+
+    public void addKey(ITupleReference key) {
+        if (numKeys == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(16, keys.length * 2));
+        }
+        keys[numKeys++] = key;
+    }
+
+    public int getNumKeys() {
+        return numKeys;
+    }
+
+    public ITupleReference getKey(int keyIndex) {
+        return keys[keyIndex];
+    }
+
+    @Override
+    public MultiComparator getLowKeyComparator() {
+        return keyCmp;
+    }
+
+    @Override
+    public MultiComparator getHighKeyComparator() {
+        return keyCmp;
+    }
+}
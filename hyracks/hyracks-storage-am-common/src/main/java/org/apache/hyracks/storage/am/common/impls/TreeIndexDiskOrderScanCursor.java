@@ -30,11 +30,13 @@ import org.apache.hyracks.storage.common.buffercache.ICachedPage;
 import org.apache.hyracks.storage.common.file.BufferedFileHandle;
 
 public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
+    private static final int PREFETCH_PAGES = 32;
 
     private int tupleIndex = 0;
     private int fileId = -1;
     private int currentPageId = -1;
     private int maxPageId = -1;
+    private int prefetchedPageId = -1;
     private ICachedPage page = null;
     private IBufferCache bufferCache = null;
 
@@ -66,11 +68,12 @@ public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
     private boolean positionToNextLeaf(boolean skipCurrent) throws HyracksDataException {
         while ((frame.getLevel() != 0 || skipCurrent || frame.getTupleCount() == 0) && (currentPageId <= maxPageId)) {
             currentPageId++;
+            prefetch();
 
             page.releaseReadLatch();
             bufferCache.unpin(page);
 
-            ICachedPage nextPage = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, currentPageId), false);
+            ICachedPage nextPage = bufferCache.pinOnce(BufferedFileHandle.getDiskPageId(fileId, currentPageId));
             nextPage.acquireReadLatch();
 
             page = nextPage;
@@ -85,6 +88,20 @@ public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
         }
     }
 
+    /**
+     * Reads the next pages ahead of the scan, half a window before it reaches the end of the last prefetch.
+     */
+    private void prefetch() throws HyracksDataException {
+        if (currentPageId + PREFETCH_PAGES / 2 > prefetchedPageId && prefetchedPageId < maxPageId) {
+            int startPageId = Math.max(currentPageId + 1, prefetchedPageId + 1);
+            int numPages = Math.min(PREFETCH_PAGES, maxPageId - startPageId + 1);
+            if (numPages > 0) {
+                bufferCache.prefetch(fileId, startPageId, numPages);
+            }
+            prefetchedPageId = startPageId + numPages - 1;
+        }
+    }
+
     @Override
     public boolean hasNext() throws HyracksDataException {
         if (currentPageId > maxPageId) {
@@ -117,6 +134,7 @@ public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
         }
         page = initialState.getPage();
         tupleIndex = 0;
+        prefetchedPageId = -1;
         frame.setPage(page);
         positionToNextLeaf(false);
     }
@@ -126,6 +144,7 @@ public class TreeIndexDiskOrderScanCursor implements ITreeIndexCursor {
         tupleIndex = 0;
         currentPageId = -1;
         maxPageId = -1;
+        prefetchedPageId = -1;
         page = null;
     }
 
@@ -31,6 +31,7 @@ import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
 import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentVersion;
 
 public class ExternalBTreeOpContext implements ILSMIndexOperationContext {
     public ITreeIndexFrameFactory insertLeafFrameFactory;
@@ -44,6 +45,7 @@ public class ExternalBTreeOpContext implements ILSMIndexOperationContext {
     private final List<ILSMComponent> componentHolder;
     private final List<ILSMComponent> componentsToBeMerged;
     private final List<ILSMComponent> componentsToBeReplicated;
+    private LSMComponentVersion componentVersion;
     private final int targetIndexVersion;
     public ISearchPredicate searchPredicate;
 
@@ -136,4 +138,14 @@ public class ExternalBTreeOpContext implements ILSMIndexOperationContext {
         return componentsToBeReplicated;
     }
 
+    @Override
+    public void setComponentVersion(LSMComponentVersion componentVersion) {
+        this.componentVersion = componentVersion;
+    }
+
+    @Override
+    public LSMComponentVersion getComponentVersion() {
+        return componentVersion;
+    }
+
 }
\ No newline at end of file
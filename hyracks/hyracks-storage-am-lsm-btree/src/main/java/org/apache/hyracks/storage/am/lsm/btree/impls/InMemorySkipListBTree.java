@@ -0,0 +1,657 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.storage.am.btree.api.ITupleAcceptor;
+import org.apache.hyracks.storage.am.btree.impls.BTree;
+import org.apache.hyracks.storage.am.btree.impls.BTreeOpContext;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.btree.impls.UnconditionalTupleAcceptor;
+import org.apache.hyracks.storage.am.common.api.ICursorInitialState;
+import org.apache.hyracks.storage.am.common.api.IFreePageManager;
+import org.apache.hyracks.storage.am.common.api.IIndexCursor;
+import org.apache.hyracks.storage.am.common.api.IModificationOperationCallback;
+import org.apache.hyracks.storage.am.common.api.ISearchOperationCallback;
+import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexAccessor;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexMetaDataFrame;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleWriter;
+import org.apache.hyracks.storage.am.common.api.TreeIndexException;
+import org.apache.hyracks.storage.am.common.exceptions.TreeIndexDuplicateKeyException;
+import org.apache.hyracks.storage.am.common.exceptions.TreeIndexNonExistentKeyException;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+import org.apache.hyracks.storage.am.common.tuples.TypeAwareTupleWriter;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.IFileMapProvider;
+
+/**
+ * A memory component index that keeps its entries in a lock-free skip list instead of B-tree pages. The tuples are
+ * appended to pages of the virtual buffer cache that are used as an arena, so the memory accounting of the memory
+ * component is unchanged, and the skip list nodes only point into the arena.
+ * Writers never latch: a new key is linked into the bottom level with a compare-and-swap, and a new version of an
+ * existing key replaces the node's tuple pointer with a compare-and-swap. Nodes are never unlinked, a physical delete
+ * only clears the tuple pointer, since the whole component is reset after it is flushed.
+ * The nodes and tuple pointers live on the heap, so the arena reserves an estimate of their size next to the tuples,
+ * and the component fills up its share of the virtual buffer cache when its heap use, and not only its tuples, does.
+ * The index keeps the BTree accessor and cursor contracts, so the LSM-BTree can use it as a drop-in memory component.
+ */
+public class InMemorySkipListBTree extends BTree {
+    private static final int MAX_LEVEL = 24;
+    // Estimated heap size of a node without its levels, of one level of a node, and of a tuple pointer.
+    private static final int NODE_OVERHEAD = 48;
+    private static final int LEVEL_OVERHEAD = 8;
+    private static final int SLOT_OVERHEAD = 24;
+
+    private final Object arenaLock = new Object();
+    private final ITreeIndexMetaDataFrame metaFrame;
+    private final int pageSize;
+    private final AtomicInteger numEntries = new AtomicInteger();
+    private volatile Node head;
+    private volatile ArenaPage arenaPage;
+
+    public InMemorySkipListBTree(IBufferCache virtualBufferCache, IFileMapProvider fileMapProvider,
+            IFreePageManager freePageManager, ITreeIndexFrameFactory interiorFrameFactory,
+            ITreeIndexFrameFactory leafFrameFactory, IBinaryComparatorFactory[] cmpFactories, int fieldCount,
+            FileReference file) {
+        super(virtualBufferCache, fileMapProvider, freePageManager, interiorFrameFactory, leafFrameFactory,
+                cmpFactories, fieldCount, file);
+        this.metaFrame = freePageManager.getMetaDataFrameFactory().createFrame();
+        this.pageSize = virtualBufferCache.getPageSize();
+        resetSkipList();
+    }
+
+    @Override
+    public synchronized void create() throws HyracksDataException {
+        super.create();
+        resetSkipList();
+    }
+
+    @Override
+    public synchronized void clear() throws HyracksDataException {
+        super.clear();
+        resetSkipList();
+    }
+
+    private void resetSkipList() {
+        head = new Node(null, MAX_LEVEL);
+        arenaPage = null;
+        numEntries.set(0);
+    }
+
+    public int getNumEntries() {
+        return numEntries.get();
+    }
+
+    @Override
+    public void validate() throws HyracksDataException {
+        MultiComparator cmp = MultiComparator.create(cmpFactories);
+        ITreeIndexTupleReference prevTuple = leafFrameFactory.createFrame().createTupleReference();
+        ITreeIndexTupleReference tuple = leafFrameFactory.createFrame().createTupleReference();
+        Node prev = null;
+        for (Node node = head.next(0); node != null; node = node.next(0)) {
+            if (prev != null) {
+                prevTuple.resetByTupleOffset(prev.keySlot.buffer, prev.keySlot.offset);
+                tuple.resetByTupleOffset(node.keySlot.buffer, node.keySlot.offset);
+                if (cmp.compare(prevTuple, tuple) >= 0) {
+                    throw new HyracksDataException("Skip list entries are out of order.");
+                }
+            }
+            prev = node;
+        }
+    }
+
+    @Override
+    public ITreeIndexAccessor createAccessor(IModificationOperationCallback modificationCallback,
+            ISearchOperationCallback searchCallback) {
+        return new SkipListAccessor(this, modificationCallback, searchCallback);
+    }
+
+    private TupleSlot writeTuple(ITupleReference tuple, ITreeIndexTupleWriter tupleWriter)
+            throws HyracksDataException, TreeIndexException {
+        int tupleSize = tupleWriter.bytesRequired(tuple) + getMissingFieldsSize(tuple, tupleWriter);
+        if (tupleSize > pageSize) {
+            throw new TreeIndexException("Space required for record (" + tupleSize
+                    + ") larger than maximum acceptable size (" + pageSize + ")");
+        }
+        TupleSlot slot = allocate(Math.min(tupleSize + SLOT_OVERHEAD, pageSize));
+        tupleWriter.writeTuple(tuple, slot.buffer, slot.offset);
+        return slot;
+    }
+
+    /**
+     * A tuple with fewer fields than the index, such as one projected on the B-tree fields of a filtered index, is
+     * read back with the field count of the index. The B-tree pages absorb the trailing fields that such a read
+     * runs into, so the arena reserves room for them too.
+     */
+    private int getMissingFieldsSize(ITupleReference tuple, ITreeIndexTupleWriter tupleWriter)
+            throws TreeIndexException {
+        if (tuple.getFieldCount() >= fieldCount || !(tupleWriter instanceof TypeAwareTupleWriter)) {
+            return 0;
+        }
+        ITypeTraits[] typeTraits = ((TypeAwareTupleWriter) tupleWriter).getTypeTraits();
+        int size = 0;
+        for (int i = tuple.getFieldCount(); i < fieldCount; i++) {
+            if (!typeTraits[i].isFixedLength()) {
+                throw new TreeIndexException("Tuple has " + tuple.getFieldCount() + " fields, but field " + i
+                        + " of the skip list is of variable length");
+            }
+            size += typeTraits[i].getFixedLength();
+        }
+        return size;
+    }
+
+    private TupleSlot allocate(int size) throws HyracksDataException {
+        while (true) {
+            ArenaPage page = arenaPage;
+            if (page != null) {
+                int offset = page.used.getAndAdd(size);
+                if (offset + size <= pageSize) {
+                    return new TupleSlot(page.buffer, offset);
+                }
+            }
+            // Only switching to a new page takes the lock.
+            synchronized (arenaLock) {
+                if (arenaPage == page) {
+                    // The pages of the virtual buffer cache stay resident until the component is reset.
+                    ICachedPage cPage = bufferCache.pin(
+                            BufferedFileHandle.getDiskPageId(fileId, freePageManager.getFreePage(metaFrame)), true);
+                    arenaPage = new ArenaPage(cPage.getBuffer());
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the node holding the key of the given tuple, and the nodes around it on every level.
+     *
+     * @return the node of the key, or null if the key is not in the skip list
+     */
+    private Node findNode(ITupleReference key, MultiComparator cmp, ITreeIndexTupleReference nodeTuple, Node[] preds,
+            Node[] succs) throws HyracksDataException {
+        Node pred = head;
+        Node found = null;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node node = pred.next(level);
+            while (node != null) {
+                int c = compare(cmp, key, node, nodeTuple);
+                if (c > 0) {
+                    pred = node;
+                    node = node.next(level);
+                } else {
+                    if (c == 0) {
+                        found = node;
+                    }
+                    break;
+                }
+            }
+            if (preds != null) {
+                preds[level] = pred;
+                succs[level] = node;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the first node that is after the low key of the predicate
+     */
+    private Node findFirst(RangePredicate pred, ITreeIndexTupleReference nodeTuple) throws HyracksDataException {
+        ITupleReference lowKey = pred.getLowKey();
+        if (lowKey == null) {
+            return head.next(0);
+        }
+        MultiComparator lowKeyCmp = pred.getLowKeyComparator();
+        boolean inclusive = pred.isLowKeyInclusive();
+        Node pred0 = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node node = pred0.next(level);
+            while (node != null) {
+                int c = compare(lowKeyCmp, lowKey, node, nodeTuple);
+                if (c > 0 || (c == 0 && !inclusive)) {
+                    pred0 = node;
+                    node = node.next(level);
+                } else {
+                    break;
+                }
+            }
+        }
+        return pred0.next(0);
+    }
+
+    private static int compare(MultiComparator cmp, ITupleReference key, Node node,
+            ITreeIndexTupleReference nodeTuple) throws HyracksDataException {
+        // All the versions of a node have the same key, so any of them can be compared.
+        TupleSlot slot = node.keySlot;
+        nodeTuple.resetByTupleOffset(slot.buffer, slot.offset);
+        return cmp.compare(key, nodeTuple);
+    }
+
+    private static int randomLevel() {
+        int level = 1 + Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt());
+        return Math.min(level, MAX_LEVEL);
+    }
+
+    private void put(ITupleReference tuple, BTreeOpContext ctx, ITupleAcceptor acceptor, boolean mustExist,
+            ITreeIndexTupleReference nodeTuple, ITreeIndexTupleReference beforeTuple, Node[] preds, Node[] succs)
+            throws HyracksDataException, TreeIndexException {
+        ctx.modificationCallback.before(tuple);
+        TupleSlot newSlot = null;
+        Node newNode = null;
+        while (true) {
+            Node node = findNode(tuple, ctx.cmp, nodeTuple, preds, succs);
+            TupleSlot oldSlot = node == null ? null : node.slot;
+            ITupleReference before = null;
+            if (oldSlot != null) {
+                beforeTuple.resetByTupleOffset(oldSlot.buffer, oldSlot.offset);
+                before = beforeTuple;
+            }
+            if (before == null && mustExist) {
+                throw new TreeIndexNonExistentKeyException("Trying to update a tuple with a nonexistent key.");
+            }
+            if (before != null && (acceptor == null || !acceptor.accept(before))) {
+                throw new TreeIndexDuplicateKeyException("Trying to insert duplicate key into skip list.");
+            }
+            if (newSlot == null) {
+                newSlot = writeTuple(tuple, ctx.leafFrame.getTupleWriter());
+            }
+            if (node != null) {
+                if (Node.SLOT_UPDATER.compareAndSet(node, oldSlot, newSlot)) {
+                    if (oldSlot == null) {
+                        numEntries.incrementAndGet();
+                    }
+                    ctx.modificationCallback.found(before, tuple);
+                    return;
+                }
+                continue;
+            }
+            if (newNode == null) {
+                int height = randomLevel();
+                allocate(Math.min(NODE_OVERHEAD + LEVEL_OVERHEAD * height, pageSize));
+                newNode = new Node(newSlot, height);
+            }
+            for (int level = 0; level < newNode.height(); level++) {
+                newNode.next.set(level, succs[level]);
+            }
+            if (!preds[0].next.compareAndSet(0, succs[0], newNode)) {
+                continue;
+            }
+            numEntries.incrementAndGet();
+            ctx.modificationCallback.found(null, tuple);
+            linkUpperLevels(newNode, tuple, ctx.cmp, nodeTuple, preds, succs);
+            return;
+        }
+    }
+
+    /**
+     * Links a node that is already in the bottom level into the upper levels. The upper levels are only shortcuts, so
+     * a node that loses a race on a level is linked again after the neighbors of the key are found again.
+     */
+    private void linkUpperLevels(Node newNode, ITupleReference key, MultiComparator cmp,
+            ITreeIndexTupleReference nodeTuple, Node[] preds, Node[] succs) throws HyracksDataException {
+        for (int level = 1; level < newNode.height(); level++) {
+            while (true) {
+                Node succ = succs[level];
+                // The node is not reachable on this level yet, nobody else writes its pointer.
+                newNode.next.set(level, succ);
+                if (preds[level].next.compareAndSet(level, succ, newNode)) {
+                    break;
+                }
+                findNode(key, cmp, nodeTuple, preds, succs);
+            }
+        }
+    }
+
+    private void remove(ITupleReference tuple, BTreeOpContext ctx, ITreeIndexTupleReference nodeTuple,
+            ITreeIndexTupleReference beforeTuple) throws HyracksDataException, TreeIndexException {
+        ctx.modificationCallback.before(tuple);
+        while (true) {
+            Node node = findNode(tuple, ctx.cmp, nodeTuple, null, null);
+            TupleSlot oldSlot = node == null ? null : node.slot;
+            if (oldSlot == null) {
+                throw new TreeIndexNonExistentKeyException("Trying to delete a tuple with a nonexistent key.");
+            }
+            beforeTuple.resetByTupleOffset(oldSlot.buffer, oldSlot.offset);
+            if (Node.SLOT_UPDATER.compareAndSet(node, oldSlot, null)) {
+                numEntries.decrementAndGet();
+                ctx.modificationCallback.found(beforeTuple, tuple);
+                return;
+            }
+        }
+    }
+
+    public class SkipListAccessor extends BTreeAccessor {
+        private final BTreeOpContext ctx;
+        private final ITreeIndexTupleReference nodeTuple;
+        private final ITreeIndexTupleReference beforeTuple;
+        private final Node[] preds = new Node[MAX_LEVEL];
+        private final Node[] succs = new Node[MAX_LEVEL];
+
+        public SkipListAccessor(InMemorySkipListBTree skipList, IModificationOperationCallback modificationCallback,
+                ISearchOperationCallback searchCallback) {
+            super(skipList, modificationCallback, searchCallback);
+            this.ctx = getOpContext();
+            this.nodeTuple = leafFrameFactory.createFrame().createTupleReference();
+            this.beforeTuple = leafFrameFactory.createFrame().createTupleReference();
+        }
+
+        @Override
+        public void insert(ITupleReference tuple) throws HyracksDataException, TreeIndexException {
+            put(tuple, ctx, null, false, nodeTuple, beforeTuple, preds, succs);
+        }
+
+        @Override
+        public void update(ITupleReference tuple) throws HyracksDataException, TreeIndexException {
+            put(tuple, ctx, UnconditionalTupleAcceptor.INSTANCE, true, nodeTuple, beforeTuple, preds, succs);
+        }
+
+        @Override
+        public void delete(ITupleReference tuple) throws HyracksDataException, TreeIndexException {
+            remove(tuple, ctx, nodeTuple, beforeTuple);
+        }
+
+        @Override
+        public void upsertIfConditionElseInsert(ITupleReference tuple, ITupleAcceptor acceptor)
+                throws HyracksDataException, TreeIndexException {
+            put(tuple, ctx, acceptor, false, nodeTuple, beforeTuple, preds, succs);
+        }
+
+        @Override
+        public ITreeIndexCursor createSearchCursor(boolean exclusive) {
+            return new SkipListRangeSearchCursor(leafFrameFactory.createFrame().createTupleReference());
+        }
+
+        @Override
+        public void search(IIndexCursor cursor, ISearchPredicate searchPred) throws HyracksDataException,
+                TreeIndexException {
+            RangePredicate pred = (RangePredicate) searchPred;
+            if (pred.getLowKeyComparator() == null) {
+                pred.setLowKeyComparator(ctx.cmp);
+            }
+            if (pred.getHighKeyComparator() == null) {
+                pred.setHighKeyComparator(ctx.cmp);
+            }
+            if (cursor instanceof SkipListCountingCursor) {
+                ((SkipListCountingCursor) cursor).open(null, pred);
+            } else {
+                ((SkipListRangeSearchCursor) cursor).open(null, pred);
+            }
+        }
+
+        @Override
+        public ITreeIndexCursor createDiskOrderScanCursor() {
+            return createSearchCursor(false);
+        }
+
+        @Override
+        public void diskOrderScan(ITreeIndexCursor cursor) throws HyracksDataException {
+            ((SkipListRangeSearchCursor) cursor).open(null, new RangePredicate(null, null, true, true, ctx.cmp,
+                    ctx.cmp));
+        }
+
+        @Override
+        public ITreeIndexCursor createCountingSearchCursor() {
+            return new SkipListCountingCursor(new SkipListRangeSearchCursor(leafFrameFactory.createFrame()
+                    .createTupleReference()));
+        }
+    }
+
+    /**
+     * Iterates the bottom level of the skip list. The iteration is weakly consistent: it sees the keys that were
+     * linked before it passed their position, and the latest version of every key when it reaches it.
+     */
+    private class SkipListRangeSearchCursor implements ITreeIndexCursor {
+        private final ITreeIndexTupleReference tuple;
+        private RangePredicate pred;
+        private Node node;
+        private boolean hasNext;
+
+        public SkipListRangeSearchCursor(ITreeIndexTupleReference tuple) {
+            this.tuple = tuple;
+        }
+
+        @Override
+        public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+            pred = (RangePredicate) searchPred;
+            node = findFirst(pred, tuple);
+            hasNext = false;
+        }
+
+        @Override
+        public boolean hasNext() throws HyracksDataException {
+            if (hasNext) {
+                return true;
+            }
+            while (node != null) {
+                TupleSlot slot = node.slot;
+                if (slot == null) {
+                    node = node.next(0);
+                    continue;
+                }
+                tuple.resetByTupleOffset(slot.buffer, slot.offset);
+                ITupleReference highKey = pred.getHighKey();
+                if (highKey != null) {
+                    int c = pred.getHighKeyComparator().compare(highKey, tuple);
+                    if (c < 0 || (c == 0 && !pred.isHighKeyInclusive())) {
+                        node = null;
+                        return false;
+                    }
+                }
+                hasNext = true;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void next() throws HyracksDataException {
+            hasNext = false;
+            node = node.next(0);
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+            node = null;
+            hasNext = false;
+        }
+
+        @Override
+        public void reset() throws HyracksDataException {
+            close();
+        }
+
+        @Override
+        public ITupleReference getTuple() {
+            return tuple;
+        }
+
+        @Override
+        public ICachedPage getPage() {
+            return null;
+        }
+
+        @Override
+        public void setBufferCache(IBufferCache bufferCache) {
+            // Do nothing
+        }
+
+        @Override
+        public void setFileId(int fileId) {
+            // Do nothing
+        }
+
+        @Override
+        public boolean exclusiveLatchNodes() {
+            return false;
+        }
+
+        @Override
+        public void markCurrentTupleAsUpdated() throws HyracksDataException {
+            throw new HyracksDataException("Updating tuples is not supported with this cursor.");
+        }
+    }
+
+    /**
+     * Returns a single tuple with the number of entries in the range, like the BTree counting cursor. A full range is
+     * answered from the entry counter, so a flush does not scan the skip list twice.
+     */
+    private class SkipListCountingCursor implements ITreeIndexCursor {
+        private final SkipListRangeSearchCursor rangeCursor;
+        private final ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(1);
+        private final ArrayTupleReference countTuple = new ArrayTupleReference();
+        private int count = -1;
+
+        public SkipListCountingCursor(SkipListRangeSearchCursor rangeCursor) {
+            this.rangeCursor = rangeCursor;
+        }
+
+        @Override
+        public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+            RangePredicate pred = (RangePredicate) searchPred;
+            if (pred.getLowKey() == null && pred.getHighKey() == null) {
+                count = numEntries.get();
+                return;
+            }
+            count = 0;
+            rangeCursor.open(initialState, searchPred);
+            try {
+                while (rangeCursor.hasNext()) {
+                    rangeCursor.next();
+                    count++;
+                }
+            } finally {
+                rangeCursor.close();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return count >= 0;
+        }
+
+        @Override
+        public void next() throws HyracksDataException {
+            tupleBuilder.reset();
+            tupleBuilder.addField(IntegerSerializerDeserializer.INSTANCE, count);
+            countTuple.reset(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray());
+            count = -1;
+        }
+
+        @Override
+        public void close() {
+            count = -1;
+        }
+
+        @Override
+        public void reset() {
+            close();
+        }
+
+        @Override
+        public ITupleReference getTuple() {
+            return countTuple;
+        }
+
+        @Override
+        public ICachedPage getPage() {
+            return null;
+        }
+
+        @Override
+        public void setBufferCache(IBufferCache bufferCache) {
+            // Do nothing
+        }
+
+        @Override
+        public void setFileId(int fileId) {
+            // Do nothing
+        }
+
+        @Override
+        public boolean exclusiveLatchNodes() {
+            return false;
+        }
+
+        @Override
+        public void markCurrentTupleAsUpdated() throws HyracksDataException {
+            throw new HyracksDataException("Updating tuples is not supported with this cursor.");
+        }
+    }
+
+    private static final class TupleSlot {
+        private final ByteBuffer buffer;
+        private final int offset;
+
+        private TupleSlot(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+    }
+
+    private static final class ArenaPage {
+        private final ByteBuffer buffer;
+        private final AtomicInteger used = new AtomicInteger();
+
+        private ArenaPage(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class Node {
+        private static final AtomicReferenceFieldUpdater<Node, TupleSlot> SLOT_UPDATER = AtomicReferenceFieldUpdater
+                .newUpdater(Node.class, TupleSlot.class, "slot");
+
+        // The first version, kept for the key comparisons after the node is physically deleted.
+        private final TupleSlot keySlot;
+        private final AtomicReferenceArray<Node> next;
+        volatile TupleSlot slot;
+
+        private Node(TupleSlot slot, int height) {
+            this.keySlot = slot;
+            this.slot = slot;
+            this.next = new AtomicReferenceArray<Node>(height);
+        }
+
+        private Node next(int level) {
+            return next.get(level);
+        }
+
+        private int height() {
+            return next.length();
+        }
+    }
+}
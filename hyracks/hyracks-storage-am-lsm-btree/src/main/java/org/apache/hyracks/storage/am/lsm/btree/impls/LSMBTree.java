@@ -24,6 +24,10 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
@@ -32,12 +36,15 @@ import org.apache.hyracks.data.std.primitive.IntegerPointable;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomCalculations;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter.AbstractBloomFilterBuilder;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilterFactory;
 import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilterSpecification;
+import org.apache.hyracks.storage.am.btree.api.IBatchPointSearchAccessor;
+import org.apache.hyracks.storage.am.btree.api.IBatchPointSearchCursor;
 import org.apache.hyracks.storage.am.btree.impls.BTree;
 import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
 import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeBulkLoader;
-import org.apache.hyracks.storage.am.btree.impls.BTreeRangeSearchCursor;
+import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeParallelBulkLoader;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
 import org.apache.hyracks.storage.am.common.api.IFreePageManager;
 import org.apache.hyracks.storage.am.common.api.IIndexAccessor;
@@ -78,6 +85,7 @@ import org.apache.hyracks.storage.am.lsm.common.impls.AbstractLSMIndex;
 import org.apache.hyracks.storage.am.lsm.common.impls.BlockingIOOperationCallbackWrapper;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentFileReferences;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentFilterManager;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMHarness;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMIndexSearchCursor;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMTreeIndexAccessor;
 import org.apache.hyracks.storage.am.lsm.common.impls.TreeIndexFactory;
@@ -85,6 +93,8 @@ import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 import org.apache.hyracks.storage.common.file.IFileMapProvider;
 
 public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
+    // A merge charges the bytes it wrote to the write rate limit of the IO scheduler in chunks of this size.
+    private static final int MERGE_THROTTLE_BYTES = 64 * 1024;
 
     // For creating BTree's used in flush and merge.
     protected final LSMBTreeDiskComponentFactory componentFactory;
@@ -99,6 +109,8 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
 
     private final boolean needKeyDupCheck;
     private final int[] btreeFields;
+    private int mergeParallelism = 1;
+    private Executor mergeExecutor;
 
     public LSMBTree(List<IVirtualBufferCache> virtualBufferCaches, ITreeIndexFrameFactory interiorFrameFactory,
             ITreeIndexFrameFactory insertLeafFrameFactory, ITreeIndexFrameFactory deleteLeafFrameFactory,
@@ -110,17 +122,46 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
             ILSMIOOperationCallback ioOpCallback, boolean needKeyDupCheck, int[] btreeFields, int[] filterFields,
             boolean durable) {
+        this(virtualBufferCaches, interiorFrameFactory, insertLeafFrameFactory, deleteLeafFrameFactory, fileManager,
+                diskBTreeFactory, bulkLoadBTreeFactory, bloomFilterFactory, filterFactory, filterFrameFactory,
+                filterManager, bloomFilterFalsePositiveRate, diskFileMapProvider, fieldCount, cmpFactories,
+                mergePolicy, opTracker, ioScheduler, ioOpCallback, needKeyDupCheck, btreeFields, filterFields, durable,
+                false);
+    }
+
+    /**
+     * @param skipListMemoryComponents
+     *            keep the memory components in lock-free skip lists ({@link InMemorySkipListBTree}) rather than in
+     *            B-trees, for indexes that are written by many threads
+     */
+    public LSMBTree(List<IVirtualBufferCache> virtualBufferCaches, ITreeIndexFrameFactory interiorFrameFactory,
+            ITreeIndexFrameFactory insertLeafFrameFactory, ITreeIndexFrameFactory deleteLeafFrameFactory,
+            ILSMIndexFileManager fileManager, TreeIndexFactory<BTree> diskBTreeFactory,
+            TreeIndexFactory<BTree> bulkLoadBTreeFactory, BloomFilterFactory bloomFilterFactory,
+            ILSMComponentFilterFactory filterFactory, ILSMComponentFilterFrameFactory filterFrameFactory,
+            LSMComponentFilterManager filterManager, double bloomFilterFalsePositiveRate,
+            IFileMapProvider diskFileMapProvider, int fieldCount, IBinaryComparatorFactory[] cmpFactories,
+            ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, ILSMIOOperationScheduler ioScheduler,
+            ILSMIOOperationCallback ioOpCallback, boolean needKeyDupCheck, int[] btreeFields, int[] filterFields,
+            boolean durable, boolean skipListMemoryComponents) {
         super(virtualBufferCaches, diskBTreeFactory.getBufferCache(), fileManager, diskFileMapProvider,
                 bloomFilterFalsePositiveRate, mergePolicy, opTracker, ioScheduler, ioOpCallback, filterFrameFactory,
                 filterManager, filterFields, durable);
         int i = 0;
         for (IVirtualBufferCache virtualBufferCache : virtualBufferCaches) {
-            LSMBTreeMemoryComponent mutableComponent = new LSMBTreeMemoryComponent(new BTree(virtualBufferCache,
-                    virtualBufferCache.getFileMapProvider(), new VirtualFreePageManager(
-                            virtualBufferCache.getNumPages()), interiorFrameFactory, insertLeafFrameFactory,
-                    cmpFactories, fieldCount, new FileReference(new File(fileManager.getBaseDir() + "_virtual_" + i))),
-                    virtualBufferCache, i == 0 ? true : false, filterFactory == null ? null
-                            : filterFactory.createLSMComponentFilter());
+            FileReference memFile = new FileReference(new File(fileManager.getBaseDir() + "_virtual_" + i));
+            BTree memBTree;
+            if (skipListMemoryComponents) {
+                memBTree = new InMemorySkipListBTree(virtualBufferCache, virtualBufferCache.getFileMapProvider(),
+                        new VirtualFreePageManager(virtualBufferCache.getNumPages()), interiorFrameFactory,
+                        insertLeafFrameFactory, cmpFactories, fieldCount, memFile);
+            } else {
+                memBTree = new BTree(virtualBufferCache, virtualBufferCache.getFileMapProvider(),
+                        new VirtualFreePageManager(virtualBufferCache.getNumPages()), interiorFrameFactory,
+                        insertLeafFrameFactory, cmpFactories, fieldCount, memFile);
+            }
+            LSMBTreeMemoryComponent mutableComponent = new LSMBTreeMemoryComponent(memBTree, virtualBufferCache,
+                    i == 0 ? true : false, filterFactory == null ? null : filterFactory.createLSMComponentFilter());
             memoryComponents.add(mutableComponent);
             ++i;
         }
@@ -215,6 +256,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             }
         }
 
+        ((LSMHarness) lsmHarness).invalidateComponentVersion();
         List<ILSMComponent> immutableComponents = diskComponents;
         for (ILSMComponent c : immutableComponents) {
             LSMBTreeDiskComponent component = (LSMBTreeDiskComponent) c;
@@ -261,6 +303,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         if (!isActivated) {
             throw new HyracksDataException("Failed to clear the index since it is not activated.");
         }
+        ((LSMHarness) lsmHarness).invalidateComponentVersion();
 
         List<ILSMComponent> immutableComponents = diskComponents;
         for (ILSMComponent c : memoryComponents) {
@@ -381,7 +424,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         LSMBTreeMemoryComponent mutableComponent = (LSMBTreeMemoryComponent) c;
         MultiComparator comparator = MultiComparator.create(mutableComponent.getBTree().getComparatorFactories());
         LSMBTreePointSearchCursor searchCursor = new LSMBTreePointSearchCursor(ctx);
-        IIndexCursor memCursor = new BTreeRangeSearchCursor(ctx.currentMutableBTreeOpCtx.leafFrame, false);
+        IIndexCursor memCursor = ctx.currentMutableBTreeAccessor.createSearchCursor(false);
         RangePredicate predicate = new RangePredicate(tuple, tuple, true, true, comparator, comparator);
 
         if (needKeyDupCheck) {
@@ -521,7 +564,9 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
                 .size() - 1)) {
             returnDeletedTuples = true;
         }
-        ITreeIndexCursor cursor = new LSMBTreeRangeSearchCursor(opCtx, returnDeletedTuples);
+        LSMBTreeRangeSearchCursor cursor = new LSMBTreeRangeSearchCursor(opCtx, returnDeletedTuples);
+        // The merge reads every page of the merging components once, keep it from flushing the hot pages out.
+        cursor.setPinLeavesOnce(true);
         BTree firstBTree = ((LSMBTreeDiskComponent) mergingComponents.get(0)).getBTree();
         BTree lastBTree = ((LSMBTreeDiskComponent) mergingComponents.get(mergingComponents.size() - 1)).getBTree();
         FileReference firstFile = diskFileMapProvider.lookupFileName(firstBTree.getFileId());
@@ -537,12 +582,16 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
     @Override
     public ILSMComponent merge(ILSMIOOperation operation) throws HyracksDataException, IndexException {
         LSMBTreeMergeOperation mergeOp = (LSMBTreeMergeOperation) operation;
+        List<ILSMComponent> mergedComponents = mergeOp.getMergingComponents();
+        List<ITupleReference> splitKeys = getMergeSplitKeys(mergedComponents);
         ITreeIndexCursor cursor = mergeOp.getCursor();
-        RangePredicate rangePred = new RangePredicate(null, null, true, true, null, null);
+        // The components are also needed in the holder to replace them when the merge completes.
         ILSMIndexOperationContext opCtx = ((LSMIndexSearchCursor) cursor).getOpCtx();
-        opCtx.getComponentHolder().addAll(mergeOp.getMergingComponents());
-        search(opCtx, cursor, rangePred);
-        List<ILSMComponent> mergedComponents = mergeOp.getMergingComponents();
+        opCtx.getComponentHolder().addAll(mergedComponents);
+        if (splitKeys.isEmpty()) {
+            RangePredicate rangePred = new RangePredicate(null, null, true, true, null, null);
+            search(opCtx, cursor, rangePred);
+        }
 
         long numElements = 0L;
         for (int i = 0; i < mergedComponents.size(); ++i) {
@@ -555,21 +604,25 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         LSMBTreeDiskComponent mergedComponent = createDiskComponent(componentFactory, mergeOp.getBTreeMergeTarget(),
                 mergeOp.getBloomFilterMergeTarget(), true);
 
-        IIndexBulkLoader bulkLoader = mergedComponent.getBTree().createBulkLoader(1.0f, false, numElements, false);
-        IIndexBulkLoader builder = mergedComponent.getBloomFilter().createBuilder(numElements,
+        AbstractBloomFilterBuilder builder = mergedComponent.getBloomFilter().createBuilder(numElements,
                 bloomFilterSpec.getNumHashes(), bloomFilterSpec.getNumBucketsPerElements());
-        try {
-            while (cursor.hasNext()) {
-                cursor.next();
-                ITupleReference frameTuple = cursor.getTuple();
-                builder.add(frameTuple);
-                bulkLoader.add(frameTuple);
+        if (splitKeys.isEmpty()) {
+            IIndexBulkLoader bulkLoader = mergedComponent.getBTree().createBulkLoader(1.0f, false, numElements, false);
+            try {
+                mergeTuples(cursor, bulkLoader, builder);
+            } finally {
+                cursor.close();
+                builder.end();
+            }
+            bulkLoader.end();
+        } else {
+            try {
+                parallelMerge(mergedComponents, splitKeys, ((LSMIndexSearchCursor) cursor).isReturnDeletedTuples(),
+                        mergedComponent, builder);
+            } finally {
+                builder.end();
             }
-        } finally {
-            cursor.close();
-            builder.end();
         }
-        bulkLoader.end();
 
         if (mergedComponent.getLSMComponentFilter() != null) {
             List<ITupleReference> filterTuples = new ArrayList<ITupleReference>();
@@ -584,6 +637,167 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         return mergedComponent;
     }
 
+    private void mergeTuples(ITreeIndexCursor cursor, IIndexBulkLoader bulkLoader, IIndexBulkLoader builder)
+            throws HyracksDataException, IndexException {
+        long unthrottledBytes = 0;
+        while (cursor.hasNext()) {
+            cursor.next();
+            ITupleReference frameTuple = cursor.getTuple();
+            builder.add(frameTuple);
+            bulkLoader.add(frameTuple);
+            for (int i = 0; i < frameTuple.getFieldCount(); ++i) {
+                unthrottledBytes += frameTuple.getFieldLength(i);
+            }
+            if (unthrottledBytes >= MERGE_THROTTLE_BYTES) {
+                throttleMergeWrite(unthrottledBytes);
+                unthrottledBytes = 0;
+            }
+        }
+    }
+
+    /**
+     * Lets the merges split their key space into up to mergeParallelism ranges that are merged at the same time. The
+     * merging thread merges the first range, the executor runs the others.
+     */
+    public void setMergeParallelism(int mergeParallelism, Executor mergeExecutor) {
+        if (mergeParallelism > 1 && mergeExecutor == null) {
+            throw new IllegalArgumentException("A parallel merge needs an executor.");
+        }
+        this.mergeParallelism = mergeParallelism;
+        this.mergeExecutor = mergeExecutor;
+    }
+
+    /**
+     * Lets the searches enter a shared, reference counted snapshot of the components without synchronizing on the
+     * operation tracker. The flushes and merges still swap the components under the operation tracker.
+     */
+    public void setComponentVersioning(boolean componentVersioning) throws HyracksDataException {
+        if (componentVersioning && filterManager != null) {
+            throw new IllegalArgumentException("The components of a filtered index depend on each search.");
+        }
+        ((LSMHarness) lsmHarness).setComponentVersioning(componentVersioning);
+    }
+
+    /**
+     * Picks the keys that split a merge into ranges among the separator keys of the largest merging component.
+     *
+     * @return the split keys in key order, or an empty list if the merge is not split
+     */
+    private List<ITupleReference> getMergeSplitKeys(List<ILSMComponent> mergingComponents)
+            throws HyracksDataException {
+        List<ITupleReference> splitKeys = new ArrayList<ITupleReference>();
+        if (mergeParallelism <= 1) {
+            return splitKeys;
+        }
+        LSMBTreeDiskComponent largestComponent = null;
+        for (ILSMComponent c : mergingComponents) {
+            LSMBTreeDiskComponent component = (LSMBTreeDiskComponent) c;
+            if (largestComponent == null
+                    || component.getBloomFilter().getNumElements() > largestComponent.getBloomFilter()
+                            .getNumElements()) {
+                largestComponent = component;
+            }
+        }
+        List<ITupleReference> separatorKeys = largestComponent.getBTree().getSeparatorKeys(mergeParallelism - 1);
+        int numRanges = Math.min(mergeParallelism, separatorKeys.size() + 1);
+        for (int i = 1; i < numRanges; ++i) {
+            splitKeys.add(separatorKeys.get((int) ((long) i * separatorKeys.size() / numRanges)));
+        }
+        return splitKeys;
+    }
+
+    /**
+     * Merges the key ranges between the split keys at the same time, each into its own run of leaves of the merged
+     * BTree. The runs are linked and the interior levels are built when all the ranges are merged.
+     */
+    private void parallelMerge(List<ILSMComponent> mergingComponents, List<ITupleReference> splitKeys,
+            boolean returnDeletedTuples, LSMBTreeDiskComponent mergedComponent, AbstractBloomFilterBuilder builder)
+            throws HyracksDataException, IndexException {
+        BTreeParallelBulkLoader bulkLoader = mergedComponent.getBTree().createParallelBulkLoader(1.0f);
+        int numRanges = splitKeys.size() + 1;
+        MergeRange firstRange = null;
+        List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>();
+        for (int i = 0; i < numRanges; ++i) {
+            ITupleReference lowKey = i == 0 ? null : splitKeys.get(i - 1);
+            ITupleReference highKey = i == numRanges - 1 ? null : splitKeys.get(i);
+            MergeRange range = new MergeRange(mergingComponents, lowKey, highKey, returnDeletedTuples,
+                    bulkLoader.createRun(), builder.createConcurrentLoader());
+            if (i == 0) {
+                firstRange = range;
+            } else {
+                FutureTask<Void> task = new FutureTask<Void>(range);
+                mergeExecutor.execute(task);
+                tasks.add(task);
+            }
+        }
+        Throwable failure = null;
+        try {
+            firstRange.call();
+        } catch (Exception e) {
+            failure = e;
+        }
+        for (FutureTask<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HyracksDataException(e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure instanceof HyracksDataException) {
+            throw (HyracksDataException) failure;
+        } else if (failure instanceof IndexException) {
+            throw (IndexException) failure;
+        } else if (failure != null) {
+            throw new HyracksDataException(failure);
+        }
+        bulkLoader.end();
+    }
+
+    /**
+     * Merges the tuples of the merging components in the key range (lowKey, highKey].
+     */
+    private class MergeRange implements Callable<Void> {
+        private final List<ILSMComponent> mergingComponents;
+        private final ITupleReference lowKey;
+        private final ITupleReference highKey;
+        private final boolean returnDeletedTuples;
+        private final IIndexBulkLoader run;
+        private final IIndexBulkLoader builder;
+
+        public MergeRange(List<ILSMComponent> mergingComponents, ITupleReference lowKey, ITupleReference highKey,
+                boolean returnDeletedTuples, IIndexBulkLoader run, IIndexBulkLoader builder) {
+            this.mergingComponents = mergingComponents;
+            this.lowKey = lowKey;
+            this.highKey = highKey;
+            this.returnDeletedTuples = returnDeletedTuples;
+            this.run = run;
+            this.builder = builder;
+        }
+
+        @Override
+        public Void call() throws HyracksDataException, IndexException {
+            LSMBTreeOpContext opCtx = createOpContext(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+            opCtx.setOperation(IndexOperation.MERGE);
+            opCtx.getComponentHolder().addAll(mergingComponents);
+            LSMBTreeRangeSearchCursor cursor = new LSMBTreeRangeSearchCursor(opCtx, returnDeletedTuples);
+            cursor.setPinLeavesOnce(true);
+            MultiComparator cmp = MultiComparator.create(cmpFactories);
+            search(opCtx, cursor, new RangePredicate(lowKey, highKey, false, true, cmp, cmp));
+            try {
+                mergeTuples(cursor, run, builder);
+            } finally {
+                cursor.close();
+                run.end();
+            }
+            return null;
+        }
+    }
+
     protected LSMBTreeDiskComponent createDiskComponent(LSMBTreeDiskComponentFactory factory,
             FileReference btreeFileRef, FileReference bloomFilterFileRef, boolean createComponent)
             throws HyracksDataException, IndexException {
@@ -753,7 +967,7 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
         return new LSMBTreeAccessor(lsmHarness, createOpContext(modificationCallback, searchCallback));
     }
 
-    public class LSMBTreeAccessor extends LSMTreeIndexAccessor {
+    public class LSMBTreeAccessor extends LSMTreeIndexAccessor implements IBatchPointSearchAccessor {
         public LSMBTreeAccessor(ILSMHarness lsmHarness, ILSMIndexOperationContext ctx) {
             super(lsmHarness, ctx);
         }
@@ -763,6 +977,11 @@ public class LSMBTree extends AbstractLSMIndex implements ITreeIndex {
             return new LSMBTreeSearchCursor(ctx);
         }
 
+        @Override
+        public IBatchPointSearchCursor createBatchPointSearchCursor() {
+            return new LSMBTreeBatchPointSearchCursor(ctx);
+        }
+
         public MultiComparator getMultiComparator() {
             LSMBTreeOpContext concreteCtx = (LSMBTreeOpContext) ctx;
             return concreteCtx.cmp;
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.impls;
+
+import java.util.List;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.bloomfilter.impls.BloomFilter;
+import org.apache.hyracks.storage.am.btree.api.IBTreeLeafFrame;
+import org.apache.hyracks.storage.am.btree.api.IBatchPointSearchCursor;
+import org.apache.hyracks.storage.am.btree.impls.BTree;
+import org.apache.hyracks.storage.am.btree.impls.BTreeRangeSearchCursor;
+import org.apache.hyracks.storage.am.btree.impls.BatchPointPredicate;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.ICursorInitialState;
+import org.apache.hyracks.storage.am.common.api.IIndexAccessor;
+import org.apache.hyracks.storage.am.common.api.IIndexCursor;
+import org.apache.hyracks.storage.am.common.api.ISearchOperationCallback;
+import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
+import org.apache.hyracks.storage.am.common.api.IndexException;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.LSMComponentType;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMHarness;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMTreeTupleReference;
+
+/**
+ * Searches all the keys of a {@link BatchPointPredicate} while the components are entered once. Each key is hashed
+ * once for the bloom filters of all the disk components, and the cursors on the disk components stay on their leaves
+ * between the keys, so that the next key is first looked for on the leaf of the previous one. The memory components
+ * still change, and are searched from their roots for every key.
+ */
+public class LSMBTreeBatchPointSearchCursor implements IBatchPointSearchCursor {
+
+    private final ILSMIndexOperationContext opCtx;
+    private IIndexCursor[] rangeCursors;
+    private IIndexAccessor[] btreeAccessors;
+    private BloomFilter[] bloomFilters;
+    private final long[] hashes = new long[2];
+    private final RangePredicate pointPredicate = new RangePredicate();
+    private BatchPointPredicate predicate;
+    private ISearchOperationCallback searchCallback;
+    private boolean includeMutableComponent;
+    private int numBTrees;
+    private ILSMHarness lsmHarness;
+    private int keyIndex;
+    private boolean foundTuple;
+    private ITupleReference frameTuple;
+
+    public LSMBTreeBatchPointSearchCursor(ILSMIndexOperationContext opCtx) {
+        this.opCtx = opCtx;
+    }
+
+    @Override
+    public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        LSMBTreeCursorInitialState lsmInitialState = (LSMBTreeCursorInitialState) initialState;
+        List<ILSMComponent> operationalComponents = lsmInitialState.getOperationalComponents();
+        lsmHarness = lsmInitialState.getLSMHarness();
+        searchCallback = lsmInitialState.getSearchOperationCallback();
+        predicate = (BatchPointPredicate) searchPred;
+        pointPredicate.setLowKeyComparator(predicate.getLowKeyComparator());
+        pointPredicate.setHighKeyComparator(predicate.getHighKeyComparator());
+        numBTrees = operationalComponents.size();
+        rangeCursors = new IIndexCursor[numBTrees];
+        btreeAccessors = new IIndexAccessor[numBTrees];
+        bloomFilters = new BloomFilter[numBTrees];
+        includeMutableComponent = false;
+
+        for (int i = 0; i < numBTrees; i++) {
+            ILSMComponent component = operationalComponents.get(i);
+            BTree btree;
+            if (component.getType() == LSMComponentType.MEMORY) {
+                includeMutableComponent = true;
+                btree = ((LSMBTreeMemoryComponent) component).getBTree();
+                btreeAccessors[i] = btree.createAccessor(NoOpOperationCallback.INSTANCE,
+                        NoOpOperationCallback.INSTANCE);
+                rangeCursors[i] = btreeAccessors[i].createSearchCursor(false);
+            } else {
+                btree = ((LSMBTreeDiskComponent) component).getBTree();
+                btreeAccessors[i] = btree.createAccessor(NoOpOperationCallback.INSTANCE,
+                        NoOpOperationCallback.INSTANCE);
+                IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
+                rangeCursors[i] = new BTreeRangeSearchCursor(leafFrame, false);
+                bloomFilters[i] = ((LSMBTreeDiskComponent) component).getBloomFilter();
+            }
+        }
+        keyIndex = -1;
+        foundTuple = false;
+    }
+
+    @Override
+    public boolean hasNext() throws HyracksDataException, IndexException {
+        if (foundTuple) {
+            return true;
+        }
+        while (++keyIndex < predicate.getNumKeys()) {
+            if (search(predicate.getKey(keyIndex))) {
+                foundTuple = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean search(ITupleReference key) throws HyracksDataException, IndexException {
+        pointPredicate.setLowKey(key, true);
+        pointPredicate.setHighKey(key, true);
+        boolean hashed = false;
+        boolean reconciled = false;
+        for (int i = 0; i < numBTrees; ++i) {
+            if (bloomFilters[i] == null) {
+                // The memory components are searched from the root, without keeping a latch from the previous key.
+                rangeCursors[i].reset();
+                btreeAccessors[i].search(rangeCursors[i], pointPredicate);
+            } else {
+                if (!hashed) {
+                    bloomFilters[i].hash(key, hashes);
+                    hashed = true;
+                }
+                if (!bloomFilters[i].contains(hashes)) {
+                    continue;
+                }
+                if (!((BTreeRangeSearchCursor) rangeCursors[i]).searchCurrentLeaf(pointPredicate)) {
+                    btreeAccessors[i].search(rangeCursors[i], pointPredicate);
+                }
+            }
+            if (!rangeCursors[i].hasNext()) {
+                if (bloomFilters[i] == null) {
+                    rangeCursors[i].reset();
+                }
+                continue;
+            }
+            rangeCursors[i].next();
+            // As in the point search, the key of the predicate is locked rather than the tuple of the cursor.
+            if (reconciled || searchCallback.proceed(key)) {
+                return isFound(i, key);
+            }
+            if (i == 0 && includeMutableComponent) {
+                // unlatch, reconcile and retraverse
+                rangeCursors[i].reset();
+                searchCallback.reconcile(key);
+                reconciled = true;
+                btreeAccessors[0].search(rangeCursors[i], pointPredicate);
+                searchCallback.complete(key);
+                if (rangeCursors[i].hasNext()) {
+                    rangeCursors[i].next();
+                    return isFound(i, key);
+                }
+                rangeCursors[i].reset();
+            } else {
+                searchCallback.reconcile(rangeCursors[i].getTuple());
+                searchCallback.complete(rangeCursors[i].getTuple());
+                return isFound(i, key);
+            }
+        }
+        return false;
+    }
+
+    private boolean isFound(int i, ITupleReference key) throws HyracksDataException {
+        if (((ILSMTreeTupleReference) rangeCursors[i].getTuple()).isAntimatter()) {
+            searchCallback.cancel(key);
+            return false;
+        }
+        frameTuple = rangeCursors[i].getTuple();
+        return true;
+    }
+
+    @Override
+    public void next() throws HyracksDataException {
+        foundTuple = false;
+    }
+
+    @Override
+    public int getKeyIndex() {
+        return keyIndex;
+    }
+
+    @Override
+    public ITupleReference getTuple() {
+        return frameTuple;
+    }
+
+    @Override
+    public void reset() throws HyracksDataException, IndexException {
+        if (rangeCursors == null) {
+            return;
+        }
+        try {
+            for (int i = 0; i < numBTrees; ++i) {
+                rangeCursors[i].reset();
+            }
+        } finally {
+            rangeCursors = null;
+            foundTuple = false;
+            lsmHarness.endSearch(opCtx);
+        }
+    }
+
+    @Override
+    public void close() throws HyracksDataException {
+        if (rangeCursors == null) {
+            return;
+        }
+        try {
+            for (int i = 0; i < numBTrees; ++i) {
+                rangeCursors[i].close();
+            }
+        } finally {
+            rangeCursors = null;
+            foundTuple = false;
+            lsmHarness.endSearch(opCtx);
+        }
+    }
+}
@@ -36,6 +36,7 @@ import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
 import org.apache.hyracks.storage.am.common.tuples.PermutingTupleReference;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentVersion;
 
 public final class LSMBTreeOpContext implements ILSMIndexOperationContext {
 
@@ -56,6 +57,7 @@ public final class LSMBTreeOpContext implements ILSMIndexOperationContext {
     private final List<ILSMComponent> componentHolder;
     private final List<ILSMComponent> componentsToBeMerged;
     private final List<ILSMComponent> componentsToBeReplicated;
+    private LSMComponentVersion componentVersion;
     public final PermutingTupleReference indexTuple;
     public final MultiComparator filterCmp;
     public final PermutingTupleReference filterTuple;
@@ -199,4 +201,14 @@ public final class LSMBTreeOpContext implements ILSMIndexOperationContext {
     public List<ILSMComponent> getComponentsToBeReplicated() {
         return componentsToBeReplicated;
     }
+
+    @Override
+    public void setComponentVersion(LSMComponentVersion componentVersion) {
+        this.componentVersion = componentVersion;
+    }
+
+    @Override
+    public LSMComponentVersion getComponentVersion() {
+        return componentVersion;
+    }
 }
\ No newline at end of file
@@ -51,6 +51,7 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
     private IIndexAccessor[] btreeAccessors;
     private ArrayTupleBuilder tupleBuilder;
     private boolean proceed = true;
+    private boolean pinLeavesOnce = false;
 
     public LSMBTreeRangeSearchCursor(ILSMIndexOperationContext opCtx) {
         this(opCtx, false);
@@ -62,6 +63,14 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
         this.reusablePred = new RangePredicate(null, null, true, true, null, null);
     }
 
+    /**
+     * Makes the cursors of the disk components pin their leaves with a once hint, see
+     * {@link BTreeRangeSearchCursor#setPinLeavesOnce(boolean)}.
+     */
+    public void setPinLeavesOnce(boolean pinLeavesOnce) {
+        this.pinLeavesOnce = pinLeavesOnce;
+    }
+
     @Override
     public void reset() throws HyracksDataException, IndexException {
         super.reset();
@@ -197,16 +206,22 @@ public class LSMBTreeRangeSearchCursor extends LSMIndexSearchCursor {
         btreeAccessors = new ITreeIndexAccessor[numBTrees];
         for (int i = 0; i < numBTrees; i++) {
             ILSMComponent component = operationalComponents.get(i);
-            BTree btree;
-            IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
-            rangeCursors[i] = new BTreeRangeSearchCursor(leafFrame, false);
             if (component.getType() == LSMComponentType.MEMORY) {
                 includeMutableComponent = true;
-                btree = (BTree) ((LSMBTreeMemoryComponent) component).getBTree();
+                BTree btree = (BTree) ((LSMBTreeMemoryComponent) component).getBTree();
+                btreeAccessors[i] = btree.createAccessor(NoOpOperationCallback.INSTANCE,
+                        NoOpOperationCallback.INSTANCE);
+                // The memory component decides on its cursor, it may not be a B-tree.
+                rangeCursors[i] = btreeAccessors[i].createSearchCursor(false);
             } else {
-                btree = (BTree) ((LSMBTreeDiskComponent) component).getBTree();
+                BTree btree = (BTree) ((LSMBTreeDiskComponent) component).getBTree();
+                btreeAccessors[i] = btree.createAccessor(NoOpOperationCallback.INSTANCE,
+                        NoOpOperationCallback.INSTANCE);
+                IBTreeLeafFrame leafFrame = (IBTreeLeafFrame) lsmInitialState.getLeafFrameFactory().createFrame();
+                BTreeRangeSearchCursor rangeCursor = new BTreeRangeSearchCursor(leafFrame, false);
+                rangeCursor.setPinLeavesOnce(pinLeavesOnce);
+                rangeCursors[i] = rangeCursor;
             }
-            btreeAccessors[i] = btree.createAccessor(NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
             btreeAccessors[i].search(rangeCursors[i], searchPred);
         }
         setPriorityQueueComparator();
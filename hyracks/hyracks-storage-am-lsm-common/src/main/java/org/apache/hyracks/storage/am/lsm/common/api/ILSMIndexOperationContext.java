@@ -24,6 +24,7 @@ import org.apache.hyracks.storage.am.common.api.IIndexOperationContext;
 import org.apache.hyracks.storage.am.common.api.IModificationOperationCallback;
 import org.apache.hyracks.storage.am.common.api.ISearchOperationCallback;
 import org.apache.hyracks.storage.am.common.api.ISearchPredicate;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentVersion;
 
 public interface ILSMIndexOperationContext extends IIndexOperationContext {
     public List<ILSMComponent> getComponentHolder();
@@ -41,4 +42,8 @@ public interface ILSMIndexOperationContext extends IIndexOperationContext {
     public ISearchPredicate getSearchPredicate();
     
     public List<ILSMComponent> getComponentsToBeReplicated();
+
+    public void setComponentVersion(LSMComponentVersion componentVersion);
+
+    public LSMComponentVersion getComponentVersion();
 }
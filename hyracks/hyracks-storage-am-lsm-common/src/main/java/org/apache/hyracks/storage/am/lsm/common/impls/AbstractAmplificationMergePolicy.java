@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.common.api.IndexException;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.ComponentState;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndex;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicy;
+
+/**
+ * Base class of the merge policies that are driven by a read amplification target (the number of disk components a
+ * point lookup may have to visit) and a write amplification target (the number of times a flushed byte is written).
+ * The subclasses pick the size ratio between levels that meets the write target for the current amount of data, and
+ * the number of components is never allowed to go over the read target.
+ * A merged component replaces the merged components at the position of the newest one, so the merges are always
+ * ranges of components that are contiguous in age.
+ */
+public abstract class AbstractAmplificationMergePolicy implements ILSMMergePolicy {
+    private static final Logger LOGGER = Logger.getLogger(AbstractAmplificationMergePolicy.class.getName());
+
+    public static final String TARGET_READ_AMPLIFICATION = "target-read-amplification";
+    public static final String TARGET_WRITE_AMPLIFICATION = "target-write-amplification";
+
+    protected static final int MAX_SIZE_RATIO = 64;
+
+    protected int targetReadAmplification;
+    protected double targetWriteAmplification;
+
+    private int lastComponentCount;
+    private long flushedComponentSize;
+    private long flushedBytes;
+    private long mergedBytes;
+    private int actualReadAmplification;
+    private double expectedReadAmplification;
+    private double expectedWriteAmplification;
+
+    @Override
+    public void diskComponentAdded(final ILSMIndex index, boolean fullMergeIsRequested) throws HyracksDataException,
+            IndexException {
+        // The components are ordered from the newest to the oldest.
+        List<ILSMComponent> immutableComponents = new ArrayList<ILSMComponent>(index.getImmutableComponents());
+        long[] componentSizes = new long[immutableComponents.size()];
+        for (int i = 0; i < componentSizes.length; i++) {
+            componentSizes[i] = ((AbstractDiskLSMComponent) immutableComponents.get(i)).getComponentSize();
+        }
+        long baseSize = updateStatistics(componentSizes);
+
+        for (ILSMComponent c : immutableComponents) {
+            if (c.getState() != ComponentState.READABLE_UNWRITABLE) {
+                return;
+            }
+        }
+        ILSMIndexAccessor accessor = (ILSMIndexAccessor) index.createAccessor(NoOpOperationCallback.INSTANCE,
+                NoOpOperationCallback.INSTANCE);
+        if (fullMergeIsRequested) {
+            accessor.scheduleFullMerge(index.getIOOperationCallback());
+            return;
+        }
+        int[] range = findMergeRange(componentSizes, baseSize);
+        if (range == null) {
+            return;
+        }
+        long mergeSize = 0;
+        for (int i = range[0]; i < range[1]; i++) {
+            mergeSize += componentSizes[i];
+        }
+        synchronized (this) {
+            mergedBytes += mergeSize;
+        }
+        accessor.scheduleMerge(index.getIOOperationCallback(),
+                new ArrayList<ILSMComponent>(immutableComponents.subList(range[0], range[1])));
+    }
+
+    /**
+     * Picks the components to merge.
+     *
+     * @param componentSizes
+     *            the sizes of the disk components, from the newest to the oldest
+     * @param baseSize
+     *            the size of a flushed component
+     * @return the range [start, end) of the components to merge, or null if no merge is needed
+     */
+    public abstract int[] findMergeRange(long[] componentSizes, long baseSize);
+
+    /**
+     * @return the size ratio between two levels that meets the write amplification target when the index holds
+     *         dataSize times the size of a flushed component
+     */
+    public abstract int getSizeRatio(double dataSize);
+
+    protected abstract double getExpectedReadAmplification(int numLevels, int sizeRatio);
+
+    protected abstract double getExpectedWriteAmplification(int numLevels, int sizeRatio);
+
+    /**
+     * @return the range of the newest components that must be merged to get back to the read amplification target, or
+     *         null if the target is met
+     */
+    protected int[] findReadAmplificationMergeRange(long[] componentSizes) {
+        if (componentSizes.length <= targetReadAmplification) {
+            return null;
+        }
+        return new int[] { 0, componentSizes.length - targetReadAmplification + 1 };
+    }
+
+    protected static int getLevel(long componentSize, long baseSize, int sizeRatio) {
+        if (componentSize <= baseSize) {
+            return 0;
+        }
+        // Rounded, so that a merged component that shrank a little because of deletes still lands in its level.
+        return (int) Math.floor(Math.log((double) componentSize / baseSize) / Math.log(sizeRatio) + 0.5);
+    }
+
+    protected static int getNumLevels(double dataSize, int sizeRatio) {
+        if (dataSize <= 1) {
+            return 1;
+        }
+        return Math.max(1, (int) Math.ceil(Math.log(dataSize) / Math.log(sizeRatio)));
+    }
+
+    protected static double getDataSize(long[] componentSizes, long baseSize) {
+        long totalSize = 0;
+        for (long size : componentSizes) {
+            totalSize += size;
+        }
+        return (double) totalSize / baseSize;
+    }
+
+    private synchronized long updateStatistics(long[] componentSizes) {
+        // A flush adds one component, a merge of k components removes k - 1 of them.
+        if (componentSizes.length == lastComponentCount + 1) {
+            flushedBytes += componentSizes[0];
+            flushedComponentSize = componentSizes[0];
+        }
+        lastComponentCount = componentSizes.length;
+        actualReadAmplification = componentSizes.length;
+        long baseSize = flushedComponentSize;
+        if (baseSize <= 0) {
+            baseSize = Long.MAX_VALUE;
+            for (long size : componentSizes) {
+                baseSize = Math.min(baseSize, size);
+            }
+        }
+        baseSize = Math.max(1, baseSize);
+        double dataSize = getDataSize(componentSizes, baseSize);
+        int sizeRatio = getSizeRatio(dataSize);
+        int numLevels = getNumLevels(dataSize, sizeRatio);
+        expectedReadAmplification = getExpectedReadAmplification(numLevels, sizeRatio);
+        expectedWriteAmplification = getExpectedWriteAmplification(numLevels, sizeRatio);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Read amplification: expected " + expectedReadAmplification + ", actual "
+                    + actualReadAmplification + ". Write amplification: expected " + expectedWriteAmplification
+                    + ", actual " + getActualWriteAmplification() + ". Size ratio: " + sizeRatio);
+        }
+        return baseSize;
+    }
+
+    public synchronized double getExpectedReadAmplification() {
+        return expectedReadAmplification;
+    }
+
+    public synchronized int getActualReadAmplification() {
+        return actualReadAmplification;
+    }
+
+    public synchronized double getExpectedWriteAmplification() {
+        return expectedWriteAmplification;
+    }
+
+    /**
+     * @return the number of bytes flushed and merged per flushed byte, or 0 before the first flush
+     */
+    public synchronized double getActualWriteAmplification() {
+        if (flushedBytes == 0) {
+            return 0;
+        }
+        return (double) (flushedBytes + mergedBytes) / flushedBytes;
+    }
+
+    @Override
+    public void configure(Map<String, String> properties) {
+        targetReadAmplification = Math.max(1, Integer.parseInt(properties.get(TARGET_READ_AMPLIFICATION)));
+        targetWriteAmplification = Math.max(2, Double.parseDouble(properties.get(TARGET_WRITE_AMPLIFICATION)));
+    }
+}
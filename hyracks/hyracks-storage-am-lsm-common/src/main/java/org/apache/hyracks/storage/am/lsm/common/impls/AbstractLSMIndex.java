@@ -244,6 +244,15 @@ public abstract class AbstractLSMIndex implements ILSMIndexInternal {
         return ioScheduler;
     }
 
+    /**
+     * Charges the bytes written by a merge to the write rate limit of the IO scheduler, if it has one.
+     */
+    protected void throttleMergeWrite(long bytes) throws HyracksDataException {
+        if (ioScheduler instanceof BoundedAsynchronousScheduler) {
+            ((BoundedAsynchronousScheduler) ioScheduler).throttleMergeWrite(bytes);
+        }
+    }
+
     @Override
     public ILSMIOOperationCallback getIOOperationCallback() {
         return ioOpCallback;
@@ -290,6 +299,10 @@ public abstract class AbstractLSMIndex implements ILSMIndexInternal {
         return ((AbstractMemoryLSMComponent) memoryComponents.get(currentMutableComponentId.get())).getState();
     }
 
+    public int getCurrentMutableComponentId() {
+        return currentMutableComponentId.get();
+    }
+
     public int getCurrentMutableComponentWriterCount() {
         return ((AbstractMemoryLSMComponent) memoryComponents.get(currentMutableComponentId.get())).getWriterCount();
     }
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation.LSMIOOpertionType;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationScheduler;
+
+/**
+ * An asynchronous scheduler that bounds the merges. Flushes are started right away, one at a time per index like
+ * in {@link AsynchronousScheduler}, so they never wait behind merges. A merge only starts when fewer than
+ * maxConcurrentMergesPerDevice merges write to each of its devices; otherwise it waits, in scheduling order, for a
+ * running merge to finish. The bytes written by merges can also be limited with a token bucket, see
+ * {@link #throttleMergeWrite(long)}.
+ */
+public class BoundedAsynchronousScheduler implements ILSMIOOperationScheduler {
+    private static final Logger LOGGER = Logger.getLogger(BoundedAsynchronousScheduler.class.getName());
+    // The key of the merges whose devices are unknown.
+    private static final File UNKNOWN_DEVICE = new File("");
+
+    private final ExecutorService executor;
+    private final int maxConcurrentMergesPerDevice;
+    private final TokenBucketRateLimiter mergeWriteLimiter;
+    private final Map<String, ILSMIOOperation> runningFlushOperations = new HashMap<String, ILSMIOOperation>();
+    private final Map<String, Queue<ILSMIOOperation>> waitingFlushOperations = new HashMap<String, Queue<ILSMIOOperation>>();
+    private final LinkedList<ILSMIOOperation> waitingMerges = new LinkedList<ILSMIOOperation>();
+    private final Map<File, Integer> runningMergesPerDevice = new HashMap<File, Integer>();
+    private int runningMerges;
+
+    /**
+     * @param maxMergeWriteBytesPerSecond
+     *            the rate at which merges may write, shared by all the merges, or 0 for no limit.
+     */
+    public BoundedAsynchronousScheduler(ThreadFactory threadFactory, int maxConcurrentMergesPerDevice,
+            long maxMergeWriteBytesPerSecond) {
+        if (maxConcurrentMergesPerDevice <= 0) {
+            throw new IllegalArgumentException("At least one merge per device must be allowed.");
+        }
+        this.maxConcurrentMergesPerDevice = maxConcurrentMergesPerDevice;
+        this.mergeWriteLimiter = maxMergeWriteBytesPerSecond > 0 ? new TokenBucketRateLimiter(
+                maxMergeWriteBytesPerSecond) : null;
+        // Creating an executor with the same configuration of Executors.newCachedThreadPool.
+        // The number of threads is bounded by the admission of the merges.
+        executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), threadFactory) {
+
+            @Override
+            protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+                return new LSMIOOperationTask<T>(callable);
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            protected void afterExecute(Runnable r, Throwable t) {
+                super.afterExecute(r, t);
+                operationFinished(((LSMIOOperationTask<Boolean>) r).getOperation());
+            }
+        };
+    }
+
+    @Override
+    public void scheduleOperation(ILSMIOOperation operation) throws HyracksDataException {
+        synchronized (this) {
+            if (operation.getIOOpertionType() == LSMIOOpertionType.MERGE) {
+                if (canStartMerge(operation)) {
+                    startMerge(operation);
+                } else {
+                    waitingMerges.add(operation);
+                }
+                return;
+            }
+            String id = operation.getIndexUniqueIdentifier();
+            if (runningFlushOperations.containsKey(id)) {
+                Queue<ILSMIOOperation> q = waitingFlushOperations.get(id);
+                if (q == null) {
+                    q = new ArrayDeque<ILSMIOOperation>();
+                    waitingFlushOperations.put(id, q);
+                }
+                q.offer(operation);
+            } else {
+                runningFlushOperations.put(id, operation);
+                executor.submit(operation);
+            }
+        }
+    }
+
+    private synchronized void operationFinished(ILSMIOOperation operation) {
+        if (operation.getIOOpertionType() == LSMIOOpertionType.MERGE) {
+            --runningMerges;
+            for (File device : getDevices(operation)) {
+                int count = runningMergesPerDevice.get(device) - 1;
+                if (count == 0) {
+                    runningMergesPerDevice.remove(device);
+                } else {
+                    runningMergesPerDevice.put(device, count);
+                }
+            }
+            Iterator<ILSMIOOperation> it = waitingMerges.iterator();
+            while (it.hasNext()) {
+                ILSMIOOperation merge = it.next();
+                if (canStartMerge(merge)) {
+                    it.remove();
+                    startMerge(merge);
+                }
+            }
+            return;
+        }
+        String id = operation.getIndexUniqueIdentifier();
+        runningFlushOperations.remove(id);
+        Queue<ILSMIOOperation> q = waitingFlushOperations.get(id);
+        if (q != null) {
+            ILSMIOOperation op = q.poll();
+            if (q.isEmpty()) {
+                waitingFlushOperations.remove(id);
+            }
+            runningFlushOperations.put(id, op);
+            executor.submit(op);
+        }
+    }
+
+    private boolean canStartMerge(ILSMIOOperation merge) {
+        for (File device : getDevices(merge)) {
+            Integer count = runningMergesPerDevice.get(device);
+            if (count != null && count >= maxConcurrentMergesPerDevice) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void startMerge(ILSMIOOperation merge) {
+        ++runningMerges;
+        for (File device : getDevices(merge)) {
+            Integer count = runningMergesPerDevice.get(device);
+            runningMergesPerDevice.put(device, count == null ? 1 : count + 1);
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Starting merge of " + merge.getIndexUniqueIdentifier() + ", " + runningMerges
+                    + " merges running, " + waitingMerges.size() + " waiting");
+        }
+        executor.submit(merge);
+    }
+
+    private static List<File> getDevices(ILSMIOOperation merge) {
+        List<File> devices = new ArrayList<File>();
+        for (IODeviceHandle handle : merge.getWriteDevices()) {
+            File device = handle == null ? UNKNOWN_DEVICE : handle.getPath();
+            if (!devices.contains(device)) {
+                devices.add(device);
+            }
+        }
+        if (devices.isEmpty()) {
+            devices.add(UNKNOWN_DEVICE);
+        }
+        return devices;
+    }
+
+    /**
+     * Called by merges as they write, blocks while the merges write faster than the configured rate.
+     */
+    public void throttleMergeWrite(long bytes) throws HyracksDataException {
+        if (mergeWriteLimiter == null) {
+            return;
+        }
+        try {
+            mergeWriteLimiter.acquire(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HyracksDataException(e);
+        }
+    }
+
+    /**
+     * @return the number of flushes and merges that wait to be started.
+     */
+    public synchronized int getQueueDepth() {
+        int depth = waitingMerges.size();
+        for (Queue<ILSMIOOperation> q : waitingFlushOperations.values()) {
+            depth += q.size();
+        }
+        return depth;
+    }
+
+    public synchronized int getRunningMergeCount() {
+        return runningMerges;
+    }
+
+    /**
+     * @return the total time merges were held back by the write rate limit, in milliseconds.
+     */
+    public long getThrottledTime() {
+        return mergeWriteLimiter == null ? 0 : mergeWriteLimiter.getThrottledTime();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
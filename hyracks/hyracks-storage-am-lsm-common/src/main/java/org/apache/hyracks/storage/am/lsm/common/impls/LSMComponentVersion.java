@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
+
+/**
+ * An immutable snapshot of the components that a search enters, shared by all the searches that start while it is
+ * current. The version enters each of its components once on behalf of all its readers, so a search only has to
+ * increment the reference count of the version instead of entering every component under the operation tracker.
+ * The harness holds one reference while the version is current and drops it when a flush or a merge changes the
+ * components. The last reader to leave a version that is no longer current exits its components.
+ */
+public class LSMComponentVersion {
+    private final List<ILSMComponent> components;
+    private final int currentMutableComponentId;
+    private final AtomicInteger refCount;
+
+    public LSMComponentVersion(List<ILSMComponent> components, int currentMutableComponentId) {
+        this.components = Collections.unmodifiableList(new ArrayList<ILSMComponent>(components));
+        this.currentMutableComponentId = currentMutableComponentId;
+        // The reference of the harness.
+        this.refCount = new AtomicInteger(1);
+    }
+
+    /**
+     * @return false if the version was already released by all its holders and can no longer be entered
+     */
+    public boolean enter() {
+        while (true) {
+            int count = refCount.get();
+            if (count == 0) {
+                return false;
+            }
+            if (refCount.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return true if this was the last reference, in which case the caller has to exit the components
+     */
+    public boolean exit() {
+        int count = refCount.decrementAndGet();
+        if (count < 0) {
+            throw new IllegalStateException("Invalid LSM component version reference count: " + count);
+        }
+        return count == 0;
+    }
+
+    public List<ILSMComponent> getComponents() {
+        return components;
+    }
+
+    public int getCurrentMutableComponentId() {
+        return currentMutableComponentId;
+    }
+
+    public int getReferenceCount() {
+        return refCount.get();
+    }
+}
@@ -55,6 +55,8 @@ public class LSMHarness implements ILSMHarness {
     protected final AtomicBoolean fullMergeIsRequested;
     protected final boolean replicationEnabled;
     protected List<ILSMComponent> componentsToBeReplicated;
+    protected volatile boolean componentVersioning;
+    protected volatile LSMComponentVersion componentVersion;
     
     public LSMHarness(ILSMIndexInternal lsmIndex, ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker, boolean replicationEnabled) {
         this.lsmIndex = lsmIndex;
@@ -69,6 +71,9 @@ public class LSMHarness implements ILSMHarness {
 
     protected boolean getAndEnterComponents(ILSMIndexOperationContext ctx, LSMOperationType opType,
             boolean isTryOperation) throws HyracksDataException {
+        if (opType == LSMOperationType.SEARCH && componentVersioning && enterComponentVersion(ctx)) {
+            return true;
+        }
         synchronized (opTracker) {
             while (true) {
                 lsmIndex.getOperationalComponents(ctx);
@@ -111,6 +116,9 @@ public class LSMHarness implements ILSMHarness {
                         break;
                 }
                 if (enterComponents(ctx, opType)) {
+                    if (opType == LSMOperationType.SEARCH && componentVersioning && componentVersion == null) {
+                        publishComponentVersion(ctx);
+                    }
                     return true;
                 } else if (isTryOperation) {
                     return false;
@@ -166,6 +174,8 @@ public class LSMHarness implements ILSMHarness {
                 // Changing the flush status should *always* precede changing the mutable component.
                 lsmIndex.changeFlushStatusForCurrentMutableCompoent(false);
                 lsmIndex.changeMutableComponent();
+                // The searches must enter the new mutable component from now on.
+                releaseComponentVersion();
                 // Notify all waiting threads whenever a flush has been scheduled since they will check
                 // again if they can grab and enter the mutable component.
                 opTracker.notifyAll();
@@ -181,7 +191,10 @@ public class LSMHarness implements ILSMHarness {
 
     private void exitComponents(ILSMIndexOperationContext ctx, LSMOperationType opType, ILSMComponent newComponent,
             boolean failedOperation) throws HyracksDataException, IndexException {
-        List<ILSMComponent> inactiveDiskComponents = null;
+        if (ctx.getComponentVersion() != null) {
+            exitComponentVersion(ctx);
+            return;
+        }
         List<ILSMComponent> inactiveDiskComponentsToBeDeleted = null;
         try {
             synchronized (opTracker) {
@@ -190,35 +203,7 @@ public class LSMHarness implements ILSMHarness {
                     // First check if there is any action that is needed to be taken based on the state of each component.
                     for (ILSMComponent c : ctx.getComponentHolder()) {
                         boolean isMutableComponent = i == 0 && c.getType() == LSMComponentType.MEMORY ? true : false;
-                        c.threadExit(opType, failedOperation, isMutableComponent);
-                        if (c.getType() == LSMComponentType.MEMORY) {
-                            switch (c.getState()) {
-                                case READABLE_UNWRITABLE:
-                                    if (isMutableComponent
-                                            && (opType == LSMOperationType.MODIFICATION || opType == LSMOperationType.FORCE_MODIFICATION)) {
-                                        lsmIndex.changeFlushStatusForCurrentMutableCompoent(true);
-                                    }
-                                    break;
-                                case INACTIVE:
-                                    ((AbstractMemoryLSMComponent) c).reset();
-                                    // Notify all waiting threads whenever the mutable component's has change to inactive. This is important because
-                                    // even though we switched the mutable components, it is possible that the component that we just switched
-                                    // to is still busy flushing its data to disk. Thus, the notification that was issued upon scheduling the flush
-                                    // is not enough.
-                                    opTracker.notifyAll();
-                                    break;
-                                default:
-                                    break;
-                            }
-                        } else {
-                            switch (c.getState()) {
-                                case INACTIVE:
-                                    lsmIndex.addInactiveDiskComponent(c);
-                                    break;
-                                default:
-                                    break;
-                            }
-                        }
+                        exitComponent(c, opType, failedOperation, isMutableComponent);
                         i++;
                     }
                     // Then, perform any action that is needed to be taken based on the operation type.
@@ -234,6 +219,8 @@ public class LSMHarness implements ILSMHarness {
                                 }
                                 mergePolicy.diskComponentAdded(lsmIndex, false);
                             }
+                            // The flushed component is no longer readable, so searches must not enter it anymore.
+                            releaseComponentVersion();
                             break;
                         case MERGE:
                             // newComponent is null if the merge op. was not performed.
@@ -245,6 +232,7 @@ public class LSMHarness implements ILSMHarness {
                                     triggerReplication(componentsToBeReplicated, false);
                                 }
                                 mergePolicy.diskComponentAdded(lsmIndex, fullMergeIsRequested.get());
+                                releaseComponentVersion();
                             }
                             break;
                         default:
@@ -264,51 +252,210 @@ public class LSMHarness implements ILSMHarness {
                         opTracker.afterOperation(lsmIndex, opType, ctx.getSearchOperationCallback(),
                                 ctx.getModificationCallback());
                     }
-
-                    /*
-                     * = Inactive disk components lazy cleanup if any =
-                     * Prepare to cleanup inactive diskComponents which were old merged components
-                     * and not anymore accessed.
-                     * This cleanup is done outside of optracker synchronized block.
-                     */
-                    inactiveDiskComponents = lsmIndex.getInactiveDiskComponents();
-                    if (!inactiveDiskComponents.isEmpty()) {
-                        for (ILSMComponent inactiveComp : inactiveDiskComponents) {
-                            if (((AbstractDiskLSMComponent) inactiveComp).getFileReferenceCount() == 1) {
-                                if (inactiveDiskComponentsToBeDeleted == null) {
-                                    inactiveDiskComponentsToBeDeleted = new LinkedList<ILSMComponent>();
-                                }
-                                inactiveDiskComponentsToBeDeleted.add(inactiveComp);
-                            }
-                        }
-                        if (inactiveDiskComponentsToBeDeleted != null) {
-                            inactiveDiskComponents.removeAll(inactiveDiskComponentsToBeDeleted);
-                        }
-                    }
+                    inactiveDiskComponentsToBeDeleted = getInactiveDiskComponentsToBeDeleted();
                 }
             }
         } finally {
-            /*
-             * cleanup inactive disk components if any
-             */
-            if (inactiveDiskComponentsToBeDeleted != null) {
-                try {
-                    //schedule a replication job to delete these inactive disk components from replicas
-                    if (replicationEnabled) {
-                        lsmIndex.scheduleReplication(null, inactiveDiskComponentsToBeDeleted, false,
-                                ReplicationOperation.DELETE);
+            destroyInactiveDiskComponents(inactiveDiskComponentsToBeDeleted);
+        }
+
+    }
+
+    /**
+     * Exits a single component and takes the action that its new state requires. Called while synchronized on the
+     * operation tracker.
+     */
+    private void exitComponent(ILSMComponent c, LSMOperationType opType, boolean failedOperation,
+            boolean isMutableComponent) throws HyracksDataException {
+        c.threadExit(opType, failedOperation, isMutableComponent);
+        if (c.getType() == LSMComponentType.MEMORY) {
+            switch (c.getState()) {
+                case READABLE_UNWRITABLE:
+                    if (isMutableComponent
+                            && (opType == LSMOperationType.MODIFICATION || opType == LSMOperationType.FORCE_MODIFICATION)) {
+                        lsmIndex.changeFlushStatusForCurrentMutableCompoent(true);
                     }
-                    
-                    for (ILSMComponent c : inactiveDiskComponentsToBeDeleted) {
-                        ((AbstractDiskLSMComponent) c).destroy();
+                    break;
+                case INACTIVE:
+                    ((AbstractMemoryLSMComponent) c).reset();
+                    // Notify all waiting threads whenever the mutable component's has change to inactive. This is important because
+                    // even though we switched the mutable components, it is possible that the component that we just switched
+                    // to is still busy flushing its data to disk. Thus, the notification that was issued upon scheduling the flush
+                    // is not enough.
+                    opTracker.notifyAll();
+                    break;
+                default:
+                    break;
+            }
+        } else {
+            switch (c.getState()) {
+                case INACTIVE:
+                    lsmIndex.addInactiveDiskComponent(c);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /*
+     * = Inactive disk components lazy cleanup if any =
+     * Prepare to cleanup inactive diskComponents which were old merged components
+     * and not anymore accessed.
+     * This cleanup is done outside of optracker synchronized block.
+     */
+    private List<ILSMComponent> getInactiveDiskComponentsToBeDeleted() {
+        List<ILSMComponent> inactiveDiskComponentsToBeDeleted = null;
+        List<ILSMComponent> inactiveDiskComponents = lsmIndex.getInactiveDiskComponents();
+        if (!inactiveDiskComponents.isEmpty()) {
+            for (ILSMComponent inactiveComp : inactiveDiskComponents) {
+                if (((AbstractDiskLSMComponent) inactiveComp).getFileReferenceCount() == 1) {
+                    if (inactiveDiskComponentsToBeDeleted == null) {
+                        inactiveDiskComponentsToBeDeleted = new LinkedList<ILSMComponent>();
                     }
-                } catch (Throwable e) {
-                    e.printStackTrace();
-                    throw e;
+                    inactiveDiskComponentsToBeDeleted.add(inactiveComp);
                 }
             }
+            if (inactiveDiskComponentsToBeDeleted != null) {
+                inactiveDiskComponents.removeAll(inactiveDiskComponentsToBeDeleted);
+            }
         }
+        return inactiveDiskComponentsToBeDeleted;
+    }
+
+    private void destroyInactiveDiskComponents(List<ILSMComponent> inactiveDiskComponentsToBeDeleted)
+            throws HyracksDataException {
+        /*
+         * cleanup inactive disk components if any
+         */
+        if (inactiveDiskComponentsToBeDeleted != null) {
+            try {
+                //schedule a replication job to delete these inactive disk components from replicas
+                if (replicationEnabled) {
+                    lsmIndex.scheduleReplication(null, inactiveDiskComponentsToBeDeleted, false,
+                            ReplicationOperation.DELETE);
+                }
 
+                for (ILSMComponent c : inactiveDiskComponentsToBeDeleted) {
+                    ((AbstractDiskLSMComponent) c).destroy();
+                }
+            } catch (Throwable e) {
+                e.printStackTrace();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Lets the searches share a reference counted snapshot of the components instead of entering each component while
+     * synchronized on the operation tracker. Only the searches that enter all the operational components of the index
+     * can use the snapshot, so it must stay disabled for indexes that prune their components with filters.
+     */
+    public void setComponentVersioning(boolean componentVersioning) throws HyracksDataException {
+        this.componentVersioning = componentVersioning;
+        if (!componentVersioning) {
+            invalidateComponentVersion();
+        }
+    }
+
+    /**
+     * Drops the current component version, so that the next search takes a new snapshot of the components. The index
+     * must call this whenever it changes its components outside of the harness, e.g., when it is cleared or
+     * deactivated.
+     */
+    public void invalidateComponentVersion() throws HyracksDataException {
+        List<ILSMComponent> inactiveDiskComponentsToBeDeleted;
+        synchronized (opTracker) {
+            releaseComponentVersion();
+            inactiveDiskComponentsToBeDeleted = getInactiveDiskComponentsToBeDeleted();
+        }
+        destroyInactiveDiskComponents(inactiveDiskComponentsToBeDeleted);
+    }
+
+    /**
+     * Drops the reference of the harness to the current component version. Called while synchronized on the operation
+     * tracker.
+     */
+    private void releaseComponentVersion() throws HyracksDataException {
+        LSMComponentVersion version = componentVersion;
+        if (version == null) {
+            return;
+        }
+        componentVersion = null;
+        if (version.exit()) {
+            exitComponents(version);
+        }
+    }
+
+    /**
+     * Publishes the components that a search has just entered as the current component version. Called while
+     * synchronized on the operation tracker.
+     */
+    private void publishComponentVersion(ILSMIndexOperationContext ctx) throws HyracksDataException {
+        List<ILSMComponent> components = ctx.getComponentHolder();
+        int numEntered = 0;
+        for (ILSMComponent c : components) {
+            boolean isMutableComponent = numEntered == 0 && c.getType() == LSMComponentType.MEMORY ? true : false;
+            // The search has just entered the same components, so this is not expected to fail.
+            if (!c.threadEnter(LSMOperationType.SEARCH, isMutableComponent)) {
+                break;
+            }
+            numEntered++;
+        }
+        LSMComponentVersion version = new LSMComponentVersion(components.subList(0, numEntered),
+                ((AbstractLSMIndex) lsmIndex).getCurrentMutableComponentId());
+        if (numEntered < components.size()) {
+            exitComponents(version);
+            return;
+        }
+        componentVersion = version;
+    }
+
+    private boolean enterComponentVersion(ILSMIndexOperationContext ctx) throws HyracksDataException {
+        LSMComponentVersion version = componentVersion;
+        if (version == null || !version.enter()) {
+            return false;
+        }
+        List<ILSMComponent> components = ctx.getComponentHolder();
+        components.clear();
+        components.addAll(version.getComponents());
+        ctx.setCurrentMutableComponentId(version.getCurrentMutableComponentId());
+        ctx.setComponentVersion(version);
+        opTracker.beforeOperation(lsmIndex, LSMOperationType.SEARCH, ctx.getSearchOperationCallback(),
+                ctx.getModificationCallback());
+        return true;
+    }
+
+    private void exitComponentVersion(ILSMIndexOperationContext ctx) throws HyracksDataException {
+        LSMComponentVersion version = ctx.getComponentVersion();
+        ctx.setComponentVersion(null);
+        try {
+            if (version.exit()) {
+                // The version was replaced while this search was in it, and this search was the last one to leave.
+                List<ILSMComponent> inactiveDiskComponentsToBeDeleted;
+                synchronized (opTracker) {
+                    exitComponents(version);
+                    inactiveDiskComponentsToBeDeleted = getInactiveDiskComponentsToBeDeleted();
+                }
+                destroyInactiveDiskComponents(inactiveDiskComponentsToBeDeleted);
+            }
+        } finally {
+            opTracker.afterOperation(lsmIndex, LSMOperationType.SEARCH, ctx.getSearchOperationCallback(),
+                    ctx.getModificationCallback());
+        }
+    }
+
+    /**
+     * Exits the components of a version that is no longer held by anyone. Called while synchronized on the operation
+     * tracker.
+     */
+    private void exitComponents(LSMComponentVersion version) throws HyracksDataException {
+        int i = 0;
+        for (ILSMComponent c : version.getComponents()) {
+            boolean isMutableComponent = i == 0 && c.getType() == LSMComponentType.MEMORY ? true : false;
+            exitComponent(c, LSMOperationType.SEARCH, false, isMutableComponent);
+            i++;
+        }
     }
 
     @Override
@@ -457,6 +604,7 @@ public class LSMHarness implements ILSMHarness {
         lsmIndex.markAsValid(c);
         synchronized (opTracker) {
             lsmIndex.addComponent(c);
+            releaseComponentVersion();
             if (replicationEnabled) {
                 componentsToBeReplicated.clear();
                 componentsToBeReplicated.add(c);
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+/**
+ * A leveled merge policy: there is at most one component per level, each level being size ratio times larger than the
+ * previous one. A component that reaches the level of the next older component is merged into it, so a point lookup
+ * visits one component per level, at the cost of rewriting each level about (size ratio + 1) / 2 times.
+ * The size ratio is the largest one, hence the fewest levels, that meets the write amplification target.
+ */
+public class LeveledMergePolicy extends AbstractAmplificationMergePolicy {
+
+    @Override
+    public int[] findMergeRange(long[] componentSizes, long baseSize) {
+        int[] range = findReadAmplificationMergeRange(componentSizes);
+        if (range != null) {
+            return range;
+        }
+        int sizeRatio = getSizeRatio(getDataSize(componentSizes, baseSize));
+        for (int i = 0; i + 1 < componentSizes.length; i++) {
+            if (getLevel(componentSizes[i], baseSize, sizeRatio) >= getLevel(componentSizes[i + 1], baseSize,
+                    sizeRatio)) {
+                // The newer components are smaller, they are merged along to keep the merged range contiguous.
+                return new int[] { 0, i + 2 };
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getSizeRatio(double dataSize) {
+        // If the target cannot be met, the size ratio that writes the least is used.
+        int bestSizeRatio = MAX_SIZE_RATIO;
+        double bestWriteAmplification = Double.MAX_VALUE;
+        for (int sizeRatio = MAX_SIZE_RATIO; sizeRatio >= 2; sizeRatio--) {
+            double writeAmplification = getExpectedWriteAmplification(getNumLevels(dataSize, sizeRatio), sizeRatio);
+            if (writeAmplification <= targetWriteAmplification) {
+                return sizeRatio;
+            }
+            if (writeAmplification < bestWriteAmplification) {
+                bestSizeRatio = sizeRatio;
+                bestWriteAmplification = writeAmplification;
+            }
+        }
+        return bestSizeRatio;
+    }
+
+    @Override
+    protected double getExpectedReadAmplification(int numLevels, int sizeRatio) {
+        return Math.min(targetReadAmplification, numLevels);
+    }
+
+    @Override
+    protected double getExpectedWriteAmplification(int numLevels, int sizeRatio) {
+        return 1 + numLevels * (sizeRatio + 1) / 2.0;
+    }
+}
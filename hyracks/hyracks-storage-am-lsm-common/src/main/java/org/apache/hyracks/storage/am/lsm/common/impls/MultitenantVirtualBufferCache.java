@@ -65,6 +65,16 @@ public class MultitenantVirtualBufferCache implements IVirtualBufferCache {
         return vbc.pin(dpid, newPage);
     }
 
+    @Override
+    public ICachedPage pinOnce(long dpid) throws HyracksDataException {
+        return vbc.pinOnce(dpid);
+    }
+
+    @Override
+    public void prefetch(int fileId, int startPageId, int numPages) throws HyracksDataException {
+        vbc.prefetch(fileId, startPageId, numPages);
+    }
+
     @Override
     public void unpin(ICachedPage page) throws HyracksDataException {
         vbc.unpin(page);
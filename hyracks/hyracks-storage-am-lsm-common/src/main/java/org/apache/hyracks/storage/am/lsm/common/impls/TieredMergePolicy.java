@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+/**
+ * A size-tiered merge policy: the components are grouped into levels by size, and once a level holds size ratio
+ * components they are merged into one component of the next level. Every byte is written once per level, at the cost
+ * of up to (size ratio - 1) components per level for a point lookup to visit.
+ * The size ratio is the smallest one for which the number of levels meets the write amplification target.
+ */
+public class TieredMergePolicy extends AbstractAmplificationMergePolicy {
+
+    @Override
+    public int[] findMergeRange(long[] componentSizes, long baseSize) {
+        int[] range = findReadAmplificationMergeRange(componentSizes);
+        if (range != null) {
+            return range;
+        }
+        int sizeRatio = getSizeRatio(getDataSize(componentSizes, baseSize));
+        // Look for the newest run of components of the same level that is full.
+        int start = 0;
+        for (int i = 1; i <= componentSizes.length; i++) {
+            if (i == componentSizes.length
+                    || getLevel(componentSizes[i], baseSize, sizeRatio) != getLevel(componentSizes[start], baseSize,
+                            sizeRatio)) {
+                if (i - start >= sizeRatio) {
+                    return new int[] { start, i };
+                }
+                start = i;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getSizeRatio(double dataSize) {
+        for (int sizeRatio = 2; sizeRatio < MAX_SIZE_RATIO; sizeRatio++) {
+            if (1 + getNumLevels(dataSize, sizeRatio) <= targetWriteAmplification) {
+                return sizeRatio;
+            }
+        }
+        return MAX_SIZE_RATIO;
+    }
+
+    @Override
+    protected double getExpectedReadAmplification(int numLevels, int sizeRatio) {
+        return Math.min(targetReadAmplification, numLevels * (sizeRatio - 1) + 1);
+    }
+
+    @Override
+    protected double getExpectedWriteAmplification(int numLevels, int sizeRatio) {
+        return 1 + numLevels;
+    }
+}
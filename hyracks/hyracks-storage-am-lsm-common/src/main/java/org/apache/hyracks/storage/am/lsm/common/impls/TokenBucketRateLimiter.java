@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common.impls;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits a byte rate with a token bucket that refills at bytesPerSecond and holds at most one second of tokens.
+ * A caller takes the tokens it needs even when the bucket does not hold enough, and then sleeps until the debt is
+ * paid back, so concurrent callers share the rate in the order they asked for it.
+ */
+public class TokenBucketRateLimiter {
+    private final long bytesPerSecond;
+    private final AtomicLong throttledNanos = new AtomicLong();
+    private long tokens;
+    private long lastRefillTime;
+
+    public TokenBucketRateLimiter(long bytesPerSecond) {
+        if (bytesPerSecond <= 0) {
+            throw new IllegalArgumentException("The rate must be positive: " + bytesPerSecond);
+        }
+        this.bytesPerSecond = bytesPerSecond;
+        this.tokens = bytesPerSecond;
+        this.lastRefillTime = System.nanoTime();
+    }
+
+    /**
+     * Takes bytes tokens from the bucket, blocking until the rate allows them.
+     */
+    public void acquire(long bytes) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long refill = (long) ((now - lastRefillTime) / 1e9 * bytesPerSecond);
+            if (refill > 0) {
+                tokens = Math.min(bytesPerSecond, tokens + refill);
+                lastRefillTime = now;
+            }
+            tokens -= bytes;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens * 1e9 / bytesPerSecond);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+            throttledNanos.addAndGet(waitNanos);
+        }
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * @return the total time the callers of {@link #acquire(long)} were made to wait, in milliseconds.
+     */
+    public long getThrottledTime() {
+        return TimeUnit.NANOSECONDS.toMillis(throttledNanos.get());
+    }
+}
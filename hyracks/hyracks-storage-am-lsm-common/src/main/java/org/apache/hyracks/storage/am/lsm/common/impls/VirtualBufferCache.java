@@ -189,6 +189,16 @@ public class VirtualBufferCache implements IVirtualBufferCache {
         return page;
     }
 
+    @Override
+    public ICachedPage pinOnce(long dpid) throws HyracksDataException {
+        return pin(dpid, false);
+    }
+
+    @Override
+    public void prefetch(int fileId, int startPageId, int numPages) throws HyracksDataException {
+        // The pages are always in memory.
+    }
+
     private int hash(long dpid) {
         int hashValue = (int) dpid ^ (Integer.reverse((int) (dpid >>> 32)) >>> 1);
         return hashValue % buckets.length;
@@ -27,4 +27,14 @@ public interface IInvertedIndexSearchModifier {
     public short getNumTokensLowerBound(short numQueryTokens);
 
     public short getNumTokensUpperBound(short numQueryTokens);
+
+    /**
+     * Ranks the results of a top-K search, the higher the better. The score must not decrease with the occurrence
+     * count.
+     *
+     * @param numTokens
+     *            the number of tokens of the result, or -1 if the index does not know it, in which case the score is
+     *            an upper bound of the scores for all the numbers of tokens
+     */
+    public double getTopKScore(int occurrenceCount, int numQueryTokens, int numTokens);
 }
@@ -41,6 +41,12 @@ public interface IInvertedIndexSearcher {
     public List<ByteBuffer> getResultBuffers();
 
     public int getNumValidResultBuffers();
+
+    /**
+     * @return the score of the result at resultIndex of a top-K search, see
+     *         {@link IInvertedIndexSearchModifier#getTopKScore(int, int, int)}
+     */
+    public double getTopKScore(int resultIndex, int occurrenceCount);
     
     public void reset();
 }
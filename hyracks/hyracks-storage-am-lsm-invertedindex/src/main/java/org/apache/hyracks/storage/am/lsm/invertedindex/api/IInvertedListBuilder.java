@@ -20,6 +20,7 @@
 package org.apache.hyracks.storage.am.lsm.invertedindex.api;
 
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 
 public interface IInvertedListBuilder {
     public boolean startNewList(ITupleReference tuple, int numTokenFields);
@@ -33,4 +34,7 @@ public interface IInvertedListBuilder {
     public int getListSize();
 
     public int getPos();
+
+    // creates a cursor that reads the inverted lists written by this builder
+    public IInvertedListCursor createCursor(IBufferCache bufferCache, int fileId);
 }
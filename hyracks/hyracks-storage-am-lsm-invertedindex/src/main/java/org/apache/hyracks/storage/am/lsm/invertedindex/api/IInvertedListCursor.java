@@ -38,6 +38,10 @@ public interface IInvertedListCursor extends Comparable<IInvertedListCursor> {
 
     public ITupleReference getTuple();
 
+    // decodes up to maxElements next elements one after the other into elements, returns how many were decoded.
+    // does not need pinPages(): the cursor then pins at most one page at a time, which unpinPages() releases
+    public int nextBlock(byte[] elements, int maxElements) throws HyracksDataException, IndexException;
+
     // getters
     public int size();
 
@@ -35,12 +35,15 @@ public class LSMInvertedIndexSearchOperatorNodePushable extends IndexSearchOpera
     protected final IInvertedIndexSearchModifier searchModifier;
     protected final int queryFieldIndex;
     protected final int invListFields;
+    protected final int topK;
 
     public LSMInvertedIndexSearchOperatorNodePushable(IIndexOperatorDescriptor opDesc, IHyracksTaskContext ctx,
             int partition, IRecordDescriptorProvider recordDescProvider, int queryFieldIndex,
-            IInvertedIndexSearchModifier searchModifier, int[] minFilterFieldIndexes, int[] maxFilterFieldIndexes) {
+            IInvertedIndexSearchModifier searchModifier, int[] minFilterFieldIndexes, int[] maxFilterFieldIndexes,
+            int topK) {
         super(opDesc, ctx, partition, recordDescProvider, minFilterFieldIndexes, maxFilterFieldIndexes);
         this.searchModifier = searchModifier;
+        this.topK = topK;
         this.queryFieldIndex = queryFieldIndex;
         // If retainInput is true, the frameTuple is created in IndexSearchOperatorNodePushable.open().
         if (!opDesc.getRetainInput()) {
@@ -63,6 +66,7 @@ public class LSMInvertedIndexSearchOperatorNodePushable extends IndexSearchOpera
         InvertedIndexSearchPredicate invIndexSearchPred = (InvertedIndexSearchPredicate) searchPred;
         invIndexSearchPred.setQueryTuple(frameTuple);
         invIndexSearchPred.setQueryFieldIndex(queryFieldIndex);
+        invIndexSearchPred.setTopK(topK);
         if (minFilterKey != null) {
             minFilterKey.reset(accessor, tupleIndex);
         }
@@ -37,6 +37,8 @@ import org.apache.hyracks.storage.am.lsm.common.api.ILSMHarness;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
 import org.apache.hyracks.storage.am.lsm.common.impls.BloomFilterAwareBTreePointSearchCursor;
 import org.apache.hyracks.storage.am.lsm.invertedindex.exceptions.OccurrenceThresholdPanicException;
+import org.apache.hyracks.storage.am.lsm.invertedindex.ondisk.OnDiskInvertedIndexSearchCursor;
+import org.apache.hyracks.storage.am.lsm.invertedindex.search.InvertedIndexSearchPredicate;
 
 /**
  * Searches the components one-by-one, completely consuming a cursor before moving on to the next one.
@@ -61,6 +63,11 @@ public class LSMInvertedIndexSearchCursor implements IIndexCursor {
 
     private List<ILSMComponent> operationalComponents;
 
+    // Set for top-K searches only.
+    private InvertedIndexSearchPredicate topKSearchPred;
+    private boolean newerComponentsHaveDeletedKeys;
+    private final RangePredicate allKeysPred = new RangePredicate(null, null, true, true, null, null);
+
     @Override
     public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
         LSMInvertedIndexSearchCursorInitialState lsmInitState = (LSMInvertedIndexSearchCursorInitialState) initialState;
@@ -71,6 +78,12 @@ public class LSMInvertedIndexSearchCursor implements IIndexCursor {
         accessorIndex = 0;
         this.searchPred = searchPred;
         this.searchCallback = lsmInitState.getSearchOperationCallback();
+        topKSearchPred = null;
+        if (searchPred instanceof InvertedIndexSearchPredicate
+                && ((InvertedIndexSearchPredicate) searchPred).getTopK() > 0) {
+            topKSearchPred = (InvertedIndexSearchPredicate) searchPred;
+        }
+        newerComponentsHaveDeletedKeys = false;
 
         // For searching the deleted-keys BTrees.
         deletedKeysBTreeAccessors = lsmInitState.getDeletedKeysBTreeAccessors();
@@ -111,11 +124,29 @@ public class LSMInvertedIndexSearchCursor implements IIndexCursor {
         return false;
     }
 
+    private boolean hasDeletedKeys(int componentIndex) throws HyracksDataException {
+        IIndexAccessor deletedKeysBTreeAccessor = deletedKeysBTreeAccessors.get(componentIndex);
+        IIndexCursor cursor = deletedKeysBTreeAccessor.createSearchCursor(false);
+        try {
+            deletedKeysBTreeAccessor.search(cursor, allKeysPred);
+            return cursor.hasNext();
+        } catch (IndexException e) {
+            throw new HyracksDataException(e);
+        } finally {
+            cursor.close();
+        }
+    }
+
     // Move to the next tuple that has not been deleted.
     private boolean nextValidTuple() throws HyracksDataException, IndexException {
         while (currentCursor.hasNext()) {
             currentCursor.next();
             if (!isDeleted(currentCursor.getTuple())) {
+                if (topKSearchPred != null) {
+                    // The next components have to beat the valid results.
+                    topKSearchPred.getTopKResults().offer(
+                            ((OnDiskInvertedIndexSearchCursor) currentCursor).getTopKScore());
+                }
                 tupleConsumed = false;
                 return true;
             }
@@ -139,6 +170,13 @@ public class LSMInvertedIndexSearchCursor implements IIndexCursor {
             // Current cursor has been exhausted, switch to next accessor/cursor.
             currentAccessor = indexAccessors.get(accessorIndex);
             currentCursor = currentAccessor.createSearchCursor(false);
+            if (topKSearchPred != null) {
+                // A component can only rank its results if none of them can be deleted by a newer component.
+                if (accessorIndex > 0 && !newerComponentsHaveDeletedKeys) {
+                    newerComponentsHaveDeletedKeys = hasDeletedKeys(accessorIndex - 1);
+                }
+                topKSearchPred.setLocalTopKPruning(!newerComponentsHaveDeletedKeys);
+            }
             try {
                 currentAccessor.search(currentCursor, searchPred);
             } catch (OccurrenceThresholdPanicException e) {
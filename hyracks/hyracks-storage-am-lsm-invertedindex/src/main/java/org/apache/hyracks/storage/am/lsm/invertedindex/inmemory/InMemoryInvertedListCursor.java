@@ -137,6 +137,27 @@ public class InMemoryInvertedListCursor implements IInvertedListCursor {
         return resultTuple;
     }
 
+    @Override
+    public int nextBlock(byte[] elements, int maxElements) throws HyracksDataException, IndexException {
+        if (!cursorNeedsClose) {
+            // Streams the list through the B-tree cursor, which only keeps its current leaf pinned.
+            pinPages();
+        }
+        int numCopied = 0;
+        int off = 0;
+        while (numCopied < maxElements && btreeCursor.hasNext()) {
+            btreeCursor.next();
+            ITupleReference tuple = getTuple();
+            for (int i = 0; i < tuple.getFieldCount(); i++) {
+                System.arraycopy(tuple.getFieldData(i), tuple.getFieldStart(i), elements, off,
+                        tuple.getFieldLength(i));
+                off += tuple.getFieldLength(i);
+            }
+            numCopied++;
+        }
+        return numCopied;
+    }
+
     @Override
     public int size() {
         if (numElements < 0) {
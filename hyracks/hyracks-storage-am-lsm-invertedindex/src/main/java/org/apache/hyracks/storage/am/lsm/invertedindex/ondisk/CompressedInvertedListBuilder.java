@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.invertedindex.ondisk;
+
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedListBuilder;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedListCursor;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+
+/**
+ * Writes the inverted lists as blocks of up to {@link #MAX_BLOCK_ELEMENTS} elements. A block starts with a header
+ * holding its number of elements and its length in bytes, followed by its first element as is. The other elements of
+ * the block store the difference of their first field to the previous element as a zig-zag variable-byte integer,
+ * followed by their remaining fields as is. The first field is only delta-encoded if it is at most 8 bytes long.
+ * The headers are the skip pointers of the list: a reader can compare a key with the first element of each block and
+ * jump to the next block without decoding the current one.
+ * A block never crosses a page. A header with no elements, or less than a header's worth of space at the end of a
+ * page, means that the list continues at the beginning of the next page.
+ */
+public class CompressedInvertedListBuilder implements IInvertedListBuilder {
+    public static final int BLOCK_HEADER_SIZE = 4;
+    public static final int MAX_BLOCK_ELEMENTS = 128;
+    private static final int MAX_BLOCK_LENGTH = 0xFFFF;
+    private static final int MAX_DELTA_FIELD_LENGTH = 8;
+
+    private final ITypeTraits[] invListFields;
+    private final int listElementSize;
+    private final int deltaFieldLength;
+    private int listSize = 0;
+
+    private byte[] targetBuf;
+    private int pos;
+
+    private int blockStart = -1;
+    private int blockNumElements;
+    private int blockLength;
+    private long prevValue;
+
+    public CompressedInvertedListBuilder(ITypeTraits[] invListFields) {
+        this.invListFields = invListFields;
+        int tmp = 0;
+        for (int i = 0; i < invListFields.length; i++) {
+            tmp += invListFields[i].getFixedLength();
+        }
+        listElementSize = tmp;
+        deltaFieldLength = getDeltaFieldLength(invListFields);
+    }
+
+    @Override
+    public boolean startNewList(ITupleReference tuple, int numTokenFields) {
+        // The first block of the list must start on the current page.
+        if (pos + BLOCK_HEADER_SIZE + listElementSize > targetBuf.length) {
+            return false;
+        } else {
+            listSize = 0;
+            blockStart = -1;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean appendElement(ITupleReference tuple, int numTokenFields, int numElementFields) {
+        if (blockStart >= 0 && blockNumElements < MAX_BLOCK_ELEMENTS
+                && appendToBlock(tuple, numTokenFields, numElementFields)) {
+            listSize++;
+            return true;
+        }
+        if (!startBlock(tuple, numTokenFields, numElementFields)) {
+            // Marks the end of the list on this page, unless the cursor can tell from the remaining space.
+            if (pos + BLOCK_HEADER_SIZE <= targetBuf.length) {
+                writeShort(0, targetBuf, pos);
+            }
+            return false;
+        }
+        listSize++;
+        return true;
+    }
+
+    private boolean startBlock(ITupleReference tuple, int numTokenFields, int numElementFields) {
+        if (pos + BLOCK_HEADER_SIZE + listElementSize > targetBuf.length) {
+            return false;
+        }
+        blockStart = pos;
+        pos += BLOCK_HEADER_SIZE;
+        for (int i = 0; i < numElementFields; i++) {
+            int field = numTokenFields + i;
+            System.arraycopy(tuple.getFieldData(field), tuple.getFieldStart(field), targetBuf, pos,
+                    tuple.getFieldLength(field));
+            pos += tuple.getFieldLength(field);
+        }
+        blockNumElements = 1;
+        blockLength = listElementSize;
+        writeBlockHeader();
+        if (deltaFieldLength > 0) {
+            prevValue = readLeadingValue(tuple.getFieldData(numTokenFields), tuple.getFieldStart(numTokenFields),
+                    deltaFieldLength);
+        }
+        return true;
+    }
+
+    private boolean appendToBlock(ITupleReference tuple, int numTokenFields, int numElementFields) {
+        int size = listElementSize;
+        long delta = 0;
+        long value = 0;
+        int firstRawField = numTokenFields;
+        if (deltaFieldLength > 0) {
+            value = readLeadingValue(tuple.getFieldData(numTokenFields), tuple.getFieldStart(numTokenFields),
+                    deltaFieldLength);
+            delta = zigZag(value - prevValue);
+            size += getVarLongSize(delta) - deltaFieldLength;
+            firstRawField++;
+        }
+        if (pos + size > targetBuf.length || blockLength + size > MAX_BLOCK_LENGTH) {
+            return false;
+        }
+        if (deltaFieldLength > 0) {
+            pos = writeVarLong(delta, targetBuf, pos);
+            prevValue = value;
+        }
+        for (int field = firstRawField; field < numTokenFields + numElementFields; field++) {
+            System.arraycopy(tuple.getFieldData(field), tuple.getFieldStart(field), targetBuf, pos,
+                    tuple.getFieldLength(field));
+            pos += tuple.getFieldLength(field);
+        }
+        blockNumElements++;
+        blockLength += size;
+        writeBlockHeader();
+        return true;
+    }
+
+    private void writeBlockHeader() {
+        writeShort(blockNumElements, targetBuf, blockStart);
+        writeShort(blockLength, targetBuf, blockStart + 2);
+    }
+
+    @Override
+    public void setTargetBuffer(byte[] targetBuf, int startPos) {
+        this.targetBuf = targetBuf;
+        this.pos = startPos;
+        this.blockStart = -1;
+    }
+
+    @Override
+    public int getListSize() {
+        return listSize;
+    }
+
+    @Override
+    public int getPos() {
+        return pos;
+    }
+
+    @Override
+    public IInvertedListCursor createCursor(IBufferCache bufferCache, int fileId) {
+        return new CompressedInvertedListCursor(bufferCache, fileId, invListFields);
+    }
+
+    /**
+     * @return the length of the first field if it is delta-encoded, 0 otherwise
+     */
+    static int getDeltaFieldLength(ITypeTraits[] invListFields) {
+        int length = invListFields[0].getFixedLength();
+        return length <= MAX_DELTA_FIELD_LENGTH ? length : 0;
+    }
+
+    static int readShort(byte[] bytes, int off) {
+        return ((bytes[off] & 0xff) << 8) | (bytes[off + 1] & 0xff);
+    }
+
+    static void writeShort(int value, byte[] bytes, int off) {
+        bytes[off] = (byte) (value >>> 8);
+        bytes[off + 1] = (byte) value;
+    }
+
+    /**
+     * Reads a big-endian field of up to 8 bytes. The differences between the values wrap around, so the encoding
+     * stays lossless whatever the field holds.
+     */
+    static long readLeadingValue(byte[] bytes, int off, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (bytes[off + i] & 0xff);
+        }
+        return value;
+    }
+
+    static void writeLeadingValue(long value, byte[] bytes, int off, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            bytes[off + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int getVarLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVarLong(long value, byte[] bytes, int off) {
+        while ((value & ~0x7FL) != 0) {
+            bytes[off++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[off++] = (byte) value;
+        return off;
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.invertedindex.ondisk;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedListCursor;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+
+/**
+ * Reads the inverted lists written by {@link CompressedInvertedListBuilder}.
+ * The elements are decoded one at a time into a private buffer, so the tuple returned by {@link #getTuple()} is only
+ * valid until the next call to {@link #next()}.
+ * {@link #containsKey(ITupleReference, MultiComparator)} keeps its own position, which only moves forward while the
+ * keys increase: it skips the blocks whose successor starts at or below the key by comparing the raw first elements,
+ * and only decodes the block that may contain the key.
+ */
+public class CompressedInvertedListCursor implements IInvertedListCursor {
+    private static final int HEADER_SIZE = CompressedInvertedListBuilder.BLOCK_HEADER_SIZE;
+
+    private final IBufferCache bufferCache;
+    private final int fileId;
+    private final int elementSize;
+    private final int deltaFieldLength;
+
+    private int startPageId;
+    private int endPageId;
+    private int startOff;
+    private int numElements;
+
+    // Iteration state, the offset points to the next encoded byte.
+    private int currentElementIx;
+    private int currentPageIx;
+    private int currentOff;
+    private int currentBlockRemaining;
+    private final byte[] element;
+    private final FixedSizeTupleReference tuple;
+
+    // Probe state of containsKey, the offset points to the header of the current block.
+    private boolean probePositioned;
+    private int probeElementIx;
+    private int probePageIx;
+    private int probeOff;
+    private final byte[] probeElement;
+    private final FixedSizeTupleReference probeTuple;
+    private final FixedSizeTupleReference pageTuple;
+
+    private ICachedPage[] pages = new ICachedPage[10];
+    private boolean pinned = false;
+    // The page that nextBlock has pinned by itself, if the pages are not pinned.
+    private int streamedPageIx = -1;
+
+    public CompressedInvertedListCursor(IBufferCache bufferCache, int fileId, ITypeTraits[] invListFields) {
+        this.bufferCache = bufferCache;
+        this.fileId = fileId;
+        int tmp = 0;
+        for (int i = 0; i < invListFields.length; i++) {
+            tmp += invListFields[i].getFixedLength();
+        }
+        elementSize = tmp;
+        deltaFieldLength = CompressedInvertedListBuilder.getDeltaFieldLength(invListFields);
+        element = new byte[elementSize];
+        tuple = new FixedSizeTupleReference(invListFields);
+        tuple.reset(element, 0);
+        probeElement = new byte[elementSize];
+        probeTuple = new FixedSizeTupleReference(invListFields);
+        probeTuple.reset(probeElement, 0);
+        pageTuple = new FixedSizeTupleReference(invListFields);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return currentElementIx < numElements;
+    }
+
+    @Override
+    public void next() {
+        if (currentBlockRemaining == 0) {
+            currentOff = skipToBlock(currentOff);
+            byte[] page = pages[currentPageIx].getBuffer().array();
+            currentBlockRemaining = CompressedInvertedListBuilder.readShort(page, currentOff) - 1;
+            System.arraycopy(page, currentOff + HEADER_SIZE, element, 0, elementSize);
+            currentOff += HEADER_SIZE + elementSize;
+        } else {
+            currentOff = decodeElement(pages[currentPageIx].getBuffer().array(), currentOff, element);
+            currentBlockRemaining--;
+        }
+        currentElementIx++;
+    }
+
+    @Override
+    public int nextBlock(byte[] elements, int maxElements) throws HyracksDataException {
+        int numDecoded = 0;
+        try {
+            while (numDecoded < maxElements && currentElementIx < numElements) {
+                streamPage(currentPageIx);
+                if (currentBlockRemaining == 0) {
+                    currentOff = skipToBlock(currentOff);
+                    streamPage(currentPageIx);
+                }
+                next();
+                System.arraycopy(element, 0, elements, numDecoded * elementSize, elementSize);
+                numDecoded++;
+            }
+        } finally {
+            unpinStreamedPage();
+        }
+        return numDecoded;
+    }
+
+    /**
+     * Makes the page with the given index available to {@link #next()}. If the pages are not pinned, pins it in place
+     * of the page that was streamed before, so that at most one page of the list is pinned.
+     */
+    private void streamPage(int pageIx) throws HyracksDataException {
+        if (pinned || streamedPageIx == pageIx) {
+            return;
+        }
+        unpinStreamedPage();
+        pages[pageIx] = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, startPageId + pageIx), false);
+        pages[pageIx].acquireReadLatch();
+        streamedPageIx = pageIx;
+    }
+
+    private void unpinStreamedPage() throws HyracksDataException {
+        if (streamedPageIx >= 0) {
+            pages[streamedPageIx].releaseReadLatch();
+            bufferCache.unpin(pages[streamedPageIx]);
+            streamedPageIx = -1;
+        }
+    }
+
+    /**
+     * Moves the iteration to the next page if no block starts at the given offset.
+     */
+    private int skipToBlock(int off) {
+        if (!hasBlockAt(currentPageIx, off)) {
+            currentPageIx++;
+            return 0;
+        }
+        return off;
+    }
+
+    private boolean hasBlockAt(int pageIx, int off) {
+        return off + HEADER_SIZE <= bufferCache.getPageSize()
+                && CompressedInvertedListBuilder.readShort(pages[pageIx].getBuffer().array(), off) > 0;
+    }
+
+    /**
+     * Decodes the element at the given offset over the previous element of its block, which dest holds.
+     *
+     * @return the offset of the next element
+     */
+    private int decodeElement(byte[] page, int off, byte[] dest) {
+        int rawStart = 0;
+        if (deltaFieldLength > 0) {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = page[off++];
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            long value = CompressedInvertedListBuilder.readLeadingValue(dest, 0, deltaFieldLength)
+                    + CompressedInvertedListBuilder.unZigZag(delta);
+            CompressedInvertedListBuilder.writeLeadingValue(value, dest, 0, deltaFieldLength);
+            rawStart = deltaFieldLength;
+        }
+        System.arraycopy(page, off, dest, rawStart, elementSize - rawStart);
+        return off + elementSize - rawStart;
+    }
+
+    @Override
+    public void pinPages() throws HyracksDataException {
+        if (pinned) {
+            return;
+        }
+        int pix = 0;
+        for (int i = startPageId; i <= endPageId; i++) {
+            pages[pix] = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), false);
+            pages[pix].acquireReadLatch();
+            pix++;
+        }
+        pinned = true;
+    }
+
+    @Override
+    public void unpinPages() throws HyracksDataException {
+        if (!pinned) {
+            return;
+        }
+        int numPages = endPageId - startPageId + 1;
+        for (int i = 0; i < numPages; i++) {
+            pages[i].releaseReadLatch();
+            bufferCache.unpin(pages[i]);
+        }
+        pinned = false;
+    }
+
+    @Override
+    public boolean containsKey(ITupleReference searchTuple, MultiComparator invListCmp) throws HyracksDataException {
+        if (numElements == 0) {
+            return false;
+        }
+        if (!probePositioned || invListCmp.compare(searchTuple, getBlockFirstElement(probePageIx, probeOff)) < 0) {
+            probeElementIx = 0;
+            probePageIx = 0;
+            probeOff = startOff;
+            probePositioned = true;
+        }
+
+        // Skips the blocks that end before the key.
+        while (true) {
+            byte[] page = pages[probePageIx].getBuffer().array();
+            int nextElementIx = probeElementIx + CompressedInvertedListBuilder.readShort(page, probeOff);
+            if (nextElementIx >= numElements) {
+                break;
+            }
+            int nextPageIx = probePageIx;
+            int nextOff = probeOff + HEADER_SIZE + CompressedInvertedListBuilder.readShort(page, probeOff + 2);
+            if (!hasBlockAt(nextPageIx, nextOff)) {
+                nextPageIx++;
+                nextOff = 0;
+            }
+            if (invListCmp.compare(searchTuple, getBlockFirstElement(nextPageIx, nextOff)) < 0) {
+                break;
+            }
+            probeElementIx = nextElementIx;
+            probePageIx = nextPageIx;
+            probeOff = nextOff;
+        }
+
+        // Scans the block that may contain the key.
+        byte[] page = pages[probePageIx].getBuffer().array();
+        int count = Math.min(CompressedInvertedListBuilder.readShort(page, probeOff), numElements - probeElementIx);
+        int off = probeOff + HEADER_SIZE;
+        System.arraycopy(page, off, probeElement, 0, elementSize);
+        off += elementSize;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                off = decodeElement(page, off, probeElement);
+            }
+            int cmp = invListCmp.compare(searchTuple, probeTuple);
+            if (cmp == 0) {
+                return true;
+            } else if (cmp < 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private ITupleReference getBlockFirstElement(int pageIx, int off) {
+        pageTuple.reset(pages[pageIx].getBuffer().array(), off + HEADER_SIZE);
+        return pageTuple;
+    }
+
+    @Override
+    public void reset(int startPageId, int endPageId, int startOff, int numElements) {
+        this.startPageId = startPageId;
+        this.endPageId = endPageId;
+        this.startOff = startOff;
+        this.numElements = numElements;
+        this.currentElementIx = 0;
+        this.currentPageIx = 0;
+        this.currentOff = startOff;
+        this.currentBlockRemaining = 0;
+        this.probePositioned = false;
+
+        int numPages = endPageId - startPageId + 1;
+        if (numPages > pages.length) {
+            pages = new ICachedPage[numPages];
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public String printInvList(ISerializerDeserializer[] serdes) throws HyracksDataException {
+        int oldCurrentOff = currentOff;
+        int oldCurrentPageIx = currentPageIx;
+        int oldCurrentElementIx = currentElementIx;
+        int oldCurrentBlockRemaining = currentBlockRemaining;
+        byte[] oldElement = element.clone();
+
+        currentOff = startOff;
+        currentPageIx = 0;
+        currentElementIx = 0;
+        currentBlockRemaining = 0;
+
+        StringBuilder strBuilder = new StringBuilder();
+
+        while (hasNext()) {
+            next();
+            strBuilder.append(printCurrentElement(serdes));
+            strBuilder.append(" ");
+        }
+
+        // reset previous state
+        currentOff = oldCurrentOff;
+        currentPageIx = oldCurrentPageIx;
+        currentElementIx = oldCurrentElementIx;
+        currentBlockRemaining = oldCurrentBlockRemaining;
+        System.arraycopy(oldElement, 0, element, 0, elementSize);
+
+        return strBuilder.toString();
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public String printCurrentElement(ISerializerDeserializer[] serdes) throws HyracksDataException {
+        StringBuilder strBuilder = new StringBuilder();
+        for (int i = 0; i < tuple.getFieldCount(); i++) {
+            ByteArrayInputStream inStream = new ByteArrayInputStream(tuple.getFieldData(i), tuple.getFieldStart(i),
+                    tuple.getFieldLength(i));
+            DataInput dataIn = new DataInputStream(inStream);
+            Object o = serdes[i].deserialize(dataIn);
+            strBuilder.append(o.toString());
+            if (i + 1 < tuple.getFieldCount())
+                strBuilder.append(",");
+        }
+        return strBuilder.toString();
+    }
+
+    @Override
+    public int compareTo(IInvertedListCursor invListCursor) {
+        return numElements - invListCursor.size();
+    }
+
+    @Override
+    public int getEndPageId() {
+        return endPageId;
+    }
+
+    @Override
+    public int size() {
+        return numElements;
+    }
+
+    @Override
+    public int getStartOff() {
+        return startOff;
+    }
+
+    @Override
+    public int getStartPageId() {
+        return startPageId;
+    }
+
+    @Override
+    public ITupleReference getTuple() {
+        return tuple;
+    }
+}
@@ -22,8 +22,11 @@ package org.apache.hyracks.storage.am.lsm.invertedindex.ondisk;
 import org.apache.hyracks.api.dataflow.value.ITypeTraits;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedListBuilder;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedListCursor;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 
 public class FixedSizeElementInvertedListBuilder implements IInvertedListBuilder {
+    private final ITypeTraits[] invListFields;
     private final int listElementSize;
     private int listSize = 0;
 
@@ -31,6 +34,7 @@ public class FixedSizeElementInvertedListBuilder implements IInvertedListBuilder
     private int pos;
 
     public FixedSizeElementInvertedListBuilder(ITypeTraits[] invListFields) {
+        this.invListFields = invListFields;
         int tmp = 0;
         for (int i = 0; i < invListFields.length; i++) {
             tmp += invListFields[i].getFixedLength();
@@ -81,4 +85,9 @@ public class FixedSizeElementInvertedListBuilder implements IInvertedListBuilder
     public int getPos() {
         return pos;
     }
+
+    @Override
+    public IInvertedListCursor createCursor(IBufferCache bufferCache, int fileId) {
+        return new FixedSizeElementInvertedListCursor(bufferCache, fileId, invListFields);
+    }
 }
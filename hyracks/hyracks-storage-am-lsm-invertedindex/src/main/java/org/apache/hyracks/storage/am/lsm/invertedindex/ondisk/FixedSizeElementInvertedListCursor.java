@@ -52,6 +52,8 @@ public class FixedSizeElementInvertedListCursor implements IInvertedListCursor {
     private int[] elementIndexes = new int[10];
 
     private boolean pinned = false;
+    // The page that nextBlock has pinned by itself, if the pages are not pinned.
+    private int streamedPageIx = -1;
 
     public FixedSizeElementInvertedListCursor(IBufferCache bufferCache, int fileId, ITypeTraits[] invListFields) {
         this.bufferCache = bufferCache;
@@ -88,6 +90,57 @@ public class FixedSizeElementInvertedListCursor implements IInvertedListCursor {
         tuple.reset(pages[currentPageIx].getBuffer().array(), currentOff);
     }
 
+    @Override
+    public int nextBlock(byte[] elements, int maxElements) throws HyracksDataException {
+        int numCopied = 0;
+        try {
+            while (numCopied < maxElements && currentElementIx < numElements) {
+                // Copies the run of elements that are on the page of the next element at once.
+                int off = currentOff + elementSize;
+                if (off + elementSize > bufferCache.getPageSize()) {
+                    currentPageIx++;
+                    off = 0;
+                }
+                int run = Math.min(maxElements - numCopied, numElements - currentElementIx);
+                run = Math.min(run, (bufferCache.getPageSize() - off) / elementSize);
+                byte[] page = getStreamedPage(currentPageIx).getBuffer().array();
+                System.arraycopy(page, off, elements, numCopied * elementSize, run * elementSize);
+                numCopied += run;
+                currentElementIx += run;
+                currentOff = off + (run - 1) * elementSize;
+            }
+        } finally {
+            unpinStreamedPage();
+        }
+        if (numCopied > 0) {
+            tuple.reset(elements, (numCopied - 1) * elementSize);
+        }
+        return numCopied;
+    }
+
+    /**
+     * Returns the page with the given index. If the pages are not pinned, pins it in place of the page that was
+     * streamed before, so that at most one page of the list is pinned.
+     */
+    private ICachedPage getStreamedPage(int pageIx) throws HyracksDataException {
+        if (pinned || streamedPageIx == pageIx) {
+            return pages[pageIx];
+        }
+        unpinStreamedPage();
+        pages[pageIx] = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, startPageId + pageIx), false);
+        pages[pageIx].acquireReadLatch();
+        streamedPageIx = pageIx;
+        return pages[pageIx];
+    }
+
+    private void unpinStreamedPage() throws HyracksDataException {
+        if (streamedPageIx >= 0) {
+            pages[streamedPageIx].releaseReadLatch();
+            bufferCache.unpin(pages[streamedPageIx]);
+            streamedPageIx = -1;
+        }
+    }
+
     @Override
     public void pinPages() throws HyracksDataException {
         if (pinned) {
@@ -104,6 +157,9 @@ public class FixedSizeElementInvertedListCursor implements IInvertedListCursor {
 
     @Override
     public void unpinPages() throws HyracksDataException {
+        if (!pinned) {
+            return;
+        }
         int numPages = endPageId - startPageId + 1;
         for (int i = 0; i < numPages; i++) {
             pages[i].releaseReadLatch();
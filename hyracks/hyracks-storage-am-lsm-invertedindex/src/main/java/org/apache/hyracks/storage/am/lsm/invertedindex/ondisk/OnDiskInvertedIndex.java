@@ -251,7 +251,7 @@ public class OnDiskInvertedIndex implements IInvertedIndex {
 
     @Override
     public IInvertedListCursor createInvertedListCursor() {
-        return new FixedSizeElementInvertedListCursor(bufferCache, fileId, invListTypeTraits);
+        return invListBuilder.createCursor(bufferCache, fileId);
     }
 
     @Override
@@ -575,6 +575,10 @@ public class OnDiskInvertedIndex implements IInvertedIndex {
             throw new HyracksDataException("TODO");
         }
 
+        @Override
+        public void deallocateFrame(ByteBuffer frame) {
+        }
+
         @Override
         public void deallocateFrames(int bytes) {
             // TODO Auto-generated method stub
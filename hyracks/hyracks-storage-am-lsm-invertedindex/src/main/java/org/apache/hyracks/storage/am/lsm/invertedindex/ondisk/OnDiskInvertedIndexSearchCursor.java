@@ -24,6 +24,7 @@ import java.util.List;
 
 import org.apache.hyracks.api.comm.IFrameTupleAccessor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.common.api.ICursorInitialState;
 import org.apache.hyracks.storage.am.common.api.IIndexCursor;
@@ -37,6 +38,7 @@ public class OnDiskInvertedIndexSearchCursor implements IIndexCursor {
     private int numResultBuffers;
     private int currentBufferIndex = 0;
     private int tupleIndex = 0;
+    private int resultIndex = -1;
     private final IInvertedIndexSearcher invIndexSearcher;
     private final IFrameTupleAccessor fta;
     private final FixedSizeTupleReference frameTuple;
@@ -58,6 +60,7 @@ public class OnDiskInvertedIndexSearchCursor implements IIndexCursor {
     public void open(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
         currentBufferIndex = 0;
         tupleIndex = 0;
+        resultIndex = -1;
         resultBuffers = invIndexSearcher.getResultBuffers();
         numResultBuffers = invIndexSearcher.getNumValidResultBuffers();
         if (numResultBuffers > 0) {
@@ -78,6 +81,7 @@ public class OnDiskInvertedIndexSearchCursor implements IIndexCursor {
     public void next() {
         frameTuple.reset(fta.getBuffer().array(), fta.getTupleStartOffset(tupleIndex));
         resultTuple.reset(frameTuple);
+        resultIndex++;
         tupleIndex++;
         if (tupleIndex >= fta.getTupleCount()) {
             if (currentBufferIndex + 1 < numResultBuffers) {
@@ -93,10 +97,26 @@ public class OnDiskInvertedIndexSearchCursor implements IIndexCursor {
         return resultTuple;
     }
 
+    /**
+     * @return the number of query tokens whose inverted lists contain the current result
+     */
+    public int getOccurrenceCount() {
+        return IntegerPointable.getInteger(frameTuple.getFieldData(0),
+                frameTuple.getFieldStart(frameTuple.getFieldCount() - 1));
+    }
+
+    /**
+     * @return the score of the current result of a top-K search
+     */
+    public double getTopKScore() {
+        return invIndexSearcher.getTopKScore(resultIndex, getOccurrenceCount());
+    }
+
     @Override
     public void reset() {
         currentBufferIndex = 0;
         tupleIndex = 0;
+        resultIndex = -1;
         invIndexSearcher.reset();
         resultBuffers = invIndexSearcher.getResultBuffers();
         numResultBuffers = invIndexSearcher.getNumValidResultBuffers();
@@ -106,6 +126,7 @@ public class OnDiskInvertedIndexSearchCursor implements IIndexCursor {
     public void close() throws HyracksDataException {
         currentBufferIndex = 0;
         tupleIndex = 0;
+        resultIndex = -1;
         resultBuffers = null;
         numResultBuffers = 0;
     }
@@ -135,6 +135,11 @@ public abstract class AbstractTOccurrenceSearcher implements IInvertedIndexSearc
         return searchResult.getCurrentBufferIndex() + 1;
     }
 
+    @Override
+    public double getTopKScore(int resultIndex, int occurrenceCount) {
+        return invListMerger.getTopKScore(resultIndex, occurrenceCount);
+    }
+
     public int getOccurrenceThreshold() {
         return occurrenceThreshold;
     }
@@ -33,6 +33,12 @@ public class ConjunctiveSearchModifier implements IInvertedIndexSearchModifier {
         return 1;
     }
     
+    @Override
+    public double getTopKScore(int occurrenceCount, int numQueryTokens, int numTokens) {
+        // All the results contain all the query tokens.
+        return occurrenceCount;
+    }
+
     @Override
     public String toString() {
         return "Conjunctive Search Modifier";
@@ -51,6 +51,20 @@ public class EditDistanceSearchModifier implements IInvertedIndexSearchModifier
         return (short) (numQueryTokens + edThresh);
     }
 
+    /**
+     * Scores a result by the negated lower bound of its edit distance: an edit changes the number of grams by at most
+     * one, and destroys at most gramLength grams.
+     */
+    @Override
+    public double getTopKScore(int occurrenceCount, int numQueryTokens, int numTokens) {
+        int maxNumGrams = Math.max(numQueryTokens, numTokens);
+        int minEditDistance = (maxNumGrams - occurrenceCount + gramLength - 1) / gramLength;
+        if (numTokens >= 0) {
+            minEditDistance = Math.max(minEditDistance, Math.abs(numQueryTokens - numTokens));
+        }
+        return -minEditDistance;
+    }
+
     public int getGramLength() {
         return gramLength;
     }
@@ -32,6 +32,9 @@ public class InvertedIndexSearchPredicate extends AbstractSearchPredicate {
     private int queryFieldIndex;
     private final IBinaryTokenizer queryTokenizer;
     private final IInvertedIndexSearchModifier searchModifier;
+    private int topK = 0;
+    private final TopKScoreHeap topKResults = new TopKScoreHeap();
+    private boolean localTopKPruning = true;
 
     public InvertedIndexSearchPredicate(IBinaryTokenizer queryTokenizer, IInvertedIndexSearchModifier searchModifier) {
         this.queryTokenizer = queryTokenizer;
@@ -69,6 +72,42 @@ public class InvertedIndexSearchPredicate extends AbstractSearchPredicate {
         return queryTokenizer;
     }
 
+    /**
+     * Only returns the topK results with the highest {@link IInvertedIndexSearchModifier#getTopKScore(int, int, int)},
+     * or all of them if topK is 0. Also forgets the results of the previous top-K search.
+     * A partitioned index knows the number of tokens of its results, so it ranks them by their Jaccard similarity or
+     * by the lower bound of their edit distance, whereas other indexes rank them by an upper bound of it.
+     */
+    public void setTopK(int topK) {
+        this.topK = topK;
+        topKResults.reset(topK);
+        localTopKPruning = true;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * The scores of the results that were already returned by a top-K search over several indexes, e.g. the
+     * components of an LSM index, which the search of the next index must beat.
+     */
+    public TopKScoreHeap getTopKResults() {
+        return topKResults;
+    }
+
+    /**
+     * Whether the search of an index may rank its own results against each other. It must not if some of them may
+     * be filtered out after the search, e.g. because a newer LSM component deleted them.
+     */
+    public void setLocalTopKPruning(boolean localTopKPruning) {
+        this.localTopKPruning = localTopKPruning;
+    }
+
+    public boolean isLocalTopKPruning() {
+        return localTopKPruning;
+    }
+
     @Override
     public MultiComparator getLowKeyComparator() {
         // TODO: This doesn't make sense for an inverted index. Change ISearchPredicate interface.
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.invertedindex.search;
+
+import java.util.List;
+
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.api.IndexException;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedListCursor;
+import org.apache.hyracks.storage.am.lsm.invertedindex.ondisk.FixedSizeTupleReference;
+
+/**
+ * Intersects inverted lists for conjunctive searches without materializing intermediate results.
+ * The shortest list drives the intersection. Each candidate is looked up in the other lists in turn, and a list that
+ * overshoots the candidate makes the shortest list jump to its element instead. The lists are read a block of
+ * elements at a time through {@link IInvertedListCursor#nextBlock(byte[], int)}; a lookup skips the blocks that end
+ * before the key with a single comparison, and gallops through the block that may contain it.
+ * The lists are not pinned as a whole: each cursor streams its blocks with at most one of its pages pinned, so that
+ * long lists do not hold on to the buffer cache.
+ */
+public class InvertedListIntersector {
+    public static final int BLOCK_SIZE = 128;
+
+    private final MultiComparator invListCmp;
+    private final ITypeTraits[] invListTypeTraits;
+    private final int elementSize;
+    private BlockReader[] readers = new BlockReader[0];
+
+    public InvertedListIntersector(MultiComparator invListCmp, ITypeTraits[] invListTypeTraits) {
+        this.invListCmp = invListCmp;
+        this.invListTypeTraits = invListTypeTraits;
+        int tmp = 0;
+        for (int i = 0; i < invListTypeTraits.length; i++) {
+            tmp += invListTypeTraits[i].getFixedLength();
+        }
+        elementSize = tmp;
+    }
+
+    /**
+     * Appends the elements that are in all the given lists to the search result, with the number of lists as count.
+     * The lists must be sorted by size, the shortest first.
+     */
+    public void intersect(List<IInvertedListCursor> invListCursors, SearchResult searchResult)
+            throws HyracksDataException, IndexException {
+        intersect(invListCursors, searchResult, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #intersect(List, SearchResult)}, but stops after maxResults results.
+     */
+    public void intersect(List<IInvertedListCursor> invListCursors, SearchResult searchResult, int maxResults)
+            throws HyracksDataException, IndexException {
+        int numInvLists = invListCursors.size();
+        if (readers.length < numInvLists) {
+            BlockReader[] newReaders = new BlockReader[numInvLists];
+            System.arraycopy(readers, 0, newReaders, 0, readers.length);
+            for (int i = readers.length; i < numInvLists; i++) {
+                newReaders[i] = new BlockReader();
+            }
+            readers = newReaders;
+        }
+        try {
+            for (int i = 0; i < numInvLists; i++) {
+                readers[i].reset(invListCursors.get(i));
+            }
+            BlockReader driver = readers[0];
+            int numResults = 0;
+            if (maxResults <= 0 || !driver.advance()) {
+                return;
+            }
+            ITupleReference candidate = driver.getTuple();
+            // Lists [1, i) contain the candidate.
+            int i = 1;
+            while (true) {
+                if (i == numInvLists) {
+                    searchResult.append(candidate, numInvLists);
+                    if (++numResults >= maxResults || !driver.advance()) {
+                        return;
+                    }
+                    i = 1;
+                    continue;
+                }
+                BlockReader reader = readers[i];
+                if (!reader.advanceTo(candidate)) {
+                    return;
+                }
+                if (invListCmp.compare(reader.getTuple(), candidate) == 0) {
+                    i++;
+                } else {
+                    if (!driver.advanceTo(reader.getTuple())) {
+                        return;
+                    }
+                    i = 1;
+                }
+            }
+        } finally {
+            for (int i = 0; i < numInvLists; i++) {
+                invListCursors.get(i).unpinPages();
+            }
+        }
+    }
+
+    /**
+     * Reads the elements of a list a block at a time.
+     */
+    private class BlockReader {
+        private final byte[] block = new byte[BLOCK_SIZE * elementSize];
+        private final FixedSizeTupleReference tuple = new FixedSizeTupleReference(invListTypeTraits);
+        private final FixedSizeTupleReference probeTuple = new FixedSizeTupleReference(invListTypeTraits);
+        private IInvertedListCursor invListCursor;
+        private int numElements;
+        private int pos;
+
+        public BlockReader() {
+            tuple.reset(block, 0);
+            probeTuple.reset(block, 0);
+        }
+
+        public void reset(IInvertedListCursor invListCursor) {
+            this.invListCursor = invListCursor;
+            numElements = 0;
+            pos = -1;
+        }
+
+        public ITupleReference getTuple() {
+            return tuple;
+        }
+
+        /**
+         * Moves to the next element.
+         *
+         * @return false if the list is exhausted
+         */
+        public boolean advance() throws HyracksDataException, IndexException {
+            pos++;
+            if (pos >= numElements && !readBlock()) {
+                return false;
+            }
+            tuple.reset(block, pos * elementSize);
+            return true;
+        }
+
+        /**
+         * Moves to the first element that is not smaller than the key, or stays on the current one if it is not.
+         *
+         * @return false if the list is exhausted
+         */
+        public boolean advanceTo(ITupleReference key) throws HyracksDataException, IndexException {
+            if (pos >= 0 && pos < numElements && invListCmp.compare(tuple, key) >= 0) {
+                return true;
+            }
+            // The elements up to lo are smaller than the key.
+            int lo = pos;
+            while (true) {
+                if (lo + 1 >= numElements) {
+                    if (!readBlock()) {
+                        return false;
+                    }
+                    lo = -1;
+                }
+                if (compareElement(numElements - 1, key) < 0) {
+                    lo = numElements - 1;
+                    continue;
+                }
+                break;
+            }
+            // Gallops to an element that is not smaller than the key, the last element of the block is one.
+            int step = 1;
+            int hi = lo + 1;
+            while (compareElement(hi, key) < 0) {
+                lo = hi;
+                step <<= 1;
+                hi = Math.min(lo + step, numElements - 1);
+            }
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                if (compareElement(mid, key) < 0) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+            pos = hi;
+            tuple.reset(block, pos * elementSize);
+            return true;
+        }
+
+        private int compareElement(int ix, ITupleReference key) throws HyracksDataException {
+            probeTuple.reset(block, ix * elementSize);
+            return invListCmp.compare(probeTuple, key);
+        }
+
+        private boolean readBlock() throws HyracksDataException, IndexException {
+            numElements = invListCursor.nextBlock(block, BLOCK_SIZE);
+            pos = 0;
+            return numElements > 0;
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.hyracks.storage.am.lsm.invertedindex.search;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 
 import org.apache.hyracks.api.context.IHyracksCommonContext;
@@ -31,6 +32,7 @@ import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDese
 import org.apache.hyracks.storage.am.common.api.IndexException;
 import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
 import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedIndex;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedIndexSearchModifier;
 import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedListCursor;
 import org.apache.hyracks.storage.am.lsm.invertedindex.ondisk.FixedSizeFrameTupleAccessor;
 import org.apache.hyracks.storage.am.lsm.invertedindex.ondisk.FixedSizeTupleReference;
@@ -42,9 +44,24 @@ public class InvertedListMerger {
     protected final MultiComparator invListCmp;
     protected SearchResult prevSearchResult;
     protected SearchResult newSearchResult;
+    protected final InvertedListIntersector intersector;
+
+    // Top-K search state, see setTopK().
+    protected int topK = 0;
+    protected boolean localTopKPruning;
+    protected IInvertedIndexSearchModifier searchModifier;
+    protected int numQueryTokens;
+    protected int numTokens;
+    protected final TopKScoreHeap topKResults = new TopKScoreHeap();
+    protected final TopKScoreHeap topKCandidates = new TopKScoreHeap();
+    // The results of each merge of a top-K search, and the number of tokens of their elements, for scoring them.
+    protected int[] mergeFirstResults = new int[1];
+    protected int[] mergeNumTokens = new int[1];
+    protected int numMerges;
 
     public InvertedListMerger(IHyracksCommonContext ctx, IInvertedIndex invIndex) throws HyracksDataException {
         this.invListCmp = MultiComparator.create(invIndex.getInvListCmpFactories());
+        this.intersector = new InvertedListIntersector(invListCmp, invIndex.getInvListTypeTraits());
         this.prevSearchResult = new SearchResult(invIndex.getInvListTypeTraits(), ctx);
         this.newSearchResult = new SearchResult(prevSearchResult);
     }
@@ -53,13 +70,48 @@ public class InvertedListMerger {
             SearchResult searchResult) throws HyracksDataException, IndexException {
         Collections.sort(invListCursors);
         int numInvLists = invListCursors.size();
+        if (topK > 0) {
+            addMerge(searchResult.getNumResults());
+            occurrenceThreshold = Math.max(occurrenceThreshold, getTopKOccurrenceThreshold());
+            if (occurrenceThreshold > numInvLists) {
+                // No element of these lists can make it into the top-K anymore.
+                return;
+            }
+        }
+        if (numInvLists > 0 && occurrenceThreshold == numInvLists) {
+            // Pure conjunction, the elements must be in every list.
+            if (topK > 0 && localTopKPruning) {
+                // All the results have the highest possible count, the first ones will do.
+                int numResults = searchResult.getNumResults();
+                double score = getTopKScore(numInvLists);
+                intersector.intersect(invListCursors, searchResult, topK - topKResults.countAtLeast(score));
+                for (int i = searchResult.getNumResults() - numResults; i > 0; i--) {
+                    topKResults.offer(score);
+                }
+            } else {
+                intersector.intersect(invListCursors, searchResult);
+            }
+            return;
+        }
         SearchResult result = null;
+        // The first list is merged with an empty result. A top-K merge does not leave it empty behind.
+        newSearchResult.reset();
         for (int i = 0; i < numInvLists; i++) {
             SearchResult swapTemp = prevSearchResult;
             prevSearchResult = newSearchResult;
             newSearchResult = swapTemp;
             newSearchResult.reset();
-            if (i + 1 != numInvLists) {
+            if (topK > 0 && i > 0) {
+                // The counts only grow, so the best candidates so far bound the score of the K-th result.
+                occurrenceThreshold = Math.max(occurrenceThreshold, getTopKThreshold(prevSearchResult));
+                if (occurrenceThreshold > numInvLists) {
+                    return;
+                }
+                // An element that is not in the first numInvLists - occurrenceThreshold + 1 lists cannot reach the
+                // threshold, so the remaining lists only need to be probed for the current candidates.
+                numPrefixLists = Math.min(numPrefixLists, numInvLists - occurrenceThreshold + 1);
+            }
+            if (i + 1 != numInvLists || topK > 0) {
                 // Use temporary search results when not merging last list.
                 result = newSearchResult;
             } else {
@@ -84,6 +136,183 @@ public class InvertedListMerger {
             }
             invListCursor.unpinPages();
         }
+        if (topK > 0 && result != null) {
+            appendResults(result, searchResult, occurrenceThreshold, localTopKPruning);
+        }
+    }
+
+    /**
+     * Makes the following merges only keep the topK results with the highest scores of the search modifier, or all
+     * of them if topK is 0. The merges of one search share the top-K, so that they can be used for the partitions of
+     * an index, see {@link #setNumTokens(int)}.
+     *
+     * @param previousResults
+     *            the scores of the results that were already returned by the searches of other indexes
+     * @param localTopKPruning
+     *            whether the results of these merges can be ranked against each other, see
+     *            {@link InvertedIndexSearchPredicate#setLocalTopKPruning(boolean)}
+     */
+    public void setTopK(int topK, TopKScoreHeap previousResults, boolean localTopKPruning,
+            IInvertedIndexSearchModifier searchModifier, int numQueryTokens) {
+        this.topK = topK;
+        this.localTopKPruning = localTopKPruning;
+        this.searchModifier = searchModifier;
+        this.numQueryTokens = numQueryTokens;
+        numTokens = -1;
+        numMerges = 0;
+        if (topK > 0) {
+            topKResults.copyFrom(previousResults);
+        }
+    }
+
+    /**
+     * Sets the number of tokens of the elements of the following merges, e.g. those of a partition of an index, or
+     * -1 if it is unknown.
+     */
+    public void setNumTokens(int numTokens) {
+        this.numTokens = numTokens;
+    }
+
+    /**
+     * Drops the results that did not make it into the top-K after all merges of a search. Without local pruning,
+     * the merges only drop the results that cannot beat the previous results, so all of them are kept.
+     */
+    public void selectTopK(SearchResult searchResult) throws HyracksDataException {
+        if (topK <= 0 || !localTopKPruning || !topKResults.isFull()) {
+            return;
+        }
+        double kthScore = topKResults.getKthScore();
+        // The first ties of the K-th score fill the remaining places.
+        int numTies = topK - topKResults.countGreaterThan(kthScore);
+        prevSearchResult.reset();
+        appendResults(searchResult, prevSearchResult, 0, false);
+        searchResult.reset();
+        FixedSizeFrameTupleAccessor resultFrameTupleAcc = prevSearchResult.getAccessor();
+        FixedSizeTupleReference resultTuple = prevSearchResult.getTuple();
+        int resultIndex = 0;
+        int merge = -1;
+        for (int i = 0; i <= prevSearchResult.getCurrentBufferIndex(); i++) {
+            ByteBuffer buffer = prevSearchResult.getBuffers().get(i);
+            resultFrameTupleAcc.reset(buffer);
+            for (int j = 0; j < resultFrameTupleAcc.getTupleCount(); j++, resultIndex++) {
+                // The kept results of a merge stay together, so its first result moves to the next kept one.
+                while (merge + 1 < numMerges && mergeFirstResults[merge + 1] <= resultIndex) {
+                    merge++;
+                    mergeFirstResults[merge] = searchResult.getNumResults();
+                }
+                resultTuple.reset(buffer.array(), resultFrameTupleAcc.getTupleStartOffset(j));
+                int count = getCount(resultTuple);
+                double score = searchModifier.getTopKScore(count, numQueryTokens, mergeNumTokens[merge]);
+                if (score > kthScore || (score == kthScore && numTies-- > 0)) {
+                    searchResult.append(resultTuple, count);
+                }
+            }
+        }
+        while (merge + 1 < numMerges) {
+            mergeFirstResults[++merge] = searchResult.getNumResults();
+        }
+    }
+
+    /**
+     * @return the score of the result at resultIndex of the final search result of a top-K search, which occurs
+     *         in occurrenceCount inverted lists
+     */
+    public double getTopKScore(int resultIndex, int occurrenceCount) {
+        int merge = numMerges - 1;
+        while (merge > 0 && mergeFirstResults[merge] > resultIndex) {
+            merge--;
+        }
+        return searchModifier.getTopKScore(occurrenceCount, numQueryTokens, mergeNumTokens[merge]);
+    }
+
+    /**
+     * @return the lowest count a result of the following merges needs to possibly make it into the top-K, or 0 if
+     *         this is not a top-K search
+     */
+    public int getTopKOccurrenceThreshold() {
+        return topK > 0 ? getTopKThreshold(null) : 0;
+    }
+
+    private int getTopKThreshold(SearchResult candidates) {
+        if (!localTopKPruning) {
+            // Only the previous results are known to be valid, the results must beat them.
+            return topKResults.isFull() ? getOccurrenceThreshold(topKResults.getKthScore(), true) : 0;
+        }
+        topKCandidates.copyFrom(topKResults);
+        if (candidates != null) {
+            offerScores(candidates, topKCandidates);
+        }
+        return topKCandidates.isFull() ? getOccurrenceThreshold(topKCandidates.getKthScore(), false) : 0;
+    }
+
+    /**
+     * @return the lowest count whose score reaches, or beats, the given score, or numQueryTokens + 1 if there is none
+     */
+    private int getOccurrenceThreshold(double score, boolean beat) {
+        int count = 0;
+        while (count <= numQueryTokens) {
+            double countScore = getTopKScore(count);
+            if (countScore > score || (!beat && countScore == score)) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private double getTopKScore(int count) {
+        return searchModifier.getTopKScore(count, numQueryTokens, numTokens);
+    }
+
+    private void addMerge(int firstResult) {
+        if (numMerges == mergeFirstResults.length) {
+            mergeFirstResults = Arrays.copyOf(mergeFirstResults, numMerges * 2);
+            mergeNumTokens = Arrays.copyOf(mergeNumTokens, numMerges * 2);
+        }
+        mergeFirstResults[numMerges] = firstResult;
+        mergeNumTokens[numMerges] = numTokens;
+        numMerges++;
+    }
+
+    private void offerScores(SearchResult results, TopKScoreHeap heap) {
+        FixedSizeFrameTupleAccessor resultFrameTupleAcc = results.getAccessor();
+        FixedSizeTupleReference resultTuple = results.getTuple();
+        for (int i = 0; i <= results.getCurrentBufferIndex(); i++) {
+            ByteBuffer buffer = results.getBuffers().get(i);
+            resultFrameTupleAcc.reset(buffer);
+            for (int j = 0; j < resultFrameTupleAcc.getTupleCount(); j++) {
+                resultTuple.reset(buffer.array(), resultFrameTupleAcc.getTupleStartOffset(j));
+                heap.offer(getTopKScore(getCount(resultTuple)));
+            }
+        }
+    }
+
+    /**
+     * Appends the results of from whose count is at least minCount.
+     */
+    private void appendResults(SearchResult from, SearchResult to, int minCount, boolean offer)
+            throws HyracksDataException {
+        FixedSizeFrameTupleAccessor resultFrameTupleAcc = from.getAccessor();
+        FixedSizeTupleReference resultTuple = from.getTuple();
+        for (int i = 0; i <= from.getCurrentBufferIndex(); i++) {
+            ByteBuffer buffer = from.getBuffers().get(i);
+            resultFrameTupleAcc.reset(buffer);
+            for (int j = 0; j < resultFrameTupleAcc.getTupleCount(); j++) {
+                resultTuple.reset(buffer.array(), resultFrameTupleAcc.getTupleStartOffset(j));
+                int count = getCount(resultTuple);
+                if (count >= minCount) {
+                    to.append(resultTuple, count);
+                    if (offer) {
+                        topKResults.offer(getTopKScore(count));
+                    }
+                }
+            }
+        }
+    }
+
+    private static int getCount(FixedSizeTupleReference resultTuple) {
+        return IntegerPointable.getInteger(resultTuple.getFieldData(0),
+                resultTuple.getFieldStart(resultTuple.getFieldCount() - 1));
     }
 
     protected void mergeSuffixListProbe(IInvertedListCursor invListCursor, SearchResult prevSearchResult,
@@ -52,6 +52,17 @@ public class JaccardSearchModifier implements IInvertedIndexSearchModifier {
         return (short) Math.ceil(numQueryTokens / jaccThresh);
     }
 
+    @Override
+    public double getTopKScore(int occurrenceCount, int numQueryTokens, int numTokens) {
+        if (numTokens < 0) {
+            // The union has at least as many tokens as the query.
+            return (double) occurrenceCount / numQueryTokens;
+        }
+        // A query token may repeat, but the element does not share more tokens with the query than it has.
+        int overlap = Math.min(occurrenceCount, numTokens);
+        return (double) overlap / (numQueryTokens + numTokens - overlap);
+    }
+
     public float getJaccThresh() {
         return jaccThresh;
     }
@@ -57,6 +57,14 @@ public class ListEditDistanceSearchModifier implements IInvertedIndexSearchModif
         return (short) (numQueryTokens + edThresh);
     }
     
+    /**
+     * Scores a result by the negated lower bound of its edit distance: an edit changes at most one element.
+     */
+    @Override
+    public double getTopKScore(int occurrenceCount, int numQueryTokens, int numTokens) {
+        return -(Math.max(numQueryTokens, numTokens) - occurrenceCount);
+    }
+
     @Override
     public String toString() {
         return "List Edit Distance Search Modifier, Threshold: " + edThresh;
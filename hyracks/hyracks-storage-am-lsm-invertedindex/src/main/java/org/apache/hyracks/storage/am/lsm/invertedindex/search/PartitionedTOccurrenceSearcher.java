@@ -52,6 +52,9 @@ public class PartitionedTOccurrenceSearcher extends AbstractTOccurrenceSearcher
     // The above implies that we currently require holding all inverted list for a query in memory.
     protected final ArrayList<IInvertedListCursor> cursorsOrderedByTokens = new ArrayList<IInvertedListCursor>();
     protected final InvertedListPartitions partitions = new InvertedListPartitions();
+    // The partitions to merge, in the order of the best score of their elements for top-K searches.
+    protected short[] partitionOrder = new short[0];
+    protected double[] partitionBestScores = new double[0];
 
     public PartitionedTOccurrenceSearcher(IHyracksCommonContext ctx, IInvertedIndex invIndex)
             throws HyracksDataException {
@@ -99,6 +102,9 @@ public class PartitionedTOccurrenceSearcher extends AbstractTOccurrenceSearcher
         short numQueryTokens = (short) queryTokenAppender.getTupleCount();
 
         IInvertedIndexSearchModifier searchModifier = searchPred.getSearchModifier();
+        int topK = searchPred.getTopK();
+        invListMerger.setTopK(topK, searchPred.getTopKResults(), searchPred.isLocalTopKPruning(), searchModifier,
+                numQueryTokens);
         short numTokensLowerBound = searchModifier.getNumTokensLowerBound(numQueryTokens);
         short numTokensUpperBound = searchModifier.getNumTokensUpperBound(numQueryTokens);
 
@@ -152,12 +158,30 @@ public class PartitionedTOccurrenceSearcher extends AbstractTOccurrenceSearcher
         }
 
         // Process the partitions one-by-one.
-        for (int i = start; i <= end; i++) {
-            if (partitionCursors[i] == null) {
-                continue;
-            }
+        int numPartitions = 0;
+        if (partitionOrder.length < end - start + 1) {
+            partitionOrder = new short[end - start + 1];
+            partitionBestScores = new double[end - start + 1];
+        }
+        for (short i = start; i <= end; i++) {
             // Prune partition because no element in it can satisfy the occurrence threshold.
-            if (partitionCursors[i].size() < occurrenceThreshold) {
+            if (partitionCursors[i] != null && partitionCursors[i].size() >= occurrenceThreshold) {
+                partitionOrder[numPartitions++] = i;
+            }
+        }
+        if (topK > 0) {
+            orderPartitionsByBestScore(numPartitions, searchModifier, numQueryTokens);
+        }
+        for (int p = 0; p < numPartitions; p++) {
+            short i = partitionOrder[p];
+            invListMerger.setNumTokens(i);
+            // Prune partition because no element in it can make it into the top-K anymore, as the elements have
+            // fewer tokens, or the partition fewer inverted lists, than the count they need.
+            int topKOccurrenceThreshold = invListMerger.getTopKOccurrenceThreshold();
+            if (partitionCursors[i].size() < topKOccurrenceThreshold || i < topKOccurrenceThreshold) {
+                for (IInvertedListCursor invListCursor : partitionCursors[i]) {
+                    invListCursor.unpinPages();
+                }
                 continue;
             }
             // Merge inverted lists of current partition.
@@ -166,9 +190,33 @@ public class PartitionedTOccurrenceSearcher extends AbstractTOccurrenceSearcher
             invListMerger.merge(partitionCursors[i], occurrenceThreshold, numPrefixLists, searchResult);
         }
 
+        invListMerger.selectTopK(searchResult);
         resultCursor.open(null, searchPred);
     }
 
+    /**
+     * Merges the partitions whose elements can have the best scores first, so that the top-K prunes the others as
+     * early as possible. The elements of a partition share at most as many tokens with the query as the partition
+     * has inverted lists.
+     */
+    private void orderPartitionsByBestScore(int numPartitions, IInvertedIndexSearchModifier searchModifier,
+            short numQueryTokens) {
+        for (int p = 0; p < numPartitions; p++) {
+            short partition = partitionOrder[p];
+            int maxCount = Math.min(partitions.getPartitions()[partition].size(), partition);
+            double bestScore = searchModifier.getTopKScore(maxCount, numQueryTokens, partition);
+            // Insertion sort, there are only few partitions.
+            int q = p;
+            while (q > 0 && partitionBestScores[q - 1] < bestScore) {
+                partitionOrder[q] = partitionOrder[q - 1];
+                partitionBestScores[q] = partitionBestScores[q - 1];
+                q--;
+            }
+            partitionOrder[q] = partition;
+            partitionBestScores[q] = bestScore;
+        }
+    }
+
     public void setNumTokensBoundsInSearchKeys(short numTokensLowerBound, short numTokensUpperBound) {
         ShortPointable.setShort(lowerBoundTuple.getFieldData(0), lowerBoundTuple.getFieldStart(0), numTokensLowerBound);
         ShortPointable.setShort(upperBoundTuple.getFieldData(0), upperBoundTuple.getFieldStart(0), numTokensUpperBound);
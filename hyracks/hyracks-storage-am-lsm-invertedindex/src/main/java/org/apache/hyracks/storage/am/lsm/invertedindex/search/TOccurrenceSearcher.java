@@ -61,7 +61,11 @@ public class TOccurrenceSearcher extends AbstractTOccurrenceSearcher {
         int numPrefixLists = searchModifier.getNumPrefixLists(occurrenceThreshold, invListCursors.size());
 
         searchResult.reset();
+        // The elements may have any number of tokens, so they are ranked by an upper bound of their score.
+        invListMerger.setTopK(searchPred.getTopK(), searchPred.getTopKResults(), searchPred.isLocalTopKPruning(),
+                searchModifier, numQueryTokens);
         invListMerger.merge(invListCursors, occurrenceThreshold, numPrefixLists, searchResult);
+        invListMerger.selectTopK(searchResult);
         resultCursor.open(null, searchPred);
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.invertedindex.search;
+
+/**
+ * A bounded min-heap of the K highest scores seen by a top-K search.
+ * Once it is full, its smallest score is a lower bound of the score of the K-th best result.
+ */
+public class TopKScoreHeap {
+    private double[] heap = new double[0];
+    private int k;
+    private int size;
+
+    public void reset(int k) {
+        this.k = k;
+        this.size = 0;
+        if (heap.length < k) {
+            heap = new double[k];
+        }
+    }
+
+    public void copyFrom(TopKScoreHeap other) {
+        reset(other.k);
+        System.arraycopy(other.heap, 0, heap, 0, other.size);
+        size = other.size;
+    }
+
+    public void offer(double score) {
+        if (size < k) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= score) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = score;
+        } else if (k > 0 && score > heap[0]) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= score) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = score;
+        }
+    }
+
+    public boolean isFull() {
+        return k > 0 && size == k;
+    }
+
+    /**
+     * @return the smallest of the K highest scores, or negative infinity if fewer than K scores were offered
+     */
+    public double getKthScore() {
+        return isFull() ? heap[0] : Double.NEGATIVE_INFINITY;
+    }
+
+    public int countGreaterThan(double score) {
+        int numGreater = 0;
+        for (int i = 0; i < size; i++) {
+            if (heap[i] > score) {
+                numGreater++;
+            }
+        }
+        return numGreater;
+    }
+
+    public int countAtLeast(double score) {
+        int numAtLeast = 0;
+        for (int i = 0; i < size; i++) {
+            if (heap[i] >= score) {
+                numAtLeast++;
+            }
+        }
+        return numAtLeast;
+    }
+
+    public int getK() {
+        return k;
+    }
+}
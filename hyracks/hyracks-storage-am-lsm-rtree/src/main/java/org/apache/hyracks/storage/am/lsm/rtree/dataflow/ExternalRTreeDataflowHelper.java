@@ -64,9 +64,22 @@ public class ExternalRTreeDataflowHelper extends LSMRTreeDataflowHelper {
             ILSMMergePolicy mergePolicy, ILSMOperationTrackerProvider opTrackerFactory,
             ILSMIOOperationScheduler ioScheduler, ILSMIOOperationCallbackFactory ioOpCallbackFactory,
             ILinearizeComparatorFactory linearizeCmpFactory, int[] btreeFields, int version, boolean durable) {
+        this(opDesc, ctx, partition, bloomFilterFalsePositiveRate, btreeComparatorFactories, valueProviderFactories,
+                rtreePolicyType, mergePolicy, opTrackerFactory, ioScheduler, ioOpCallbackFactory, linearizeCmpFactory,
+                btreeFields, version, durable, 0);
+    }
+
+    public ExternalRTreeDataflowHelper(IIndexOperatorDescriptor opDesc, IHyracksTaskContext ctx, int partition,
+            double bloomFilterFalsePositiveRate, IBinaryComparatorFactory[] btreeComparatorFactories,
+            IPrimitiveValueProviderFactory[] valueProviderFactories, RTreePolicyType rtreePolicyType,
+            ILSMMergePolicy mergePolicy, ILSMOperationTrackerProvider opTrackerFactory,
+            ILSMIOOperationScheduler ioScheduler, ILSMIOOperationCallbackFactory ioOpCallbackFactory,
+            ILinearizeComparatorFactory linearizeCmpFactory, int[] btreeFields, int version, boolean durable,
+            int packingMemoryBudget) {
         super(opDesc, ctx, partition, null, bloomFilterFalsePositiveRate, btreeComparatorFactories,
                 valueProviderFactories, rtreePolicyType, mergePolicy, opTrackerFactory, ioScheduler,
-                ioOpCallbackFactory, linearizeCmpFactory, null, btreeFields, null, null, null, durable);
+                ioOpCallbackFactory, linearizeCmpFactory, null, btreeFields, null, null, null, durable,
+                packingMemoryBudget);
         this.version = version;
     }
 
@@ -103,7 +116,7 @@ public class ExternalRTreeDataflowHelper extends LSMRTreeDataflowHelper {
                     rtreeCmpFactories, btreeCmpFactories, valueProviderFactories, rtreePolicyType,
                     bloomFilterFalsePositiveRate, mergePolicy, opTracker, ioScheduler,
                     ioOpCallbackFactory.createIOOperationCallback(), linearizeCmpFactory, btreeFields, version,
-                    durable);
+                    durable, packingMemoryBudget);
         } catch (TreeIndexException e) {
             throw new HyracksDataException(e);
         }
@@ -43,9 +43,21 @@ public class ExternalRTreeDataflowHelperFactory extends LSMRTreeDataflowHelperFa
             ILSMOperationTrackerProvider opTrackerFactory, ILSMIOOperationSchedulerProvider ioSchedulerProvider,
             ILSMIOOperationCallbackFactory ioOpCallbackFactory, ILinearizeComparatorFactory linearizeCmpFactory,
             double bloomFilterFalsePositiveRate, int[] btreeFields, int version, boolean durable) {
+        this(valueProviderFactories, rtreePolicyType, btreeComparatorFactories, mergePolicyFactory,
+                mergePolicyProperties, opTrackerFactory, ioSchedulerProvider, ioOpCallbackFactory, linearizeCmpFactory,
+                bloomFilterFalsePositiveRate, btreeFields, version, durable, 0);
+    }
+
+    public ExternalRTreeDataflowHelperFactory(IPrimitiveValueProviderFactory[] valueProviderFactories,
+            RTreePolicyType rtreePolicyType, IBinaryComparatorFactory[] btreeComparatorFactories,
+            ILSMMergePolicyFactory mergePolicyFactory, Map<String, String> mergePolicyProperties,
+            ILSMOperationTrackerProvider opTrackerFactory, ILSMIOOperationSchedulerProvider ioSchedulerProvider,
+            ILSMIOOperationCallbackFactory ioOpCallbackFactory, ILinearizeComparatorFactory linearizeCmpFactory,
+            double bloomFilterFalsePositiveRate, int[] btreeFields, int version, boolean durable,
+            int packingMemoryBudget) {
         super(valueProviderFactories, rtreePolicyType, btreeComparatorFactories, null, mergePolicyFactory,
                 mergePolicyProperties, opTrackerFactory, ioSchedulerProvider, ioOpCallbackFactory, linearizeCmpFactory,
-                bloomFilterFalsePositiveRate, null, btreeFields, null, null, null, durable);
+                bloomFilterFalsePositiveRate, null, btreeFields, null, null, null, durable, packingMemoryBudget);
         this.version = version;
     }
 
@@ -56,6 +68,6 @@ public class ExternalRTreeDataflowHelperFactory extends LSMRTreeDataflowHelperFa
                 btreeComparatorFactories, valueProviderFactories, rtreePolicyType,
                 mergePolicyFactory.createMergePolicy(mergePolicyProperties, ctx), opTrackerFactory,
                 ioSchedulerProvider.getIOScheduler(ctx), ioOpCallbackFactory, linearizeCmpFactory, btreeFields,
-                version, durable);
+                version, durable, packingMemoryBudget);
     }
 }
@@ -29,6 +29,7 @@ import org.apache.hyracks.storage.am.common.ophelpers.IndexOperation;
 import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
+import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentVersion;
 
 public class ExternalRTreeOpContext implements ILSMIndexOperationContext {
     private IndexOperation op;
@@ -37,6 +38,7 @@ public class ExternalRTreeOpContext implements ILSMIndexOperationContext {
     public final List<ILSMComponent> componentHolder;
     private final List<ILSMComponent> componentsToBeMerged;
     private final List<ILSMComponent> componentsToBeReplicated;
+    private LSMComponentVersion componentVersion;
     public final ISearchOperationCallback searchCallback;
     private final int targetIndexVersion;
     public ISearchPredicate searchPredicate;
@@ -123,4 +125,14 @@ public class ExternalRTreeOpContext implements ILSMIndexOperationContext {
     public List<ILSMComponent> getComponentsToBeReplicated() {
         return componentsToBeReplicated;
     }
+
+    @Override
+    public void setComponentVersion(LSMComponentVersion componentVersion) {
+        this.componentVersion = componentVersion;
+    }
+
+    @Override
+    public LSMComponentVersion getComponentVersion() {
+        return componentVersion;
+    }
 }
\ No newline at end of file
@@ -71,6 +71,7 @@ import org.apache.hyracks.storage.am.lsm.common.impls.LSMComponentFilterManager;
 import org.apache.hyracks.storage.am.lsm.common.impls.LSMTreeIndexAccessor;
 import org.apache.hyracks.storage.am.lsm.common.impls.TreeIndexFactory;
 import org.apache.hyracks.storage.am.rtree.impls.RTree;
+import org.apache.hyracks.storage.am.rtree.impls.RTreePackingType;
 import org.apache.hyracks.storage.am.rtree.impls.RTreeSearchCursor;
 import org.apache.hyracks.storage.am.rtree.impls.SearchPredicate;
 import org.apache.hyracks.storage.common.buffercache.IBufferCache;
@@ -257,7 +258,10 @@ public class LSMRTree extends AbstractLSMRTree {
             rtreeScanCursor.close();
         }
         if (!isEmpty) {
-            rTreeTupleSorter.sort();
+            // A packed bulk load sorts the tuples itself.
+            if (diskRTree.getPackingType() == RTreePackingType.NONE) {
+                rTreeTupleSorter.sort();
+            }
 
             rTreeBulkloader = diskRTree.createBulkLoader(1.0f, false, 0L, false);
             cursor = rTreeTupleSorter;
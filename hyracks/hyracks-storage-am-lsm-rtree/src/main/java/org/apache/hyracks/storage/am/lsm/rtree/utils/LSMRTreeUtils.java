@@ -62,6 +62,7 @@ import org.apache.hyracks.storage.am.rtree.frames.RTreeNSMInteriorFrameFactory;
 import org.apache.hyracks.storage.am.rtree.frames.RTreeNSMLeafFrameFactory;
 import org.apache.hyracks.storage.am.rtree.frames.RTreePolicyType;
 import org.apache.hyracks.storage.am.rtree.impls.RTree;
+import org.apache.hyracks.storage.am.rtree.impls.RTreePackingType;
 import org.apache.hyracks.storage.am.rtree.linearize.HilbertDoubleComparatorFactory;
 import org.apache.hyracks.storage.am.rtree.linearize.ZCurveDoubleComparatorFactory;
 import org.apache.hyracks.storage.am.rtree.linearize.ZCurveIntComparatorFactory;
@@ -69,6 +70,9 @@ import org.apache.hyracks.storage.common.buffercache.IBufferCache;
 import org.apache.hyracks.storage.common.file.IFileMapProvider;
 
 public class LSMRTreeUtils {
+    // The share of the disk buffer cache that the packed bulk loads of an index without memory components may buffer.
+    private static final int PACKING_BUFFER_CACHE_SHARE = 8;
+
     public static LSMRTree createLSMTree(List<IVirtualBufferCache> virtualBufferCaches, FileReference file,
             IBufferCache diskBufferCache, IFileMapProvider diskFileMapProvider, ITypeTraits[] typeTraits,
             IBinaryComparatorFactory[] rtreeCmpFactories, IBinaryComparatorFactory[] btreeCmpFactories,
@@ -78,6 +82,29 @@ public class LSMRTreeUtils {
             ILinearizeComparatorFactory linearizeCmpFactory, int[] rtreeFields, int[] buddyBTreeFields,
             ITypeTraits[] filterTypeTraits, IBinaryComparatorFactory[] filterCmpFactories, int[] filterFields,
             boolean durable) throws TreeIndexException {
+        return createLSMTree(virtualBufferCaches, file, diskBufferCache, diskFileMapProvider, typeTraits,
+                rtreeCmpFactories, btreeCmpFactories, valueProviderFactories, rtreePolicyType,
+                bloomFilterFalsePositiveRate, mergePolicy, opTracker, ioScheduler, ioOpCallback, linearizeCmpFactory,
+                rtreeFields, buddyBTreeFields, filterTypeTraits, filterCmpFactories, filterFields, durable, 0);
+    }
+
+    /**
+     * @param packingMemoryBudget
+     *            the number of bytes the packed bulk loads of the disk components may buffer, or 0 to derive it from
+     *            the memory budget of the index, see {@link #getPackingMemoryBudget(List, IBufferCache)}
+     */
+    public static LSMRTree createLSMTree(List<IVirtualBufferCache> virtualBufferCaches, FileReference file,
+            IBufferCache diskBufferCache, IFileMapProvider diskFileMapProvider, ITypeTraits[] typeTraits,
+            IBinaryComparatorFactory[] rtreeCmpFactories, IBinaryComparatorFactory[] btreeCmpFactories,
+            IPrimitiveValueProviderFactory[] valueProviderFactories, RTreePolicyType rtreePolicyType,
+            double bloomFilterFalsePositiveRate, ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker,
+            ILSMIOOperationScheduler ioScheduler, ILSMIOOperationCallback ioOpCallback,
+            ILinearizeComparatorFactory linearizeCmpFactory, int[] rtreeFields, int[] buddyBTreeFields,
+            ITypeTraits[] filterTypeTraits, IBinaryComparatorFactory[] filterCmpFactories, int[] filterFields,
+            boolean durable, int packingMemoryBudget) throws TreeIndexException {
+        if (packingMemoryBudget <= 0) {
+            packingMemoryBudget = getPackingMemoryBudget(virtualBufferCaches, diskBufferCache);
+        }
 
         ITypeTraits[] btreeTypeTraits = new ITypeTraits[buddyBTreeFields.length];
         for (int i = 0; i < btreeTypeTraits.length; i++) {
@@ -100,9 +127,10 @@ public class LSMRTreeUtils {
         LinkedListFreePageManagerFactory freePageManagerFactory = new LinkedListFreePageManagerFactory(diskBufferCache,
                 metaFrameFactory);
 
+        // The flushes and merges of the disk components pack the entries of their R-Trees.
         TreeIndexFactory<RTree> diskRTreeFactory = new RTreeFactory(diskBufferCache, diskFileMapProvider,
                 freePageManagerFactory, rtreeInteriorFrameFactory, rtreeLeafFrameFactory, rtreeCmpFactories,
-                typeTraits.length);
+                typeTraits.length, RTreePackingType.STR, packingMemoryBudget);
         TreeIndexFactory<BTree> diskBTreeFactory = new BTreeFactory(diskBufferCache, diskFileMapProvider,
                 freePageManagerFactory, btreeInteriorFrameFactory, btreeLeafFrameFactory, btreeCmpFactories,
                 btreeTypeTraits.length);
@@ -221,6 +249,28 @@ public class LSMRTreeUtils {
             ILSMIOOperationScheduler ioScheduler, ILSMIOOperationCallback ioOpCallback,
             ILinearizeComparatorFactory linearizeCmpFactory, int[] buddyBTreeFields, int startWithVersion,
             boolean durable) throws TreeIndexException {
+        return createExternalRTree(file, diskBufferCache, diskFileMapProvider, typeTraits, rtreeCmpFactories,
+                btreeCmpFactories, valueProviderFactories, rtreePolicyType, bloomFilterFalsePositiveRate, mergePolicy,
+                opTracker, ioScheduler, ioOpCallback, linearizeCmpFactory, buddyBTreeFields, startWithVersion,
+                durable, 0);
+    }
+
+    /**
+     * @param packingMemoryBudget
+     *            the number of bytes the packed bulk loads of the disk components may buffer, or 0 to derive it from
+     *            the memory budget of the index, see {@link #getPackingMemoryBudget(List, IBufferCache)}
+     */
+    public static ExternalRTree createExternalRTree(FileReference file, IBufferCache diskBufferCache,
+            IFileMapProvider diskFileMapProvider, ITypeTraits[] typeTraits,
+            IBinaryComparatorFactory[] rtreeCmpFactories, IBinaryComparatorFactory[] btreeCmpFactories,
+            IPrimitiveValueProviderFactory[] valueProviderFactories, RTreePolicyType rtreePolicyType,
+            double bloomFilterFalsePositiveRate, ILSMMergePolicy mergePolicy, ILSMOperationTracker opTracker,
+            ILSMIOOperationScheduler ioScheduler, ILSMIOOperationCallback ioOpCallback,
+            ILinearizeComparatorFactory linearizeCmpFactory, int[] buddyBTreeFields, int startWithVersion,
+            boolean durable, int packingMemoryBudget) throws TreeIndexException {
+        if (packingMemoryBudget <= 0) {
+            packingMemoryBudget = getPackingMemoryBudget(null, diskBufferCache);
+        }
 
         ITypeTraits[] btreeTypeTraits = new ITypeTraits[buddyBTreeFields.length];
         for (int i = 0; i < btreeTypeTraits.length; i++) {
@@ -243,9 +293,10 @@ public class LSMRTreeUtils {
         LinkedListFreePageManagerFactory freePageManagerFactory = new LinkedListFreePageManagerFactory(diskBufferCache,
                 metaFrameFactory);
 
+        // The merges and bulk loads of the disk components pack the entries of their R-Trees.
         TreeIndexFactory<RTree> diskRTreeFactory = new RTreeFactory(diskBufferCache, diskFileMapProvider,
                 freePageManagerFactory, rtreeInteriorFrameFactory, rtreeLeafFrameFactory, rtreeCmpFactories,
-                typeTraits.length);
+                typeTraits.length, RTreePackingType.STR, packingMemoryBudget);
         TreeIndexFactory<BTree> diskBTreeFactory = new BTreeFactory(diskBufferCache, diskFileMapProvider,
                 freePageManagerFactory, btreeInteriorFrameFactory, btreeLeafFrameFactory, btreeCmpFactories,
                 btreeTypeTraits.length);
@@ -269,6 +320,27 @@ public class LSMRTreeUtils {
         return lsmTree;
     }
 
+    /**
+     * @return the default memory budget of the packed bulk loads of an LSM R-Tree: the size of its largest memory
+     *         component, so that its flushes never spill, or a share of the disk buffer cache if it has no memory
+     *         components
+     */
+    public static int getPackingMemoryBudget(List<IVirtualBufferCache> virtualBufferCaches,
+            IBufferCache diskBufferCache) {
+        long memoryBudget = 0;
+        if (virtualBufferCaches != null) {
+            for (IVirtualBufferCache virtualBufferCache : virtualBufferCaches) {
+                memoryBudget = Math.max(memoryBudget,
+                        (long) virtualBufferCache.getPageSize() * virtualBufferCache.getNumPages());
+            }
+        }
+        if (memoryBudget == 0) {
+            memoryBudget = (long) diskBufferCache.getPageSize() * diskBufferCache.getNumPages()
+                    / PACKING_BUFFER_CACHE_SHARE;
+        }
+        return (int) Math.max(1, Math.min(memoryBudget, Integer.MAX_VALUE));
+    }
+
     public static ILinearizeComparatorFactory proposeBestLinearizer(ITypeTraits[] typeTraits, int numKeyFields)
             throws TreeIndexException {
         for (int i = 0; i < numKeyFields; i++) {
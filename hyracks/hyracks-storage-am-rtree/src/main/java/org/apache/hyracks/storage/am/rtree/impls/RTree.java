@@ -65,13 +65,32 @@ public class RTree extends AbstractTreeIndex {
     // Global node sequence number used for the concurrency control protocol
     private final AtomicLong globalNsn;
 
+    private final RTreePackingType packingType;
+    private final int packingMemoryBudget;
+
     private final int maxTupleSize;
 
     public RTree(IBufferCache bufferCache, IFileMapProvider fileMapProvider, IFreePageManager freePageManager,
             ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
             IBinaryComparatorFactory[] cmpFactories, int fieldCount, FileReference file) {
+        this(bufferCache, fileMapProvider, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories,
+                fieldCount, file, RTreePackingType.NONE, 0);
+    }
+
+    /**
+     * @param packingType
+     *            the order in which the bulk loads write the entries into the leaves
+     * @param packingMemoryBudget
+     *            the number of bytes a packed bulk load may buffer before it spills sorted runs next to the file
+     */
+    public RTree(IBufferCache bufferCache, IFileMapProvider fileMapProvider, IFreePageManager freePageManager,
+            ITreeIndexFrameFactory interiorFrameFactory, ITreeIndexFrameFactory leafFrameFactory,
+            IBinaryComparatorFactory[] cmpFactories, int fieldCount, FileReference file,
+            RTreePackingType packingType, int packingMemoryBudget) {
         super(bufferCache, fileMapProvider, freePageManager, interiorFrameFactory, leafFrameFactory, cmpFactories,
                 fieldCount, file);
+        this.packingType = packingType;
+        this.packingMemoryBudget = packingMemoryBudget;
         globalNsn = new AtomicLong();
         ITreeIndexFrame leafFrame = leafFrameFactory.createFrame();
         ITreeIndexFrame interiorFrame = interiorFrameFactory.createFrame();
@@ -79,6 +98,13 @@ public class RTree extends AbstractTreeIndex {
                 interiorFrame.getMaxTupleSize(bufferCache.getPageSize()));
     }
 
+    @Override
+    public synchronized void activate() throws HyracksDataException {
+        // The runs of packed bulk loads that never ended are not needed anymore.
+        RTreePackingSorter.deleteRuns(file);
+        super.activate();
+    }
+
     private long incrementGlobalNsn() {
         return globalNsn.incrementAndGet();
     }
@@ -868,6 +894,9 @@ public class RTree extends AbstractTreeIndex {
             boolean checkIfEmptyIndex) throws TreeIndexException {
         // TODO: verifyInput currently does nothing.
         try {
+            if (packingType != RTreePackingType.NONE) {
+                return new PackingRTreeBulkLoader(fillFactor);
+            }
             return new RTreeBulkLoader(fillFactor);
         } catch (HyracksDataException e) {
             throw new TreeIndexException(e);
@@ -998,6 +1027,54 @@ public class RTree extends AbstractTreeIndex {
         }
     }
 
+    /**
+     * Buffers and sorts the entries, see {@link RTreePackingSorter}, then loads them in that order when the bulk load
+     * ends.
+     */
+    public class PackingRTreeBulkLoader extends RTreeBulkLoader {
+        private final RTreePackingSorter sorter;
+
+        public PackingRTreeBulkLoader(float fillFactor) throws TreeIndexException, HyracksDataException {
+            super(fillFactor);
+            sorter = new RTreePackingSorter(packingType, ((RTreeNSMFrame) leafFrame).getKeyValueProviders(),
+                    leafFrame.getTupleWriter(), packingMemoryBudget, file);
+        }
+
+        @Override
+        public void add(ITupleReference tuple) throws IndexException, HyracksDataException {
+            try {
+                sorter.add(tuple);
+            } catch (HyracksDataException e) {
+                handleException();
+                sorter.close();
+                throw e;
+            } catch (RuntimeException e) {
+                handleException();
+                sorter.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void end() throws HyracksDataException {
+            try {
+                sorter.sort(leafMaxBytes - leafFrame.getPageHeaderSize(), slotSize);
+                while (sorter.hasNext()) {
+                    super.add(sorter.next());
+                }
+            } catch (IndexException e) {
+                throw new HyracksDataException(e);
+            } finally {
+                sorter.close();
+            }
+            super.end();
+        }
+    }
+
+    public RTreePackingType getPackingType() {
+        return packingType;
+    }
+
     @Override
     public void validate() throws HyracksDataException {
         throw new UnsupportedOperationException("Validation not implemented for R-Trees.");
@@ -0,0 +1,526 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.rtree.impls;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.storage.am.common.api.IPrimitiveValueProvider;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleWriter;
+
+/**
+ * Buffers the entries of a packed R-Tree bulk load and returns them in the order of the packing, see
+ * {@link RTreePackingType}. The entries are ordered by the centers of their MBRs.
+ * The entries are kept in memory up to the memory budget. Beyond it, they are sorted on the first sort key and
+ * spilled into runs next to the index file, and the runs are merged when the entries are read. The first sort key is
+ * the center on the first dimension with STR, and the Hilbert value otherwise. The runs of a bulk load that never
+ * ended are removed by {@link #deleteRuns(FileReference)}.
+ * With STR, the merged entries are then cut into the slabs of the first dimension, and each slab is tiled in memory,
+ * or as much of it as fits at a time.
+ */
+public class RTreePackingSorter {
+    private static final int INITIAL_DATA_SIZE = 32768;
+    private static final int INITIAL_NUM_ENTRIES = 1024;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final String RUN_FILE_INFIX = "-packing-";
+    private static final String RUN_FILE_SUFFIX = ".run";
+
+    private final RTreePackingType packingType;
+    private final IPrimitiveValueProvider[] keyValueProviders;
+    private final ITreeIndexTupleWriter tupleWriter;
+    private final ITreeIndexTupleReference tuple;
+    private final int memoryBudget;
+    private final FileReference file;
+    private final int dim;
+    private final int numSortKeys;
+    private final int hilbertBits;
+    private final long[] hilbertCoords;
+
+    // The entries in memory: the tuples written one after the other, their offsets, their sort keys and their order.
+    private byte[] data = new byte[INITIAL_DATA_SIZE];
+    private ByteBuffer dataBuffer = ByteBuffer.wrap(data);
+    private int dataSize;
+    private int[] offsets = new int[INITIAL_NUM_ENTRIES];
+    private int[] order = new int[INITIAL_NUM_ENTRIES];
+    private long[] keys;
+    private int numEntries;
+
+    private long totalEntries;
+    private long totalBytes;
+    private int leafCapacity;
+
+    private final List<File> runFiles = new ArrayList<File>();
+    private final List<Integer> runSizes = new ArrayList<Integer>();
+    private final List<RunReader> runReaders = new ArrayList<RunReader>();
+    private PriorityQueue<RunReader> runQueue;
+    private RunReader lastRunReader;
+    private long slabSize;
+    private long slabRemaining;
+
+    private int outputIndex;
+    private int outputSize;
+
+    public RTreePackingSorter(RTreePackingType packingType, IPrimitiveValueProvider[] keyValueProviders,
+            ITreeIndexTupleWriter tupleWriter, int memoryBudget, FileReference file) {
+        if (packingType == RTreePackingType.NONE) {
+            throw new IllegalArgumentException("The entries of an unpacked bulk load are not sorted.");
+        }
+        this.packingType = packingType;
+        this.keyValueProviders = keyValueProviders;
+        this.tupleWriter = tupleWriter;
+        this.tuple = tupleWriter.createTupleReference();
+        this.memoryBudget = memoryBudget;
+        this.file = file;
+        dim = keyValueProviders.length / 2;
+        numSortKeys = packingType == RTreePackingType.STR ? dim : 1;
+        // The Hilbert value of all dimensions must fit in a non-negative long.
+        hilbertBits = Math.max(1, 63 / dim);
+        hilbertCoords = new long[dim];
+        keys = new long[INITIAL_NUM_ENTRIES * numSortKeys];
+    }
+
+    public void add(ITupleReference tuple) throws HyracksDataException {
+        int size = tupleWriter.bytesRequired(tuple);
+        if (numEntries > 0 && getMemoryUsed(numEntries + 1, dataSize + size) > memoryBudget) {
+            spill();
+        }
+        ensureCapacity(size);
+        tupleWriter.writeTuple(tuple, data, dataSize);
+        computeKeys(tuple, keys, numEntries * numSortKeys);
+        appendEntry(size);
+        totalEntries++;
+        totalBytes += size;
+    }
+
+    /**
+     * Orders the entries once they were all added.
+     *
+     * @param leafBytes
+     *            the space of a leaf for the entries
+     * @param slotSize
+     *            the space taken by the slot of an entry in a leaf
+     */
+    public void sort(int leafBytes, int slotSize) throws HyracksDataException {
+        if (totalEntries == 0) {
+            return;
+        }
+        int avgEntrySize = (int) (totalBytes / totalEntries) + slotSize;
+        leafCapacity = Math.max(1, leafBytes / avgEntrySize);
+        if (runFiles.isEmpty()) {
+            if (packingType == RTreePackingType.STR) {
+                tile(0, numEntries, 0);
+            } else {
+                sortEntries(0, numEntries, 0);
+            }
+            outputIndex = 0;
+            outputSize = numEntries;
+            return;
+        }
+        if (numEntries > 0) {
+            spill();
+        }
+        runQueue = new PriorityQueue<RunReader>(runFiles.size(), new Comparator<RunReader>() {
+            @Override
+            public int compare(RunReader r1, RunReader r2) {
+                return Long.compare(r1.keys[0], r2.keys[0]);
+            }
+        });
+        try {
+            for (int i = 0; i < runFiles.size(); i++) {
+                RunReader runReader = new RunReader(runFiles.get(i), runSizes.get(i));
+                runReaders.add(runReader);
+                if (runReader.next()) {
+                    runQueue.add(runReader);
+                }
+            }
+        } catch (IOException e) {
+            throw new HyracksDataException(e);
+        }
+        slabSize = getSlabSize(totalEntries, 0);
+        slabRemaining = 0;
+    }
+
+    public boolean hasNext() throws HyracksDataException {
+        if (outputIndex < outputSize) {
+            return true;
+        }
+        if (runQueue == null) {
+            return false;
+        }
+        try {
+            if (packingType == RTreePackingType.HILBERT) {
+                // The tuple of the last run that was read was returned, it can be moved forward now.
+                if (lastRunReader != null && lastRunReader.next()) {
+                    runQueue.add(lastRunReader);
+                }
+                lastRunReader = null;
+                return !runQueue.isEmpty();
+            }
+            loadSlab();
+        } catch (IOException e) {
+            throw new HyracksDataException(e);
+        }
+        return outputIndex < outputSize;
+    }
+
+    /**
+     * @return the next entry, which is valid until the following call to {@link #hasNext()}
+     */
+    public ITupleReference next() {
+        if (outputIndex < outputSize) {
+            tuple.resetByTupleOffset(dataBuffer, offsets[order[outputIndex++]]);
+            return tuple;
+        }
+        lastRunReader = runQueue.poll();
+        return lastRunReader.tuple;
+    }
+
+    /**
+     * Releases the memory and deletes the runs.
+     */
+    public void close() {
+        for (RunReader runReader : runReaders) {
+            runReader.close();
+        }
+        for (File runFile : runFiles) {
+            runFile.delete();
+        }
+        runReaders.clear();
+        runFiles.clear();
+        runSizes.clear();
+        runQueue = null;
+        lastRunReader = null;
+        numEntries = 0;
+        dataSize = 0;
+        outputIndex = 0;
+        outputSize = 0;
+    }
+
+    /**
+     * Deletes the runs that the bulk loads of the given index file left behind, because they never ended, e.g. when
+     * the node failed. There must not be a bulk load of the file in progress.
+     */
+    public static void deleteRuns(FileReference file) {
+        final String runFilePrefix = file.getFile().getName() + RUN_FILE_INFIX;
+        File[] runFiles = file.getFile().getAbsoluteFile().getParentFile().listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(runFilePrefix) && name.endsWith(RUN_FILE_SUFFIX);
+            }
+        });
+        if (runFiles != null) {
+            for (File runFile : runFiles) {
+                runFile.delete();
+            }
+        }
+    }
+
+    private long getMemoryUsed(int numEntries, int dataSize) {
+        return dataSize + (long) numEntries * (4 + 4 + 8 * numSortKeys);
+    }
+
+    private void ensureCapacity(int size) {
+        if (dataSize + size > data.length) {
+            byte[] newData = new byte[Math.max(2 * data.length, dataSize + size)];
+            System.arraycopy(data, 0, newData, 0, dataSize);
+            data = newData;
+            dataBuffer = ByteBuffer.wrap(data);
+        }
+        if (numEntries == offsets.length) {
+            int[] newOffsets = new int[2 * offsets.length];
+            System.arraycopy(offsets, 0, newOffsets, 0, numEntries);
+            offsets = newOffsets;
+            int[] newOrder = new int[newOffsets.length];
+            System.arraycopy(order, 0, newOrder, 0, numEntries);
+            order = newOrder;
+            long[] newKeys = new long[newOffsets.length * numSortKeys];
+            System.arraycopy(keys, 0, newKeys, 0, numEntries * numSortKeys);
+            keys = newKeys;
+        }
+    }
+
+    private void appendEntry(int size) {
+        offsets[numEntries] = dataSize;
+        order[numEntries] = numEntries;
+        numEntries++;
+        dataSize += size;
+    }
+
+    private int getEntrySize(int entry) {
+        return (entry + 1 < numEntries ? offsets[entry + 1] : dataSize) - offsets[entry];
+    }
+
+    private void resetEntries() {
+        numEntries = 0;
+        dataSize = 0;
+        outputIndex = 0;
+        outputSize = 0;
+    }
+
+    private void spill() throws HyracksDataException {
+        sortEntries(0, numEntries, 0);
+        try {
+            File parent = file.getFile().getParentFile();
+            File runFile = File.createTempFile(file.getFile().getName() + RUN_FILE_INFIX, RUN_FILE_SUFFIX,
+                    parent);
+            runFiles.add(runFile);
+            runSizes.add(numEntries);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(runFile)));
+            try {
+                for (int i = 0; i < numEntries; i++) {
+                    int entry = order[i];
+                    int size = getEntrySize(entry);
+                    out.writeInt(size);
+                    out.write(data, offsets[entry], size);
+                }
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new HyracksDataException(e);
+        }
+        resetEntries();
+    }
+
+    /**
+     * Reads the next slab of the first dimension from the runs, or as much of it as fits in memory, and tiles it on
+     * the other dimensions.
+     */
+    private void loadSlab() throws IOException {
+        resetEntries();
+        if (slabRemaining == 0) {
+            slabRemaining = slabSize;
+        }
+        while (slabRemaining > 0 && !runQueue.isEmpty()) {
+            RunReader runReader = runQueue.peek();
+            if (numEntries > 0 && getMemoryUsed(numEntries + 1, dataSize + runReader.size) > memoryBudget) {
+                break;
+            }
+            runQueue.poll();
+            ensureCapacity(runReader.size);
+            System.arraycopy(runReader.buffer, 0, data, dataSize, runReader.size);
+            System.arraycopy(runReader.keys, 0, keys, numEntries * numSortKeys, numSortKeys);
+            appendEntry(runReader.size);
+            slabRemaining--;
+            if (runReader.next()) {
+                runQueue.add(runReader);
+            }
+        }
+        tile(0, numEntries, 1);
+        outputIndex = 0;
+        outputSize = numEntries;
+    }
+
+    /**
+     * Sort-Tile-Recursive: sorts the entries on the given dimension, cuts them into slabs of whole leaves, and tiles
+     * each slab on the next dimensions.
+     */
+    private void tile(int from, int to, int k) {
+        if (k >= dim) {
+            return;
+        }
+        sortEntries(from, to, k);
+        if (k + 1 == dim) {
+            return;
+        }
+        long slab = getSlabSize(to - from, k);
+        for (long start = from; start < to; start += slab) {
+            tile((int) start, (int) Math.min(to, start + slab), k + 1);
+        }
+    }
+
+    private long getSlabSize(long numEntries, int k) {
+        long numLeaves = (numEntries + leafCapacity - 1) / leafCapacity;
+        long numSlabs = Math.max(1, (long) Math.ceil(Math.pow(numLeaves, 1.0 / (dim - k))));
+        return leafCapacity * ((numLeaves + numSlabs - 1) / numSlabs);
+    }
+
+    private void computeKeys(ITupleReference tuple, long[] dest, int destOff) {
+        for (int i = 0; i < dim; i++) {
+            double low = keyValueProviders[i].getValue(tuple.getFieldData(i), tuple.getFieldStart(i));
+            double high = keyValueProviders[dim + i].getValue(tuple.getFieldData(dim + i),
+                    tuple.getFieldStart(dim + i));
+            long center = toSortableLong(low / 2 + high / 2);
+            if (packingType == RTreePackingType.STR) {
+                dest[destOff + i] = center;
+            } else {
+                // The grid coordinate is made of the highest bits of the center, as an unsigned number.
+                hilbertCoords[i] = (center ^ Long.MIN_VALUE) >>> (64 - hilbertBits);
+            }
+        }
+        if (packingType == RTreePackingType.HILBERT) {
+            dest[destOff] = dim == 1 ? hilbertCoords[0] : getHilbertValue(hilbertCoords, hilbertBits);
+        }
+    }
+
+    /**
+     * Maps a double to a long that has the same order.
+     */
+    private static long toSortableLong(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Computes the position of a point on the Hilbert curve of the given number of bits per dimension, following
+     * J. Skilling, "Programming the Hilbert curve". The coordinates are overwritten.
+     */
+    private static long getHilbertValue(long[] x, int bits) {
+        int n = x.length;
+        long m = 1L << (bits - 1);
+        // Inverse undo.
+        for (long q = m; q > 1; q >>>= 1) {
+            long p = q - 1;
+            for (int i = 0; i < n; i++) {
+                if ((x[i] & q) != 0) {
+                    x[0] ^= p;
+                } else {
+                    long t = (x[0] ^ x[i]) & p;
+                    x[0] ^= t;
+                    x[i] ^= t;
+                }
+            }
+        }
+        // Gray encode.
+        for (int i = 1; i < n; i++) {
+            x[i] ^= x[i - 1];
+        }
+        long t = 0;
+        for (long q = m; q > 1; q >>>= 1) {
+            if ((x[n - 1] & q) != 0) {
+                t ^= q - 1;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            x[i] ^= t;
+        }
+        // Interleave the bits of the transposed coordinates, from the highest one.
+        long value = 0;
+        for (int b = bits - 1; b >= 0; b--) {
+            for (int i = 0; i < n; i++) {
+                value = (value << 1) | ((x[i] >>> b) & 1);
+            }
+        }
+        return value;
+    }
+
+    private long getKey(int entry, int k) {
+        return keys[entry * numSortKeys + k];
+    }
+
+    private void sortEntries(int from, int to, int k) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int mid = (from + to) >>> 1;
+            long pivot = median(getKey(order[from], k), getKey(order[mid], k), getKey(order[to - 1], k));
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (getKey(order[i], k) < pivot) {
+                    i++;
+                }
+                while (getKey(order[j], k) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i++] = order[j];
+                    order[j--] = tmp;
+                }
+            }
+            // Recurse into the smaller part and loop on the larger one.
+            if (j + 1 - from < to - i) {
+                sortEntries(from, j + 1, k);
+                from = i;
+            } else {
+                sortEntries(i, to, k);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            int entry = order[i];
+            long key = getKey(entry, k);
+            int j = i - 1;
+            while (j >= from && getKey(order[j], k) > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = entry;
+        }
+    }
+
+    private static long median(long a, long b, long c) {
+        if (a < b) {
+            return b < c ? b : (a < c ? c : a);
+        }
+        return a < c ? a : (b < c ? c : b);
+    }
+
+    private class RunReader {
+        private final DataInputStream in;
+        private final ITreeIndexTupleReference tuple = tupleWriter.createTupleReference();
+        private final long[] keys = new long[numSortKeys];
+        private byte[] buffer = new byte[0];
+        private int size;
+        private int remaining;
+
+        public RunReader(File runFile, int numEntries) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(runFile)));
+            remaining = numEntries;
+        }
+
+        public boolean next() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            size = in.readInt();
+            if (buffer.length < size) {
+                buffer = new byte[Math.max(size, 2 * buffer.length)];
+            }
+            in.readFully(buffer, 0, size);
+            tuple.resetByTupleOffset(ByteBuffer.wrap(buffer), 0);
+            computeKeys(tuple, keys, 0);
+            remaining--;
+            return true;
+        }
+
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // The run is deleted anyway.
+            }
+        }
+    }
+}
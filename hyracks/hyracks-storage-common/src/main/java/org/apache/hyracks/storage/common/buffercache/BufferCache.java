@@ -20,7 +20,10 @@ package org.apache.hyracks.storage.common.buffercache;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -29,6 +32,7 @@ import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -49,6 +53,11 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
 
     private static final int MIN_CLEANED_COUNT_DIFF = 3;
     private static final int PIN_MAX_WAIT_TIME = 50;
+    private static final int MAX_COALESCED_WRITE_SIZE = 1024 * 1024;
+    private static final int MAX_PREFETCH_READ_SIZE = 1024 * 1024;
+    private static final int MAX_CONCURRENT_PREFETCHES = 8;
+    // The prefetches pin all the pages they read, so together they may only take a small share of the cache.
+    private static final int MAX_PREFETCH_CACHE_FRACTION = 16;
 
     private final int pageSize;
     private final int maxOpenFiles;
@@ -57,7 +66,20 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     private final IPageReplacementStrategy pageReplacementStrategy;
     private final IPageCleanerPolicy pageCleanerPolicy;
     private final IFileMapManager fileMapManager;
-    private final CleanerThread cleanerThread;
+    private final CleanerThread[] cleanerThreads;
+    private final Executor executor;
+    private final int maxPrefetchPages;
+    private final int maxPrefetchPinnedPages;
+    // Maps the ids of the files that are being prefetched to the number of their prefetches in flight.
+    private final Map<Integer, Integer> prefetchingFiles = new HashMap<Integer, Integer>();
+    private int pendingPrefetches = 0;
+    private int prefetchPinnedPages = 0;
+    private final Object cleanNotification = new Object();
+    // Simply keeps incrementing this counter when a page is cleaned.
+    // Used to implement wait-for-cleanerthread heuristic optimizations.
+    // A waiter can detect whether pages have been cleaned.
+    // Several cleaner threads increment it, so it is atomic to not lose counts.
+    private final AtomicLong cleanedCount = new AtomicLong();
     private final Map<Integer, BufferedFileHandle> fileInfoMap;
     private final Set<Integer> virtualFiles;
     private IIOReplicationManager ioReplicationManager;
@@ -67,6 +89,18 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     public BufferCache(IIOManager ioManager, IPageReplacementStrategy pageReplacementStrategy,
             IPageCleanerPolicy pageCleanerPolicy, IFileMapManager fileMapManager, int maxOpenFiles,
             ThreadFactory threadFactory) {
+        this(ioManager, pageReplacementStrategy, pageCleanerPolicy, fileMapManager, maxOpenFiles, threadFactory,
+                ioManager.getIODevices().size());
+    }
+
+    /**
+     * @param cleanerThreadCount
+     *            the number of threads that write dirty pages back. The files are partitioned among the threads by
+     *            their file id, so the pages of a file are always cleaned by the same thread.
+     */
+    public BufferCache(IIOManager ioManager, IPageReplacementStrategy pageReplacementStrategy,
+            IPageCleanerPolicy pageCleanerPolicy, IFileMapManager fileMapManager, int maxOpenFiles,
+            ThreadFactory threadFactory, int cleanerThreadCount) {
         this.ioManager = ioManager;
         this.pageSize = pageReplacementStrategy.getPageSize();
         this.maxOpenFiles = maxOpenFiles;
@@ -79,11 +113,16 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         this.pageCleanerPolicy = pageCleanerPolicy;
         this.fileMapManager = fileMapManager;
 
-        Executor executor = Executors.newCachedThreadPool(threadFactory);
+        executor = Executors.newCachedThreadPool(threadFactory);
+        maxPrefetchPinnedPages = pageReplacementStrategy.getMaxAllowedNumPages() / MAX_PREFETCH_CACHE_FRACTION;
+        maxPrefetchPages = Math.min(MAX_PREFETCH_READ_SIZE / pageSize, maxPrefetchPinnedPages);
         fileInfoMap = new HashMap<Integer, BufferedFileHandle>();
         virtualFiles = new HashSet<Integer>();
-        cleanerThread = new CleanerThread();
-        executor.execute(cleanerThread);
+        cleanerThreads = new CleanerThread[Math.max(1, cleanerThreadCount)];
+        for (int i = 0; i < cleanerThreads.length; ++i) {
+            cleanerThreads[i] = new CleanerThread(i);
+            executor.execute(cleanerThreads[i]);
+        }
         closed = false;
     }
 
@@ -150,6 +189,19 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
 
     @Override
     public ICachedPage pin(long dpid, boolean newPage) throws HyracksDataException {
+        CachedPage cPage = findAndReadPage(dpid, newPage);
+        pageReplacementStrategy.notifyCachePageAccess(cPage);
+        return cPage;
+    }
+
+    @Override
+    public ICachedPage pinOnce(long dpid) throws HyracksDataException {
+        CachedPage cPage = findAndReadPage(dpid, false);
+        pageReplacementStrategy.notifyCachePageAccessOnce(cPage);
+        return cPage;
+    }
+
+    private CachedPage findAndReadPage(long dpid, boolean newPage) throws HyracksDataException {
         // Calling the pinSanityCheck should be used only for debugging, since the synchronized block over the fileInfoMap is a hot spot.
         //pinSanityCheck(dpid);
         CachedPage cPage = findPage(dpid, false);
@@ -163,12 +215,150 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 }
             }
         } else {
-            cPage.valid = true;
+            // Synchronized, so that a prefetch does not overwrite a new page.
+            synchronized (cPage) {
+                cPage.valid = true;
+            }
         }
-        pageReplacementStrategy.notifyCachePageAccess(cPage);
         return cPage;
     }
 
+    @Override
+    public void prefetch(int fileId, int startPageId, int numPages) throws HyracksDataException {
+        if (closed || numPages <= 0 || startPageId < 0) {
+            return;
+        }
+        BufferedFileHandle fInfo;
+        int nPages;
+        synchronized (fileInfoMap) {
+            fInfo = fileInfoMap.get(fileId);
+            // Only files that the caller holds open are prefetched, the prefetch keeps them open until it is done.
+            if (fInfo == null || fInfo.fileHasBeenDeleted() || fInfo.getReferenceCount() <= 0) {
+                return;
+            }
+            synchronized (prefetchingFiles) {
+                nPages = Math.min(Math.min(numPages, maxPrefetchPages), maxPrefetchPinnedPages - prefetchPinnedPages);
+                if (pendingPrefetches >= MAX_CONCURRENT_PREFETCHES || nPages <= 0) {
+                    return;
+                }
+                ++pendingPrefetches;
+                prefetchPinnedPages += nPages;
+                Integer count = prefetchingFiles.get(fileId);
+                prefetchingFiles.put(fileId, count == null ? 1 : count + 1);
+            }
+            fInfo.incReferenceCount();
+        }
+        executor.execute(new PrefetchTask(fInfo, startPageId, nPages));
+    }
+
+    private void prefetchDone(BufferedFileHandle fInfo, int nPages) {
+        synchronized (fileInfoMap) {
+            fInfo.decReferenceCount();
+        }
+        synchronized (prefetchingFiles) {
+            --pendingPrefetches;
+            prefetchPinnedPages -= nPages;
+            int fileId = fInfo.getFileId();
+            int count = prefetchingFiles.get(fileId);
+            if (count == 1) {
+                prefetchingFiles.remove(fileId);
+            } else {
+                prefetchingFiles.put(fileId, count - 1);
+            }
+            prefetchingFiles.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until the prefetches of the given file, or of all files if fileId is negative, are done.
+     */
+    private void waitForPrefetches(int fileId) {
+        synchronized (prefetchingFiles) {
+            while (fileId < 0 ? pendingPrefetches > 0 : prefetchingFiles.containsKey(fileId)) {
+                try {
+                    prefetchingFiles.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Pins the requested pages first, so that no other version of them can be in the cache, then reads the ones that
+     * are not valid yet with a single read and copies them into their pages. The pages are pinned without waiting for
+     * a victim, so when the cache has no free page the prefetch only reads the pages it could pin. The pages read are
+     * accessed once, so that a scan does not push the hot pages out of the cache.
+     */
+    private class PrefetchTask implements Runnable {
+        private final BufferedFileHandle fInfo;
+        private final int startPageId;
+        private final CachedPage[] pages;
+
+        public PrefetchTask(BufferedFileHandle fInfo, int startPageId, int numPages) {
+            this.fInfo = fInfo;
+            this.startPageId = startPageId;
+            this.pages = new CachedPage[numPages];
+        }
+
+        @Override
+        public void run() {
+            int nPinned = 0;
+            try {
+                for (; nPinned < pages.length; ++nPinned) {
+                    pages[nPinned] = findPage(fInfo.getDiskPageId(startPageId + nPinned), false, false);
+                    if (pages[nPinned] == null) {
+                        break;
+                    }
+                }
+                int first = 0;
+                while (first < nPinned && pages[first].valid) {
+                    ++first;
+                }
+                int last = nPinned - 1;
+                while (last >= first && pages[last].valid) {
+                    --last;
+                }
+                if (first <= last) {
+                    read(first, last);
+                }
+            } catch (Exception e) {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "Prefetch of file " + fInfo.getFileId() + " failed", e);
+                }
+            } finally {
+                for (int i = 0; i < nPinned; ++i) {
+                    pages[i].pinCount.decrementAndGet();
+                    pages[i] = null;
+                }
+                prefetchDone(fInfo, pages.length);
+            }
+        }
+
+        private void read(int first, int last) throws HyracksDataException {
+            ByteBuffer readBuffer = ByteBuffer.allocate((last - first + 1) * pageSize);
+            int bytesRead = ioManager.syncRead(fInfo.getFileHandle(), (long) (startPageId + first) * pageSize,
+                    readBuffer);
+            // Pages past the end of the file are left invalid, a pin reads them as usual.
+            int nRead = Math.max(0, bytesRead) / pageSize;
+            for (int i = 0; i < nRead; ++i) {
+                CachedPage cPage = pages[first + i];
+                synchronized (cPage) {
+                    if (cPage.valid) {
+                        continue;
+                    }
+                    readBuffer.limit((i + 1) * pageSize);
+                    readBuffer.position(i * pageSize);
+                    cPage.buffer.clear();
+                    cPage.buffer.put(readBuffer);
+                    cPage.valid = true;
+                }
+                pageReplacementStrategy.notifyCachePageAccessOnce(cPage);
+            }
+        }
+    }
+
     @Override
     /**
      * Allocate and pin a virtual page. This is just like a normal page, except that it will never be flushed.
@@ -203,8 +393,16 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     }
 
     private CachedPage findPage(long dpid, boolean virtual) throws HyracksDataException {
+        return findPage(dpid, virtual, true);
+    }
+
+    /**
+     * @param waitForVictim
+     *            whether to wait for the cleaners when no page can be replaced, or to give up and return null
+     */
+    private CachedPage findPage(long dpid, boolean virtual, boolean waitForVictim) throws HyracksDataException {
         while (true) {
-            int startCleanedCount = cleanerThread.cleanedCount;
+            long startCleanedCount = cleanedCount.get();
 
             CachedPage cPage = null;
             /*
@@ -354,19 +552,24 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                     return victim;
                 }
             }
-            synchronized (cleanerThread) {
-                pageCleanerPolicy.notifyVictimNotFound(cleanerThread);
+            for (CleanerThread cleanerThread : cleanerThreads) {
+                synchronized (cleanerThread) {
+                    pageCleanerPolicy.notifyVictimNotFound(cleanerThread);
+                }
+            }
+            if (!waitForVictim) {
+                return null;
             }
-            // Heuristic optimization. Check whether the cleaner thread has
+            // Heuristic optimization. Check whether the cleaner threads have
             // cleaned pages since we did our last pin attempt.
-            if (cleanerThread.cleanedCount - startCleanedCount > MIN_CLEANED_COUNT_DIFF) {
+            if (cleanedCount.get() - startCleanedCount > MIN_CLEANED_COUNT_DIFF) {
                 // Don't go to sleep and wait for notification from the cleaner,
                 // just try to pin again immediately.
                 continue;
             }
-            synchronized (cleanerThread.cleanNotification) {
+            synchronized (cleanNotification) {
                 try {
-                    cleanerThread.cleanNotification.wait(PIN_MAX_WAIT_TIME);
+                    cleanNotification.wait(PIN_MAX_WAIT_TIME);
                 } catch (InterruptedException e) {
                     // Do nothing
                 }
@@ -426,14 +629,73 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     }
 
     private void write(CachedPage cPage) throws HyracksDataException {
-        BufferedFileHandle fInfo = getFileInfo(cPage);
-        if (fInfo.fileHasBeenDeleted()) {
+        // The file may be deleted concurrently, so the handle is read only once.
+        IFileHandle fileHandle = getFileInfo(cPage).getFileHandle();
+        if (fileHandle == null) {
             return;
         }
         cPage.buffer.position(0);
         cPage.buffer.limit(pageSize);
-        ioManager.syncWrite(fInfo.getFileHandle(), (long) BufferedFileHandle.getPageId(cPage.dpid) * pageSize,
-                cPage.buffer);
+        ioManager.syncWrite(fileHandle, (long) BufferedFileHandle.getPageId(cPage.dpid) * pageSize, cPage.buffer);
+    }
+
+    /**
+     * Writes a run of dirty pages with consecutive page ids of the same file with a single write.
+     */
+    private void write(CachedPage[] pages, int count, ByteBuffer coalesceBuffer) throws HyracksDataException {
+        if (count == 1) {
+            write(pages[0]);
+            return;
+        }
+        IFileHandle fileHandle = getFileInfo(pages[0]).getFileHandle();
+        if (fileHandle == null) {
+            return;
+        }
+        coalesceBuffer.clear();
+        for (int i = 0; i < count; ++i) {
+            ByteBuffer pageBuffer = pages[i].buffer.duplicate();
+            pageBuffer.position(0);
+            pageBuffer.limit(pageSize);
+            coalesceBuffer.put(pageBuffer);
+        }
+        coalesceBuffer.flip();
+        ioManager.syncWrite(fileHandle, (long) BufferedFileHandle.getPageId(pages[0].dpid) * pageSize, coalesceBuffer);
+    }
+
+    private void forceCleanPage(CachedPage cPage) {
+        if (cPage.dirty.get() && !cPage.virtual) {
+            cPage.latch.writeLock().lock();
+            try {
+                // Make sure page is still dirty.
+                if (!cPage.dirty.get()) {
+                    return;
+                }
+                boolean cleaned = true;
+                try {
+                    write(cPage);
+                } catch (HyracksDataException e) {
+                    cleaned = false;
+                }
+                if (cleaned) {
+                    markCleaned(cPage);
+                    notifyCleaned();
+                }
+            } finally {
+                cPage.latch.writeLock().unlock();
+            }
+        }
+    }
+
+    private void markCleaned(CachedPage cPage) {
+        cPage.dirty.set(false);
+        cPage.pinCount.decrementAndGet();
+        cleanedCount.incrementAndGet();
+    }
+
+    private void notifyCleaned() {
+        synchronized (cleanNotification) {
+            cleanNotification.notifyAll();
+        }
     }
 
     @Override
@@ -463,61 +725,137 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         return cachedPages.get(cpid);
     }
 
+    private static class DirtyPage {
+        private long dpid;
+        private CachedPage cPage;
+    }
+
+    private static final Comparator<DirtyPage> DIRTY_PAGE_COMPARATOR = new Comparator<DirtyPage>() {
+        @Override
+        public int compare(DirtyPage o1, DirtyPage o2) {
+            return o1.dpid < o2.dpid ? -1 : (o1.dpid == o2.dpid ? 0 : 1);
+        }
+    };
+
+    /**
+     * Writes back the dirty pages of the files of one partition. The dirty pages are sorted by their disk page id at
+     * every cycle so that runs of consecutive pages of a file are written with one sequential write.
+     */
     private class CleanerThread extends Thread {
-        private boolean shutdownStart = false;
+        private final int partition;
+        private volatile boolean shutdownStart = false;
         private boolean shutdownComplete = false;
-        private final Object cleanNotification = new Object();
-        // Simply keeps incrementing this counter when a page is cleaned.
-        // Used to implement wait-for-cleanerthread heuristic optimizations.
-        // A waiter can detect whether pages have been cleaned.
-        // No need to make this var volatile or synchronize it's access in any
-        // way because it is used for heuristics.
-        private int cleanedCount = 0;
-
-        public CleanerThread() {
+        private final int maxCoalescedPages;
+        private final ByteBuffer coalesceBuffer;
+        private final CachedPage[] run;
+        private DirtyPage[] dirtyPages = new DirtyPage[0];
+        private int nDirtyPages;
+
+        public CleanerThread(int partition) {
+            this.partition = partition;
+            maxCoalescedPages = Math.max(1, MAX_COALESCED_WRITE_SIZE / pageSize);
+            coalesceBuffer = maxCoalescedPages > 1 ? ByteBuffer.allocate(maxCoalescedPages * pageSize) : null;
+            run = new CachedPage[maxCoalescedPages];
             setPriority(MAX_PRIORITY);
             setDaemon(true);
         }
 
-        public void cleanPage(CachedPage cPage, boolean force) {
-            if (cPage.dirty.get() && !cPage.virtual) {
-                boolean proceed = false;
-                if (force) {
-                    cPage.latch.writeLock().lock();
-                    proceed = true;
-                } else {
-                    proceed = cPage.latch.readLock().tryLock();
+        /**
+         * Collects the dirty pages of this cleaner's partition.
+         *
+         * @return the number of dirty pages in the whole cache
+         */
+        private int collectDirtyPages(int numPages) {
+            if (dirtyPages.length < numPages) {
+                DirtyPage[] newDirtyPages = Arrays.copyOf(dirtyPages, numPages);
+                for (int i = dirtyPages.length; i < numPages; ++i) {
+                    newDirtyPages[i] = new DirtyPage();
                 }
-                if (proceed) {
-                    try {
-                        // Make sure page is still dirty.
-                        if (!cPage.dirty.get()) {
-                            return;
-                        }
-                        boolean cleaned = true;
-                        try {
-                            write(cPage);
-                        } catch (HyracksDataException e) {
-                            cleaned = false;
-                        }
-                        if (cleaned) {
-                            cPage.dirty.set(false);
-                            cPage.pinCount.decrementAndGet();
-                            cleanedCount++;
-                            synchronized (cleanNotification) {
-                                cleanNotification.notifyAll();
-                            }
-                        }
-                    } finally {
-                        if (force) {
-                            cPage.latch.writeLock().unlock();
-                        } else {
-                            cPage.latch.readLock().unlock();
-                        }
+                dirtyPages = newDirtyPages;
+            }
+            int nDirty = 0;
+            int n = 0;
+            for (int i = 0; i < numPages; ++i) {
+                CachedPage cPage = (CachedPage) cachedPages.get(i);
+                if (!cPage.dirty.get() || cPage.virtual) {
+                    continue;
+                }
+                ++nDirty;
+                long dpid = cPage.dpid;
+                if (dpid >= 0 && getPartition(BufferedFileHandle.getFileId(dpid)) == partition) {
+                    dirtyPages[n].dpid = dpid;
+                    dirtyPages[n].cPage = cPage;
+                    ++n;
+                }
+            }
+            nDirtyPages = n;
+            return nDirty;
+        }
+
+        private int getPartition(int fileId) {
+            return (fileId & Integer.MAX_VALUE) % cleanerThreads.length;
+        }
+
+        private boolean isAdjacent(long dpid, int runLength) {
+            long lastDpid = run[runLength - 1].dpid;
+            return dpid == lastDpid + 1 && BufferedFileHandle.getFileId(dpid) == BufferedFileHandle.getFileId(lastDpid);
+        }
+
+        private void cleanDirtyPages() {
+            int n = nDirtyPages;
+            Arrays.sort(dirtyPages, 0, n, DIRTY_PAGE_COMPARATOR);
+            int runLength = 0;
+            for (int i = 0; i < n; ++i) {
+                DirtyPage dirtyPage = dirtyPages[i];
+                CachedPage cPage = dirtyPage.cPage;
+                dirtyPage.cPage = null;
+                if (runLength > 0 && (runLength == maxCoalescedPages || !isAdjacent(dirtyPage.dpid, runLength))) {
+                    cleanRun(runLength);
+                    runLength = 0;
+                }
+                if (!cPage.latch.readLock().tryLock()) {
+                    cleanRun(runLength);
+                    runLength = 0;
+                    if (shutdownStart) {
+                        throw new IllegalStateException("Cache closed, but unable to acquire read lock on dirty page: "
+                                + cPage.dpid);
                     }
-                } else if (shutdownStart) {
-                    throw new IllegalStateException("Cache closed, but unable to acquire read lock on dirty page: "
-                            + cPage.dpid);
+                    continue;
+                }
+                // Make sure the page is still dirty and still holds the same disk page.
+                if (!cPage.dirty.get() || cPage.dpid != dirtyPage.dpid) {
+                    cPage.latch.readLock().unlock();
+                    continue;
+                }
+                run[runLength++] = cPage;
+            }
+            cleanRun(runLength);
+        }
+
+        /**
+         * Writes the read-latched pages of the current run and releases their latches.
+         */
+        private void cleanRun(int runLength) {
+            if (runLength == 0) {
+                return;
+            }
+            try {
+                boolean cleaned = true;
+                try {
+                    write(run, runLength, coalesceBuffer);
+                } catch (HyracksDataException e) {
+                    cleaned = false;
+                }
+                if (cleaned) {
+                    for (int i = 0; i < runLength; ++i) {
+                        markCleaned(run[i]);
+                    }
+                    notifyCleaned();
+                }
+            } finally {
+                for (int i = 0; i < runLength; ++i) {
+                    run[i].latch.readLock().unlock();
+                    run[i] = null;
                 }
             }
         }
@@ -528,13 +866,12 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
                 while (true) {
                     pageCleanerPolicy.notifyCleanCycleStart(this);
                     int numPages = pageReplacementStrategy.getNumPages();
-                    for (int i = 0; i < numPages; ++i) {
-                        CachedPage cPage = (CachedPage) cachedPages.get(i);
-                        cleanPage(cPage, false);
-                    }
+                    int nDirty = collectDirtyPages(numPages);
+                    cleanDirtyPages();
                     if (shutdownStart) {
                         break;
                     }
+                    pageCleanerPolicy.notifyDirtyPageRatio(this, numPages == 0 ? 0 : (double) nDirty / numPages);
                     pageCleanerPolicy.notifyCleanCycleFinish(this);
                 }
             } catch (Exception e) {
@@ -549,14 +886,17 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     @Override
     public void close() {
         closed = true;
-        synchronized (cleanerThread) {
-            cleanerThread.shutdownStart = true;
-            cleanerThread.notifyAll();
-            while (!cleanerThread.shutdownComplete) {
-                try {
-                    cleanerThread.wait();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+        waitForPrefetches(-1);
+        for (CleanerThread cleanerThread : cleanerThreads) {
+            synchronized (cleanerThread) {
+                cleanerThread.shutdownStart = true;
+                cleanerThread.notifyAll();
+                while (!cleanerThread.shutdownComplete) {
+                    try {
+                        cleanerThread.wait();
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
                 }
             }
         }
@@ -730,7 +1070,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
     @Override
     public void flushDirtyPage(ICachedPage page) throws HyracksDataException {
         // Assumes the caller has pinned the page.
-        cleanerThread.cleanPage((CachedPage) page, true);
+        forceCleanPage((CachedPage) page);
     }
 
     @Override
@@ -747,6 +1087,7 @@ public class BufferCache implements IBufferCacheInternal, ILifeCycleComponent {
         if (LOGGER.isLoggable(Level.INFO)) {
             LOGGER.info("Deleting file: " + fileId + " in cache: " + this);
         }
+        waitForPrefetches(fileId);
         if (flushDirtyPages) {
             synchronized (fileInfoMap) {
                 sweepAndFlush(fileId, flushDirtyPages);
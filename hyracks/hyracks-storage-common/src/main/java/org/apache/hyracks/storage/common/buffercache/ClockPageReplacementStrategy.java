@@ -58,6 +58,11 @@ public class ClockPageReplacementStrategy implements IPageReplacementStrategy {
         getPerPageObject(cPage).set(true);
     }
 
+    @Override
+    public void notifyCachePageAccessOnce(ICachedPageInternal cPage) {
+        // Leave the accessed flag alone, so a page that was only read by the scan is the next victim of the clock.
+    }
+
     @Override
     public ICachedPageInternal findVictim() {
         ICachedPageInternal cachedPage = null;
@@ -87,6 +87,18 @@ public class DebugBufferCache implements IBufferCache {
         return page;
     }
 
+    @Override
+    public ICachedPage pinOnce(long dpid) throws HyracksDataException {
+        ICachedPage page = bufferCache.pinOnce(dpid);
+        pinCount.addAndGet(1);
+        return page;
+    }
+
+    @Override
+    public void prefetch(int fileId, int startPageId, int numPages) throws HyracksDataException {
+        bufferCache.prefetch(fileId, startPageId, numPages);
+    }
+
     @Override
     public void unpin(ICachedPage page) throws HyracksDataException {
         bufferCache.unpin(page);
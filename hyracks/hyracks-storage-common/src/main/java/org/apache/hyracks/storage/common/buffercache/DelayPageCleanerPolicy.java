@@ -32,6 +32,11 @@ public class DelayPageCleanerPolicy implements IPageCleanerPolicy {
 
     }
 
+    @Override
+    public void notifyDirtyPageRatio(Object monitor, double dirtyPageRatio) throws HyracksDataException {
+
+    }
+
     @Override
     public void notifyCleanCycleFinish(Object monitor) throws HyracksDataException {
         try {
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A cleaner policy that paces the cleaners by the fraction of dirty pages in the cache. Below
+ * {@code highDirtyPageRatio} a cleaner waits for up to {@code maxDelay} ms between cycles, the longer the cleaner
+ * the cache is. At or above it, the cleaners only pause for a millisecond between cycles.
+ */
+public class DirtyRatioPageCleanerPolicy implements IPageCleanerPolicy {
+    private final long maxDelay;
+
+    private final double highDirtyPageRatio;
+
+    private volatile double dirtyPageRatio;
+
+    public DirtyRatioPageCleanerPolicy(long maxDelay, double highDirtyPageRatio) {
+        this.maxDelay = maxDelay;
+        this.highDirtyPageRatio = highDirtyPageRatio;
+    }
+
+    @Override
+    public void notifyCleanCycleStart(Object monitor) throws HyracksDataException {
+
+    }
+
+    @Override
+    public void notifyDirtyPageRatio(Object monitor, double dirtyPageRatio) throws HyracksDataException {
+        this.dirtyPageRatio = dirtyPageRatio;
+    }
+
+    @Override
+    public void notifyCleanCycleFinish(Object monitor) throws HyracksDataException {
+        try {
+            monitor.wait(getDelay(dirtyPageRatio));
+        } catch (InterruptedException e) {
+            throw new HyracksDataException(e);
+        }
+    }
+
+    @Override
+    public void notifyVictimNotFound(Object monitor) throws HyracksDataException {
+        monitor.notifyAll();
+    }
+
+    long getDelay(double dirtyPageRatio) {
+        if (dirtyPageRatio >= highDirtyPageRatio) {
+            return 1;
+        }
+        return Math.max(1, (long) (maxDelay * (1 - dirtyPageRatio / highDirtyPageRatio)));
+    }
+}
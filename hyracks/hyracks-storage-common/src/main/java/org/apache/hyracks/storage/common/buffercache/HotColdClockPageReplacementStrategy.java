@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A scan-resistant CLOCK in the spirit of 2Q and CLOCK-Pro. Pages enter the cache cold and are only promoted to hot
+ * when they are accessed again while still resident. The victims are only taken from the cold pages, so a scan or a
+ * merge that touches every page once recycles the cold pages among themselves and leaves the hot pages alone.
+ * At most {@code hotRatio} of the pages are hot; a second hand demotes the hot pages that were not referenced since
+ * its last pass when a promotion goes over that limit.
+ * Pages read with a once hint ({@link IBufferCache#pinOnce(long)}) are also queued as the first eviction candidates.
+ */
+public class HotColdClockPageReplacementStrategy implements IPageReplacementStrategy {
+    private static final int MAX_UNSUCCESSFUL_CYCLE_COUNT = 3;
+    private static final double DEFAULT_HOT_RATIO = 0.75;
+
+    private static final int SEEN = 0x1;
+    private static final int REFERENCED = 0x2;
+    private static final int REREFERENCED = 0x4;
+    private static final int HOT = 0x8;
+    private static final int ONCE = 0x10;
+
+    private IBufferCacheInternal bufferCache;
+    private int clockPtr;
+    private int hotClockPtr;
+    private ICacheMemoryAllocator allocator;
+    private AtomicInteger numPages = new AtomicInteger(0);
+    private final AtomicInteger numHotPages = new AtomicInteger(0);
+    private final ConcurrentLinkedQueue<ICachedPageInternal> oncePages = new ConcurrentLinkedQueue<ICachedPageInternal>();
+    private final AtomicInteger numOncePages = new AtomicInteger(0);
+    private final int pageSize;
+    private final int maxAllowedNumPages;
+    private final int maxHotPages;
+
+    public HotColdClockPageReplacementStrategy(ICacheMemoryAllocator allocator, int pageSize, int maxAllowedNumPages) {
+        this(allocator, pageSize, maxAllowedNumPages, DEFAULT_HOT_RATIO);
+    }
+
+    public HotColdClockPageReplacementStrategy(ICacheMemoryAllocator allocator, int pageSize, int maxAllowedNumPages,
+            double hotRatio) {
+        this.allocator = allocator;
+        this.pageSize = pageSize;
+        this.maxAllowedNumPages = maxAllowedNumPages;
+        this.maxHotPages = (int) (maxAllowedNumPages * hotRatio);
+        clockPtr = 0;
+        hotClockPtr = 0;
+    }
+
+    @Override
+    public Object createPerPageStrategyObject(int cpid) {
+        return new AtomicInteger();
+    }
+
+    @Override
+    public void setBufferCache(IBufferCacheInternal bufferCache) {
+        this.bufferCache = bufferCache;
+    }
+
+    @Override
+    public void notifyCachePageReset(ICachedPageInternal cPage) {
+        if ((getPerPageObject(cPage).getAndSet(0) & HOT) != 0) {
+            numHotPages.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void notifyCachePageAccess(ICachedPageInternal cPage) {
+        AtomicInteger state = getPerPageObject(cPage);
+        while (true) {
+            int s = state.get();
+            int newState = (s | SEEN | REFERENCED) & ~ONCE;
+            if ((s & SEEN) != 0) {
+                newState |= REREFERENCED;
+            }
+            if (s == newState || state.compareAndSet(s, newState)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void notifyCachePageAccessOnce(ICachedPageInternal cPage) {
+        // Pages that were already used keep their state, only a page that the scan brought in is marked.
+        if (getPerPageObject(cPage).compareAndSet(0, ONCE)) {
+            if (numOncePages.incrementAndGet() <= maxAllowedNumPages) {
+                oncePages.offer(cPage);
+            } else {
+                numOncePages.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public ICachedPageInternal findVictim() {
+        ICachedPageInternal cachedPage = null;
+        int pageCount = getNumPages();
+        // pageCount is a lower-bound of numPages.
+        if (pageCount >= maxAllowedNumPages) {
+            cachedPage = findOnceVictim();
+            if (cachedPage == null) {
+                cachedPage = findVictimByEviction();
+            }
+        } else {
+            cachedPage = allocatePage();
+        }
+        return cachedPage;
+    }
+
+    private ICachedPageInternal findOnceVictim() {
+        ICachedPageInternal cPage;
+        while ((cPage = oncePages.poll()) != null) {
+            numOncePages.decrementAndGet();
+            if (getPerPageObject(cPage).get() == ONCE && cPage.pinIfGoodVictim()) {
+                return cPage;
+            }
+        }
+        return null;
+    }
+
+    private ICachedPageInternal findVictimByEviction() {
+        int startClockPtr = clockPtr;
+        int cycleCount = 0;
+        do {
+            ICachedPageInternal cPage = bufferCache.getPage(clockPtr);
+            boolean candidate = isEvictionCandidate(getPerPageObject(cPage));
+            /**
+             * The clockPtr may miss the last added pages in this round.
+             * The hand also moves past the victim, so that the page loaded into it stays for a whole round.
+             */
+            clockPtr = (clockPtr + 1) % getNumPages();
+            if (candidate && cPage.pinIfGoodVictim()) {
+                return cPage;
+            }
+            if (clockPtr == startClockPtr) {
+                ++cycleCount;
+            }
+        } while (cycleCount < MAX_UNSUCCESSFUL_CYCLE_COUNT);
+        return null;
+    }
+
+    /**
+     * Checks the cold page under the clock hand, promoting it if it was accessed again since it was loaded.
+     *
+     * @return true if the page should be evicted
+     */
+    private boolean isEvictionCandidate(AtomicInteger state) {
+        int s = state.get();
+        if ((s & HOT) != 0) {
+            return false;
+        }
+        if ((s & REREFERENCED) == 0) {
+            return true;
+        }
+        if (state.compareAndSet(s, HOT | SEEN)) {
+            if (numHotPages.incrementAndGet() > maxHotPages) {
+                demoteHotPage();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the hot hand to the next hot page that was not referenced since the hand last passed it, and demotes it.
+     * The hot pages that were referenced lose their reference flag on the way.
+     */
+    private void demoteHotPage() {
+        int numPages = getNumPages();
+        for (int i = 0; i < 2 * numPages; ++i) {
+            AtomicInteger state = getPerPageObject(bufferCache.getPage(hotClockPtr));
+            hotClockPtr = (hotClockPtr + 1) % numPages;
+            int s = state.get();
+            if ((s & HOT) == 0) {
+                continue;
+            }
+            if ((s & REFERENCED) != 0) {
+                state.compareAndSet(s, s & ~(REFERENCED | REREFERENCED));
+            } else if (state.compareAndSet(s, SEEN)) {
+                // The page stays resident as a cold page, a single access promotes it again.
+                numHotPages.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * The number returned here could only be smaller or equal to the actual number
+     * of pages, because numPages is monotonically incremented.
+     */
+    @Override
+    public int getNumPages() {
+        return numPages.get();
+    }
+
+    int getNumHotPages() {
+        return numHotPages.get();
+    }
+
+    private ICachedPageInternal allocatePage() {
+        CachedPage cPage = null;
+        synchronized (this) {
+            cPage = new CachedPage(numPages.get(), allocator.allocate(pageSize, 1)[0], this);
+            bufferCache.addPage(cPage);
+            numPages.incrementAndGet();
+        }
+        if (cPage.pinIfGoodVictim()) {
+            return cPage;
+        }
+        return null;
+    }
+
+    private AtomicInteger getPerPageObject(ICachedPageInternal cPage) {
+        return (AtomicInteger) cPage.getReplacementStrategyObject();
+    }
+
+    @Override
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public int getMaxAllowedNumPages() {
+        return maxAllowedNumPages;
+    }
+}
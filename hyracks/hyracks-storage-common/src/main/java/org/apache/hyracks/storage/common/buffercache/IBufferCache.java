@@ -39,6 +39,19 @@ public interface IBufferCache {
 
     public ICachedPage pin(long dpid, boolean newPage) throws HyracksDataException;
 
+    /**
+     * Pins an existing page that the caller reads once, e.g. during a scan or a merge, and that should not push the
+     * frequently used pages out of the cache.
+     */
+    public ICachedPage pinOnce(long dpid) throws HyracksDataException;
+
+    /**
+     * Asynchronously reads up to numPages consecutive pages of an open file, starting at startPageId, into the cache
+     * with one sequential read. This is only a hint: the pages that are already cached are skipped and the request
+     * may be dropped when too many prefetches are in flight.
+     */
+    public void prefetch(int fileId, int startPageId, int numPages) throws HyracksDataException;
+
     public ICachedPage pinVirtual(long vpid) throws HyracksDataException;
 
     public ICachedPage unpinVirtual(long vpid, long dpid) throws HyracksDataException;
@@ -35,6 +35,18 @@ public interface IPageCleanerPolicy {
      */
     public void notifyCleanCycleStart(Object monitor) throws HyracksDataException;
 
+    /**
+     * Callback from the cleaner at the end of a cleaning cycle, just before
+     * {@link #notifyCleanCycleFinish(Object)}.
+     * 
+     * @param monitor
+     *            - The monitor on which a mutex is held while in this call.
+     * @param dirtyPageRatio
+     *            - The fraction of the cached pages that were dirty at the beginning of the cycle.
+     * @throws HyracksDataException
+     */
+    public void notifyDirtyPageRatio(Object monitor, double dirtyPageRatio) throws HyracksDataException;
+
     /**
      * Callback from the cleaner just after the finish of a cleaning cycle.
      * 
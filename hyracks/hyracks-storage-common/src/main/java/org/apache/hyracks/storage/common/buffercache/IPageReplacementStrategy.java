@@ -27,6 +27,12 @@ public interface IPageReplacementStrategy {
 
     public void notifyCachePageAccess(ICachedPageInternal cPage);
 
+    /**
+     * Notifies the strategy of an access to a page that the caller does not expect to touch again, so the page can
+     * be evicted before the others.
+     */
+    public void notifyCachePageAccessOnce(ICachedPageInternal cPage);
+
     public ICachedPageInternal findVictim();
 
     public int getNumPages();
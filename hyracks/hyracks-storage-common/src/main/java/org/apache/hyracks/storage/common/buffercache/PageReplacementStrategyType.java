@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common.buffercache;
+
+/**
+ * The page replacement strategies that can be selected by name, e.g. from the Node Controller configuration.
+ */
+public enum PageReplacementStrategyType {
+    CLOCK("clock"),
+    HOT_COLD_CLOCK("hot-cold-clock");
+
+    private final String name;
+
+    private PageReplacementStrategyType(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public IPageReplacementStrategy createStrategy(ICacheMemoryAllocator allocator, int pageSize,
+            int maxAllowedNumPages) {
+        switch (this) {
+            case HOT_COLD_CLOCK:
+                return new HotColdClockPageReplacementStrategy(allocator, pageSize, maxAllowedNumPages);
+            case CLOCK:
+            default:
+                return new ClockPageReplacementStrategy(allocator, pageSize, maxAllowedNumPages);
+        }
+    }
+
+    public static PageReplacementStrategyType fromName(String name) {
+        for (PageReplacementStrategyType type : values()) {
+            if (type.name.equals(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown page replacement strategy: " + name);
+    }
+}
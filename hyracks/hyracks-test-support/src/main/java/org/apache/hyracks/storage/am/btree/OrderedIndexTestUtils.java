@@ -23,8 +23,11 @@ import static org.junit.Assert.fail;
 import java.io.ByteArrayInputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -39,6 +42,9 @@ import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
 import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
 import org.apache.hyracks.dataflow.common.util.TupleUtils;
+import org.apache.hyracks.storage.am.btree.api.IBatchPointSearchAccessor;
+import org.apache.hyracks.storage.am.btree.api.IBatchPointSearchCursor;
+import org.apache.hyracks.storage.am.btree.impls.BatchPointPredicate;
 import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
 import org.apache.hyracks.storage.am.btree.util.BTreeUtils;
 import org.apache.hyracks.storage.am.common.CheckTuple;
@@ -184,6 +190,64 @@ public class OrderedIndexTestUtils extends TreeIndexTestUtils {
         }
     }
 
+    /**
+     * Searches the keys of the probe tuples in one batch, first in key order and then shuffled, and checks that exactly
+     * the probes that are among the expected tuples are found.
+     */
+    public void checkBatchPointSearches(IIndexTestContext ictx, Collection<CheckTuple> probeTuples, Random rnd)
+            throws Exception {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("Testing Batch Point Searches.");
+        }
+        OrderedIndexTestContext ctx = (OrderedIndexTestContext) ictx;
+        List<CheckTuple> probes = new ArrayList<CheckTuple>(probeTuples);
+        checkBatchPointSearch(ctx, probes);
+        Collections.shuffle(probes, rnd);
+        checkBatchPointSearch(ctx, probes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void checkBatchPointSearch(OrderedIndexTestContext ctx, List<CheckTuple> probes) throws Exception {
+        IBatchPointSearchCursor searchCursor = ((IBatchPointSearchAccessor) ctx.getIndexAccessor())
+                .createBatchPointSearchCursor();
+        BatchPointPredicate batchPred = new BatchPointPredicate(MultiComparator.create(ctx.getComparatorFactories()));
+        int numExpected = 0;
+        for (CheckTuple probe : probes) {
+            ArrayTupleBuilder keyBuilder = new ArrayTupleBuilder(ctx.getKeyFieldCount());
+            ArrayTupleReference key = new ArrayTupleReference();
+            createTupleFromCheckTuple(probe, keyBuilder, key, ctx.getFieldSerdes());
+            batchPred.addKey(key);
+            if (ctx.getCheckTuples().contains(probe)) {
+                numExpected++;
+            }
+        }
+
+        int numFound = 0;
+        int lastKeyIndex = -1;
+        ctx.getIndexAccessor().search(searchCursor, batchPred);
+        try {
+            while (searchCursor.hasNext()) {
+                searchCursor.next();
+                int keyIndex = searchCursor.getKeyIndex();
+                if (keyIndex <= lastKeyIndex) {
+                    fail("Batch point search returned the keys out of order.");
+                }
+                lastKeyIndex = keyIndex;
+                CheckTuple expectedTuple = ctx.getCheckTuples().ceiling(probes.get(keyIndex));
+                if (expectedTuple == null || expectedTuple.compareTo(probes.get(keyIndex)) != 0) {
+                    fail("Batch point search found a deleted key.");
+                }
+                compareActualAndExpected(searchCursor.getTuple(), expectedTuple, ctx.getFieldSerdes());
+                numFound++;
+            }
+        } finally {
+            searchCursor.close();
+        }
+        if (numFound != numExpected) {
+            fail("Batch point search found " + numFound + " of the " + numExpected + " expected keys.");
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public void insertSortedIntTuples(IIndexTestContext ctx, int numTuples, Random rnd) throws Exception {
         int fieldCount = ctx.getFieldCount();
@@ -21,6 +21,8 @@ package org.apache.hyracks.test.support;
 import java.nio.ByteBuffer;
 
 import org.apache.hyracks.api.application.INCApplicationContext;
+import org.apache.hyracks.api.compression.IFrameCompressorFactory;
+import org.apache.hyracks.api.context.IHyracksFrameMgrContext;
 import org.apache.hyracks.api.context.IHyracksJobletContext;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.exceptions.HyracksException;
@@ -29,23 +31,40 @@ import org.apache.hyracks.api.io.IIOManager;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
 import org.apache.hyracks.api.resources.IDeallocatable;
+import org.apache.hyracks.api.resources.memory.IMemoryManager;
 import org.apache.hyracks.control.nc.io.IOManager;
 import org.apache.hyracks.control.nc.io.WorkspaceFileFactory;
 import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.control.nc.resources.memory.MemoryAccountedFrameManager;
 
 public class TestJobletContext implements IHyracksJobletContext {
     private final int frameSize;
     private final INCApplicationContext appContext;
-    private final FrameManager frameManger;
+    private final IHyracksFrameMgrContext frameManger;
     private JobId jobId;
     private WorkspaceFileFactory fileFactory;
+    private IFrameCompressorFactory runFileCompressorFactory;
 
     public TestJobletContext(int frameSize, INCApplicationContext appContext, JobId jobId) throws HyracksException {
+        this(frameSize, appContext, jobId, new FrameManager(frameSize));
+    }
+
+    /**
+     * Creates a joblet whose frames are charged to the given memory manager, like the joblets of a node controller.
+     */
+    public TestJobletContext(int frameSize, INCApplicationContext appContext, JobId jobId,
+            IMemoryManager memoryManager) throws HyracksException {
+        this(frameSize, appContext, jobId, new MemoryAccountedFrameManager(memoryManager, new FrameManager(frameSize),
+                null));
+    }
+
+    private TestJobletContext(int frameSize, INCApplicationContext appContext, JobId jobId,
+            IHyracksFrameMgrContext frameManager) throws HyracksException {
         this.frameSize = frameSize;
         this.appContext = appContext;
         this.jobId = jobId;
         fileFactory = new WorkspaceFileFactory(this, (IOManager) getIOManager());
-        this.frameManger = new FrameManager(frameSize);
+        this.frameManger = frameManager;
     }
 
     ByteBuffer allocateFrame() throws HyracksDataException {
@@ -60,6 +79,10 @@ public class TestJobletContext implements IHyracksJobletContext {
         return frameManger.reallocateFrame(tobeDeallocate, newFrameSizeInBytes, copyOldData);
     }
 
+    void deallocateFrame(ByteBuffer frame) {
+        frameManger.deallocateFrame(frame);
+    }
+
     void deallocateFrames(int bytes) {
         frameManger.deallocateFrames(bytes);
     }
@@ -112,6 +135,20 @@ public class TestJobletContext implements IHyracksJobletContext {
         return null;
     }
 
+    @Override
+    public byte[] getJobParameter(String name) {
+        return null;
+    }
+
+    @Override
+    public IFrameCompressorFactory getRunFileCompressorFactory() {
+        return runFileCompressorFactory;
+    }
+
+    public void setRunFileCompressorFactory(IFrameCompressorFactory runFileCompressorFactory) {
+        this.runFileCompressorFactory = runFileCompressorFactory;
+    }
+
     @Override
     public Class<?> loadClass(String className) {
         try {
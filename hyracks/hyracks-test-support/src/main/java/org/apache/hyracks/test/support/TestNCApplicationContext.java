@@ -19,6 +19,7 @@
 package org.apache.hyracks.test.support;
 
 import java.io.Serializable;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadFactory;
 
 import org.apache.hyracks.api.application.INCApplicationContext;
@@ -29,8 +30,11 @@ import org.apache.hyracks.api.lifecycle.ILifeCycleComponentManager;
 import org.apache.hyracks.api.lifecycle.LifeCycleComponentManager;
 import org.apache.hyracks.api.messages.IMessageBroker;
 import org.apache.hyracks.api.resources.memory.IMemoryManager;
+import org.apache.hyracks.storage.common.buffercache.PageReplacementStrategyType;
 
 public class TestNCApplicationContext implements INCApplicationContext {
+    private static final ForkJoinPool COMPUTE_THREAD_POOL = new ForkJoinPool();
+
     private final ILifeCycleComponentManager lccm;
     private final IHyracksRootContext rootCtx;
     private final String nodeId;
@@ -111,6 +115,16 @@ public class TestNCApplicationContext implements INCApplicationContext {
         return mm;
     }
 
+    @Override
+    public ForkJoinPool getComputeThreadPool() {
+        return COMPUTE_THREAD_POOL;
+    }
+
+    @Override
+    public String getBufferCachePageReplacement() {
+        return PageReplacementStrategyType.CLOCK.getName();
+    }
+
     @Override
     public ThreadFactory getThreadFactory() {
         return null;
@@ -63,6 +63,11 @@ public class TestTaskContext implements IHyracksTaskContext {
 
     }
 
+    @Override
+    public void deallocateFrame(ByteBuffer frame) {
+        jobletContext.deallocateFrame(frame);
+    }
+
     @Override
     public void deallocateFrames(int bytes) {
         jobletContext.deallocateFrames(bytes);
@@ -168,4 +168,104 @@ public class BloomFilterTest extends AbstractBloomFilterTest {
         bf.deactivate();
         bf.destroy();
     }
+
+    @Test
+    public void blockedFilterTest() throws Exception {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("TESTING BLOCKED BLOOM FILTER");
+        }
+
+        IBufferCache bufferCache = harness.getBufferCache();
+
+        int numElements = 10000;
+        int[] keyFields = { 0 };
+
+        BloomFilter bf = new BloomFilter(bufferCache, harness.getFileMapProvider(), harness.getFileReference(),
+                keyFields, true);
+
+        double acceptanleFalsePositiveRate = 0.01;
+        int maxBucketsPerElement = BloomCalculations.maxBucketsPerElement(numElements);
+        BloomFilterSpecification bloomFilterSpec = BloomCalculations.computeBloomSpec(maxBucketsPerElement,
+                acceptanleFalsePositiveRate);
+
+        bf.create();
+        bf.activate();
+        IIndexBulkLoader builder = bf.createBuilder(numElements, bloomFilterSpec.getNumHashes(),
+                bloomFilterSpec.getNumBucketsPerElements());
+        Assert.assertTrue(bf.isBlocked());
+
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        // Even keys are inserted, odd keys are used to measure the false positive rate.
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i, i);
+            builder.add(tuple);
+        }
+        builder.end();
+
+        long[] hashes = new long[2];
+        int falsePositives = 0;
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i, i);
+            Assert.assertTrue(bf.contains(tuple, hashes));
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, 2 * i + 1, i);
+            if (bf.contains(tuple, hashes)) {
+                ++falsePositives;
+            }
+        }
+        Assert.assertTrue("Too many false positives: " + falsePositives,
+                falsePositives < 2 * acceptanleFalsePositiveRate * numElements);
+
+        bf.deactivate();
+        bf.destroy();
+    }
+
+    @Test
+    public void classicFilterReadByBlockedInstanceTest() throws Exception {
+        IBufferCache bufferCache = harness.getBufferCache();
+
+        int numElements = 1000;
+        int[] keyFields = { 0 };
+
+        BloomFilter bf = new BloomFilter(bufferCache, harness.getFileMapProvider(), harness.getFileReference(),
+                keyFields);
+        BloomFilterSpecification bloomFilterSpec = BloomCalculations.computeBloomSpec(
+                BloomCalculations.maxBucketsPerElement(numElements), 0.1);
+        bf.create();
+        bf.activate();
+        IIndexBulkLoader builder = bf.createBuilder(numElements, bloomFilterSpec.getNumHashes(),
+                bloomFilterSpec.getNumBucketsPerElements());
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, i);
+            builder.add(tuple);
+        }
+        builder.end();
+        bf.deactivate();
+
+        // A filter that would create blocked filters still reads the existing one with its own layout.
+        BloomFilter reopened = new BloomFilter(bufferCache, harness.getFileMapProvider(), harness.getFileReference(),
+                keyFields, true);
+        reopened.activate();
+        Assert.assertFalse(reopened.isBlocked());
+        long[] hashes = new long[2];
+        for (int i = 0; i < numElements; ++i) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, i);
+            Assert.assertTrue(reopened.contains(tuple, hashes));
+        }
+        reopened.deactivate();
+        reopened.destroy();
+    }
+
+    @Test
+    public void blockedBucketsPerElementTest() {
+        for (int buckets = 4; buckets <= 20; ++buckets) {
+            int k = BloomCalculations.computeBloomSpec(buckets).getNumHashes();
+            int blockedBuckets = BloomCalculations.blockedBucketsPerElement(buckets, k);
+            Assert.assertTrue(blockedBuckets >= buckets);
+            Assert.assertTrue(BloomCalculations.blockedFalsePositiveRate(buckets, k) >= BloomCalculations
+                    .falsePositiveRate(buckets, k));
+        }
+    }
 }
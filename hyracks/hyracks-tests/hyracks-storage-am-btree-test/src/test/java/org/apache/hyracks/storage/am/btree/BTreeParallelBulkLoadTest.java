@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.btree;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.util.TupleUtils;
+import org.apache.hyracks.storage.am.btree.frames.BTreeNSMInteriorFrameFactory;
+import org.apache.hyracks.storage.am.btree.frames.BTreeNSMLeafFrameFactory;
+import org.apache.hyracks.storage.am.btree.impls.BTree;
+import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeParallelBulkLoader;
+import org.apache.hyracks.storage.am.btree.impls.BTreeRangeSearchCursor;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.btree.util.AbstractBTreeTest;
+import org.apache.hyracks.storage.am.common.TestOperationCallback;
+import org.apache.hyracks.storage.am.common.api.IIndexBulkLoader;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexAccessor;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexFrameFactory;
+import org.apache.hyracks.storage.am.common.frames.LIFOMetaDataFrameFactory;
+import org.apache.hyracks.storage.am.common.freepage.LinkedListFreePageManager;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+import org.apache.hyracks.storage.am.common.tuples.TypeAwareTupleWriterFactory;
+
+public class BTreeParallelBulkLoadTest extends AbstractBTreeTest {
+    private static final int NUM_RUNS = 2;
+    private static final int TUPLES_PER_RUN = 2000;
+
+    @Test
+    public void interleavedRunsKeepTheirLeavesTogether() throws Exception {
+        int fieldCount = 2;
+        ITypeTraits[] typeTraits = { IntegerPointable.TYPE_TRAITS, IntegerPointable.TYPE_TRAITS };
+        IBinaryComparatorFactory[] cmpFactories = { PointableBinaryComparatorFactory.of(IntegerPointable.FACTORY) };
+        TypeAwareTupleWriterFactory tupleWriterFactory = new TypeAwareTupleWriterFactory(typeTraits);
+        ITreeIndexFrameFactory leafFrameFactory = new BTreeNSMLeafFrameFactory(tupleWriterFactory);
+        ITreeIndexFrameFactory interiorFrameFactory = new BTreeNSMInteriorFrameFactory(tupleWriterFactory);
+        BTree btree = new BTree(harness.getBufferCache(), harness.getFileMapProvider(), new LinkedListFreePageManager(
+                harness.getBufferCache(), 0, new LIFOMetaDataFrameFactory()), interiorFrameFactory,
+                leafFrameFactory, cmpFactories, fieldCount, harness.getFileReference());
+        btree.create();
+        btree.activate();
+
+        // The runs are filled in turns, so that their leaves are requested alternately.
+        BTreeParallelBulkLoader bulkLoader = btree.createParallelBulkLoader(0.7f);
+        IIndexBulkLoader[] runs = new IIndexBulkLoader[NUM_RUNS];
+        for (int r = 0; r < NUM_RUNS; r++) {
+            runs[r] = bulkLoader.createRun();
+        }
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(fieldCount);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        for (int i = 0; i < TUPLES_PER_RUN; i++) {
+            for (int r = 0; r < NUM_RUNS; r++) {
+                int key = r * TUPLES_PER_RUN + i;
+                TupleUtils.createIntegerTuple(tb, tuple, key, -key);
+                runs[r].add(tuple);
+            }
+        }
+        for (IIndexBulkLoader run : runs) {
+            run.end();
+        }
+        bulkLoader.end();
+
+        ITreeIndexAccessor accessor = btree.createAccessor(TestOperationCallback.INSTANCE,
+                TestOperationCallback.INSTANCE);
+        BTreeRangeSearchCursor cursor = (BTreeRangeSearchCursor) accessor.createSearchCursor(false);
+        MultiComparator cmp = MultiComparator.create(cmpFactories);
+        accessor.search(cursor, new RangePredicate(null, null, true, true, cmp, cmp));
+        int expectedKey = 0;
+        int leaves = 0;
+        int jumps = 0;
+        int prevPageId = -1;
+        try {
+            while (cursor.hasNext()) {
+                cursor.next();
+                ITupleReference t = cursor.getTuple();
+                Assert.assertEquals(expectedKey++, getInt(t, 0));
+                int pageId = cursor.getPageId();
+                if (pageId != prevPageId) {
+                    if (prevPageId >= 0 && pageId != prevPageId + 1) {
+                        jumps++;
+                    }
+                    leaves++;
+                    prevPageId = pageId;
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        Assert.assertEquals(NUM_RUNS * TUPLES_PER_RUN, expectedKey);
+        // Without extents every leaf would be followed by a leaf of the other run.
+        Assert.assertTrue(jumps + " jumps between " + leaves + " leaves", jumps * 8 < leaves);
+
+        btree.validate();
+        btree.deactivate();
+        btree.destroy();
+    }
+
+    private static int getInt(ITupleReference tuple, int field) throws Exception {
+        return IntegerSerializerDeserializer.INSTANCE.deserialize(new DataInputStream(new ByteArrayInputStream(
+                tuple.getFieldData(field), tuple.getFieldStart(field), tuple.getFieldLength(field))));
+    }
+}
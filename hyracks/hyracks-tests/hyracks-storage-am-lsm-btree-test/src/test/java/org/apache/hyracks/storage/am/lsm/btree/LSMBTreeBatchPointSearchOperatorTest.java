@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INullWriter;
+import org.apache.hyracks.api.dataflow.value.INullWriterFactory;
+import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.util.TupleUtils;
+import org.apache.hyracks.dataflow.std.file.ConstantFileSplitProvider;
+import org.apache.hyracks.dataflow.std.file.FileSplit;
+import org.apache.hyracks.dataflow.std.file.IFileSplitProvider;
+import org.apache.hyracks.storage.am.btree.dataflow.BTreeBatchPointSearchOperatorNodePushable;
+import org.apache.hyracks.storage.am.btree.dataflow.BTreeSearchOperatorDescriptor;
+import org.apache.hyracks.storage.am.common.api.IIndex;
+import org.apache.hyracks.storage.am.common.api.IIndexBulkLoader;
+import org.apache.hyracks.storage.am.common.api.IIndexDataflowHelper;
+import org.apache.hyracks.storage.am.common.dataflow.IIndexDataflowHelperFactory;
+import org.apache.hyracks.storage.am.common.dataflow.TreeIndexCreateOperatorDescriptor;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallbackFactory;
+import org.apache.hyracks.storage.am.lsm.btree.dataflow.LSMBTreeDataflowHelperFactory;
+import org.apache.hyracks.storage.am.lsm.common.impls.ConstantMergePolicyFactory;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoOpIOOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.impls.SynchronousSchedulerProvider;
+import org.apache.hyracks.storage.am.lsm.common.impls.ThreadCountingOperationTrackerProvider;
+import org.apache.hyracks.storage.common.file.TransientLocalResourceFactoryProvider;
+import org.apache.hyracks.test.support.TestIndexLifecycleManagerProvider;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.apache.hyracks.test.support.TestStorageManagerInterface;
+import org.apache.hyracks.test.support.TestUtils;
+import org.apache.hyracks.test.support.TestVirtualBufferCacheProvider;
+
+/**
+ * Drives the batched point search operator over an LSM BTree whose keys are the even numbers below 2 * NUM_KEYS. The
+ * probes are (key, tag) tuples in random order, where the tag is the input position of the probe. About half of the
+ * probes miss, and some keys are probed more than once.
+ */
+@SuppressWarnings("rawtypes")
+public class LSMBTreeBatchPointSearchOperatorTest {
+    private static final int FRAME_SIZE = 256;
+    private static final int PAGE_SIZE = 8192;
+    private static final int NUM_PAGES = 20;
+    private static final int MAX_OPEN_FILES = 20;
+
+    private static final int NUM_KEYS = 500;
+    private static final int NUM_PROBES = 300;
+    private static final int NULL_VALUE = -1;
+
+    private static final ISerializerDeserializer[] INDEX_SERDES = new ISerializerDeserializer[] {
+            IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+    private static final ITypeTraits[] TYPE_TRAITS = new ITypeTraits[] { IntegerPointable.TYPE_TRAITS,
+            IntegerPointable.TYPE_TRAITS };
+    private static final IBinaryComparatorFactory[] CMP_FACTORIES = new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory
+            .of(IntegerPointable.FACTORY) };
+    private static final int[] BLOOM_FILTER_KEY_FIELDS = new int[] { 0 };
+    private static final int[] KEY_FIELDS = new int[] { 0 };
+    private static final RecordDescriptor PROBE_REC_DESC = new RecordDescriptor(INDEX_SERDES);
+
+    private final Random rnd = new Random(50);
+    private IHyracksTaskContext ctx;
+    private IFileSplitProvider fileSplitProvider;
+    private IIndexDataflowHelperFactory dataflowHelperFactory;
+    private IIndexDataflowHelper indexHelper;
+
+    @Before
+    public void setUp() throws Exception {
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_PAGES, MAX_OPEN_FILES);
+        ctx = TestUtils.create(FRAME_SIZE);
+        SimpleDateFormat format = new SimpleDateFormat("ddMMyy-hhmmssSS");
+        String fileName = System.getProperty("java.io.tmpdir") + System.getProperty("file.separator")
+                + "batchSearch_" + format.format(new Date());
+        fileSplitProvider = new ConstantFileSplitProvider(new FileSplit[] { new FileSplit("nc1", new FileReference(
+                new File(fileName))) });
+        Map<String, String> mergePolicyProperties = new HashMap<String, String>();
+        mergePolicyProperties.put("num-components", "3");
+        dataflowHelperFactory = new LSMBTreeDataflowHelperFactory(new TestVirtualBufferCacheProvider(PAGE_SIZE,
+                NUM_PAGES), new ConstantMergePolicyFactory(), mergePolicyProperties,
+                ThreadCountingOperationTrackerProvider.INSTANCE, SynchronousSchedulerProvider.INSTANCE,
+                NoOpIOOperationCallback.INSTANCE, 0.01, true, null, null, null, null, true);
+
+        TreeIndexCreateOperatorDescriptor createOp = new TreeIndexCreateOperatorDescriptor(new JobSpecification(),
+                new TestStorageManagerInterface(), new TestIndexLifecycleManagerProvider(), fileSplitProvider,
+                TYPE_TRAITS, CMP_FACTORIES, BLOOM_FILTER_KEY_FIELDS, dataflowHelperFactory,
+                new TransientLocalResourceFactoryProvider(), NoOpOperationCallbackFactory.INSTANCE);
+        indexHelper = dataflowHelperFactory.createIndexDataflowHelper(createOp, ctx, 0);
+        indexHelper.create();
+        indexHelper.open();
+        try {
+            IIndex index = indexHelper.getIndexInstance();
+            IIndexBulkLoader bulkLoader = index.createBulkLoader(1.0f, false, NUM_KEYS, true);
+            for (int i = 0; i < NUM_KEYS; i++) {
+                bulkLoader.add(TupleUtils.createIntegerTuple(2 * i, getValue(2 * i)));
+            }
+            bulkLoader.end();
+        } finally {
+            indexHelper.close();
+        }
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        indexHelper.destroy();
+    }
+
+    @Test
+    public void flushOnCloseTest() throws Exception {
+        // The batch is never full, so close() searches all of the probes.
+        int[] probes = createProbes();
+        List<int[]> results = search(probes, NUM_PROBES + 1, false, true, true);
+        checkResults(probes, results, false, true, true);
+    }
+
+    @Test
+    public void multipleBatchesTest() throws Exception {
+        int[] probes = createProbes();
+        List<int[]> results = search(probes, 16, false, true, true);
+        checkResults(probes, results, false, true, true);
+    }
+
+    @Test
+    public void keyOrderTest() throws Exception {
+        // The results are in key order within a batch only, so all of the probes go into one batch.
+        int[] probes = createProbes();
+        List<int[]> results = search(probes, NUM_PROBES + 1, true, true, true);
+        checkResults(probes, results, true, true, true);
+    }
+
+    @Test
+    public void noRetainNullTest() throws Exception {
+        int[] probes = createProbes();
+        List<int[]> results = search(probes, 64, false, true, false);
+        checkResults(probes, results, false, true, false);
+    }
+
+    @Test
+    public void noRetainInputTest() throws Exception {
+        int[] probes = createProbes();
+        List<int[]> results = search(probes, 64, false, false, false);
+        checkResults(probes, results, false, false, false);
+    }
+
+    private int[] createProbes() {
+        int[] probes = new int[NUM_PROBES];
+        for (int i = 0; i < NUM_PROBES; i++) {
+            probes[i] = rnd.nextInt(2 * NUM_KEYS + 20) - 10;
+        }
+        // Probe the first key twice in a row, so that equal keys meet within a batch.
+        probes[1] = probes[0];
+        return probes;
+    }
+
+    private static int getValue(int key) {
+        return key * 10;
+    }
+
+    private static boolean isIndexed(int key) {
+        return key >= 0 && key < 2 * NUM_KEYS && key % 2 == 0;
+    }
+
+    /**
+     * Pushes the probes through the operator and returns the fields of the output tuples.
+     */
+    private List<int[]> search(int[] probes, int lookupBatchSize, boolean resultsInKeyOrder, boolean retainInput,
+            boolean retainNull) throws Exception {
+        int outputFieldCount = retainInput ? PROBE_REC_DESC.getFieldCount() + INDEX_SERDES.length
+                : INDEX_SERDES.length;
+        ISerializerDeserializer[] outputSerdes = new ISerializerDeserializer[outputFieldCount];
+        for (int i = 0; i < outputFieldCount; i++) {
+            outputSerdes[i] = IntegerSerializerDeserializer.INSTANCE;
+        }
+        final RecordDescriptor outputRecDesc = new RecordDescriptor(outputSerdes);
+        BTreeSearchOperatorDescriptor searchOp = new BTreeSearchOperatorDescriptor(new JobSpecification(),
+                outputRecDesc, new TestStorageManagerInterface(), new TestIndexLifecycleManagerProvider(),
+                fileSplitProvider, TYPE_TRAITS, CMP_FACTORIES, BLOOM_FILTER_KEY_FIELDS, KEY_FIELDS, KEY_FIELDS, true,
+                true, dataflowHelperFactory, retainInput, retainNull, new IntegerNullWriterFactory(),
+                NoOpOperationCallbackFactory.INSTANCE, null, null, lookupBatchSize, resultsInKeyOrder);
+        IRecordDescriptorProvider recordDescProvider = new IRecordDescriptorProvider() {
+            @Override
+            public RecordDescriptor getInputRecordDescriptor(ActivityId aid, int inputIndex) {
+                return PROBE_REC_DESC;
+            }
+
+            @Override
+            public RecordDescriptor getOutputRecordDescriptor(ActivityId aid, int outputIndex) {
+                return outputRecDesc;
+            }
+        };
+        IOperatorNodePushable pushable = searchOp.createPushRuntime(ctx, recordDescProvider, 0, 1);
+        Assert.assertTrue(pushable instanceof BTreeBatchPointSearchOperatorNodePushable);
+        ResultCollector collector = new ResultCollector(outputRecDesc);
+        pushable.setOutputFrameWriter(0, collector, outputRecDesc);
+
+        IFrameWriter input = (IFrameWriter) pushable;
+        input.open();
+        try {
+            FrameTupleAppender appender = new FrameTupleAppender(new VSizeFrame(ctx));
+            ArrayTupleBuilder tb = new ArrayTupleBuilder(PROBE_REC_DESC.getFieldCount());
+            for (int i = 0; i < probes.length; i++) {
+                tb.reset();
+                tb.addField(IntegerSerializerDeserializer.INSTANCE, probes[i]);
+                tb.addField(IntegerSerializerDeserializer.INSTANCE, i);
+                FrameUtils.appendToWriter(input, appender, tb.getFieldEndOffsets(), tb.getByteArray(), 0,
+                        tb.getSize());
+            }
+            appender.flush(input, true);
+            if (lookupBatchSize > probes.length) {
+                Assert.assertTrue(collector.results.isEmpty());
+            }
+        } finally {
+            input.close();
+        }
+        Assert.assertTrue(collector.closed);
+        return collector.results;
+    }
+
+    private void checkResults(int[] probes, List<int[]> results, boolean resultsInKeyOrder, boolean retainInput,
+            boolean retainNull) {
+        List<int[]> expected = new ArrayList<int[]>();
+        for (int i = 0; i < probes.length; i++) {
+            int key = probes[i];
+            if (isIndexed(key)) {
+                expected.add(retainInput ? new int[] { key, i, key, getValue(key) } : new int[] { key,
+                        getValue(key) });
+            } else if (retainInput && retainNull) {
+                expected.add(new int[] { key, i, NULL_VALUE, NULL_VALUE });
+            }
+        }
+        if (resultsInKeyOrder) {
+            // The results follow the order of the keys, and the probes with equal keys keep their input order.
+            Collections.sort(expected, new Comparator<int[]>() {
+                @Override
+                public int compare(int[] a, int[] b) {
+                    return Integer.compare(a[0], b[0]);
+                }
+            });
+        }
+        Assert.assertEquals(expected.size(), results.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertArrayEquals(expected.get(i), results.get(i));
+        }
+        if (!retainInput) {
+            return;
+        }
+        TreeSet<Integer> tags = new TreeSet<Integer>();
+        for (int[] result : results) {
+            tags.add(result[1]);
+        }
+        Assert.assertEquals(results.size(), tags.size());
+    }
+
+    private static class ResultCollector implements IFrameWriter {
+        private final FrameTupleAccessor accessor;
+        private final List<int[]> results = new ArrayList<int[]>();
+        private boolean closed;
+
+        public ResultCollector(RecordDescriptor recDesc) {
+            accessor = new FrameTupleAccessor(recDesc);
+        }
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            accessor.reset(buffer);
+            for (int i = 0; i < accessor.getTupleCount(); i++) {
+                int[] fields = new int[accessor.getFieldCount()];
+                for (int j = 0; j < fields.length; j++) {
+                    fields[j] = IntegerPointable.getInteger(accessor.getBuffer().array(),
+                            accessor.getAbsoluteFieldStartOffset(i, j));
+                }
+                results.add(fields);
+            }
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+            closed = true;
+        }
+    }
+
+    private static class IntegerNullWriterFactory implements INullWriterFactory {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public INullWriter createNullWriter() {
+            return new INullWriter() {
+                @Override
+                public void writeNull(DataOutput out) throws HyracksDataException {
+                    try {
+                        out.writeInt(NULL_VALUE);
+                    } catch (IOException e) {
+                        throw new HyracksDataException(e);
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.storage.am.common.api.ITreeIndex;
+import org.apache.hyracks.storage.am.common.api.TreeIndexException;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+
+/**
+ * Runs the LSMBTree examples with the searches entering shared component versions. The filtered examples keep
+ * entering the components one by one.
+ */
+public class LSMBTreeComponentVersionExamplesTest extends LSMBTreeExamplesTest {
+
+    @Override
+    protected ITreeIndex createTreeIndex(ITypeTraits[] typeTraits, IBinaryComparatorFactory[] cmpFactories,
+            int[] bloomFilterKeyFields, ITypeTraits[] filterTypeTraits, IBinaryComparatorFactory[] filterCmpFactories,
+            int[] btreeFields, int[] filterFields) throws TreeIndexException {
+        LSMBTree lsmBTree = (LSMBTree) super.createTreeIndex(typeTraits, cmpFactories, bloomFilterKeyFields,
+                filterTypeTraits, filterCmpFactories, btreeFields, filterFields);
+        if (filterFields == null) {
+            try {
+                lsmBTree.setComponentVersioning(true);
+            } catch (HyracksDataException e) {
+                throw new TreeIndexException(e);
+            }
+        }
+        return lsmBTree;
+    }
+}
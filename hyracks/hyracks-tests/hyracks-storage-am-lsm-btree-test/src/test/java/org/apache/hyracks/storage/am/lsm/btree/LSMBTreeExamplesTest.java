@@ -45,7 +45,7 @@ import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeTestHarness;
 import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeUtils;
 
 public class LSMBTreeExamplesTest extends OrderedIndexExamplesTest {
-    private final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
+    protected final LSMBTreeTestHarness harness = new LSMBTreeTestHarness();
 
     @Override
     protected ITreeIndex createTreeIndex(ITypeTraits[] typeTraits, IBinaryComparatorFactory[] cmpFactories,
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.btree.perf;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.util.SerdeUtils;
+import org.apache.hyracks.dataflow.common.util.TupleUtils;
+import org.apache.hyracks.storage.am.btree.impls.RangePredicate;
+import org.apache.hyracks.storage.am.common.api.IIndexCursor;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTree;
+import org.apache.hyracks.storage.am.lsm.btree.util.LSMBTreeUtils;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.common.api.IVirtualBufferCache;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.NoOpIOOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.impls.SynchronousScheduler;
+import org.apache.hyracks.storage.am.lsm.common.impls.ThreadCountingTracker;
+import org.apache.hyracks.storage.am.lsm.common.impls.VirtualBufferCache;
+import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.file.IFileMapProvider;
+import org.apache.hyracks.test.support.TestStorageManagerComponentHolder;
+import org.apache.hyracks.test.support.TestUtils;
+
+/**
+ * Measures the point lookup throughput of an LSMBTree as the number of searching threads grows, once with the
+ * searches entering the components under the operation tracker and once with the searches entering shared component
+ * versions.
+ */
+public class LSMBTreeLookupScalingPerf {
+    private static final int HYRACKS_FRAME_SIZE = 131072;
+    private static final int PAGE_SIZE = 4096;
+    private static final int NUM_DISK_PAGES = 10000;
+    private static final int NUM_MEM_PAGES = 2000;
+    private static final int NUM_KEYS = 200000;
+    private static final int NUM_DISK_COMPONENTS = 4;
+    private static final int LOOKUPS_PER_THREAD = 200000;
+    private static final int[] THREAD_COUNTS = new int[] { 1, 2, 4, 8, 16 };
+
+    public static void main(String[] args) throws Exception {
+        // Disable logging so we can better see the output times.
+        Enumeration<String> loggers = LogManager.getLogManager().getLoggerNames();
+        while (loggers.hasMoreElements()) {
+            String loggerName = loggers.nextElement();
+            Logger logger = LogManager.getLogManager().getLogger(loggerName);
+            logger.setLevel(Level.OFF);
+        }
+
+        ISerializerDeserializer[] fieldSerdes = new ISerializerDeserializer[] {
+                IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE };
+        ITypeTraits[] typeTraits = SerdeUtils.serdesToTypeTraits(fieldSerdes);
+        IBinaryComparatorFactory[] cmpFactories = SerdeUtils.serdesToComparatorFactories(fieldSerdes, 1);
+
+        IHyracksTaskContext ctx = TestUtils.create(HYRACKS_FRAME_SIZE);
+        TestStorageManagerComponentHolder.init(PAGE_SIZE, NUM_DISK_PAGES, Integer.MAX_VALUE);
+        IBufferCache bufferCache = TestStorageManagerComponentHolder.getBufferCache(ctx);
+        IFileMapProvider fmp = TestStorageManagerComponentHolder.getFileMapProvider(ctx);
+        List<IVirtualBufferCache> virtualBufferCaches = new ArrayList<IVirtualBufferCache>();
+        for (int i = 0; i < 2; i++) {
+            virtualBufferCaches.add(new VirtualBufferCache(new HeapBufferAllocator(), PAGE_SIZE, NUM_MEM_PAGES / 2));
+        }
+        String onDiskDir = System.getProperty("java.io.tmpdir") + File.separator + "lsmtree-lookup-"
+                + new SimpleDateFormat("ddMMyy-hhmmssSS").format(new Date());
+        FileReference file = new FileReference(new File(onDiskDir));
+
+        LSMBTree lsmtree = LSMBTreeUtils.createLSMTree(virtualBufferCaches, file, bufferCache, fmp, typeTraits,
+                cmpFactories, new int[] { 0 }, 0.01, new NoMergePolicy(), new ThreadCountingTracker(),
+                SynchronousScheduler.INSTANCE, NoOpIOOperationCallback.INSTANCE, true, null, null, null, null, true);
+        lsmtree.create();
+        lsmtree.activate();
+        load(lsmtree);
+
+        MultiComparator cmp = MultiComparator.create(cmpFactories);
+        // Warm up both paths before measuring.
+        runLookups(lsmtree, cmp, 1);
+        lsmtree.setComponentVersioning(true);
+        runLookups(lsmtree, cmp, 1);
+        for (int numThreads : THREAD_COUNTS) {
+            lsmtree.setComponentVersioning(false);
+            long locked = runLookups(lsmtree, cmp, numThreads);
+            lsmtree.setComponentVersioning(true);
+            long versioned = runLookups(lsmtree, cmp, numThreads);
+            System.out.println("THREADS: " + numThreads + ", TRACKER: " + locked + " lookups/s, VERSIONS: "
+                    + versioned + " lookups/s");
+        }
+
+        lsmtree.deactivate();
+        lsmtree.destroy();
+        bufferCache.close();
+    }
+
+    /**
+     * Spreads the keys over a few disk components and the memory component, so that each lookup enters all of them.
+     */
+    private static void load(LSMBTree lsmtree) throws Exception {
+        ILSMIndexAccessor accessor = (ILSMIndexAccessor) lsmtree.createAccessor(NoOpOperationCallback.INSTANCE,
+                NoOpOperationCallback.INSTANCE);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        int keysPerComponent = NUM_KEYS / (NUM_DISK_COMPONENTS + 1);
+        for (int i = 0; i < NUM_KEYS; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, i, i);
+            accessor.insert(tuple);
+            if ((i + 1) % keysPerComponent == 0 && (i + 1) / keysPerComponent <= NUM_DISK_COMPONENTS) {
+                accessor.scheduleFlush(NoOpIOOperationCallback.INSTANCE);
+            }
+        }
+    }
+
+    private static long runLookups(final LSMBTree lsmtree, final MultiComparator cmp, int numThreads)
+            throws Exception {
+        final CyclicBarrier barrier = new CyclicBarrier(numThreads + 1);
+        final AtomicLong numFound = new AtomicLong();
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            final int seed = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    int barriersPassed = 0;
+                    try {
+                        ILSMIndexAccessor accessor = (ILSMIndexAccessor) lsmtree.createAccessor(
+                                NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+                        IIndexCursor cursor = accessor.createSearchCursor(false);
+                        ArrayTupleBuilder keyBuilder = new ArrayTupleBuilder(1);
+                        ArrayTupleReference key = new ArrayTupleReference();
+                        RangePredicate pred = new RangePredicate(key, key, true, true, cmp, cmp);
+                        Random rnd = new Random(seed);
+                        long found = 0;
+                        barrier.await();
+                        barriersPassed++;
+                        for (int j = 0; j < LOOKUPS_PER_THREAD; j++) {
+                            TupleUtils.createIntegerTuple(keyBuilder, key, rnd.nextInt(NUM_KEYS));
+                            accessor.search(cursor, pred);
+                            try {
+                                while (cursor.hasNext()) {
+                                    cursor.next();
+                                    found++;
+                                }
+                            } finally {
+                                cursor.close();
+                            }
+                        }
+                        numFound.addAndGet(found);
+                        barrier.await();
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                        // Still reaches the barriers it skipped, so that the other threads do not wait for it.
+                        try {
+                            for (; barriersPassed < 2; barriersPassed++) {
+                                barrier.await();
+                            }
+                        } catch (Exception e2) {
+                            // The failure is already recorded.
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        barrier.await();
+        long start = System.nanoTime();
+        barrier.await();
+        long end = System.nanoTime();
+        for (int i = 0; i < numThreads; i++) {
+            threads[i].join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        if (numFound.get() != (long) numThreads * LOOKUPS_PER_THREAD) {
+            throw new IllegalStateException("Found " + numFound.get() + " tuples, expected "
+                    + (long) numThreads * LOOKUPS_PER_THREAD);
+        }
+        return (long) numThreads * LOOKUPS_PER_THREAD * 1000000000L / (end - start);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.apache.hyracks.storage.am.lsm.common.impls.AbstractAmplificationMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.LeveledMergePolicy;
+import org.apache.hyracks.storage.am.lsm.common.impls.TieredMergePolicy;
+
+public class AmplificationMergePolicyTest {
+    private static final long FLUSH_SIZE = 100;
+    private static final int NUM_FLUSHES = 500;
+
+    private static void configure(AbstractAmplificationMergePolicy policy, int readAmplification,
+            int writeAmplification) {
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put(AbstractAmplificationMergePolicy.TARGET_READ_AMPLIFICATION, String.valueOf(readAmplification));
+        properties.put(AbstractAmplificationMergePolicy.TARGET_WRITE_AMPLIFICATION,
+                String.valueOf(writeAmplification));
+        policy.configure(properties);
+    }
+
+    private static long[] toArray(List<Long> sizes) {
+        long[] array = new long[sizes.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = sizes.get(i);
+        }
+        return array;
+    }
+
+    private static class SimulationResult {
+        private double writeAmplification;
+        private int maxComponentCount;
+    }
+
+    /**
+     * Flushes components of the same size and runs the merges the policy asks for until it is satisfied.
+     */
+    private static SimulationResult simulate(AbstractAmplificationMergePolicy policy) {
+        SimulationResult result = new SimulationResult();
+        List<Long> sizes = new ArrayList<Long>();
+        long writtenBytes = 0;
+        for (int i = 0; i < NUM_FLUSHES; i++) {
+            sizes.add(0, FLUSH_SIZE);
+            writtenBytes += FLUSH_SIZE;
+            int[] range;
+            while ((range = policy.findMergeRange(toArray(sizes), FLUSH_SIZE)) != null) {
+                assertTrue(range[1] - range[0] >= 2);
+                long mergedSize = 0;
+                for (int j = range[0]; j < range[1]; j++) {
+                    mergedSize += sizes.remove(range[0]);
+                }
+                sizes.add(range[0], mergedSize);
+                writtenBytes += mergedSize;
+            }
+            result.maxComponentCount = Math.max(result.maxComponentCount, sizes.size());
+        }
+        result.writeAmplification = (double) writtenBytes / (NUM_FLUSHES * FLUSH_SIZE);
+        return result;
+    }
+
+    @Test
+    public void tieredMergesFullTier() {
+        TieredMergePolicy policy = new TieredMergePolicy();
+        configure(policy, 10, 20);
+        // The write amplification target allows enough levels for a size ratio of 2.
+        assertEquals(2, policy.getSizeRatio(NUM_FLUSHES));
+        assertNull(policy.findMergeRange(new long[] { 100 }, FLUSH_SIZE));
+        assertArrayEquals(new int[] { 0, 2 }, policy.findMergeRange(new long[] { 100, 100 }, FLUSH_SIZE));
+        assertNull(policy.findMergeRange(new long[] { 100, 200 }, FLUSH_SIZE));
+        // A full tier behind newer components is merged on its own.
+        assertArrayEquals(new int[] { 1, 3 }, policy.findMergeRange(new long[] { 100, 200, 200 }, FLUSH_SIZE));
+    }
+
+    @Test
+    public void sizeRatioFollowsWriteAmplificationTarget() {
+        TieredMergePolicy tiered = new TieredMergePolicy();
+        // Two levels of 10 components hold 100 flushed components.
+        configure(tiered, 10, 3);
+        assertEquals(10, tiered.getSizeRatio(100));
+        assertEquals(11, tiered.getSizeRatio(101));
+
+        LeveledMergePolicy leveled = new LeveledMergePolicy();
+        // Two levels with a size ratio of 10 rewrite each byte 1 + 2 * 11 / 2 times.
+        configure(leveled, 10, 12);
+        assertEquals(10, leveled.getSizeRatio(100));
+    }
+
+    @Test
+    public void readAmplificationTargetIsEnforced() {
+        TieredMergePolicy tiered = new TieredMergePolicy();
+        configure(tiered, 3, 10);
+        assertArrayEquals(new int[] { 0, 2 }, tiered.findMergeRange(new long[] { 1, 10, 100, 1000 }, 1));
+        assertTrue(simulate(tiered).maxComponentCount <= 3);
+
+        LeveledMergePolicy leveled = new LeveledMergePolicy();
+        configure(leveled, 2, 10);
+        assertTrue(simulate(leveled).maxComponentCount <= 2);
+    }
+
+    @Test
+    public void tieredTradesReadsForWrites() {
+        TieredMergePolicy tiered = new TieredMergePolicy();
+        configure(tiered, 100, 4);
+        SimulationResult tieredResult = simulate(tiered);
+
+        LeveledMergePolicy leveled = new LeveledMergePolicy();
+        configure(leveled, 100, 4);
+        SimulationResult leveledResult = simulate(leveled);
+
+        assertTrue(tieredResult.writeAmplification < leveledResult.writeAmplification);
+        assertTrue(tieredResult.maxComponentCount > leveledResult.maxComponentCount);
+    }
+
+    @Test
+    public void leveledKeepsOneComponentPerLevel() {
+        LeveledMergePolicy policy = new LeveledMergePolicy();
+        configure(policy, 100, 20);
+        int sizeRatio = policy.getSizeRatio(NUM_FLUSHES);
+        long[] sizes = new long[] { 100, 100 * sizeRatio, 100 * sizeRatio * sizeRatio };
+        assertNull(policy.findMergeRange(sizes, FLUSH_SIZE));
+        // A component that grew into the level of the next older one is merged into it, with the newer ones.
+        sizes = new long[] { 100, 100 * sizeRatio, 100 * sizeRatio, 100 * sizeRatio * sizeRatio };
+        assertArrayEquals(new int[] { 0, 3 }, policy.findMergeRange(sizes, FLUSH_SIZE));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.lsm.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperation;
+import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationCallback;
+import org.apache.hyracks.storage.am.lsm.common.impls.BoundedAsynchronousScheduler;
+import org.apache.hyracks.storage.am.lsm.common.impls.TokenBucketRateLimiter;
+
+public class BoundedAsynchronousSchedulerTest {
+    private static final long MAX_WAIT_SECONDS = 10;
+
+    private static final ThreadFactory threadFactory = new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        }
+    };
+
+    private final IODeviceHandle device = new IODeviceHandle(new File(System.getProperty("java.io.tmpdir")), "iodev");
+    private final AtomicInteger maxRunningMerges = new AtomicInteger();
+    private final AtomicInteger runningMerges = new AtomicInteger();
+
+    private class TestOperation implements ILSMIOOperation {
+        private final LSMIOOpertionType type;
+        private final String indexId;
+        private final CountDownLatch release;
+        private final CountDownLatch done;
+
+        public TestOperation(LSMIOOpertionType type, String indexId, CountDownLatch release, CountDownLatch done) {
+            this.type = type;
+            this.indexId = indexId;
+            this.release = release;
+            this.done = done;
+        }
+
+        @Override
+        public Set<IODeviceHandle> getReadDevices() {
+            return Collections.singleton(device);
+        }
+
+        @Override
+        public Set<IODeviceHandle> getWriteDevices() {
+            return Collections.singleton(device);
+        }
+
+        @Override
+        public Boolean call() throws HyracksDataException {
+            boolean merge = type == LSMIOOpertionType.MERGE;
+            if (merge) {
+                int running = runningMerges.incrementAndGet();
+                int max;
+                while ((max = maxRunningMerges.get()) < running && !maxRunningMerges.compareAndSet(max, running)) {
+                }
+            }
+            try {
+                release.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new HyracksDataException(e);
+            } finally {
+                if (merge) {
+                    runningMerges.decrementAndGet();
+                }
+                done.countDown();
+            }
+            return true;
+        }
+
+        @Override
+        public ILSMIOOperationCallback getCallback() {
+            return null;
+        }
+
+        @Override
+        public String getIndexUniqueIdentifier() {
+            return indexId;
+        }
+
+        @Override
+        public LSMIOOpertionType getIOOpertionType() {
+            return type;
+        }
+    }
+
+    @Test
+    public void mergesAreBoundedAndFlushesDoNotWait() throws Exception {
+        BoundedAsynchronousScheduler scheduler = new BoundedAsynchronousScheduler(threadFactory, 2, 0);
+        CountDownLatch releaseMerges = new CountDownLatch(1);
+        CountDownLatch mergesDone = new CountDownLatch(5);
+        for (int i = 0; i < 5; i++) {
+            scheduler.scheduleOperation(new TestOperation(ILSMIOOperation.LSMIOOpertionType.MERGE, "index" + i,
+                    releaseMerges, mergesDone));
+        }
+        assertEquals(2, scheduler.getRunningMergeCount());
+        assertEquals(3, scheduler.getQueueDepth());
+
+        // A flush runs even though all the merge slots of its device are taken.
+        CountDownLatch flushDone = new CountDownLatch(1);
+        scheduler.scheduleOperation(new TestOperation(ILSMIOOperation.LSMIOOpertionType.FLUSH, "index0",
+                new CountDownLatch(0), flushDone));
+        assertTrue(flushDone.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS));
+
+        releaseMerges.countDown();
+        assertTrue(mergesDone.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(maxRunningMerges.get() <= 2);
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void flushesOfAnIndexRunOneAtATime() throws Exception {
+        BoundedAsynchronousScheduler scheduler = new BoundedAsynchronousScheduler(threadFactory, 1, 0);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch firstDone = new CountDownLatch(1);
+        CountDownLatch secondDone = new CountDownLatch(1);
+        scheduler.scheduleOperation(new TestOperation(ILSMIOOperation.LSMIOOpertionType.FLUSH, "index", releaseFirst,
+                firstDone));
+        scheduler.scheduleOperation(new TestOperation(ILSMIOOperation.LSMIOOpertionType.FLUSH, "index",
+                new CountDownLatch(0), secondDone));
+        assertEquals(1, scheduler.getQueueDepth());
+        assertEquals(1, secondDone.getCount());
+        releaseFirst.countDown();
+        assertTrue(secondDone.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS));
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void rateLimiterThrottlesPastTheBurst() throws Exception {
+        long rate = 10 * 1024 * 1024;
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(rate);
+        // The bucket starts full, so the first second worth of bytes goes through.
+        limiter.acquire(rate);
+        long start = System.nanoTime();
+        limiter.acquire(rate / 5);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Waited " + elapsedMillis + "ms", elapsedMillis >= 150);
+        assertTrue(limiter.getThrottledTime() >= 150);
+    }
+}
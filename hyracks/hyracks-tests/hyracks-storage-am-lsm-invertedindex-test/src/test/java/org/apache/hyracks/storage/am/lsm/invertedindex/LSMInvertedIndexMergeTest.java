@@ -20,6 +20,12 @@
 package org.apache.hyracks.storage.am.lsm.invertedindex;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
 import org.apache.hyracks.storage.am.common.api.IIndex;
 import org.apache.hyracks.storage.am.common.api.IndexException;
@@ -34,12 +40,20 @@ import org.apache.hyracks.storage.am.lsm.invertedindex.util.LSMInvertedIndexTest
 import org.apache.hyracks.storage.am.lsm.invertedindex.util.LSMInvertedIndexTestContext.InvertedIndexType;
 import org.apache.hyracks.storage.am.lsm.invertedindex.util.LSMInvertedIndexTestUtils;
 
+@RunWith(Parameterized.class)
 public class LSMInvertedIndexMergeTest extends AbstractInvertedIndexLoadTest {
 
     private final int maxTreesToMerge = AccessMethodTestsConfig.LSM_INVINDEX_MAX_TREES_TO_MERGE;
 
-    public LSMInvertedIndexMergeTest() {
+    @Parameters
+    public static Collection<Object[]> invertedListLayouts() {
+        // Merges with fixed-size and with compressed inverted lists.
+        return Arrays.asList(new Object[][] { { false }, { true } });
+    }
+
+    public LSMInvertedIndexMergeTest(boolean compressedInvertedLists) {
         super(InvertedIndexType.LSM, false);
+        harness.setCompressedInvertedLists(compressedInvertedLists);
     }
 
     @Override
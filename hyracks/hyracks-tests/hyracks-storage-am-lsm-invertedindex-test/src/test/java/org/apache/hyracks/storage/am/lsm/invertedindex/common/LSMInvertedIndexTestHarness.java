@@ -74,6 +74,7 @@ public class LSMInvertedIndexTestHarness {
     protected ILSMMergePolicy mergePolicy;
     protected ILSMOperationTracker opTracker;
     protected ILSMIOOperationCallback ioOpCallback;
+    protected boolean compressedInvertedLists = false;
 
     protected final Random rnd = new Random();
     protected final static SimpleDateFormat simpleDateFormat = new SimpleDateFormat("ddMMyy-hhmmssSS");
@@ -219,4 +220,12 @@ public class LSMInvertedIndexTestHarness {
     public ILSMIOOperationCallback getIOOperationCallback() {
         return ioOpCallback;
     }
+
+    public boolean getCompressedInvertedLists() {
+        return compressedInvertedLists;
+    }
+
+    public void setCompressedInvertedLists(boolean compressedInvertedLists) {
+        this.compressedInvertedLists = compressedInvertedLists;
+    }
 }
@@ -19,12 +19,27 @@
 
 package org.apache.hyracks.storage.am.lsm.invertedindex.ondisk;
 
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
 import org.apache.hyracks.storage.am.lsm.invertedindex.common.AbstractInvertedIndexSearchTest;
 import org.apache.hyracks.storage.am.lsm.invertedindex.util.LSMInvertedIndexTestContext.InvertedIndexType;
 
+@RunWith(Parameterized.class)
 public class OnDiskInvertedIndexSearchTest extends AbstractInvertedIndexSearchTest {
 
-    public OnDiskInvertedIndexSearchTest() {
+    @Parameters
+    public static Collection<Object[]> invertedListLayouts() {
+        // Searches fixed-size and compressed inverted lists.
+        return Arrays.asList(new Object[][] { { false }, { true } });
+    }
+
+    public OnDiskInvertedIndexSearchTest(boolean compressedInvertedLists) {
         super(InvertedIndexType.ONDISK, true);
+        harness.setCompressedInvertedLists(compressedInvertedLists);
     }
 }
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.storage.am.lsm.invertedindex.ondisk;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ITypeTraits;
+import org.apache.hyracks.data.std.accessors.PointableBinaryComparatorFactory;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleReference;
+import org.apache.hyracks.dataflow.common.util.TupleUtils;
+import org.apache.hyracks.storage.am.common.api.IIndexBulkLoader;
+import org.apache.hyracks.storage.am.common.impls.NoOpOperationCallback;
+import org.apache.hyracks.storage.am.common.ophelpers.MultiComparator;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedIndexAccessor;
+import org.apache.hyracks.storage.am.lsm.invertedindex.api.IInvertedListCursor;
+import org.apache.hyracks.storage.am.lsm.invertedindex.common.LSMInvertedIndexTestHarness;
+import org.apache.hyracks.storage.am.lsm.invertedindex.search.ConjunctiveSearchModifier;
+import org.apache.hyracks.storage.am.lsm.invertedindex.search.InvertedListIntersector;
+import org.apache.hyracks.storage.am.lsm.invertedindex.search.SearchResult;
+import org.apache.hyracks.storage.am.lsm.invertedindex.util.InvertedIndexUtils;
+
+/**
+ * Intersects lists of very different lengths, as a {@link ConjunctiveSearchModifier} search does, so that the
+ * intersection gallops over most of the long lists. The longest list spans more pages than the buffer cache holds,
+ * which only works if the lists are streamed instead of pinned as a whole.
+ */
+@RunWith(Parameterized.class)
+public class OnDiskInvertedListIntersectionTest {
+    private static final int FREQUENT_TOKEN = 0;
+    private static final int MEDIUM_TOKEN = 1;
+    private static final int RARE_TOKEN = 2;
+    private static final int STEP = 100;
+    private static final int NUM_FREQUENT_ELEMENTS = 600000;
+    private static final int MEDIUM_STEP = 3 * STEP;
+    private static final int NUM_RARE_ELEMENTS = 50;
+
+    private final LSMInvertedIndexTestHarness harness = new LSMInvertedIndexTestHarness();
+    private final ITypeTraits[] typeTraits = new ITypeTraits[] { IntegerPointable.TYPE_TRAITS };
+    private final IBinaryComparatorFactory[] cmpFactories = new IBinaryComparatorFactory[] { PointableBinaryComparatorFactory
+            .of(IntegerPointable.FACTORY) };
+    private final TreeSet<Integer> rareElements = new TreeSet<Integer>();
+    private OnDiskInvertedIndex invIndex;
+
+    @Parameters
+    public static Collection<Object[]> invertedListLayouts() {
+        return Arrays.asList(new Object[][] { { false }, { true } });
+    }
+
+    public OnDiskInvertedListIntersectionTest(boolean compressedInvertedLists) {
+        harness.setCompressedInvertedLists(compressedInvertedLists);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        harness.setUp();
+        invIndex = InvertedIndexUtils.createOnDiskInvertedIndex(harness.getDiskBufferCache(),
+                harness.getDiskFileMapProvider(), typeTraits, cmpFactories, typeTraits, cmpFactories,
+                harness.getInvListsFileRef(), InvertedIndexUtils.createInvertedListBuilderFactory(typeTraits,
+                        harness.getCompressedInvertedLists()).create());
+        invIndex.create();
+        invIndex.activate();
+
+        // Half of the rare elements are in the other lists.
+        Random rnd = new Random(harness.getRandom().nextLong());
+        while (rareElements.size() < NUM_RARE_ELEMENTS) {
+            int element = rnd.nextInt(NUM_FREQUENT_ELEMENTS) * STEP;
+            rareElements.add(rareElements.size() % 2 == 0 ? element : element + 1);
+        }
+
+        IIndexBulkLoader bulkLoader = invIndex.createBulkLoader(1.0f, false, 0L, true);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(2);
+        ArrayTupleReference tuple = new ArrayTupleReference();
+        for (int i = 0; i < NUM_FREQUENT_ELEMENTS; i++) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, FREQUENT_TOKEN, i * STEP);
+            bulkLoader.add(tuple);
+        }
+        for (int element = 0; element < NUM_FREQUENT_ELEMENTS * STEP; element += MEDIUM_STEP) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, MEDIUM_TOKEN, element);
+            bulkLoader.add(tuple);
+        }
+        for (int element : rareElements) {
+            TupleUtils.createIntegerTuple(tupleBuilder, tuple, RARE_TOKEN, element);
+            bulkLoader.add(tuple);
+        }
+        bulkLoader.end();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        invIndex.deactivate();
+        invIndex.destroy();
+        harness.tearDown();
+    }
+
+    @Test
+    public void rareAndFrequentListsTest() throws Exception {
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int element : rareElements) {
+            if (element % STEP == 0) {
+                expected.add(element);
+            }
+        }
+        assertEquals(expected, intersect(RARE_TOKEN, FREQUENT_TOKEN));
+    }
+
+    @Test
+    public void rareMediumAndFrequentListsTest() throws Exception {
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int element : rareElements) {
+            if (element % MEDIUM_STEP == 0) {
+                expected.add(element);
+            }
+        }
+        assertEquals(expected, intersect(FREQUENT_TOKEN, RARE_TOKEN, MEDIUM_TOKEN));
+    }
+
+    @Test
+    public void mediumAndFrequentListsTest() throws Exception {
+        List<Integer> actual = intersect(MEDIUM_TOKEN, FREQUENT_TOKEN);
+        assertEquals((NUM_FREQUENT_ELEMENTS * STEP - 1) / MEDIUM_STEP + 1, actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            assertEquals(i * MEDIUM_STEP, actual.get(i).intValue());
+        }
+    }
+
+    private List<Integer> intersect(int... tokens) throws Exception {
+        IInvertedIndexAccessor accessor = (IInvertedIndexAccessor) invIndex.createAccessor(
+                NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+        ArrayList<IInvertedListCursor> invListCursors = new ArrayList<IInvertedListCursor>();
+        for (int token : tokens) {
+            IInvertedListCursor invListCursor = accessor.createInvertedListCursor();
+            accessor.openInvertedListCursor(invListCursor, TupleUtils.createIntegerTuple(token));
+            invListCursors.add(invListCursor);
+        }
+        // The intersector expects the shortest list first.
+        Collections.sort(invListCursors);
+
+        InvertedListIntersector intersector = new InvertedListIntersector(MultiComparator.create(cmpFactories),
+                typeTraits);
+        SearchResult searchResult = new SearchResult(typeTraits, harness.getHyracksTastContext());
+        searchResult.reset();
+        intersector.intersect(invListCursors, searchResult);
+
+        List<Integer> results = new ArrayList<Integer>();
+        FixedSizeFrameTupleAccessor resultAccessor = searchResult.getAccessor();
+        FixedSizeTupleReference resultTuple = searchResult.getTuple();
+        for (int i = 0; i <= searchResult.getCurrentBufferIndex(); i++) {
+            ByteBuffer buffer = searchResult.getBuffers().get(i);
+            resultAccessor.reset(buffer);
+            for (int j = 0; j < resultAccessor.getTupleCount(); j++) {
+                resultTuple.reset(buffer.array(), resultAccessor.getTupleStartOffset(j));
+                results.add(IntegerPointable.getInteger(resultTuple.getFieldData(0), resultTuple.getFieldStart(0)));
+            }
+        }
+        assertEquals(searchResult.getNumResults(), results.size());
+        return results;
+    }
+}
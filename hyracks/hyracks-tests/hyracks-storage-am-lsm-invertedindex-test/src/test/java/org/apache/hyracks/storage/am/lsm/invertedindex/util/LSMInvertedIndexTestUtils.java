@@ -28,8 +28,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -568,4 +570,112 @@ public class LSMInvertedIndexTestUtils {
             }
         }
     }
+
+    /**
+     * Runs top-K searches and checks that their results are among the expected results, and that the best of them
+     * have the same scores as the best expected results. Only LSM indexes may return more than K results, when an
+     * older component has results that were among the best when it was searched.
+     */
+    public static void testIndexTopKSearch(LSMInvertedIndexTestContext testCtx, TupleGenerator tupleGen, Random rnd,
+            int numDocQueries, int numRandomQueries, IInvertedIndexSearchModifier searchModifier,
+            int[] scanCountArray, int topK) throws IOException, IndexException {
+        IInvertedIndex invIndex = testCtx.invIndex;
+        IInvertedIndexAccessor accessor = (IInvertedIndexAccessor) invIndex.createAccessor(
+                NoOpOperationCallback.INSTANCE, NoOpOperationCallback.INSTANCE);
+        IBinaryTokenizer tokenizer = testCtx.getTokenizerFactory().createTokenizer();
+        InvertedIndexSearchPredicate searchPred = new InvertedIndexSearchPredicate(tokenizer, searchModifier);
+        List<ITupleReference> documentCorpus = testCtx.getDocumentCorpus();
+        // Project away the primary-key field.
+        int[] fieldPermutation = new int[] { 0 };
+        PermutingTupleReference searchDocument = new PermutingTupleReference(fieldPermutation);
+        InvertedIndexType invIndexType = testCtx.getInvertedIndexType();
+        boolean isLSM = invIndexType == InvertedIndexType.LSM || invIndexType == InvertedIndexType.PARTITIONED_LSM;
+        // Only partitioned indexes know the number of tokens of the elements to score them.
+        Map<Integer, Short> numTokens = null;
+        if (invIndexType == InvertedIndexType.PARTITIONED_INMEMORY
+                || invIndexType == InvertedIndexType.PARTITIONED_ONDISK
+                || invIndexType == InvertedIndexType.PARTITIONED_LSM) {
+            numTokens = getNumTokens(testCtx.getCheckTuples());
+        }
+
+        int numQueries = numDocQueries + numRandomQueries;
+        for (int i = 0; i < numQueries; i++) {
+            if (i >= numDocQueries || i >= documentCorpus.size()) {
+                searchDocument.reset(tupleGen.next());
+            } else {
+                int queryIndex = Math.abs(rnd.nextInt() % documentCorpus.size());
+                searchDocument.reset(documentCorpus.get(queryIndex));
+            }
+            searchPred.setQueryTuple(searchDocument);
+            searchPred.setQueryFieldIndex(0);
+            searchPred.setTopK(topK);
+
+            IIndexCursor resultCursor = accessor.createSearchCursor(false);
+            ArrayList<Integer> actualResults = new ArrayList<Integer>();
+            try {
+                try {
+                    accessor.search(resultCursor, searchPred);
+                    while (resultCursor.hasNext()) {
+                        resultCursor.next();
+                        ITupleReference resultTuple = resultCursor.getTuple();
+                        actualResults.add(IntegerPointable.getInteger(resultTuple.getFieldData(0),
+                                resultTuple.getFieldStart(0)));
+                    }
+                } catch (OccurrenceThresholdPanicException e) {
+                    // Ignore panic queries.
+                    continue;
+                }
+            } finally {
+                resultCursor.close();
+            }
+
+            List<Integer> expectedResults = new ArrayList<Integer>();
+            getExpectedResults(scanCountArray, testCtx.getCheckTuples(), searchDocument, tokenizer,
+                    testCtx.getFieldSerdes()[0], searchModifier, expectedResults, testCtx.getInvertedIndexType());
+            int numQueryTokens = 0;
+            tokenizer.reset(searchDocument.getFieldData(0), searchDocument.getFieldStart(0),
+                    searchDocument.getFieldLength(0));
+            while (tokenizer.hasNext()) {
+                tokenizer.next();
+                numQueryTokens++;
+            }
+            List<Double> expectedScores = new ArrayList<Double>();
+            for (int expected : expectedResults) {
+                expectedScores.add(searchModifier.getTopKScore(scanCountArray[expected], numQueryTokens,
+                        numTokens == null ? -1 : numTokens.get(expected)));
+            }
+            List<Double> actualScores = new ArrayList<Double>();
+            for (int actual : actualResults) {
+                if (!expectedResults.contains(actual)) {
+                    fail("Top-K query returned unexpected result: " + actual);
+                }
+                actualScores.add(searchModifier.getTopKScore(scanCountArray[actual], numQueryTokens,
+                        numTokens == null ? -1 : numTokens.get(actual)));
+            }
+            int numBest = Math.min(topK, expectedResults.size());
+            if (!isLSM && actualResults.size() != numBest) {
+                fail("Top-K query returned " + actualResults.size() + " results. Expected: " + numBest);
+            }
+            if (actualResults.size() < numBest) {
+                fail("Top-K query results missing. Encountered: " + actualResults.size() + ". Expected: " + numBest);
+            }
+            Collections.sort(expectedScores, Collections.reverseOrder());
+            Collections.sort(actualScores, Collections.reverseOrder());
+            if (!expectedScores.subList(0, numBest).equals(actualScores.subList(0, numBest))) {
+                fail("Top-K query results do not match. Encountered scores: " + actualScores.subList(0, numBest)
+                        + ". Expected: " + expectedScores.subList(0, numBest));
+            }
+        }
+    }
+
+    /**
+     * @return the number of tokens of the elements of a partitioned index
+     */
+    private static Map<Integer, Short> getNumTokens(TreeSet<CheckTuple> checkTuples) {
+        Map<Integer, Short> numTokens = new HashMap<Integer, Short>();
+        for (CheckTuple checkTuple : checkTuples) {
+            numTokens.put((Integer) checkTuple.getField(2), (Short) checkTuple.getField(1));
+        }
+        return numTokens;
+    }
 }
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.am.rtree;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.DoublePointable;
+import org.apache.hyracks.dataflow.common.data.marshalling.DoubleSerializerDeserializer;
+import org.apache.hyracks.storage.am.common.api.IFreePageManager;
+import org.apache.hyracks.storage.am.common.api.IPrimitiveValueProvider;
+import org.apache.hyracks.storage.am.common.api.IPrimitiveValueProviderFactory;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexMetaDataFrame;
+import org.apache.hyracks.storage.am.common.api.ITreeIndexTupleReference;
+import org.apache.hyracks.storage.am.config.AccessMethodTestsConfig;
+import org.apache.hyracks.storage.am.rtree.frames.RTreeNSMFrame;
+import org.apache.hyracks.storage.am.rtree.frames.RTreePolicyType;
+import org.apache.hyracks.storage.am.rtree.impls.RTree;
+import org.apache.hyracks.storage.am.rtree.impls.RTreePackingType;
+import org.apache.hyracks.storage.am.rtree.util.RTreeUtils;
+import org.apache.hyracks.storage.am.rtree.utils.RTreeTestContext;
+import org.apache.hyracks.storage.am.rtree.utils.RTreeTestHarness;
+import org.apache.hyracks.storage.common.buffercache.IBufferCache;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+
+@SuppressWarnings("rawtypes")
+@RunWith(Parameterized.class)
+public class RTreePackedBulkLoadTest extends AbstractRTreeBulkLoadTest {
+
+    // Small enough for the bulk loads to spill sorted runs.
+    private static final int PACKING_MEMORY_BUDGET = 1024;
+    private static final int NUM_OVERLAP_TUPLES = 2000;
+
+    @Parameters
+    public static Collection<Object[]> packingTypes() {
+        return Arrays.asList(new Object[][] { { RTreePackingType.STR }, { RTreePackingType.HILBERT } });
+    }
+
+    private final RTreeTestHarness harness = new RTreeTestHarness();
+    private final RTreePackingType packingType;
+
+    public RTreePackedBulkLoadTest(RTreePackingType packingType) {
+        super(AccessMethodTestsConfig.RTREE_TEST_RSTAR_POLICY);
+        this.packingType = packingType;
+    }
+
+    @Before
+    public void setUp() throws HyracksDataException {
+        harness.setUp();
+    }
+
+    @After
+    public void tearDown() throws HyracksDataException {
+        harness.tearDown();
+    }
+
+    @Override
+    protected AbstractRTreeTestContext createTestContext(ISerializerDeserializer[] fieldSerdes,
+            IPrimitiveValueProviderFactory[] valueProviderFactories, int numKeys, RTreePolicyType rtreePolicyType)
+            throws Exception {
+        return RTreeTestContext.create(harness.getBufferCache(), harness.getFileMapProvider(),
+                harness.getFileReference(), fieldSerdes, valueProviderFactories, numKeys, rtreePolicyType,
+                packingType, PACKING_MEMORY_BUDGET);
+    }
+
+    @Override
+    protected Random getRandom() {
+        return harness.getRandom();
+    }
+
+    /**
+     * Packs the same rectangles as an unpacked bulk load of them in random order, into leaves that overlap less.
+     */
+    @Test
+    public void leafOverlapTest() throws Exception {
+        double unpackedOverlap = bulkLoadAndGetLeafOverlap(RTreePackingType.NONE);
+        double packedOverlap = bulkLoadAndGetLeafOverlap(packingType);
+        assertTrue("The leaves of the " + packingType + " bulk load overlap by " + packedOverlap
+                + ", unpacked leaves by " + unpackedOverlap, packedOverlap < unpackedOverlap);
+    }
+
+    /**
+     * Checks that activating the index deletes the runs of a bulk load that never ended, e.g. because the node failed.
+     */
+    @Test
+    public void leftoverRunsTest() throws Exception {
+        RTree rtree = (RTree) createDoubleTestContext(packingType).getIndex();
+        rtree.create();
+        File indexFile = harness.getFileReference().getFile();
+        File leftoverRun = new File(indexFile.getParentFile(), indexFile.getName() + "-packing-0.run");
+        assertTrue(leftoverRun.createNewFile());
+        rtree.activate();
+        assertFalse("The runs of a bulk load that never ended were not deleted", leftoverRun.exists());
+        rtree.deactivate();
+        rtree.destroy();
+    }
+
+    private AbstractRTreeTestContext createDoubleTestContext(RTreePackingType packingType) throws Exception {
+        ISerializerDeserializer[] fieldSerdes = { DoubleSerializerDeserializer.INSTANCE,
+                DoubleSerializerDeserializer.INSTANCE, DoubleSerializerDeserializer.INSTANCE,
+                DoubleSerializerDeserializer.INSTANCE, DoubleSerializerDeserializer.INSTANCE };
+        int numKeys = 4;
+        IPrimitiveValueProviderFactory[] valueProviderFactories = RTreeUtils.createPrimitiveValueProviderFactories(
+                numKeys, DoublePointable.FACTORY);
+        return RTreeTestContext.create(harness.getBufferCache(), harness.getFileMapProvider(),
+                harness.getFileReference(), fieldSerdes, valueProviderFactories, numKeys, RTreePolicyType.RSTARTREE,
+                packingType, PACKING_MEMORY_BUDGET);
+    }
+
+    /**
+     * @return the sum of the areas of the intersections of all the pairs of leaf MBRs
+     */
+    private double bulkLoadAndGetLeafOverlap(RTreePackingType packingType) throws Exception {
+        AbstractRTreeTestContext ctx = createDoubleTestContext(packingType);
+        RTree rtree = (RTree) ctx.getIndex();
+        rtree.create();
+        rtree.activate();
+        new RTreeTestUtils().bulkLoadDoubleTuples(ctx, NUM_OVERLAP_TUPLES, new Random(0));
+        List<double[]> leafMBRs = getLeafMBRs(rtree);
+        rtree.deactivate();
+        rtree.destroy();
+
+        double overlap = 0;
+        for (int i = 0; i < leafMBRs.size(); i++) {
+            for (int j = i + 1; j < leafMBRs.size(); j++) {
+                double[] a = leafMBRs.get(i);
+                double[] b = leafMBRs.get(j);
+                double width = Math.min(a[2], b[2]) - Math.max(a[0], b[0]);
+                double height = Math.min(a[3], b[3]) - Math.max(a[1], b[1]);
+                if (width > 0 && height > 0) {
+                    overlap += width * height;
+                }
+            }
+        }
+        return overlap;
+    }
+
+    private List<double[]> getLeafMBRs(RTree rtree) throws HyracksDataException {
+        IBufferCache bufferCache = rtree.getBufferCache();
+        IFreePageManager freePageManager = rtree.getFreePageManager();
+        ITreeIndexMetaDataFrame metaFrame = freePageManager.getMetaDataFrameFactory().createFrame();
+        RTreeNSMFrame leafFrame = (RTreeNSMFrame) rtree.getLeafFrameFactory().createFrame();
+        IPrimitiveValueProvider[] keyValueProviders = leafFrame.getKeyValueProviders();
+        ITreeIndexTupleReference tuple = leafFrame.createTupleReference();
+        List<double[]> leafMBRs = new ArrayList<double[]>();
+        int maxPageId = freePageManager.getMaxPage(metaFrame);
+        for (int pageId = 0; pageId <= maxPageId; pageId++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(rtree.getFileId(), pageId), false);
+            page.acquireReadLatch();
+            try {
+                leafFrame.setPage(page);
+                if (!leafFrame.isLeaf() || leafFrame.getTupleCount() == 0) {
+                    continue;
+                }
+                double[] mbr = new double[] { Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE,
+                        -Double.MAX_VALUE };
+                for (int i = 0; i < leafFrame.getTupleCount(); i++) {
+                    tuple.resetByTupleIndex(leafFrame, i);
+                    for (int j = 0; j < 4; j++) {
+                        double value = keyValueProviders[j].getValue(tuple.getFieldData(j), tuple.getFieldStart(j));
+                        mbr[j] = j < 2 ? Math.min(mbr[j], value) : Math.max(mbr[j], value);
+                    }
+                }
+                leafMBRs.add(mbr);
+            } finally {
+                page.releaseReadLatch();
+                bufferCache.unpin(page);
+            }
+        }
+        return leafMBRs;
+    }
+}
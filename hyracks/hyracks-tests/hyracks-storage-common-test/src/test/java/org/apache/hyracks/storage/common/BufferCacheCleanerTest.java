@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOManager.FileReadWriteMode;
+import org.apache.hyracks.api.io.IIOManager.FileSyncMode;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.control.nc.io.IOManager;
+import org.apache.hyracks.storage.common.buffercache.BufferCache;
+import org.apache.hyracks.storage.common.buffercache.ClockPageReplacementStrategy;
+import org.apache.hyracks.storage.common.buffercache.DirtyRatioPageCleanerPolicy;
+import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.TransientFileMapManager;
+
+public class BufferCacheCleanerTest {
+    protected static final String tmpDir = System.getProperty("java.io.tmpdir");
+    protected static final String sep = System.getProperty("file.separator");
+
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 40;
+    private static final int PAGES_PER_FILE = 16;
+    private static final int NUM_FILES = 2;
+    private static final int MAX_OPEN_FILES = 10;
+    private static final int CLEANER_THREADS = 2;
+    private static final long MAX_WAIT_TIME = 10000;
+
+    private static final ThreadFactory threadFactory = new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+            return new Thread(r);
+        }
+    };
+
+    private static class CountingIOManager extends IOManager {
+        private final AtomicInteger coalescedWrites = new AtomicInteger();
+
+        public CountingIOManager(List<IODeviceHandle> devices) throws HyracksException {
+            super(devices, Executors.newCachedThreadPool());
+        }
+
+        @Override
+        public int syncWrite(IFileHandle fHandle, long offset, ByteBuffer data) throws HyracksDataException {
+            if (data.remaining() > PAGE_SIZE) {
+                coalescedWrites.incrementAndGet();
+            }
+            return super.syncWrite(fHandle, offset, data);
+        }
+    }
+
+    @Test
+    public void cleanersWriteBackAdjacentPagesTogether() throws Exception {
+        List<IODeviceHandle> devices = new ArrayList<IODeviceHandle>();
+        devices.add(new IODeviceHandle(new File(tmpDir), "iodev_test_cleaner"));
+        CountingIOManager ioManager = new CountingIOManager(devices);
+        TransientFileMapManager fileMapManager = new TransientFileMapManager();
+        BufferCache bufferCache = new BufferCache(ioManager, new ClockPageReplacementStrategy(
+                new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES), new DirtyRatioPageCleanerPolicy(100, 0.5),
+                fileMapManager, MAX_OPEN_FILES, threadFactory, CLEANER_THREADS);
+
+        File[] files = new File[NUM_FILES];
+        int[] fileIds = new int[NUM_FILES];
+        for (int f = 0; f < NUM_FILES; f++) {
+            files[f] = File.createTempFile("cleanerTest", null, new File(tmpDir));
+            files[f].deleteOnExit();
+            FileReference fileRef = new FileReference(files[f]);
+            bufferCache.createFile(fileRef);
+            fileIds[f] = fileMapManager.lookupFileId(fileRef);
+            bufferCache.openFile(fileIds[f]);
+            for (int p = 0; p < PAGES_PER_FILE; p++) {
+                ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileIds[f], p), true);
+                page.acquireWriteLatch();
+                try {
+                    ByteBuffer buf = page.getBuffer();
+                    for (int i = 0; i < PAGE_SIZE; i += 4) {
+                        buf.putInt(i, f * PAGES_PER_FILE + p);
+                    }
+                } finally {
+                    page.releaseWriteLatch(true);
+                    bufferCache.unpin(page);
+                }
+            }
+        }
+
+        // The cleaners write the pages back on their own; wait until every page is on disk.
+        long deadline = System.currentTimeMillis() + MAX_WAIT_TIME;
+        boolean flushed = false;
+        while (!flushed && System.currentTimeMillis() < deadline) {
+            flushed = true;
+            for (int f = 0; f < NUM_FILES && flushed; f++) {
+                flushed = checkFileContents(ioManager, files[f], f);
+            }
+            if (!flushed) {
+                Thread.sleep(10);
+            }
+        }
+        Assert.assertTrue("The cleaners did not write the dirty pages back", flushed);
+        Assert.assertTrue(ioManager.coalescedWrites.get() > 0);
+
+        for (int f = 0; f < NUM_FILES; f++) {
+            bufferCache.closeFile(fileIds[f]);
+        }
+        bufferCache.close();
+    }
+
+    private boolean checkFileContents(IOManager ioManager, File file, int f) throws HyracksDataException {
+        if (file.length() < PAGES_PER_FILE * PAGE_SIZE) {
+            return false;
+        }
+        IFileHandle handle = ioManager.open(new FileReference(file), FileReadWriteMode.READ_ONLY,
+                FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        try {
+            ByteBuffer buf = ByteBuffer.allocate(PAGE_SIZE);
+            for (int p = 0; p < PAGES_PER_FILE; p++) {
+                buf.clear();
+                ioManager.syncRead(handle, (long) p * PAGE_SIZE, buf);
+                for (int i = 0; i < PAGE_SIZE; i += 4) {
+                    if (buf.getInt(i) != f * PAGES_PER_FILE + p) {
+                        return false;
+                    }
+                }
+            }
+        } finally {
+            ioManager.close(handle);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.HyracksException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IFileHandle;
+import org.apache.hyracks.api.io.IIOManager.FileReadWriteMode;
+import org.apache.hyracks.api.io.IIOManager.FileSyncMode;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.control.nc.io.IOManager;
+import org.apache.hyracks.storage.common.buffercache.BufferCache;
+import org.apache.hyracks.storage.common.buffercache.ClockPageReplacementStrategy;
+import org.apache.hyracks.storage.common.buffercache.DelayPageCleanerPolicy;
+import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.TransientFileMapManager;
+
+public class BufferCachePrefetchTest {
+    protected static final String tmpDir = System.getProperty("java.io.tmpdir");
+
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 256;
+    private static final int FILE_PAGES = 24;
+    private static final int PREFETCH_START_PAGE = 4;
+    private static final int PREFETCH_PAGES = 16;
+    private static final int MAX_OPEN_FILES = 10;
+    private static final long MAX_WAIT_TIME = 10000;
+
+    private static final ThreadFactory threadFactory = new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+            return new Thread(r);
+        }
+    };
+
+    private static class CountingIOManager extends IOManager {
+        private final AtomicInteger pageReads = new AtomicInteger();
+        private final AtomicInteger multiPageReads = new AtomicInteger();
+
+        public CountingIOManager(List<IODeviceHandle> devices) throws HyracksException {
+            super(devices, Executors.newCachedThreadPool());
+        }
+
+        @Override
+        public int syncRead(IFileHandle fHandle, long offset, ByteBuffer data) throws HyracksDataException {
+            if (data.remaining() > PAGE_SIZE) {
+                multiPageReads.incrementAndGet();
+            } else {
+                pageReads.incrementAndGet();
+            }
+            return super.syncRead(fHandle, offset, data);
+        }
+    }
+
+    @Test
+    public void prefetchReadsConsecutivePagesAtOnce() throws Exception {
+        List<IODeviceHandle> devices = new ArrayList<IODeviceHandle>();
+        devices.add(new IODeviceHandle(new File(tmpDir), "iodev_test_prefetch"));
+        CountingIOManager ioManager = new CountingIOManager(devices);
+        TransientFileMapManager fileMapManager = new TransientFileMapManager();
+        BufferCache bufferCache = new BufferCache(ioManager, new ClockPageReplacementStrategy(
+                new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES), new DelayPageCleanerPolicy(1000), fileMapManager,
+                MAX_OPEN_FILES, threadFactory);
+
+        File file = File.createTempFile("prefetchTest", null, new File(tmpDir));
+        file.deleteOnExit();
+        writeFile(ioManager, file);
+        FileReference fileRef = new FileReference(file);
+        bufferCache.createFile(fileRef);
+        int fileId = fileMapManager.lookupFileId(fileRef);
+        bufferCache.openFile(fileId);
+
+        bufferCache.prefetch(fileId, PREFETCH_START_PAGE, PREFETCH_PAGES);
+        long deadline = System.currentTimeMillis() + MAX_WAIT_TIME;
+        while (ioManager.multiPageReads.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, ioManager.multiPageReads.get());
+        // Give the prefetch time to copy the pages it read into the cache.
+        Thread.sleep(200);
+
+        for (int p = 0; p < FILE_PAGES; p++) {
+            ICachedPage page = bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, p), false);
+            page.acquireReadLatch();
+            try {
+                Assert.assertEquals(p, page.getBuffer().getInt(0));
+                Assert.assertEquals(p, page.getBuffer().getInt(PAGE_SIZE - 4));
+            } finally {
+                page.releaseReadLatch();
+                bufferCache.unpin(page);
+            }
+        }
+        // Only the pages outside of the prefetched range were read one by one.
+        Assert.assertEquals(FILE_PAGES - PREFETCH_PAGES, ioManager.pageReads.get());
+
+        // A prefetch past the end of the file leaves the missing pages to the regular reads.
+        bufferCache.prefetch(fileId, FILE_PAGES - 2, PREFETCH_PAGES);
+        bufferCache.closeFile(fileId);
+        bufferCache.deleteFile(fileId, false);
+        bufferCache.close();
+    }
+
+    @Test(timeout = MAX_WAIT_TIME)
+    public void prefetchDoesNotWaitForAFullCache() throws Exception {
+        List<IODeviceHandle> devices = new ArrayList<IODeviceHandle>();
+        devices.add(new IODeviceHandle(new File(tmpDir), "iodev_test_prefetch"));
+        CountingIOManager ioManager = new CountingIOManager(devices);
+        TransientFileMapManager fileMapManager = new TransientFileMapManager();
+        BufferCache bufferCache = new BufferCache(ioManager, new ClockPageReplacementStrategy(
+                new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES), new DelayPageCleanerPolicy(1000), fileMapManager,
+                MAX_OPEN_FILES, threadFactory);
+
+        File file = File.createTempFile("prefetchTest", null, new File(tmpDir));
+        file.deleteOnExit();
+        writeFile(ioManager, file);
+        FileReference fileRef = new FileReference(file);
+        bufferCache.createFile(fileRef);
+        int fileId = fileMapManager.lookupFileId(fileRef);
+        bufferCache.openFile(fileId);
+
+        // Every page of the cache is pinned, so the prefetches cannot find a victim.
+        List<ICachedPage> pinned = new ArrayList<ICachedPage>();
+        for (int p = 0; p < NUM_PAGES; p++) {
+            pinned.add(bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, FILE_PAGES + p), true));
+        }
+        for (int i = 0; i < 2 * NUM_PAGES; i++) {
+            bufferCache.prefetch(fileId, 0, PREFETCH_PAGES);
+        }
+        // Give the prefetches time to give up while the pages are still pinned.
+        Thread.sleep(200);
+        for (ICachedPage page : pinned) {
+            bufferCache.unpin(page);
+        }
+        Assert.assertEquals(0, ioManager.multiPageReads.get());
+
+        bufferCache.closeFile(fileId);
+        bufferCache.deleteFile(fileId, false);
+        bufferCache.close();
+    }
+
+    private void writeFile(IOManager ioManager, File file) throws HyracksDataException {
+        IFileHandle handle = ioManager.open(new FileReference(file), FileReadWriteMode.READ_WRITE,
+                FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
+        try {
+            ByteBuffer buf = ByteBuffer.allocate(PAGE_SIZE);
+            for (int p = 0; p < FILE_PAGES; p++) {
+                buf.clear();
+                for (int i = 0; i < PAGE_SIZE; i += 4) {
+                    buf.putInt(i, p);
+                }
+                ioManager.syncWrite(handle, (long) p * PAGE_SIZE, buf);
+            }
+        } finally {
+            ioManager.close(handle);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.storage.common;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.io.IODeviceHandle;
+import org.apache.hyracks.control.nc.io.IOManager;
+import org.apache.hyracks.storage.common.buffercache.BufferCache;
+import org.apache.hyracks.storage.common.buffercache.DelayPageCleanerPolicy;
+import org.apache.hyracks.storage.common.buffercache.HeapBufferAllocator;
+import org.apache.hyracks.storage.common.buffercache.ICachedPage;
+import org.apache.hyracks.storage.common.buffercache.PageReplacementStrategyType;
+import org.apache.hyracks.storage.common.file.BufferedFileHandle;
+import org.apache.hyracks.storage.common.file.TransientFileMapManager;
+
+public class HotColdClockPageReplacementStrategyTest {
+    protected static final String tmpDir = System.getProperty("java.io.tmpdir");
+
+    private static final int PAGE_SIZE = 256;
+    private static final int NUM_PAGES = 20;
+    private static final int WORKING_SET_PAGES = 10;
+    private static final int SCAN_PAGES = 10 * NUM_PAGES;
+    private static final int MAX_OPEN_FILES = 10;
+
+    private static final ThreadFactory threadFactory = new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+            return new Thread(r);
+        }
+    };
+
+    private TransientFileMapManager fileMapManager;
+    private BufferCache bufferCache;
+    private int workingSetFileId;
+    private int scanFileId;
+
+    @Before
+    public void setUp() throws Exception {
+        List<IODeviceHandle> devices = new ArrayList<IODeviceHandle>();
+        devices.add(new IODeviceHandle(new File(tmpDir), "iodev_test_hotcold"));
+        IOManager ioManager = new IOManager(devices, Executors.newCachedThreadPool());
+        fileMapManager = new TransientFileMapManager();
+        bufferCache = new BufferCache(ioManager, PageReplacementStrategyType.HOT_COLD_CLOCK.createStrategy(
+                new HeapBufferAllocator(), PAGE_SIZE, NUM_PAGES), new DelayPageCleanerPolicy(1000), fileMapManager,
+                MAX_OPEN_FILES, threadFactory);
+        workingSetFileId = createFile();
+        scanFileId = createFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        bufferCache.closeFile(workingSetFileId);
+        bufferCache.closeFile(scanFileId);
+        bufferCache.close();
+    }
+
+    @Test
+    public void reReferencedPagesSurviveScan() throws Exception {
+        // Touching the working set twice makes it hot.
+        touch(workingSetFileId, WORKING_SET_PAGES);
+        touch(workingSetFileId, WORKING_SET_PAGES);
+        touch(scanFileId, SCAN_PAGES);
+        assertCached(workingSetFileId, WORKING_SET_PAGES);
+    }
+
+    @Test
+    public void pinOnceScanRecyclesItsOwnPages() throws Exception {
+        // The working set is only touched once, so it is cold, but the scan pages are evicted first.
+        touch(workingSetFileId, WORKING_SET_PAGES);
+        for (int i = 0; i < SCAN_PAGES; i++) {
+            bufferCache.unpin(bufferCache.pinOnce(BufferedFileHandle.getDiskPageId(scanFileId, i)));
+        }
+        assertCached(workingSetFileId, WORKING_SET_PAGES);
+    }
+
+    @Test
+    public void unknownStrategyNameIsRejected() {
+        Assert.assertEquals(PageReplacementStrategyType.HOT_COLD_CLOCK,
+                PageReplacementStrategyType.fromName("hot-cold-clock"));
+        try {
+            PageReplacementStrategyType.fromName("lru");
+            Assert.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private int createFile() throws Exception {
+        File file = File.createTempFile("hotColdTest", null, new File(tmpDir));
+        file.deleteOnExit();
+        FileReference fileRef = new FileReference(file);
+        bufferCache.createFile(fileRef);
+        int fileId = fileMapManager.lookupFileId(fileRef);
+        bufferCache.openFile(fileId);
+        return fileId;
+    }
+
+    private void touch(int fileId, int numPages) throws HyracksDataException {
+        for (int i = 0; i < numPages; i++) {
+            bufferCache.unpin(bufferCache.pin(BufferedFileHandle.getDiskPageId(fileId, i), false));
+        }
+    }
+
+    private void assertCached(int fileId, int numPages) throws HyracksDataException {
+        for (int i = 0; i < numPages; i++) {
+            ICachedPage page = bufferCache.tryPin(BufferedFileHandle.getDiskPageId(fileId, i));
+            Assert.assertNotNull("Page " + i + " was evicted", page);
+            bufferCache.unpin(page);
+        }
+    }
+}